@@ -17,6 +17,8 @@ package org.gradle.internal.concurrent
 
 import spock.lang.Specification
 
+import java.util.concurrent.atomic.AtomicInteger
+
 class DefaultExecutorFactorySpec extends Specification {
 
     def factory = new DefaultExecutorFactory()
@@ -45,4 +47,26 @@ class DefaultExecutorFactorySpec extends Specification {
         def ex = thrown(RuntimeException)
         ex.is(failure1)
     }
+
+    def fixedSizeExecutorRunsAtMostTheGivenNumberOfTasksConcurrently() {
+        given:
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def runnable = {
+            def count = running.incrementAndGet()
+            synchronized (maxRunning) {
+                maxRunning.set(Math.max(maxRunning.get(), count))
+            }
+            Thread.sleep(50)
+            running.decrementAndGet()
+        }
+
+        when:
+        def executor = factory.create('', 2)
+        6.times { executor.execute(runnable) }
+        executor.stop()
+
+        then:
+        maxRunning.get() == 2
+    }
 }
@@ -60,9 +60,11 @@ import org.gradle.api.internal.file.IdentityFileResolver;
 import org.gradle.api.internal.filestore.ivy.ArtifactRevisionIdFileStore;
 import org.gradle.api.internal.notations.*;
 import org.gradle.api.internal.notations.api.NotationParser;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.cache.CacheRepository;
 import org.gradle.internal.Factory;
 import org.gradle.internal.SystemProperties;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.listener.ListenerManager;
@@ -124,7 +126,8 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
                         clientModuleDescriptorFactory
                 ),
                 new ProjectDependencyDescriptorFactory(
-                        get(ExcludeRuleConverter.class)),
+                        get(ExcludeRuleConverter.class),
+                        get(ProjectAccessListener.class)),
                 get(ExternalModuleDependencyDescriptorFactory.class));
         clientModuleDescriptorFactory.setDependencyDescriptorFactory(dependencyDescriptorFactoryDelegate);
         return dependencyDescriptorFactoryDelegate;
@@ -135,13 +138,17 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
 
         ProjectDependenciesBuildInstruction projectDependenciesBuildInstruction = new ProjectDependenciesBuildInstruction(get(StartParameter.class).isBuildProjectDependencies());
 
+        ProjectAccessListener projectAccessListener = get(ProjectAccessListener.class);
+
         ProjectDependencyFactory projectDependencyFactory = new ProjectDependencyFactory(
                 projectDependenciesBuildInstruction,
-                instantiator);
+                instantiator,
+                projectAccessListener);
 
         DependencyProjectNotationParser projParser = new DependencyProjectNotationParser(
                 projectDependenciesBuildInstruction,
-                instantiator);
+                instantiator,
+                projectAccessListener);
 
         NotationParser<? extends Dependency> moduleMapParser = new DependencyMapNotationParser<DefaultExternalModuleDependency>(instantiator, DefaultExternalModuleDependency.class);
         NotationParser<? extends Dependency> moduleStringParser = new DependencyStringNotationParser<DefaultExternalModuleDependency>(instantiator, DefaultExternalModuleDependency.class);
@@ -342,7 +349,8 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
                     get(BuildCommencedTimeProvider.class));
 
             ResolvedArtifactFactory resolvedArtifactFactory = new ResolvedArtifactFactory(
-                    get(CacheLockingManager.class)
+                    get(CacheLockingManager.class),
+                    get(ExecutorFactory.class)
             );
 
             ArtifactDependencyResolver resolver = new DefaultDependencyResolver(
@@ -350,7 +358,9 @@ public class DefaultDependencyManagementServices extends DefaultServiceRegistry
                     get(PublishModuleDescriptorConverter.class),
                     resolvedArtifactFactory,
                     new DefaultProjectModuleRegistry(
-                            get(PublishModuleDescriptorConverter.class))
+                            get(PublishModuleDescriptorConverter.class)),
+                    get(ExecutorFactory.class),
+                    get(CacheLockingManager.class)
             );
             return new ErrorHandlingArtifactDependencyResolver(
                     new ShortcircuitEmptyConfigsArtifactDependencyResolver(
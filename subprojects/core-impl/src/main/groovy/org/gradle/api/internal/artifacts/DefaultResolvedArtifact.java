@@ -38,6 +38,7 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
     private final String ext;
     private Factory<File> artifactSource;
     private File file;
+    private RuntimeException failure;
 
     public DefaultResolvedArtifact(ResolvedDependency resolvedDependency, Artifact artifact, Factory<File> artifactSource) {
         this.resolvedDependency = resolvedDependency;
@@ -112,10 +113,29 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
         return extraAttributes.get(Dependency.CLASSIFIER);
     }
     
-    public File getFile() {
-        if (file == null) {
-            file = artifactSource.create();
-            artifactSource = null;
+    /**
+     * Returns true when the file for this artifact has been resolved, or could not be resolved.
+     */
+    public synchronized boolean isResolved() {
+        return artifactSource == null;
+    }
+
+    /**
+     * Returns the file for this artifact, resolving it if required. When the file cannot be resolved, the failure is kept and is thrown again by
+     * later calls, rather than attempting to resolve the file again.
+     */
+    public synchronized File getFile() {
+        if (artifactSource != null) {
+            try {
+                file = artifactSource.create();
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                artifactSource = null;
+            }
+        }
+        if (failure != null) {
+            throw failure;
         }
         return file;
     }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.internal.Factory;
+import org.gradle.internal.Stoppable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs actions against the artifact cache using a pool of threads. Each action holds the cache lock while it runs, so actions can only overlap
+ * while they perform long running operations, such as network requests.
+ *
+ * <p>The methods of this executor must be called from an action run by {@link CacheLockingManager#useCache(String, org.gradle.internal.Factory)}.
+ */
+public class CacheLockingExecutor implements Stoppable {
+    private final StoppableExecutor executor;
+    private final CacheLockingManager cacheLockingManager;
+    private final List<FutureTask<?>> tasks = new ArrayList<FutureTask<?>>();
+
+    public CacheLockingExecutor(StoppableExecutor executor, CacheLockingManager cacheLockingManager) {
+        this.executor = executor;
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    /**
+     * Schedules the given action to run against the cache. Use {@link #waitFor(String, java.util.concurrent.FutureTask)} to collect the result.
+     */
+    public <T> FutureTask<T> start(final String displayName, final Factory<? extends T> action) {
+        FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            public T call() {
+                return cacheLockingManager.useCache(displayName, action);
+            }
+        });
+        synchronized (tasks) {
+            tasks.add(task);
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Waits for the result of the given action, rethrowing any failure. Runs the action in the calling thread if it has not been started yet.
+     * Releases the cache lock while waiting for an action running in another thread.
+     */
+    public <T> T waitFor(String displayName, final FutureTask<T> task) {
+        task.run();
+        if (!task.isDone()) {
+            return cacheLockingManager.longRunningOperation(displayName, new Factory<T>() {
+                public T create() {
+                    return getResult(task);
+                }
+            });
+        }
+        return getResult(task);
+    }
+
+    private <T> T getResult(FutureTask<T> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    /**
+     * Discards the actions which have not been started, and waits for the running actions to complete.
+     */
+    public void stop() {
+        synchronized (tasks) {
+            for (FutureTask<?> task : tasks) {
+                task.cancel(false);
+            }
+            tasks.clear();
+        }
+        cacheLockingManager.longRunningOperation("wait for running cache actions", new Runnable() {
+            public void run() {
+                executor.stop();
+            }
+        });
+    }
+}
@@ -28,15 +28,17 @@ import java.util.*;
 public class DefaultLenientConfiguration implements ResolvedConfigurationBuilder, LenientConfiguration {
     private final ResolvedDependency root;
     private final Configuration configuration;
+    private final ResolvedArtifactFactory resolvedArtifactFactory;
     private final Map<ModuleDependency, ResolvedDependency> firstLevelDependencies = new LinkedHashMap<ModuleDependency, ResolvedDependency>();
     private final Set<ResolvedArtifact> artifacts = new LinkedHashSet<ResolvedArtifact>();
     private final Set<UnresolvedDependency> unresolvedDependencies = new LinkedHashSet<UnresolvedDependency>();
     private final CachingDirectedGraphWalker<ResolvedDependency, ResolvedArtifact> walker
             = new CachingDirectedGraphWalker<ResolvedDependency, ResolvedArtifact>(new ResolvedDependencyArtifactsGraph());
 
-    public DefaultLenientConfiguration(Configuration configuration, ResolvedDependency root) {
+    public DefaultLenientConfiguration(Configuration configuration, ResolvedDependency root, ResolvedArtifactFactory resolvedArtifactFactory) {
         this.configuration = configuration;
         this.root = root;
+        this.resolvedArtifactFactory = resolvedArtifactFactory;
     }
 
     public boolean hasError() {
@@ -108,6 +110,7 @@ public class DefaultLenientConfiguration implements ResolvedConfigurationBuilder
      */
     public Set<ResolvedArtifact> getArtifacts(Spec<? super Dependency> dependencySpec) {
         Set<ResolvedArtifact> allArtifacts = getAllArtifacts(dependencySpec);
+        resolvedArtifactFactory.resolveFiles(allArtifacts);
         return CollectionUtils.filter(allArtifacts, new Spec<ResolvedArtifact>() {
             public boolean isSatisfiedBy(ResolvedArtifact element) {
                 try {
@@ -121,6 +124,7 @@ public class DefaultLenientConfiguration implements ResolvedConfigurationBuilder
     }
 
     private Set<File> getFiles(Set<ResolvedArtifact> artifacts) {
+        resolvedArtifactFactory.resolveFiles(artifacts);
         Set<File> files = new LinkedHashSet<File>();
         for (ResolvedArtifact artifact : artifacts) {
             File depFile = artifact.getFile();
@@ -20,14 +20,25 @@ import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.artifacts.ResolvedDependency;
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.FutureTask;
 
 public class ResolvedArtifactFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResolvedArtifactFactory.class);
+    private static final int MAX_CONCURRENT_DOWNLOADS = 8;
     private final CacheLockingManager lockingManager;
+    private final ExecutorFactory executorFactory;
 
-    public ResolvedArtifactFactory(CacheLockingManager lockingManager) {
+    public ResolvedArtifactFactory(CacheLockingManager lockingManager, ExecutorFactory executorFactory) {
         this.lockingManager = lockingManager;
+        this.executorFactory = executorFactory;
     }
 
     public ResolvedArtifact create(ResolvedDependency owner, final Artifact artifact, final ArtifactResolver resolver) {
@@ -41,4 +52,45 @@ public class ResolvedArtifactFactory {
             }
         });
     }
+
+    /**
+     * Resolves the files of the given artifacts concurrently. Failures are not reported here. Each failure is kept by its artifact, and is thrown
+     * when the file of that artifact is requested.
+     */
+    public void resolveFiles(Collection<? extends ResolvedArtifact> artifacts) {
+        final List<DefaultResolvedArtifact> unresolved = new ArrayList<DefaultResolvedArtifact>();
+        for (ResolvedArtifact artifact : artifacts) {
+            if (artifact instanceof DefaultResolvedArtifact && !((DefaultResolvedArtifact) artifact).isResolved()) {
+                unresolved.add((DefaultResolvedArtifact) artifact);
+            }
+        }
+        if (unresolved.size() < 2) {
+            return;
+        }
+
+        lockingManager.useCache(String.format("download %s artifacts", unresolved.size()), new Runnable() {
+            public void run() {
+                CacheLockingExecutor executor = new CacheLockingExecutor(executorFactory.create("Artifact download", MAX_CONCURRENT_DOWNLOADS), lockingManager);
+                try {
+                    List<FutureTask<File>> tasks = new ArrayList<FutureTask<File>>();
+                    for (final DefaultResolvedArtifact artifact : unresolved) {
+                        tasks.add(executor.start(String.format("download %s", artifact), new Factory<File>() {
+                            public File create() {
+                                return artifact.getFile();
+                            }
+                        }));
+                    }
+                    for (int i = 0; i < tasks.size(); i++) {
+                        try {
+                            executor.waitFor(String.format("wait for download of %s", unresolved.get(i)), tasks.get(i));
+                        } catch (Exception e) {
+                            LOGGER.debug(String.format("Could not download %s.", unresolved.get(i)), e);
+                        }
+                    }
+                } finally {
+                    executor.stop();
+                }
+            }
+        });
+    }
 }
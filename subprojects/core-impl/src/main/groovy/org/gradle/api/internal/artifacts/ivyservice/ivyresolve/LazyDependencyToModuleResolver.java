@@ -39,9 +39,7 @@ public class LazyDependencyToModuleResolver implements DependencyToModuleVersion
 
     public ModuleVersionIdResolveResult resolve(DependencyDescriptor dependencyDescriptor) {
         if (versionMatcher.isDynamic(dependencyDescriptor.getDependencyRevisionId())) {
-            DynamicVersionResolveResult result = new DynamicVersionResolveResult(dependencyDescriptor);
-            result.resolve();
-            return result;
+            return new DynamicVersionResolveResult(dependencyDescriptor);
         }
         return new StaticVersionResolveResult(dependencyDescriptor);
     }
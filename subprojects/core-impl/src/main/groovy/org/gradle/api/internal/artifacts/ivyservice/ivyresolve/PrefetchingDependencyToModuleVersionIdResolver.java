@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.version.VersionMatcher;
+import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ProjectDependencyDescriptor;
+import org.gradle.internal.Factory;
+
+import java.util.concurrent.FutureTask;
+
+/**
+ * A {@link DependencyToModuleVersionIdResolver} implementation which starts resolving the meta-data for each dependency in the background, as soon
+ * as the dependency is discovered. Project dependencies are resolved in the calling thread, as the project model is not thread-safe.
+ */
+public class PrefetchingDependencyToModuleVersionIdResolver implements DependencyToModuleVersionIdResolver {
+    private final DependencyToModuleVersionIdResolver resolver;
+    private final VersionMatcher versionMatcher;
+    private final CacheLockingExecutor executor;
+
+    public PrefetchingDependencyToModuleVersionIdResolver(DependencyToModuleVersionIdResolver resolver, VersionMatcher versionMatcher, CacheLockingExecutor executor) {
+        this.resolver = resolver;
+        this.versionMatcher = versionMatcher;
+        this.executor = executor;
+    }
+
+    public ModuleVersionIdResolveResult resolve(DependencyDescriptor dependencyDescriptor) {
+        final ModuleVersionIdResolveResult result = resolver.resolve(dependencyDescriptor);
+        if (dependencyDescriptor instanceof ProjectDependencyDescriptor) {
+            return result;
+        }
+        final String displayName = String.format("resolve %s", dependencyDescriptor.getDependencyRevisionId());
+        FutureTask<ModuleVersionResolveResult> task = executor.start(displayName, new Factory<ModuleVersionResolveResult>() {
+            public ModuleVersionResolveResult create() {
+                return result.resolve();
+            }
+        });
+        boolean dynamic = versionMatcher.isDynamic(dependencyDescriptor.getDependencyRevisionId());
+        return new PrefetchedResolveResult(displayName, result, task, dynamic);
+    }
+
+    private class PrefetchedResolveResult implements ModuleVersionIdResolveResult {
+        private final String displayName;
+        private final ModuleVersionIdResolveResult result;
+        private final FutureTask<ModuleVersionResolveResult> task;
+        private final boolean dynamic;
+
+        public PrefetchedResolveResult(String displayName, ModuleVersionIdResolveResult result, FutureTask<ModuleVersionResolveResult> task, boolean dynamic) {
+            this.displayName = displayName;
+            this.result = result;
+            this.task = task;
+            this.dynamic = dynamic;
+        }
+
+        public ModuleVersionResolveException getFailure() {
+            // The id of a dynamic version is only known once the meta-data has been resolved
+            if (dynamic) {
+                resolve();
+            }
+            return result.getFailure();
+        }
+
+        public ModuleRevisionId getId() throws ModuleVersionResolveException {
+            if (dynamic) {
+                resolve();
+            }
+            return result.getId();
+        }
+
+        public ModuleVersionResolveResult resolve() {
+            return executor.waitFor(displayName, task);
+        }
+    }
+}
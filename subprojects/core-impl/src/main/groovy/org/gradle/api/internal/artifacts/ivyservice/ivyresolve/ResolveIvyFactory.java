@@ -23,6 +23,7 @@ import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.gradle.api.artifacts.cache.ResolutionRules;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.configurations.ResolverProvider;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingExecutor;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.IvyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.SettingsConverter;
@@ -63,8 +64,8 @@ public class ResolveIvyFactory {
         this.timeProvider = timeProvider;
     }
 
-    public IvyAdapter create(ConfigurationInternal configuration) {
-        UserResolverChain userResolverChain = new UserResolverChain();
+    public IvyAdapter create(ConfigurationInternal configuration, CacheLockingExecutor executor) {
+        UserResolverChain userResolverChain = new UserResolverChain(executor);
         ResolutionRules resolutionRules = configuration.getResolutionStrategy().getResolutionRules();
         startParameterResolutionOverride.addResolutionRules(resolutionRules);
 
@@ -24,6 +24,7 @@ import org.apache.ivy.plugins.latest.ArtifactInfo;
 import org.apache.ivy.plugins.latest.ComparatorLatestStrategy;
 import org.apache.ivy.plugins.resolver.ResolverSettings;
 import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.internal.Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,14 +32,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.FutureTask;
 
 public class UserResolverChain implements DependencyToModuleResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserResolverChain.class);
 
     private final List<ModuleVersionRepository> moduleVersionRepositories = new ArrayList<ModuleVersionRepository>();
     private final List<String> moduleVersionRepositoryNames = new ArrayList<String>();
+    private final CacheLockingExecutor executor;
     private ResolverSettings settings;
 
+    public UserResolverChain(CacheLockingExecutor executor) {
+        this.executor = executor;
+    }
+
     public void setSettings(ResolverSettings settings) {
         this.settings = settings;
     }
@@ -66,7 +73,10 @@ public class UserResolverChain implements DependencyToModuleResolver {
 
     private ModuleResolution findLatestModule(DependencyDescriptor dependencyDescriptor, Collection<Throwable> failures) {
         boolean isStaticVersion = !settings.getVersionMatcher().isDynamic(dependencyDescriptor.getDependencyRevisionId());
-        
+        if (!isStaticVersion && moduleVersionRepositories.size() > 1) {
+            return findLatestModuleConcurrently(dependencyDescriptor, failures);
+        }
+
         ModuleResolution best = null;
         for (ModuleVersionRepository repository : moduleVersionRepositories) {
             try {
@@ -86,6 +96,39 @@ public class UserResolverChain implements DependencyToModuleResolver {
         return best;
     }
 
+    /**
+     * Queries all repositories at the same time, then chooses the best match in repository order, so that the result does not depend on
+     * which repository responds first.
+     */
+    private ModuleResolution findLatestModuleConcurrently(final DependencyDescriptor dependencyDescriptor, Collection<Throwable> failures) {
+        List<FutureTask<ModuleResolution>> tasks = new ArrayList<FutureTask<ModuleResolution>>();
+        List<String> displayNames = new ArrayList<String>();
+        for (final ModuleVersionRepository repository : moduleVersionRepositories) {
+            String displayName = String.format("resolve %s using repository '%s'", dependencyDescriptor.getDependencyRevisionId(), repository.getName());
+            displayNames.add(displayName);
+            tasks.add(executor.start(displayName, new Factory<ModuleResolution>() {
+                public ModuleResolution create() {
+                    ModuleVersionDescriptor module = repository.getDependency(dependencyDescriptor);
+                    return module == null ? null : new ModuleResolution(repository, module);
+                }
+            }));
+        }
+
+        ModuleResolution best = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                ModuleResolution moduleResolution = executor.waitFor(displayNames.get(i), tasks.get(i));
+                if (moduleResolution != null) {
+                    best = chooseBest(best, moduleResolution);
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        }
+
+        return best;
+    }
+
     private ModuleResolution chooseBest(ModuleResolution one, ModuleResolution two) {
         if (one == null || two == null) {
             return two == null ? one : two;
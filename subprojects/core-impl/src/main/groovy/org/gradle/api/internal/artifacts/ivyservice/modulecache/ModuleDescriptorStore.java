@@ -30,16 +30,28 @@ import java.net.URL;
 public class ModuleDescriptorStore {
 
     private final ModuleDescriptorFileStore moduleDescriptorFileStore;
+    private final ParsedModuleDescriptorCache parsedDescriptors;
     private final XmlModuleDescriptorParser parser = XmlModuleDescriptorParser.getInstance();
 
-    public ModuleDescriptorStore(ModuleDescriptorFileStore moduleDescriptorFileStore) {
+    public ModuleDescriptorStore(ModuleDescriptorFileStore moduleDescriptorFileStore, ParsedModuleDescriptorCache parsedDescriptors) {
         this.moduleDescriptorFileStore = moduleDescriptorFileStore;
+        this.parsedDescriptors = parsedDescriptors;
     }
 
-    public ModuleDescriptor getModuleDescriptor(ModuleVersionRepository repository, ModuleRevisionId moduleRevisionId) {
+    /**
+     * Returns the stored descriptor for the given module, or null if there is none. The timestamp of the cache entry which refers to the
+     * descriptor is used to decide whether a descriptor parsed by an earlier build is still current.
+     */
+    public ModuleDescriptor getModuleDescriptor(ModuleVersionRepository repository, ModuleRevisionId moduleRevisionId, long createTimestamp) {
         File moduleDescriptorFile = moduleDescriptorFileStore.getModuleDescriptorFile(repository, moduleRevisionId);
+        ModuleDescriptor descriptor = parsedDescriptors.get(moduleDescriptorFile, createTimestamp);
+        if (descriptor != null) {
+            return descriptor;
+        }
         if (moduleDescriptorFile.exists()) {
-            return parseModuleDescriptorFile(moduleDescriptorFile);
+            descriptor = parseModuleDescriptorFile(moduleDescriptorFile);
+            parsedDescriptors.put(moduleDescriptorFile, createTimestamp, descriptor);
+            return descriptor;
         }
         return null;
     }
@@ -56,6 +68,7 @@ public class ModuleDescriptorStore {
 
     public void putModuleDescriptor(ModuleVersionRepository repository, ModuleDescriptor moduleDescriptor) {
         File moduleDescriptorFile = moduleDescriptorFileStore.getModuleDescriptorFile(repository, moduleDescriptor.getModuleRevisionId());
+        parsedDescriptors.remove(moduleDescriptorFile);
         try {
             XmlModuleDescriptorWriter.write(moduleDescriptor, moduleDescriptorFile);
         } catch (Exception e) {
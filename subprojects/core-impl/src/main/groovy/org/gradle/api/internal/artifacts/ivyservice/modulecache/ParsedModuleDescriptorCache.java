@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory cache of parsed module descriptor files, shared by all builds run in this process. A descriptor is reused only while its
+ * file has the same length and modification time, and its cache entry has the same creation timestamp, as when it was parsed. A module
+ * which is refreshed from its repository is written again with a new timestamp, so is parsed again. Descriptors are softly referenced,
+ * so they can be discarded when memory is low.
+ */
+public class ParsedModuleDescriptorCache {
+    private static final int MAX_ENTRIES = 5000;
+    private static final ParsedModuleDescriptorCache INSTANCE = new ParsedModuleDescriptorCache(MAX_ENTRIES);
+
+    private final Map<File, CachedDescriptor> descriptors;
+
+    public ParsedModuleDescriptorCache(final int maxEntries) {
+        descriptors = new LinkedHashMap<File, CachedDescriptor>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, CachedDescriptor> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static ParsedModuleDescriptorCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the descriptor previously parsed from the given file, or null if the file has changed since, or has not been parsed.
+     */
+    public synchronized ModuleDescriptor get(File descriptorFile, long createTimestamp) {
+        CachedDescriptor cached = descriptors.get(descriptorFile);
+        if (cached == null) {
+            return null;
+        }
+        ModuleDescriptor descriptor = cached.descriptor.get();
+        if (descriptor == null || !cached.isUpToDate(descriptorFile, createTimestamp)) {
+            descriptors.remove(descriptorFile);
+            return null;
+        }
+        return descriptor;
+    }
+
+    public synchronized void put(File descriptorFile, long createTimestamp, ModuleDescriptor descriptor) {
+        descriptors.put(descriptorFile, new CachedDescriptor(descriptorFile, createTimestamp, descriptor));
+    }
+
+    public synchronized void remove(File descriptorFile) {
+        descriptors.remove(descriptorFile);
+    }
+
+    private static class CachedDescriptor {
+        private final long createTimestamp;
+        private final long lastModified;
+        private final long length;
+        private final SoftReference<ModuleDescriptor> descriptor;
+
+        private CachedDescriptor(File descriptorFile, long createTimestamp, ModuleDescriptor descriptor) {
+            this.createTimestamp = createTimestamp;
+            this.lastModified = descriptorFile.lastModified();
+            this.length = descriptorFile.length();
+            this.descriptor = new SoftReference<ModuleDescriptor>(descriptor);
+        }
+
+        boolean isUpToDate(File descriptorFile, long createTimestamp) {
+            return this.createTimestamp == createTimestamp && lastModified == descriptorFile.lastModified() && length == descriptorFile.length();
+        }
+    }
+}
@@ -22,14 +22,18 @@ import org.gradle.api.artifacts.ModuleDependency;
 import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.internal.artifacts.ivyservice.IvyUtil;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.ExcludeRuleConverter;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.api.internal.project.ProjectInternal;
 
 /**
  * @author Hans Dockter
  */
 public class ProjectDependencyDescriptorFactory extends AbstractDependencyDescriptorFactoryInternal {
-    public ProjectDependencyDescriptorFactory(ExcludeRuleConverter excludeRuleConverter) {
+    private final ProjectAccessListener projectAccessListener;
+
+    public ProjectDependencyDescriptorFactory(ExcludeRuleConverter excludeRuleConverter, ProjectAccessListener projectAccessListener) {
         super(excludeRuleConverter);
+        this.projectAccessListener = projectAccessListener;
     }
 
     public EnhancedDependencyDescriptor createDependencyDescriptor(ModuleDependency dependency, String configuration, ModuleDescriptor parent,
@@ -46,7 +50,9 @@ public class ProjectDependencyDescriptorFactory extends AbstractDependencyDescri
 
     public ModuleRevisionId createModuleRevisionId(ModuleDependency dependency) {
         ProjectDependency projectDependency = (ProjectDependency) dependency;
-        Module module = ((ProjectInternal) projectDependency.getDependencyProject()).getModule();
+        ProjectInternal dependencyProject = (ProjectInternal) projectDependency.getDependencyProject();
+        projectAccessListener.beforeResolvingProjectDependency(dependencyProject);
+        Module module = dependencyProject.getModule();
         return IvyUtil.createModuleRevisionId(module);
     }
 }
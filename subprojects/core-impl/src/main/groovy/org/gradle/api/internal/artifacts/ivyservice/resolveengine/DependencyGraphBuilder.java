@@ -57,7 +57,7 @@ public class DependencyGraphBuilder {
         ResolveState resolveState = new ResolveState(moduleDescriptor, configuration.getName(), dependencyResolver, resolveData);
         traverseGraph(resolveState);
 
-        DefaultLenientConfiguration result = new DefaultLenientConfiguration(configuration, resolveState.root.getResult());
+        DefaultLenientConfiguration result = new DefaultLenientConfiguration(configuration, resolveState.root.getResult(), resolvedArtifactFactory);
         assembleResult(resolveState, result, listener);
 
         return result;
@@ -81,6 +81,11 @@ public class DependencyGraphBuilder {
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
 
+                // Start resolving the target of each edge up front, so that the meta-data can be fetched concurrently
+                for (DependencyEdge dependency : dependencies) {
+                    dependency.prefetch();
+                }
+
                 for (DependencyEdge dependency : dependencies) {
                     LOGGER.debug("Visiting dependency {}", dependency);
 
@@ -288,6 +293,12 @@ public class DependencyGraphBuilder {
             return targetModuleRevision;
         }
 
+        public void prefetch() {
+            if (targetModuleRevision == null) {
+                resolveState.getSelector(dependencyDescriptor).prefetch();
+            }
+        }
+
         public void resolveModuleRevisionId() {
             if (targetModuleRevision == null) {
                 selector = resolveState.getSelector(dependencyDescriptor);
@@ -899,6 +910,15 @@ public class DependencyGraphBuilder {
             return descriptor.toString();
         }
 
+        /**
+         * Starts resolving this selector, without waiting for the result.
+         */
+        public void prefetch() {
+            if (idResolveResult == null && failure == null) {
+                idResolveResult = resolver.resolve(descriptor);
+            }
+        }
+
         /**
          * @return The module version, or null if there is a failure to resolve this selector.
          */
@@ -910,7 +930,7 @@ public class DependencyGraphBuilder {
                 return null;
             }
 
-            idResolveResult = resolver.resolve(descriptor);
+            prefetch();
             if (idResolveResult.getFailure() != null) {
                 failure = idResolveResult.getFailure();
                 return null;
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.externalresource;
+
+import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData;
+
+/**
+ * An external resource which has not changed since it was cached. Carries the meta-data for the cached resource, but no content.
+ */
+public class UnmodifiedExternalResource extends MetaDataOnlyExternalResource {
+    public UnmodifiedExternalResource(String source, ExternalResourceMetaData metaData) {
+        super(source, metaData);
+    }
+
+    @Override
+    public String toString() {
+        return "UnmodifiedResource: " + getName();
+    }
+}
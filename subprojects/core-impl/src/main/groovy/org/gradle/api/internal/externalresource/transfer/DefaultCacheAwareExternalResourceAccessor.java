@@ -19,6 +19,7 @@ package org.gradle.api.internal.externalresource.transfer;
 import org.gradle.api.Nullable;
 import org.gradle.api.internal.externalresource.ExternalResource;
 import org.gradle.api.internal.externalresource.LocallyAvailableExternalResource;
+import org.gradle.api.internal.externalresource.UnmodifiedExternalResource;
 import org.gradle.api.internal.externalresource.cached.CachedExternalResource;
 import org.gradle.api.internal.externalresource.cached.CachedExternalResourceAdapter;
 import org.gradle.api.internal.externalresource.local.LocallyAvailableResource;
@@ -52,6 +53,11 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
         // We might be able to use a cached/locally available version
 
+        // If we know enough about the cached version, ask for the resource only if it has changed. This takes a single request
+        if (cached != null && canRevalidate(cached.getExternalResourceMetaData())) {
+            return getResourceIfModified(location, localCandidates, cached);
+        }
+
         // Get the metadata first to see if it's there
         final ExternalResourceMetaData remoteMetaData = delegate.getMetaData(location);
         if (remoteMetaData == null) {
@@ -99,4 +105,32 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         return delegate.getResource(location);
     }
 
+    private boolean canRevalidate(@Nullable ExternalResourceMetaData cachedMetaData) {
+        return cachedMetaData != null && (cachedMetaData.getEtag() != null || cachedMetaData.getLastModified() != null);
+    }
+
+    private ExternalResource getResourceIfModified(String location, @Nullable LocallyAvailableResourceCandidates localCandidates, CachedExternalResource cached) throws IOException {
+        ExternalResource resource = delegate.getResourceIfModified(location, cached.getExternalResourceMetaData());
+        if (resource == null) {
+            return null;
+        }
+        if (resource instanceof UnmodifiedExternalResource) {
+            LOGGER.info("Cached resource is up-to-date (lastModified: {}). [HTTP: {}]", cached.getExternalLastModified(), location);
+            return new CachedExternalResourceAdapter(location, cached, delegate, resource.getMetaData());
+        }
+
+        // The resource has changed, and its content is already on the way. Use a local copy only if the remote has advertised a checksum
+        ExternalResourceMetaData remoteMetaData = resource.getMetaData();
+        HashValue remoteChecksum = remoteMetaData == null ? null : remoteMetaData.getSha1();
+        if (remoteChecksum != null && localCandidates != null && !localCandidates.isNone()) {
+            LocallyAvailableResource local = localCandidates.findByHashValue(remoteChecksum);
+            if (local != null) {
+                LOGGER.info("Found locally available resource with matching checksum: [{}, {}]", location, local.getFile());
+                resource.close();
+                return new LocallyAvailableExternalResource(location, local, remoteMetaData);
+            }
+        }
+        return resource;
+    }
+
 }
@@ -40,6 +40,21 @@ public interface ExternalResourceAccessor {
     @Nullable
     ExternalResource getResource(String location) throws IOException;
 
+    /**
+     * Obtain the resource at the given location, unless it has not changed since the given meta-data was captured.
+     *
+     * Implementations should use the etag and last modified date of the given meta-data to make a conditional request, where
+     * this is supported, so that the resource is obtained with a single request whether or not it has changed.
+     *
+     * @param location The address of the resource to obtain
+     * @param cached The meta-data for the cached version of the resource
+     * @return The resource if it exists and has changed, an {@link org.gradle.api.internal.externalresource.UnmodifiedExternalResource}
+     *         if it has not changed, otherwise null
+     * @throws IOException If the resource may exist, but not could be obtained for some reason
+     */
+    @Nullable
+    ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cached) throws IOException;
+
     /**
      * Obtain the SHA-1 checksum for the resource at the given location.
      *
@@ -19,6 +19,7 @@ package org.gradle.api.internal.externalresource.transfer;
 import org.apache.ivy.plugins.repository.Resource;
 import org.gradle.api.Nullable;
 import org.gradle.api.internal.externalresource.ExternalResource;
+import org.gradle.api.internal.externalresource.UnmodifiedExternalResource;
 import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData;
 import org.gradle.logging.ProgressLogger;
 import org.gradle.logging.ProgressLoggerFactory;
@@ -43,6 +44,14 @@ public class ProgressLoggingExternalResourceAccessor extends AbstractProgressLog
         }
     }
 
+    public ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cached) throws IOException {
+        ExternalResource resource = delegate.getResourceIfModified(location, cached);
+        if (resource == null || resource instanceof UnmodifiedExternalResource) {
+            return resource;
+        }
+        return new ProgressLoggingExternalResource(resource);
+    }
+
     @Nullable
     public HashValue getResourceSha1(String location) {
         return delegate.getResourceSha1(location);
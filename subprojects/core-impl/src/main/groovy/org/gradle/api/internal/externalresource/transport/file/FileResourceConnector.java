@@ -80,6 +80,11 @@ public class FileResourceConnector implements ExternalResourceLister, ExternalRe
         return new LocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(localFile));
     }
 
+    public ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cached) throws IOException {
+        // Local files are cheap to read, so don't bother checking whether the file has changed
+        return getResource(location);
+    }
+
     public ExternalResourceMetaData getMetaData(String location) throws IOException {
         ExternalResource resource = getResource(location);
         return resource == null ? null : resource.getMetaData();
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.externalresource.transport.http;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
@@ -23,26 +24,41 @@ import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.impl.client.ContentEncodingHttpClient;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.cookie.DateUtils;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.util.EntityUtils;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Date;
 
 /**
- * Provides some convenience and unified logging.
+ * Provides some convenience and unified logging. Requests may be performed concurrently from multiple threads.
  */
 public class HttpClientHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
-    private final DefaultHttpClient client = new ContentEncodingHttpClient();
-    private final BasicHttpContext httpContext = new BasicHttpContext();
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 8;
+    private static final int MAX_CONNECTIONS = 32;
+    private final DefaultHttpClient client;
+    private final ThreadLocal<BasicHttpContext> httpContext = new ThreadLocal<BasicHttpContext>() {
+        @Override
+        protected BasicHttpContext initialValue() {
+            return new BasicHttpContext();
+        }
+    };
 
     private final HttpClientConfigurer configurer;
 
     public HttpClientHelper(HttpSettings settings) {
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        client = new ContentEncodingHttpClient(connectionManager, null);
         configurer = new HttpClientConfigurer(settings);
         configurer.configure(client);
     }
@@ -63,6 +79,25 @@ public class HttpClientHelper {
         return processResponse(source, "GET", performRawGet(source));
     }
 
+    /**
+     * Performs a GET which only transfers the content when it does not match the given etag or has been modified since the given date.
+     * Returns null when the resource is missing.
+     */
+    public HttpResponse performConditionalGet(String source, @Nullable String etag, @Nullable Date lastModified) {
+        HttpGet request = new HttpGet(source);
+        if (etag != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified));
+        }
+        HttpResponse response = performRequest(request);
+        if (wasNotModified(response)) {
+            return response;
+        }
+        return processResponse(source, "GET", response);
+    }
+
     public HttpResponse performRequest(HttpRequestBase request) {
         String method = request.getMethod();
 
@@ -91,6 +126,11 @@ public class HttpClientHelper {
         return statusCode == 404;
     }
 
+    public boolean wasNotModified(HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        return statusCode == 304;
+    }
+
     public boolean wasSuccessful(HttpResponse response) {
         int statusCode = response.getStatusLine().getStatusCode();
         return statusCode >= 200 && statusCode < 300;
@@ -98,10 +138,11 @@ public class HttpClientHelper {
 
     public HttpResponse performHttpRequest(HttpRequestBase request) throws IOException {
         // Without this, HTTP Client prohibits multiple redirects to the same location within the same context
-        httpContext.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
+        BasicHttpContext context = httpContext.get();
+        context.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
 
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
-        return client.execute(request, httpContext);
+        return client.execute(request, context);
     }
 
     private HttpResponse processResponse(String source, String method, HttpResponse response) {
@@ -19,6 +19,8 @@ package org.gradle.api.internal.externalresource.transport.http;
 import org.apache.http.HttpResponse;
 import org.apache.http.util.EntityUtils;
 import org.gradle.api.internal.externalresource.ExternalResource;
+import org.gradle.api.internal.externalresource.UnmodifiedExternalResource;
+import org.gradle.api.internal.externalresource.metadata.DefaultExternalResourceMetaData;
 import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaData;
 import org.gradle.api.internal.externalresource.transfer.ExternalResourceAccessor;
 import org.gradle.util.hash.HashValue;
@@ -34,7 +36,13 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpResourceAccessor.class);
     private final HttpClientHelper http;
 
-    private final List<ExternalResource> openResources = new ArrayList<ExternalResource>();
+    // Resources are tracked per thread, as requests may be performed concurrently
+    private final ThreadLocal<List<ExternalResource>> openResources = new ThreadLocal<List<ExternalResource>>() {
+        @Override
+        protected List<ExternalResource> initialValue() {
+            return new ArrayList<ExternalResource>();
+        }
+    };
 
     public HttpResourceAccessor(HttpClientHelper http) {
         this.http = http;
@@ -45,20 +53,29 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         LOGGER.debug("Constructing external resource: {}", location);
         HttpResponse response = http.performGet(location);
         if (response != null) {
-            HttpResponseResource resource = new HttpResponseResource("GET", location, response) {
-                @Override
-                public void close() throws IOException {
-                    super.close();
-                    HttpResourceAccessor.this.openResources.remove(this);
-                }
-            };
-
-            return recordOpenGetResource(resource);
+            return recordOpenGetResource(location, response);
         } else {
             return null;
         }
     }
 
+    public ExternalResource getResourceIfModified(String location, ExternalResourceMetaData cached) throws IOException {
+        abortOpenResources();
+        LOGGER.debug("Constructing external resource if modified: {}", location);
+        HttpResponse response = http.performConditionalGet(location, cached.getEtag(), cached.getLastModified());
+        if (response == null) {
+            return null;
+        }
+        if (http.wasNotModified(response)) {
+            // Keep the cached meta-data, but remember the etag advertised by the server, if any
+            String etag = new HttpResponseResource("GET", location, response).getMetaData().getEtag();
+            ExternalResourceMetaData metaData = etag == null ? cached
+                    : new DefaultExternalResourceMetaData(cached.getLocation(), cached.getLastModified(), cached.getContentLength(), etag, cached.getSha1());
+            return new UnmodifiedExternalResource(location, metaData);
+        }
+        return recordOpenGetResource(location, response);
+    }
+
     public ExternalResourceMetaData getMetaData(String location) {
         abortOpenResources();
         LOGGER.debug("Constructing external resource metadata: {}", location);
@@ -66,13 +83,22 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         return response == null ? null : new HttpResponseResource("HEAD", location, response).getMetaData();
     }
 
-    private HttpResponseResource recordOpenGetResource(HttpResponseResource httpResource) {
-        openResources.add(httpResource);
-        return httpResource;
+    private HttpResponseResource recordOpenGetResource(String location, HttpResponse response) {
+        final List<ExternalResource> resources = openResources.get();
+        HttpResponseResource resource = new HttpResponseResource("GET", location, response) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                resources.remove(this);
+            }
+        };
+        resources.add(resource);
+        return resource;
     }
 
     private void abortOpenResources() {
-        for (ExternalResource openResource : openResources) {
+        List<ExternalResource> resources = openResources.get();
+        for (ExternalResource openResource : new ArrayList<ExternalResource>(resources)) {
             LOGGER.warn("Forcing close on abandoned resource: " + openResource);
             try {
                 openResource.close();
@@ -80,7 +106,7 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
                 LOGGER.warn("Failed to close abandoned resource", e);
             }
         }
-        openResources.clear();
+        resources.clear();
     }
 
     public HashValue getResourceSha1(String location) {
@@ -60,6 +60,43 @@ class DefaultResolvedArtifactTest extends Specification {
         artifact != differentAttributes
     }
 
+    def "resolves file once"() {
+        def file = new File("file.jar")
+        def artifact = new DefaultResolvedArtifact(Mock(ResolvedDependency), ivyArtifact("name", "type", "ext", [:]), artifactSource)
+
+        when:
+        def first = artifact.file
+        def second = artifact.file
+
+        then:
+        1 * artifactSource.create() >> file
+        first == file
+        second == file
+        artifact.resolved
+    }
+
+    def "rethrows failure to resolve file without resolving file again"() {
+        def failure = new RuntimeException("broken")
+        def artifact = new DefaultResolvedArtifact(Mock(ResolvedDependency), ivyArtifact("name", "type", "ext", [:]), artifactSource)
+
+        when:
+        artifact.file
+
+        then:
+        1 * artifactSource.create() >> { throw failure }
+        RuntimeException e = thrown()
+        e == failure
+        artifact.resolved
+
+        when:
+        artifact.file
+
+        then:
+        0 * artifactSource._
+        e = thrown()
+        e == failure
+    }
+
     def ivyArtifact(String name, String type, String extension, Map attributes) {
         Artifact artifact = Mock()
         _ * artifact.name >> name
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.StoppableExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+
+class CacheLockingExecutorTest extends Specification {
+    final StoppableExecutor target = Mock()
+    final CacheLockingManager lockingManager = Mock()
+    final CacheLockingExecutor executor = new CacheLockingExecutor(target, lockingManager)
+
+    def "runs action in executor thread while holding a lock on the cache"() {
+        Factory<String> action = Mock()
+        Runnable task
+
+        when:
+        def future = executor.start("action", action)
+
+        then:
+        1 * target.execute(!null) >> { task = it[0] }
+        0 * _._
+
+        when:
+        task.run()
+
+        then:
+        1 * lockingManager.useCache("action", action) >> { it[1].create() }
+        1 * action.create() >> "result"
+
+        when:
+        def result = executor.waitFor("wait", future)
+
+        then:
+        result == "result"
+        0 * _._
+    }
+
+    def "runs action in calling thread when it has not been started"() {
+        Factory<String> action = Mock()
+
+        given:
+        target.execute(_) >> { }
+
+        when:
+        def future = executor.start("action", action)
+        def result = executor.waitFor("wait", future)
+
+        then:
+        result == "result"
+        1 * lockingManager.useCache("action", action) >> { it[1].create() }
+        1 * action.create() >> "result"
+        0 * lockingManager._
+    }
+
+    def "releases lock on the cache while waiting for action running in another thread"() {
+        def started = new CountDownLatch(1)
+        def waiting = new CountDownLatch(1)
+        def action = {
+            started.countDown()
+            waiting.await()
+            return "result"
+        } as Factory
+        Runnable task
+
+        given:
+        target.execute(_) >> { task = it[0] }
+        lockingManager.useCache("action", action) >> { it[1].create() }
+
+        when:
+        def future = executor.start("action", action)
+        def thread = new Thread(task)
+        thread.start()
+        started.await()
+        def result = executor.waitFor("wait", future)
+        thread.join()
+
+        then:
+        result == "result"
+        1 * lockingManager.longRunningOperation("wait", !null) >> {
+            waiting.countDown()
+            it[1].create()
+        }
+    }
+
+    def "rethrows failure of action"() {
+        def failure = new RuntimeException()
+        Factory<String> action = Mock()
+
+        given:
+        target.execute(_) >> { }
+        lockingManager.useCache("action", action) >> { it[1].create() }
+        action.create() >> { throw failure }
+
+        when:
+        def future = executor.start("action", action)
+        executor.waitFor("wait", future)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "discards actions which have not been started and waits for running actions on stop"() {
+        Factory<String> action = Mock()
+        Runnable task
+
+        given:
+        target.execute(_) >> { task = it[0] }
+
+        when:
+        executor.start("action", action)
+        executor.stop()
+
+        then:
+        1 * lockingManager.longRunningOperation(!null, !null) >> { it[1].run() }
+        1 * target.stop()
+
+        when:
+        task.run()
+
+        then:
+        0 * lockingManager._
+        0 * action._
+    }
+}
@@ -16,15 +16,26 @@
 package org.gradle.api.internal.artifacts.ivyservice
 
 import org.apache.ivy.core.module.descriptor.Artifact
+import org.apache.ivy.core.module.descriptor.DefaultArtifact
+import org.apache.ivy.core.module.id.ModuleRevisionId
 import org.gradle.api.artifacts.ResolvedArtifact
 import org.gradle.api.artifacts.ResolvedDependency
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ArtifactResolveException
 import org.gradle.internal.Factory
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 
+import java.util.concurrent.atomic.AtomicInteger
+
 class ResolvedArtifactFactoryTest extends Specification {
     final CacheLockingManager lockingManager = Mock()
-    final ResolvedArtifactFactory factory = new ResolvedArtifactFactory(lockingManager)
+    final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+    final ResolvedArtifactFactory factory = new ResolvedArtifactFactory(lockingManager, executorFactory)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
 
     def "creates an artifact backed by module resolve result"() {
         Artifact artifact = Mock()
@@ -53,4 +64,63 @@ class ResolvedArtifactFactoryTest extends Specification {
         _ * artifactResolveResult.file >> file
         0 * _._
     }
+
+    def "resolves files of unresolved artifacts concurrently"() {
+        def runAction = { String displayName, action -> action instanceof Factory ? action.create() : action.run() }
+        def concurrentFactory = new ResolvedArtifactFactory([useCache: runAction, longRunningOperation: runAction] as CacheLockingManager, executorFactory)
+        ResolvedDependency resolvedDependency = Mock()
+        def artifact1 = artifact("one")
+        def artifact2 = artifact("two")
+        def artifact3 = artifact("broken")
+        def files = [(artifact1): new File("one.jar"), (artifact2): new File("two.jar")]
+        def failedAttempts = new AtomicInteger()
+        def artifactResolver = [resolve: { Artifact artifact ->
+            if (!files.containsKey(artifact)) {
+                failedAttempts.incrementAndGet()
+                throw new ArtifactResolveException(artifact, "broken")
+            }
+            return [getFile: { files[artifact] }] as ArtifactResolveResult
+        }] as ArtifactResolver
+
+        given:
+        def resolved1 = concurrentFactory.create(resolvedDependency, artifact1, artifactResolver)
+        def resolved2 = concurrentFactory.create(resolvedDependency, artifact2, artifactResolver)
+        def resolved3 = concurrentFactory.create(resolvedDependency, artifact3, artifactResolver)
+
+        when:
+        concurrentFactory.resolveFiles([resolved1, resolved2, resolved3])
+
+        then:
+        resolved1.resolved
+        resolved2.resolved
+        resolved3.resolved
+        resolved1.file == new File("one.jar")
+        resolved2.file == new File("two.jar")
+
+        when:
+        resolved3.file
+
+        then:
+        ArtifactResolveException e = thrown()
+        e.message.contains("broken")
+        failedAttempts.get() == 1
+    }
+
+    def "does not resolve file of single unresolved artifact"() {
+        ArtifactResolver artifactResolver = Mock()
+        ResolvedDependency resolvedDependency = Mock()
+
+        when:
+        def resolvedArtifact = factory.create(resolvedDependency, artifact("one"), artifactResolver)
+        factory.resolveFiles([resolvedArtifact])
+
+        then:
+        !resolvedArtifact.resolved
+        0 * lockingManager._
+        0 * artifactResolver._
+    }
+
+    def artifact(String name) {
+        return new DefaultArtifact(ModuleRevisionId.newInstance("group", "module", "1.0"), null, name, "jar", "jar")
+    }
 }
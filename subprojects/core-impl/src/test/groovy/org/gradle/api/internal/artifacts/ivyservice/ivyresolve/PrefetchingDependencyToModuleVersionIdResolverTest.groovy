@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor
+import org.apache.ivy.core.module.id.ModuleRevisionId
+import org.apache.ivy.plugins.version.VersionMatcher
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.internal.artifacts.ivyservice.*
+import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ProjectDependencyDescriptor
+import spock.lang.Specification
+
+import java.util.concurrent.FutureTask
+
+class PrefetchingDependencyToModuleVersionIdResolverTest extends Specification {
+    final DependencyToModuleVersionIdResolver target = Mock()
+    final VersionMatcher matcher = Mock()
+    final CacheLockingExecutor executor = Mock()
+    final ModuleVersionIdResolveResult idResolveResult = Mock()
+    final ModuleVersionResolveResult resolveResult = Mock()
+    final FutureTask<ModuleVersionResolveResult> task = Mock()
+    final PrefetchingDependencyToModuleVersionIdResolver resolver = new PrefetchingDependencyToModuleVersionIdResolver(target, matcher, executor)
+
+    def "starts resolving meta-data for static version in the background"() {
+        def dependency = dependency()
+        def id = dependency.dependencyRevisionId
+
+        when:
+        def result = resolver.resolve(dependency)
+
+        then:
+        1 * target.resolve(dependency) >> idResolveResult
+        1 * executor.start("resolve $id", !null) >> {
+            assert it[1].create() == resolveResult
+            return task
+        }
+        1 * idResolveResult.resolve() >> resolveResult
+        _ * matcher.isDynamic(id) >> false
+        0 * _._
+
+        when:
+        def resultId = result.id
+
+        then:
+        resultId == id
+        1 * idResolveResult.id >> id
+        0 * _._
+
+        when:
+        def moduleResult = result.resolve()
+
+        then:
+        moduleResult == resolveResult
+        1 * executor.waitFor("resolve $id", task) >> resolveResult
+        0 * _._
+    }
+
+    def "waits for meta-data of dynamic version before returning id"() {
+        def dependency = dependency()
+        def id = dependency.dependencyRevisionId
+        def resolvedId = ModuleRevisionId.newInstance("group", "module", "1.2")
+
+        given:
+        matcher.isDynamic(id) >> true
+        target.resolve(dependency) >> idResolveResult
+        executor.start(_, _) >> task
+
+        when:
+        def result = resolver.resolve(dependency)
+        def resultId = result.id
+
+        then:
+        resultId == resolvedId
+        1 * executor.waitFor("resolve $id", task) >> resolveResult
+
+        and:
+        1 * idResolveResult.id >> resolvedId
+    }
+
+    def "waits for meta-data of dynamic version before returning failure"() {
+        def dependency = dependency()
+        def id = dependency.dependencyRevisionId
+        def failure = new ModuleVersionNotFoundException("missing")
+
+        given:
+        matcher.isDynamic(id) >> true
+        target.resolve(dependency) >> idResolveResult
+        executor.start(_, _) >> task
+
+        when:
+        def result = resolver.resolve(dependency)
+        def resultFailure = result.failure
+
+        then:
+        resultFailure == failure
+        1 * executor.waitFor("resolve $id", task) >> resolveResult
+
+        and:
+        1 * idResolveResult.failure >> failure
+    }
+
+    def "does not prefetch project dependencies"() {
+        def dependency = new ProjectDependencyDescriptor(Mock(ProjectDependency), new DefaultModuleDescriptor(ModuleRevisionId.newInstance("group", "project", "1.0"), "release", null),
+                ModuleRevisionId.newInstance("group", "other", "1.0"), false, false, true)
+
+        when:
+        def result = resolver.resolve(dependency)
+
+        then:
+        result == idResolveResult
+        1 * target.resolve(dependency) >> idResolveResult
+        0 * executor._
+    }
+
+    def dependency() {
+        return new DefaultDependencyDescriptor(ModuleRevisionId.newInstance("group", "module", "1.0"), false)
+    }
+}
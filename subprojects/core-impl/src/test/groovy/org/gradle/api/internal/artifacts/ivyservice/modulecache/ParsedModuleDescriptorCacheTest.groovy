@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class ParsedModuleDescriptorCacheTest extends Specification {
+    @Rule final TemporaryFolder tmpDir = new TemporaryFolder()
+    final ParsedModuleDescriptorCache cache = new ParsedModuleDescriptorCache(2)
+
+    def "reuses descriptor while file and cache entry are unchanged"() {
+        def file = tmpDir.createFile("ivy.xml") << "content"
+        def descriptor = Mock(ModuleDescriptor)
+
+        when:
+        cache.put(file, 100, descriptor)
+
+        then:
+        cache.get(file, 100) == descriptor
+    }
+
+    def "discards descriptor when cache entry has been replaced"() {
+        def file = tmpDir.createFile("ivy.xml") << "content"
+
+        when:
+        cache.put(file, 100, Mock(ModuleDescriptor))
+
+        then:
+        cache.get(file, 200) == null
+    }
+
+    def "discards descriptor when file has changed"() {
+        def file = tmpDir.createFile("ivy.xml") << "content"
+
+        when:
+        cache.put(file, 100, Mock(ModuleDescriptor))
+        file << "more content"
+
+        then:
+        cache.get(file, 100) == null
+    }
+
+    def "discards descriptor when removed"() {
+        def file = tmpDir.createFile("ivy.xml") << "content"
+
+        when:
+        cache.put(file, 100, Mock(ModuleDescriptor))
+        cache.remove(file)
+
+        then:
+        cache.get(file, 100) == null
+    }
+
+    def "discards least recently used descriptor when full"() {
+        def file1 = tmpDir.createFile("ivy1.xml") << "content"
+        def file2 = tmpDir.createFile("ivy2.xml") << "content"
+        def file3 = tmpDir.createFile("ivy3.xml") << "content"
+        def descriptor1 = Mock(ModuleDescriptor)
+        def descriptor3 = Mock(ModuleDescriptor)
+
+        when:
+        cache.put(file1, 100, descriptor1)
+        cache.put(file2, 100, Mock(ModuleDescriptor))
+        cache.get(file1, 100)
+        cache.put(file3, 100, descriptor3)
+
+        then:
+        cache.get(file1, 100) == descriptor1
+        cache.get(file2, 100) == null
+        cache.get(file3, 100) == descriptor3
+    }
+}
@@ -21,7 +21,10 @@ import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.internal.artifacts.ProjectDependenciesBuildInstruction;
 import org.gradle.api.internal.artifacts.dependencies.DefaultProjectDependency;
 import org.gradle.api.internal.project.AbstractProject;
+import org.gradle.api.internal.project.ProjectAccessListener;
+import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.util.HelperUtil;
+import org.jmock.Expectations;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 
@@ -33,9 +36,10 @@ import static org.junit.Assert.*;
  */
 public class ProjectDependencyDescriptorFactoryTest extends AbstractDependencyDescriptorFactoryInternalTest {
     private JUnit4Mockery context = new JUnit4Mockery();
+    private final ProjectAccessListener projectAccessListener = context.mock(ProjectAccessListener.class);
 
     private ProjectDependencyDescriptorFactory projectDependencyDescriptorFactory =
-            new ProjectDependencyDescriptorFactory(excludeRuleConverterStub);
+            new ProjectDependencyDescriptorFactory(excludeRuleConverterStub, projectAccessListener);
 
     @Test
     public void canConvert() {
@@ -45,8 +49,11 @@ public class ProjectDependencyDescriptorFactoryTest extends AbstractDependencyDe
 
     @Test
     public void testCreateFromProjectDependency() {
-        ProjectDependency projectDependency = createProjectDependency(TEST_DEP_CONF);
+        final ProjectDependency projectDependency = createProjectDependency(TEST_DEP_CONF);
         setUpDependency(projectDependency);
+        context.checking(new Expectations() {{
+            one(projectAccessListener).beforeResolvingProjectDependency((ProjectInternal) projectDependency.getDependencyProject());
+        }});
         projectDependencyDescriptorFactory.addDependencyDescriptor(TEST_CONF, moduleDescriptor, projectDependency);
         ProjectDependencyDescriptor dependencyDescriptor = (ProjectDependencyDescriptor) moduleDescriptor.getDependencies()[0];
 
@@ -61,6 +68,6 @@ public class ProjectDependencyDescriptorFactoryTest extends AbstractDependencyDe
         AbstractProject dependencyProject = HelperUtil.createRootProject();
         dependencyProject.setGroup("someGroup");
         dependencyProject.setVersion("someVersion");
-        return new DefaultProjectDependency(dependencyProject, dependencyConfiguration, new ProjectDependenciesBuildInstruction(true));
+        return new DefaultProjectDependency(dependencyProject, dependencyConfiguration, projectAccessListener, new ProjectDependenciesBuildInstruction(true));
     }
 }
\ No newline at end of file
@@ -24,6 +24,8 @@ import org.gradle.api.internal.externalresource.metadata.ExternalResourceMetaDat
 import org.gradle.util.hash.HashValue
 import org.gradle.api.internal.externalresource.local.LocallyAvailableResource
 import org.gradle.api.internal.externalresource.LocallyAvailableExternalResource
+import org.gradle.api.internal.externalresource.UnmodifiedExternalResource
+import org.gradle.api.internal.externalresource.cached.CachedExternalResourceAdapter
 
 class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
 
@@ -58,4 +60,101 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         and:
         foundResource instanceof LocallyAvailableExternalResource
     }
+
+    def "uses cached resource when a conditional request reports it unmodified"() {
+        given:
+        def accessor = Mock(ExternalResourceAccessor)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(accessor)
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+
+        and:
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.etag >> "etag"
+
+        when:
+        def foundResource = cache.getResource("location", null, cached)
+
+        then:
+        1 * accessor.getResourceIfModified("location", cachedMetaData) >> new UnmodifiedExternalResource("location", cachedMetaData)
+        0 * accessor.getMetaData(_)
+        0 * accessor.getResource(_)
+
+        and:
+        foundResource instanceof CachedExternalResourceAdapter
+    }
+
+    def "returns the resource from a conditional request when it has been modified"() {
+        given:
+        def accessor = Mock(ExternalResourceAccessor)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(accessor)
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def resource = Mock(ExternalResource)
+
+        and:
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.lastModified >> new Date()
+        localCandidates.isNone() >> false
+
+        when:
+        def foundResource = cache.getResource("location", localCandidates, cached)
+
+        then:
+        1 * accessor.getResourceIfModified("location", cachedMetaData) >> resource
+        0 * accessor.getMetaData(_)
+        0 * accessor.getResourceSha1(_)
+        0 * accessor.getResource(_)
+
+        and:
+        foundResource == resource
+    }
+
+    def "uses local candidate with the checksum of a modified resource"() {
+        given:
+        def accessor = Mock(ExternalResourceAccessor)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(accessor)
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteMetaData = Mock(ExternalResourceMetaData)
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def localCandidate = Mock(LocallyAvailableResource)
+        def resource = Mock(ExternalResource)
+        def sha1 = HashValue.parse("abc")
+
+        and:
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.etag >> "etag"
+        accessor.getResourceIfModified("location", cachedMetaData) >> resource
+        resource.metaData >> remoteMetaData
+        remoteMetaData.sha1 >> sha1
+        localCandidates.isNone() >> false
+
+        when:
+        def foundResource = cache.getResource("location", localCandidates, cached)
+
+        then:
+        1 * localCandidates.findByHashValue(sha1) >> localCandidate
+        1 * resource.close()
+
+        and:
+        foundResource instanceof LocallyAvailableExternalResource
+    }
+
+    def "returns null when a conditional request finds no resource"() {
+        given:
+        def accessor = Mock(ExternalResourceAccessor)
+        def cache = new DefaultCacheAwareExternalResourceAccessor(accessor)
+        def cached = Mock(CachedExternalResource)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+
+        and:
+        cached.getExternalResourceMetaData() >> cachedMetaData
+        cachedMetaData.etag >> "etag"
+        accessor.getResourceIfModified("location", cachedMetaData) >> null
+
+        expect:
+        cache.getResource("location", null, cached) == null
+    }
 }
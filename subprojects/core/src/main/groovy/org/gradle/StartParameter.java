@@ -67,6 +67,9 @@ public class StartParameter extends LoggingConfiguration implements Serializable
     private boolean refreshDependencies;
     private boolean recompileScripts;
     private int parallelThreadCount;
+    private boolean parallelProjectConfiguration;
+    private int parallelConfigurationThreadCount;
+    private boolean configureOnDemand;
 
     /**
      * Sets the project's cache location. Set to null to use the default location.
@@ -132,6 +135,9 @@ public class StartParameter extends LoggingConfiguration implements Serializable
         startParameter.offline = offline;
         startParameter.refreshDependencies = refreshDependencies;
         startParameter.parallelThreadCount = parallelThreadCount;
+        startParameter.parallelProjectConfiguration = parallelProjectConfiguration;
+        startParameter.parallelConfigurationThreadCount = parallelConfigurationThreadCount;
+        startParameter.configureOnDemand = configureOnDemand;
         return startParameter;
     }
 
@@ -155,6 +161,9 @@ public class StartParameter extends LoggingConfiguration implements Serializable
         startParameter.recompileScripts = recompileScripts;
         startParameter.refreshDependencies = refreshDependencies;
         startParameter.parallelThreadCount = parallelThreadCount;
+        startParameter.parallelProjectConfiguration = parallelProjectConfiguration;
+        startParameter.parallelConfigurationThreadCount = parallelConfigurationThreadCount;
+        startParameter.configureOnDemand = configureOnDemand;
         return startParameter;
     }
 
@@ -608,6 +617,61 @@ public class StartParameter extends LoggingConfiguration implements Serializable
         this.parallelThreadCount = parallelThreadCount;
     }
 
+    /**
+     * Returns true if the projects of the build should be configured in parallel. Projects are configured in parallel using the number of threads
+     * specified by {@link #getParallelConfigurationThreadCount()}.
+     */
+    public boolean isParallelProjectConfiguration() {
+        return parallelProjectConfiguration;
+    }
+
+    /**
+     * Specifies whether the projects of the build should be configured in parallel. When configured in parallel, a project must not change the
+     * tasks or extensions of any other project, except for its child projects.
+     *
+     * @see #isParallelProjectConfiguration()
+     */
+    public void setParallelProjectConfiguration(boolean parallelProjectConfiguration) {
+        this.parallelProjectConfiguration = parallelProjectConfiguration;
+    }
+
+    /**
+     * Returns the number of threads to use to configure projects in parallel. This is independent of the number of threads used to execute tasks.
+     *
+     *  0: Use the number of available processors.
+     * >0: Use this many threads.
+     */
+    public int getParallelConfigurationThreadCount() {
+        return parallelConfigurationThreadCount;
+    }
+
+    /**
+     * Specifies the number of threads to use to configure projects in parallel.
+     *
+     * @see #getParallelConfigurationThreadCount()
+     */
+    public void setParallelConfigurationThreadCount(int parallelConfigurationThreadCount) {
+        this.parallelConfigurationThreadCount = parallelConfigurationThreadCount;
+    }
+
+    /**
+     * Returns true if projects should be configured only when they are required by the build. The root project and the projects containing the
+     * requested tasks are always configured. Other projects are configured when a project dependency, a task path or {@link
+     * org.gradle.api.Project#evaluationDependsOn(String)} refers to them.
+     */
+    public boolean isConfigureOnDemand() {
+        return configureOnDemand;
+    }
+
+    /**
+     * Specifies whether projects should be configured only when they are required by the build.
+     *
+     * @see #isConfigureOnDemand()
+     */
+    public void setConfigureOnDemand(boolean configureOnDemand) {
+        this.configureOnDemand = configureOnDemand;
+    }
+
     @Override
     public String toString() {
         return "StartParameter{"
@@ -23,6 +23,7 @@ import org.gradle.api.internal.artifacts.ProjectDependenciesBuildInstruction;
 import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.internal.artifacts.CachingDependencyResolveContext;
 import org.gradle.api.internal.artifacts.DependencyResolveContext;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.AbstractTaskDependency;
 import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
@@ -37,16 +38,19 @@ import java.util.Set;
 public class DefaultProjectDependency extends AbstractModuleDependency implements ProjectDependency {
     private ProjectInternal dependencyProject;
     private final ProjectDependenciesBuildInstruction instruction;
+    private final ProjectAccessListener projectAccessListener;
     private final TaskDependencyImpl taskDependency = new TaskDependencyImpl();
 
-    public DefaultProjectDependency(ProjectInternal dependencyProject, ProjectDependenciesBuildInstruction instruction) {
-        this(dependencyProject, null, instruction);
+    public DefaultProjectDependency(ProjectInternal dependencyProject, ProjectAccessListener projectAccessListener,
+                                    ProjectDependenciesBuildInstruction instruction) {
+        this(dependencyProject, null, projectAccessListener, instruction);
     }
 
-    public DefaultProjectDependency(ProjectInternal dependencyProject, String configuration,
+    public DefaultProjectDependency(ProjectInternal dependencyProject, String configuration, ProjectAccessListener projectAccessListener,
                                     ProjectDependenciesBuildInstruction instruction) {
         super(configuration);
         this.dependencyProject = dependencyProject;
+        this.projectAccessListener = projectAccessListener;
         this.instruction = instruction;
     }
 
@@ -67,12 +71,13 @@ public class DefaultProjectDependency extends AbstractModuleDependency implement
     }
 
     public Configuration getProjectConfiguration() {
+        projectAccessListener.beforeResolvingProjectDependency(dependencyProject);
         return dependencyProject.getConfigurations().getByName(getConfiguration());
     }
 
     public ProjectDependency copy() {
         DefaultProjectDependency copiedProjectDependency = new DefaultProjectDependency(dependencyProject,
-                getConfiguration(), instruction);
+                getConfiguration(), projectAccessListener, instruction);
         copyTo(copiedProjectDependency);
         return copiedProjectDependency;
     }
@@ -83,13 +83,16 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
     }
 
     private TaskHistory loadHistory(TaskInternal task) {
-        ClassLoader original = serializer.getClassLoader();
-        serializer.setClassLoader(task.getClass().getClassLoader());
-        try {
-            TaskHistory history = taskHistoryCache.get(task.getPath());
-            return history == null ? new TaskHistory() : history;
-        } finally {
-            serializer.setClassLoader(original);
+        // The serializer is shared by all threads, so only one thread at a time can load history
+        synchronized (serializer) {
+            ClassLoader original = serializer.getClassLoader();
+            serializer.setClassLoader(task.getClass().getClassLoader());
+            try {
+                TaskHistory history = taskHistoryCache.get(task.getPath());
+                return history == null ? new TaskHistory() : history;
+            } finally {
+                serializer.setClassLoader(original);
+            }
         }
     }
 
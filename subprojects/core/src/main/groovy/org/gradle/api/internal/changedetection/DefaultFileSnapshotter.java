@@ -18,124 +18,351 @@ package org.gradle.api.internal.changedetection;
 
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.util.ChangeListener;
 import org.gradle.util.NoOpChangeListener;
 
 import java.io.File;
-import java.io.Serializable;
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Creates snapshots of the contents of file collections. When created with an {@link ExecutorFactory}, large collections are hashed by a fixed
+ * size pool of worker threads, shared by all snapshots, while the file tree is still being walked. The resulting snapshot is the same as that created on a single thread.
+ */
 public class DefaultFileSnapshotter implements FileSnapshotter {
+    private static final byte FILE = 0;
+    private static final byte DIR = 1;
+    private static final byte MISSING = 2;
+    private static final int BATCH_SIZE = 100;
     private final Hasher hasher;
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final ExecutorFactory executorFactory;
+    private final int workerCount;
+    private StoppableExecutor executor;
 
     public DefaultFileSnapshotter(Hasher hasher) {
+        this(hasher, null, null, 1);
+    }
+
+    public DefaultFileSnapshotter(Hasher hasher, TaskArtifactStateCacheAccess cacheAccess, ExecutorFactory executorFactory) {
+        this(hasher, cacheAccess, executorFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    DefaultFileSnapshotter(Hasher hasher, TaskArtifactStateCacheAccess cacheAccess, ExecutorFactory executorFactory, int workerCount) {
         this.hasher = hasher;
+        this.cacheAccess = cacheAccess;
+        this.executorFactory = executorFactory;
+        this.workerCount = workerCount;
     }
 
     public FileCollectionSnapshot emptySnapshot() {
-        return new FileCollectionSnapshotImpl(new HashMap<String, FileSnapshot>());
+        return new SnapshotBuilder().build();
     }
 
     public FileCollectionSnapshot snapshot(FileCollection sourceFiles) {
-        Map<String, FileSnapshot> snapshots = new HashMap<String, FileSnapshot>();
-        for (File file : sourceFiles.getAsFileTree()) {
-            if (file.isFile()) {
-                snapshots.put(file.getAbsolutePath(), new FileHashSnapshot(hasher.hash(file)));
-            } else if (file.isDirectory()) {
-                snapshots.put(file.getAbsolutePath(), new DirSnapshot());
-            } else {
-                snapshots.put(file.getAbsolutePath(), new MissingFileSnapshot());
+        if (executorFactory == null || workerCount < 2) {
+            SnapshotBuilder builder = new SnapshotBuilder();
+            for (File file : sourceFiles.getAsFileTree()) {
+                snapshot(file, builder);
             }
+            return builder.build();
         }
-        return new FileCollectionSnapshotImpl(snapshots);
+        return new HashingPipeline().snapshot(sourceFiles);
     }
 
-    private interface FileSnapshot extends Serializable {
-        boolean isUpToDate(FileSnapshot snapshot);
+    private void snapshot(File file, SnapshotBuilder builder) {
+        if (file.isFile()) {
+            builder.add(file.getAbsolutePath(), FILE, hasher.hash(file));
+        } else if (file.isDirectory()) {
+            builder.add(file.getAbsolutePath(), DIR, null);
+        } else {
+            builder.add(file.getAbsolutePath(), MISSING, null);
+        }
     }
 
-    private static class FileHashSnapshot implements FileSnapshot {
-        private final byte[] hash;
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            // A single pool of hashing threads is shared by all snapshots, including those taken concurrently by parallel tasks
+            executor = executorFactory.create("File hasher", workerCount);
+        }
+        return executor;
+    }
+
+    /**
+     * Walks a file tree on the calling thread and submits batches of files to the shared hashing threads. The number of batches waiting to
+     * be hashed is bounded, so the walker blocks when the hashing threads fall behind. Batches are only submitted once there is more than one
+     * batch of files, so small collections are hashed on the calling thread.
+     */
+    private class HashingPipeline {
+        private final SnapshotBuilder builder = new SnapshotBuilder();
+        private final int maxPendingBatches = workerCount * 2;
+        private final Semaphore pendingBatches = new Semaphore(maxPendingBatches);
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private List<File> batch = new ArrayList<File>(BATCH_SIZE);
+        private List<File> firstBatch;
+        private boolean submitted;
+
+        public FileCollectionSnapshot snapshot(FileCollection sourceFiles) {
+            try {
+                for (File file : sourceFiles.getAsFileTree()) {
+                    add(file);
+                }
+            } finally {
+                finish();
+            }
+            if (failure.get() != null) {
+                throw UncheckedException.throwAsUncheckedException(failure.get());
+            }
+            return builder.build();
+        }
 
-        public FileHashSnapshot(byte[] hash) {
-            this.hash = hash;
+        private void add(File file) {
+            batch.add(file);
+            if (batch.size() < BATCH_SIZE) {
+                return;
+            }
+            if (firstBatch == null) {
+                firstBatch = batch;
+            } else {
+                if (!submitted) {
+                    submitted = true;
+                    submit(firstBatch);
+                }
+                submit(batch);
+            }
+            batch = new ArrayList<File>(BATCH_SIZE);
         }
 
-        public boolean isUpToDate(FileSnapshot snapshot) {
-            if (!(snapshot instanceof FileHashSnapshot)) {
-                return false;
+        private void finish() {
+            if (!submitted) {
+                if (firstBatch != null) {
+                    hash(firstBatch);
+                }
+                hash(batch);
+                return;
             }
+            submit(batch);
+            // Wait for the submitted batches to be hashed
+            acquire(maxPendingBatches);
+        }
 
-            FileHashSnapshot other = (FileHashSnapshot) snapshot;
-            return Arrays.equals(hash, other.hash);
+        private void submit(final List<File> files) {
+            acquire(1);
+            try {
+                getExecutor().execute(new Runnable() {
+                    public void run() {
+                        try {
+                            if (failure.get() == null) {
+                                cacheAccess.useCache("Hash files", new Runnable() {
+                                    public void run() {
+                                        hash(files);
+                                    }
+                                });
+                            }
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t);
+                        } finally {
+                            pendingBatches.release();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                pendingBatches.release();
+                throw e;
+            }
         }
 
-        @Override
-        public String toString() {
-            return new BigInteger(1, hash).toString(16);
+        private void acquire(int permits) {
+            try {
+                pendingBatches.acquire(permits);
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
         }
-    }
 
-    private static class DirSnapshot implements FileSnapshot {
-        public boolean isUpToDate(FileSnapshot snapshot) {
-            return snapshot instanceof DirSnapshot;
+        private void hash(List<File> files) {
+            for (File file : files) {
+                DefaultFileSnapshotter.this.snapshot(file, builder);
+            }
         }
     }
 
-    private static class MissingFileSnapshot implements FileSnapshot {
-        public boolean isUpToDate(FileSnapshot snapshot) {
-            return snapshot instanceof MissingFileSnapshot;
+    /**
+     * Collects the entries of a snapshot, in any order. Safe to use from multiple threads.
+     */
+    private static class SnapshotBuilder {
+        private final List<String> paths = new ArrayList<String>();
+        private byte[] types = new byte[16];
+        private long[] hashes = new long[32];
+
+        public synchronized void add(String path, byte type, byte[] hash) {
+            int index = paths.size();
+            if (index == types.length) {
+                types = grow(types, index * 2);
+                hashes = grow(hashes, index * 4);
+            }
+            paths.add(path);
+            types[index] = type;
+            if (hash != null) {
+                if (hash.length > 16) {
+                    throw new IllegalArgumentException(String.format("Cannot snapshot file '%s' as its hash is longer than 128 bits.", path));
+                }
+                hashes[2 * index] = toLong(hash, 0);
+                hashes[2 * index + 1] = toLong(hash, 8);
+            }
         }
+
+        public synchronized FileCollectionSnapshotImpl build() {
+            Integer[] order = new Integer[paths.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer index1, Integer index2) {
+                    int result = paths.get(index1).compareTo(paths.get(index2));
+                    return result != 0 ? result : index1.compareTo(index2);
+                }
+            });
+
+            // Later entries for the same path replace earlier entries
+            int count = 0;
+            for (int i = 0; i < order.length; i++) {
+                if (i + 1 < order.length && paths.get(order[i]).equals(paths.get(order[i + 1]))) {
+                    continue;
+                }
+                order[count++] = order[i];
+            }
+
+            FileCollectionSnapshotImpl snapshot = new FileCollectionSnapshotImpl(count);
+            for (int i = 0; i < count; i++) {
+                int index = order[i];
+                snapshot.set(i, paths.get(index), types[index], hashes[2 * index], hashes[2 * index + 1]);
+            }
+            return snapshot;
+        }
+
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (i < bytes.length ? bytes[i] & 0xff : 0);
+            }
+            return value;
+        }
+
+        private static byte[] grow(byte[] array, int length) {
+            byte[] result = new byte[length];
+            System.arraycopy(array, 0, result, 0, array.length);
+            return result;
+        }
+
+        private static long[] grow(long[] array, int length) {
+            long[] result = new long[length];
+            System.arraycopy(array, 0, result, 0, array.length);
+            return result;
+        }
+    }
+
+    private interface EntryDiffListener {
+        void added(int index);
+
+        void removed(int oldIndex);
+
+        void changed(int index, int oldIndex);
     }
 
+    /**
+     * A snapshot of a collection of files, sorted by path. The type of each entry and the 128 bit hash of each file are held in primitive
+     * arrays indexed in the same order as the paths. Paths are prefix-compressed when serialized.
+     */
     private static class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
-        private final Map<String, FileSnapshot> snapshots;
+        private transient String[] paths;
+        private transient byte[] types;
+        private transient long[] hashes;
 
-        public FileCollectionSnapshotImpl(Map<String, FileSnapshot> snapshots) {
-            this.snapshots = snapshots;
+        public FileCollectionSnapshotImpl(int size) {
+            paths = new String[size];
+            types = new byte[size];
+            hashes = new long[size * 2];
+        }
+
+        private void set(int index, String path, byte type, long hashHigh, long hashLow) {
+            paths[index] = path;
+            types[index] = type;
+            hashes[2 * index] = hashHigh;
+            hashes[2 * index + 1] = hashLow;
+        }
+
+        private void copy(FileCollectionSnapshotImpl source, int sourceIndex, int index) {
+            set(index, source.paths[sourceIndex], source.types[sourceIndex], source.hashes[2 * sourceIndex], source.hashes[2 * sourceIndex + 1]);
+        }
+
+        private boolean isUpToDate(int index, FileCollectionSnapshotImpl other, int otherIndex) {
+            if (types[index] != other.types[otherIndex]) {
+                return false;
+            }
+            return types[index] != FILE || (hashes[2 * index] == other.hashes[2 * otherIndex] && hashes[2 * index + 1] == other.hashes[2 * otherIndex + 1]);
         }
 
         public FileCollection getFiles() {
             List<File> files = new ArrayList<File>();
-            for (Map.Entry<String, FileSnapshot> entry : snapshots.entrySet()) {
-                if (entry.getValue() instanceof FileHashSnapshot) {
-                    files.add(new File(entry.getKey()));
+            for (int i = 0; i < paths.length; i++) {
+                if (types[i] == FILE) {
+                    files.add(new File(paths[i]));
                 }
             }
             return new SimpleFileCollection(files);
         }
 
         public void changesSince(FileCollectionSnapshot oldSnapshot, final ChangeListener<File> listener) {
-            FileCollectionSnapshotImpl other = (FileCollectionSnapshotImpl) oldSnapshot;
-            diff(snapshots, other.snapshots, new ChangeListener<Map.Entry<String, FileSnapshot>>() {
-                public void added(Map.Entry<String, FileSnapshot> element) {
-                    listener.added(new File(element.getKey()));
+            final FileCollectionSnapshotImpl other = (FileCollectionSnapshotImpl) oldSnapshot;
+            diff(other, new EntryDiffListener() {
+                public void added(int index) {
+                    listener.added(new File(paths[index]));
                 }
 
-                public void removed(Map.Entry<String, FileSnapshot> element) {
-                    listener.removed(new File(element.getKey()));
+                public void removed(int oldIndex) {
+                    listener.removed(new File(other.paths[oldIndex]));
                 }
 
-                public void changed(Map.Entry<String, FileSnapshot> element) {
-                    listener.changed(new File(element.getKey()));
+                public void changed(int index, int oldIndex) {
+                    listener.changed(new File(paths[index]));
                 }
             });
         }
 
-        private void diff(Map<String, FileSnapshot> snapshots, Map<String, FileSnapshot> oldSnapshots,
-                          ChangeListener<Map.Entry<String, FileSnapshot>> listener) {
-            Map<String, FileSnapshot> otherSnapshots = new HashMap<String, FileSnapshot>(oldSnapshots);
-            for (Map.Entry<String, FileSnapshot> entry : snapshots.entrySet()) {
-                FileSnapshot otherFile = otherSnapshots.remove(entry.getKey());
-                if (otherFile == null) {
-                    listener.added(entry);
-                } else if (!entry.getValue().isUpToDate(otherFile)) {
-                    listener.changed(entry);
+        /**
+         * Merges the sorted entries of this snapshot and the given old snapshot.
+         */
+        private void diff(FileCollectionSnapshotImpl other, EntryDiffListener listener) {
+            int index = 0;
+            int oldIndex = 0;
+            while (index < paths.length || oldIndex < other.paths.length) {
+                int result;
+                if (index == paths.length) {
+                    result = 1;
+                } else if (oldIndex == other.paths.length) {
+                    result = -1;
+                } else {
+                    result = paths[index].compareTo(other.paths[oldIndex]);
+                }
+                if (result < 0) {
+                    listener.added(index++);
+                } else if (result > 0) {
+                    listener.removed(oldIndex++);
+                } else {
+                    if (!isUpToDate(index, other, oldIndex)) {
+                        listener.changed(index, oldIndex);
+                    }
+                    index++;
+                    oldIndex++;
                 }
-            }
-            for (Map.Entry<String, FileSnapshot> entry : otherSnapshots.entrySet()) {
-                listener.removed(entry);
             }
         }
 
@@ -146,13 +373,152 @@ public class DefaultFileSnapshotter implements FileSnapshotter {
                     return applyTo(snapshot, new NoOpChangeListener<Merge>());
                 }
 
-                public FileCollectionSnapshot applyTo(FileCollectionSnapshot snapshot, final ChangeListener<Merge> listener) {
+                public FileCollectionSnapshot applyTo(FileCollectionSnapshot snapshot, ChangeListener<Merge> listener) {
                     FileCollectionSnapshotImpl target = (FileCollectionSnapshotImpl) snapshot;
-                    final Map<String, FileSnapshot> newSnapshots = new HashMap<String, FileSnapshot>(target.snapshots);
-                    diff(snapshots, other.snapshots, new MapMergeChangeListener<String, FileSnapshot>(listener, newSnapshots));
-                    return new FileCollectionSnapshotImpl(newSnapshots);
+                    MergingDiffListener merger = new MergingDiffListener(FileCollectionSnapshotImpl.this, other, target, listener);
+                    diff(other, merger);
+                    return merger.finish();
                 }
             };
         }
+
+        private void writeObject(ObjectOutputStream outstr) throws IOException {
+            outstr.defaultWriteObject();
+            outstr.writeInt(paths.length);
+            String previous = "";
+            for (int i = 0; i < paths.length; i++) {
+                String path = paths[i];
+                int prefix = commonPrefixLength(previous, path);
+                outstr.writeInt(prefix);
+                outstr.writeUTF(path.substring(prefix));
+                outstr.writeByte(types[i]);
+                if (types[i] == FILE) {
+                    outstr.writeLong(hashes[2 * i]);
+                    outstr.writeLong(hashes[2 * i + 1]);
+                }
+                previous = path;
+            }
+        }
+
+        private void readObject(ObjectInputStream instr) throws IOException, ClassNotFoundException {
+            instr.defaultReadObject();
+            int size = instr.readInt();
+            paths = new String[size];
+            types = new byte[size];
+            hashes = new long[size * 2];
+            String previous = "";
+            for (int i = 0; i < size; i++) {
+                int prefix = instr.readInt();
+                String path = previous.substring(0, prefix) + instr.readUTF();
+                byte type = instr.readByte();
+                if (type == FILE) {
+                    set(i, path, type, instr.readLong(), instr.readLong());
+                } else {
+                    set(i, path, type, 0, 0);
+                }
+                previous = path;
+            }
+        }
+
+        private static int commonPrefixLength(String path1, String path2) {
+            int max = Math.min(path1.length(), path2.length());
+            int i = 0;
+            while (i < max && path1.charAt(i) == path2.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Applies the changes between two snapshots to a target snapshot. The changes are received in path order, so the result is built by
+     * a single pass over the target snapshot.
+     */
+    private static class MergingDiffListener implements EntryDiffListener {
+        private final FileCollectionSnapshotImpl newSnapshot;
+        private final FileCollectionSnapshotImpl oldSnapshot;
+        private final FileCollectionSnapshotImpl target;
+        private final ChangeListener<FileCollectionSnapshot.Merge> listener;
+        private final FileCollectionSnapshotImpl result;
+        private int targetIndex;
+        private int resultIndex;
+
+        public MergingDiffListener(FileCollectionSnapshotImpl newSnapshot, FileCollectionSnapshotImpl oldSnapshot,
+                                   FileCollectionSnapshotImpl target, ChangeListener<FileCollectionSnapshot.Merge> listener) {
+            this.newSnapshot = newSnapshot;
+            this.oldSnapshot = oldSnapshot;
+            this.target = target;
+            this.listener = listener;
+            result = new FileCollectionSnapshotImpl(target.paths.length + newSnapshot.paths.length);
+        }
+
+        public void added(int index) {
+            DefaultMerge merge = new DefaultMerge();
+            listener.added(merge);
+            put(index, merge);
+        }
+
+        public void changed(int index, int oldIndex) {
+            DefaultMerge merge = new DefaultMerge();
+            listener.changed(merge);
+            put(index, merge);
+        }
+
+        public void removed(int oldIndex) {
+            DefaultMerge merge = new DefaultMerge();
+            listener.removed(merge);
+            boolean present = advanceTo(oldSnapshot.paths[oldIndex]);
+            if (present && merge.ignore) {
+                result.copy(target, targetIndex, resultIndex++);
+            }
+            if (present) {
+                targetIndex++;
+            }
+        }
+
+        private void put(int index, DefaultMerge merge) {
+            boolean present = advanceTo(newSnapshot.paths[index]);
+            if (!merge.ignore) {
+                result.copy(newSnapshot, index, resultIndex++);
+            } else if (present) {
+                result.copy(target, targetIndex, resultIndex++);
+            }
+            if (present) {
+                targetIndex++;
+            }
+        }
+
+        /**
+         * Copies the target entries which sort before the given path. Returns true when the target contains the given path.
+         */
+        private boolean advanceTo(String path) {
+            while (targetIndex < target.paths.length) {
+                int compare = target.paths[targetIndex].compareTo(path);
+                if (compare >= 0) {
+                    return compare == 0;
+                }
+                result.copy(target, targetIndex++, resultIndex++);
+            }
+            return false;
+        }
+
+        public FileCollectionSnapshotImpl finish() {
+            while (targetIndex < target.paths.length) {
+                result.copy(target, targetIndex++, resultIndex++);
+            }
+            FileCollectionSnapshotImpl trimmed = new FileCollectionSnapshotImpl(resultIndex);
+            for (int i = 0; i < resultIndex; i++) {
+                trimmed.copy(result, i, i);
+            }
+            return trimmed;
+        }
+    }
+
+    private static class DefaultMerge implements FileCollectionSnapshot.Merge {
+        private boolean ignore;
+
+        public void ignore() {
+            ignore = true;
+        }
     }
 }
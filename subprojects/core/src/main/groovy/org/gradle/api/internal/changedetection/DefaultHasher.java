@@ -15,12 +15,56 @@
  */
 package org.gradle.api.internal.changedetection;
 
-import org.gradle.util.hash.HashUtil;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.UncheckedException;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
+/**
+ * Calculates the MD5 hash of a file. Reads the file through a {@link FileChannel} into a buffer which is reused by each thread.
+ */
 public class DefaultHasher implements Hasher {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+    };
+
     public byte[] hash(File file) {
-        return HashUtil.createHash(file, "MD5").asByteArray();
+        MessageDigest messageDigest = createMessageDigest();
+        ByteBuffer buffer = BUFFER.get();
+        try {
+            FileInputStream instr = new FileInputStream(file);
+            try {
+                FileChannel channel = instr.getChannel();
+                buffer.clear();
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    messageDigest.update(buffer);
+                    buffer.clear();
+                }
+            } finally {
+                instr.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return messageDigest.digest();
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
     }
-}
\ No newline at end of file
+}
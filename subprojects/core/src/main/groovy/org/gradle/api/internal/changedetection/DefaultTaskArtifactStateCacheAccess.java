@@ -36,7 +36,7 @@ public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCac
         this.cacheRepository = cacheRepository;
     }
 
-    private PersistentCache getCache() {
+    private synchronized PersistentCache getCache() {
         if (cache == null) {
             cache = cacheRepository
                     .cache("taskArtifacts")
@@ -44,6 +44,7 @@ public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCac
                     .withDisplayName("task artifact state cache")
                     .withLockMode(FileLockManager.LockMode.Exclusive)
                     .open();
+            cache.enableConcurrentAccess();
         }
         return cache;
     }
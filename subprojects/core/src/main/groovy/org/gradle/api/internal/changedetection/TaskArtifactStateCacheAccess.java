@@ -19,6 +19,10 @@ import org.gradle.internal.Factory;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.messaging.serialize.Serializer;
 
+/**
+ * Provides access to the task artifact state caches. Multiple threads of this process may use the caches at the same time, and the caches
+ * created by this object are thread-safe.
+ */
 public interface TaskArtifactStateCacheAccess {
     /**
      * Performs some work against the cache. Acquires exclusive locks the appropriate resources, so that the given action is the only
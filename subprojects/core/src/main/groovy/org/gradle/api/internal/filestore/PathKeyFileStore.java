@@ -37,6 +37,8 @@ import java.util.Set;
  *
  * There is always at most one entry for a given key for this file store. If an entry already exists at
  * the given path, it will be overwritten. Paths can contain directory components, which will be created on demand.
+ * Entries are written to a temporary file next to the target path first, and then renamed into place, so that concurrent
+ * readers never see a partially written entry.
  *
  * This file store also provides searching via relative ant path patterns.
  */
@@ -83,14 +85,22 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
         }
 
         String verb = isMove ? "move" : "copy";
+        File tempFile = new File(parentDir, String.format(".%s-%s.part", destination.getName(), Math.abs(generator.nextLong())));
         try {
-            deleteAction.delete(destination);
             if (isMove) {
-                FileUtils.moveFile(source, destination);
+                FileUtils.moveFile(source, tempFile);
             } else {
-                FileUtils.copyFile(source, destination);
+                FileUtils.copyFile(source, tempFile);
+            }
+            if (!tempFile.renameTo(destination)) {
+                // Some platforms cannot rename over an existing file
+                deleteAction.delete(destination);
+                if (!tempFile.renameTo(destination)) {
+                    throw new IOException(String.format("Could not rename '%s' to '%s'.", tempFile, destination));
+                }
             }
         } catch (IOException e) {
+            tempFile.delete();
             throw new GradleException(String.format("Failed to %s file '%s' into filestore at '%s' ", verb, source, destination), e);
         }
 
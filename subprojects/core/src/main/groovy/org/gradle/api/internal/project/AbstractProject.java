@@ -35,6 +35,7 @@ import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvid
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.initialization.ScriptClassLoaderProvider;
+import org.gradle.api.internal.plugins.DefaultConvention;
 import org.gradle.api.internal.plugins.DefaultObjectConfigurationAction;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
 import org.gradle.api.logging.Logger;
@@ -188,7 +189,7 @@ public abstract class AbstractProject implements ProjectInternal, DynamicObjectA
         projectRegistry = services.get(IProjectRegistry.class);
         loggingManager = services.get(LoggingManagerInternal.class);
 
-        extensibleDynamicObject = new ExtensibleDynamicObject(this, services.get(Instantiator.class));
+        extensibleDynamicObject = new ExtensibleDynamicObject(this, new BeanDynamicObject(this), new ProjectConvention(services.get(Instantiator.class)));
         if (parent != null) {
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
@@ -560,7 +561,7 @@ public abstract class AbstractProject implements ProjectInternal, DynamicObjectA
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
-        if (projectToEvaluate.getState().getExecuting()) {
+        if (projectToEvaluate.getState().isExecutingInCurrentThread()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                     projectToEvaluate));
         }
@@ -945,4 +946,16 @@ public abstract class AbstractProject implements ProjectInternal, DynamicObjectA
     public ExtensionContainer getExtensions() {
         return getConvention();
     }
+
+    private class ProjectConvention extends DefaultConvention {
+        private ProjectConvention(Instantiator instantiator) {
+            super(instantiator);
+        }
+
+        @Override
+        public void add(String name, Object extension) {
+            ProjectMutationGuard.checkCanMutate(AbstractProject.this, String.format("add extension '%s'", name));
+            super.add(name, extension);
+        }
+    }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+/**
+ * Notified when the model of a project is about to be used by some other part of the build. This gives an implementation the chance to configure
+ * the project before it is used.
+ */
+public interface ProjectAccessListener {
+    /**
+     * Called before a task of the given project is located using its path.
+     */
+    void beforeRequestingTaskByPath(ProjectInternal targetProject);
+
+    /**
+     * Called before a dependency on the given project is resolved.
+     */
+    void beforeResolvingProjectDependency(ProjectInternal dependencyProject);
+}
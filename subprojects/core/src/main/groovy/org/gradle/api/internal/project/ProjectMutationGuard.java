@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.api.Project;
+
+import java.util.Stack;
+
+/**
+ * Tracks the project which the current thread is configuring, when projects are configured in parallel, and rejects changes to any other
+ * project's model. A project may change its own model and the models of its child projects, as these are not configured until their parent
+ * project has been configured.
+ */
+public abstract class ProjectMutationGuard {
+    private static final ThreadLocal<Stack<ProjectInternal>> STORAGE = new ThreadLocal<Stack<ProjectInternal>>() {
+        @Override
+        protected Stack<ProjectInternal> initialValue() {
+            return new Stack<ProjectInternal>();
+        }
+    };
+
+    /**
+     * Marks the start of configuration of the given project by the current thread.
+     */
+    public static void beforeConfigure(ProjectInternal project) {
+        STORAGE.get().push(project);
+    }
+
+    /**
+     * Marks the end of configuration of the most recently started project by the current thread.
+     */
+    public static void afterConfigure() {
+        STORAGE.get().pop();
+    }
+
+    /**
+     * Checks that the current thread is allowed to make the given change to the given project.
+     *
+     * @throws IllegalStateException when the current thread is configuring some other project in parallel.
+     */
+    public static void checkCanMutate(ProjectInternal target, String operation) {
+        Stack<ProjectInternal> stack = STORAGE.get();
+        if (stack.empty()) {
+            return;
+        }
+        ProjectInternal current = stack.peek();
+        for (Project project = target; project != null; project = project.getParent()) {
+            if (project == current) {
+                return;
+            }
+        }
+        throw new IllegalStateException(String.format("Cannot %s for %s while configuring %s, as projects are being configured in parallel. "
+                + "A project must not change the tasks or extensions of another project, other than its child projects.", operation, target, current));
+    }
+}
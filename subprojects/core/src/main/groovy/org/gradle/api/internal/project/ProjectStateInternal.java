@@ -21,6 +21,7 @@ import org.gradle.internal.UncheckedException;
 
 public class ProjectStateInternal implements ProjectState {
     private boolean executing;
+    private Thread executingThread;
     private boolean executed;
     private Throwable failure;
 
@@ -44,6 +45,14 @@ public class ProjectStateInternal implements ProjectState {
 
     public void setExecuting(boolean executing) {
         this.executing = executing;
+        executingThread = executing ? Thread.currentThread() : null;
+    }
+
+    /**
+     * Returns true if the project is being executed by the current thread.
+     */
+    public boolean isExecutingInCurrentThread() {
+        return executing && executingThread == Thread.currentThread();
     }
 
     public Throwable getFailure() {
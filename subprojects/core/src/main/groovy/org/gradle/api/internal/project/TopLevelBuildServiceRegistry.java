@@ -37,6 +37,7 @@ import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.internal.CacheFactory;
 import org.gradle.cache.internal.DefaultCacheRepository;
+import org.gradle.cache.internal.FileLockManager;
 import org.gradle.configuration.*;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
 import org.gradle.groovy.scripts.ScriptCompilerFactory;
@@ -134,9 +135,19 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
     }
 
     protected ProjectEvaluator createProjectEvaluator() {
-        return new LifecycleProjectEvaluator(
+        ProjectEvaluator evaluator = new LifecycleProjectEvaluator(
                 new BuildScriptProcessor(
                         get(ScriptPluginFactory.class)));
+        if (startParameter.isConfigureOnDemand()) {
+            evaluator = new ConfigureOnDemandProjectEvaluator(
+                    evaluator,
+                    new ProjectDependencies2TaskResolver(),
+                    new ImplicitTasksConfigurer());
+        }
+        if (startParameter.isParallelProjectConfiguration()) {
+            evaluator = new ConcurrentProjectEvaluator(evaluator);
+        }
+        return evaluator;
     }
 
     protected ITaskFactory createITaskFactory() {
@@ -146,23 +157,28 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
                                 get(ClassGenerator.class))));
     }
 
-    protected ScriptCompilerFactory createScriptCompileFactory() {
-        ScriptExecutionListener scriptExecutionListener = get(ListenerManager.class).getBroadcaster(ScriptExecutionListener.class);
+    protected ScriptClassCompiler createScriptClassCompiler() {
         EmptyScriptGenerator emptyScriptGenerator = new AsmBackedEmptyScriptGenerator();
         CacheValidator scriptCacheInvalidator = new CacheValidator() {
             public boolean isValid() {
                 return !get(StartParameter.class).isRecompileScripts();
             }
         };
+        return new CachingScriptClassCompiler(
+                new ShortCircuitEmptyScriptCompiler(
+                        new FileCacheBackedScriptClassCompiler(
+                                get(CacheRepository.class),
+                                scriptCacheInvalidator,
+                                new DefaultScriptCompilationHandler(
+                                        emptyScriptGenerator),
+                                get(FileLockManager.class)),
+                        emptyScriptGenerator));
+    }
+
+    protected ScriptCompilerFactory createScriptCompileFactory() {
+        ScriptExecutionListener scriptExecutionListener = get(ListenerManager.class).getBroadcaster(ScriptExecutionListener.class);
         return new DefaultScriptCompilerFactory(
-                new CachingScriptClassCompiler(
-                        new ShortCircuitEmptyScriptCompiler(
-                                new FileCacheBackedScriptClassCompiler(
-                                        get(CacheRepository.class),
-                                        scriptCacheInvalidator,
-                                        new DefaultScriptCompilationHandler(
-                                                emptyScriptGenerator)),
-                                emptyScriptGenerator)),
+                get(ScriptClassCompiler.class),
                 new DefaultScriptRunnerFactory(scriptExecutionListener));
     }
 
@@ -224,11 +240,36 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
                 new IdentityFileResolver(), new LongIdGenerator());
     }
 
+    protected ProjectAccessListener createProjectAccessListener() {
+        if (startParameter.isConfigureOnDemand()) {
+            return new ConfigureOnDemandProjectAccessListener();
+        }
+        return new NoOpProjectAccessListener();
+    }
+
     protected BuildConfigurer createBuildConfigurer() {
-        return new DefaultBuildConfigurer(
+        if (startParameter.isConfigureOnDemand()) {
+            return new ConfigureOnDemandBuildConfigurer();
+        }
+        BuildConfigurer configurer = new DefaultBuildConfigurer(
                 new ProjectEvaluationConfigurer(),
                 new ProjectDependencies2TaskResolver(),
                 new ImplicitTasksConfigurer());
+        if (startParameter.isParallelProjectConfiguration()) {
+            int threadCount = startParameter.getParallelConfigurationThreadCount();
+            configurer = new ParallelBuildConfigurer(
+                    configurer,
+                    get(ExecutorFactory.class),
+                    threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors());
+        }
+        if (Boolean.getBoolean(PrecompilingBuildConfigurer.ENABLED_PROPERTY)) {
+            configurer = new PrecompilingBuildConfigurer(
+                    configurer,
+                    get(ScriptClassCompiler.class),
+                    get(ImportsReader.class),
+                    get(ExecutorFactory.class));
+        }
+        return configurer;
     }
 
     protected ProfileEventAdapter createProfileEventAdapter() {
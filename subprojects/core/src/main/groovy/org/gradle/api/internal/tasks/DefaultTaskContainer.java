@@ -24,7 +24,9 @@ import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectMutationGuard;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.util.ConfigureUtil;
 import org.gradle.util.DeprecationLogger;
@@ -35,13 +37,16 @@ import java.util.Map;
 
 public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements TaskContainerInternal {
     private final ITaskFactory taskFactory;
+    private final ProjectAccessListener projectAccessListener;
 
-    public DefaultTaskContainer(ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory) {
+    public DefaultTaskContainer(ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
         super(Task.class, instantiator, project);
         this.taskFactory = taskFactory;
+        this.projectAccessListener = projectAccessListener;
     }
 
     public Task add(Map<String, ?> options) {
+        ProjectMutationGuard.checkCanMutate(project, String.format("add task '%s'", options.get(Task.TASK_NAME)));
         Map<String, Object> mutableOptions = new HashMap<String, Object>(options);
 
         Object replaceStr = mutableOptions.remove(Task.TASK_OVERWRITE);
@@ -110,6 +115,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         if (project == null) {
             return null;
         }
+        projectAccessListener.beforeRequestingTaskByPath((ProjectInternal) project);
         return project.getTasks().findByName(StringUtils.substringAfterLast(path, Project.PATH_SEPARATOR));
     }
 
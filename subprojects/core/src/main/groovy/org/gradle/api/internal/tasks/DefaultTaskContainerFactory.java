@@ -16,6 +16,7 @@
 package org.gradle.api.internal.tasks;
 
 import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.internal.Factory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
@@ -24,14 +25,16 @@ public class DefaultTaskContainerFactory implements Factory<TaskContainerInterna
     private final Instantiator instantiator;
     private final ITaskFactory taskFactory;
     private Project project;
+    private final ProjectAccessListener projectAccessListener;
 
-    public DefaultTaskContainerFactory(Instantiator instantiator, ITaskFactory taskFactory, Project project) {
+    public DefaultTaskContainerFactory(Instantiator instantiator, ITaskFactory taskFactory, Project project, ProjectAccessListener projectAccessListener) {
         this.instantiator = instantiator;
         this.taskFactory = taskFactory;
         this.project = project;
+        this.projectAccessListener = projectAccessListener;
     }
 
     public TaskContainerInternal create() {
-        return instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory);
+        return instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener);
     }
 }
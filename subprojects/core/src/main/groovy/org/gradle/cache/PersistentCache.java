@@ -57,4 +57,12 @@ public interface PersistentCache extends CacheAccess {
      * <p>The returned cache may not be used by an action being run from {@link #longRunningOperation(String, org.gradle.internal.Factory)}.
      */
     <K, V> PersistentIndexedCache<K, V> createCache(File cacheFile, Class<K> keyType, Serializer<V> valueSerializer);
+
+    /**
+     * Allows multiple threads of this process to use this cache at the same time. Once enabled, {@link #useCache(String, org.gradle.internal.Factory)}
+     * no longer waits for other threads in this process to finish using the cache, and the lock held on the cache is only released once no thread
+     * is using the cache. Indexed caches created by this cache are safe to use from multiple threads. The caller is responsible for
+     * making sure that any other work it performs against the cache is thread-safe.
+     */
+    void enableConcurrentAccess();
 }
@@ -20,8 +20,13 @@ import org.gradle.cache.CacheAccess;
 import org.gradle.cache.DefaultSerializer;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.cache.internal.btree.BlockStore;
+import org.gradle.cache.internal.btree.CachingBlockStore;
+import org.gradle.cache.internal.btree.FileBackedBlockStore;
+import org.gradle.cache.internal.btree.MappedFileBlockStore;
 import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.messaging.serialize.Serializer;
 
 import java.io.File;
@@ -37,6 +42,8 @@ import static org.gradle.cache.internal.FileLockManager.LockMode.Exclusive;
 
 @ThreadSafe
 public class DefaultCacheAccess implements CacheAccess {
+    public static final String MAPPED_FILES_PROPERTY = "org.gradle.cache.mappedfiles";
+    public static final String BLOCK_CACHE_SIZE_PROPERTY = "org.gradle.cache.blockcachesize";
     private final String cacheDiplayName;
     private final File lockFile;
     private final FileLockManager lockManager;
@@ -44,7 +51,11 @@ public class DefaultCacheAccess implements CacheAccess {
     private final Set<MultiProcessSafePersistentIndexedCache<?, ?>> caches = new HashSet<MultiProcessSafePersistentIndexedCache<?, ?>>();
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
-    private Thread owner;
+    private final Set<Thread> owners = new HashSet<Thread>();
+    private boolean concurrentAccess;
+    // Mapped files cannot be truncated on Windows, so are not used there
+    private final boolean useMappedFiles = Boolean.getBoolean(MAPPED_FILES_PROPERTY) && !OperatingSystem.current().isWindows();
+    private final long blockCacheSize = Long.getLong(BLOCK_CACHE_SIZE_PROPERTY, CachingBlockStore.DEFAULT_CACHE_SIZE);
     private FileLockManager.LockMode lockMode;
     private FileLock fileLock;
     // TODO:DAZ This can probably be part of the per-thread operation stack
@@ -71,7 +82,7 @@ public class DefaultCacheAccess implements CacheAccess {
     public void open(FileLockManager.LockMode lockMode) {
         lock.lock();
         try {
-            if (owner != null) {
+            if (!owners.isEmpty()) {
                 throw new IllegalStateException(String.format("Cannot open the %s, as it is already in use.", cacheDiplayName));
             }
             this.lockMode = lockMode;
@@ -95,7 +106,7 @@ public class DefaultCacheAccess implements CacheAccess {
             operationStack.remove();
             started = false;
             lockMode = null;
-            owner = null;
+            owners.clear();
             if (fileLock != null) {
                 try {
                     fileLock.close();
@@ -112,6 +123,21 @@ public class DefaultCacheAccess implements CacheAccess {
         return fileLock;
     }
 
+    /**
+     * Allows multiple threads of this process to use the cache at the same time. When enabled, a thread does not wait for other threads to finish
+     * using the cache, and work against the cache continues, holding the cross-process lock, until no thread is using the cache. Each indexed
+     * cache is accessed by one thread at a time.
+     */
+    public void enableConcurrentAccess() {
+        lock.lock();
+        try {
+            concurrentAccess = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public void useCache(String operationDisplayName, final Runnable action) {
         useCache(operationDisplayName, new Factory<Object>() {
             public Object create() {
@@ -126,51 +152,65 @@ public class DefaultCacheAccess implements CacheAccess {
             throw new UnsupportedOperationException("Not implemented yet.");
         }
 
-        lockCache(operationDisplayName);
+        boolean wasStarted = lockCache(operationDisplayName);
         try {
-            boolean wasStarted = onStartWork();
-            try {
-                return action.create();
-            } finally {
-                if (wasStarted) {
-                    onEndWork();
-                }
-            }
+            return action.create();
         } finally {
-            unlockCache(operationDisplayName);
+            unlockCache(operationDisplayName, wasStarted);
         }
     }
 
-    private void lockCache(String operationDisplayName) {
+    private boolean lockCache(String operationDisplayName) {
         lock.lock();
         try {
-            while (owner != null && owner != Thread.currentThread()) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
-                }
-            }
-            owner = Thread.currentThread();
+            waitForOwnership();
+            owners.add(Thread.currentThread());
             operationStack.get().pushCacheAction(operationDisplayName);
+            return onStartWork();
         } finally {
             lock.unlock();
         }
     }
 
-    private void unlockCache(String operationDisplayName) {
+    private void unlockCache(String operationDisplayName, boolean wasStarted) {
         lock.lock();
         try {
             operationStack.get().popCacheAction(operationDisplayName);
             if (!operationStack.get().isInCacheAction()) {
-                owner = null;
-                condition.signalAll();
+                releaseOwnership(wasStarted);
             }
         } finally {
             lock.unlock();
         }
     }
 
+    private void waitForOwnership() {
+        while (!owners.isEmpty() && !owners.contains(Thread.currentThread()) && !concurrentAccess) {
+            try {
+                condition.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    /**
+     * Removes the current thread from the owners of the cache. The current unit of work is ended when the last owner leaves, if requested or when
+     * concurrent access is enabled.
+     */
+    private boolean releaseOwnership(boolean endWork) {
+        try {
+            boolean lastOwner = owners.size() == 1;
+            if (lastOwner && (endWork || concurrentAccess)) {
+                return onEndWork();
+            }
+            return false;
+        } finally {
+            owners.remove(Thread.currentThread());
+            condition.signalAll();
+        }
+    }
+
     public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
         if (operationStack.get().isInLongRunningOperation()) {
             operationStack.get().pushLongRunningOperation(operationDisplayName);
@@ -181,57 +221,37 @@ public class DefaultCacheAccess implements CacheAccess {
             }
         }
 
-        checkThreadIsOwner();
-        boolean wasEnded = onEndWork();
-        parkOwner(operationDisplayName);
+        boolean wasEnded = parkOwner(operationDisplayName);
         try {
             return action.create();
         } finally {
-            restoreOwner(operationDisplayName);
-            if (wasEnded) {
-                onStartWork();
-            }
+            restoreOwner(operationDisplayName, wasEnded);
         }
     }
 
-    private void checkThreadIsOwner() {
+    private boolean parkOwner(String operationDisplayName) {
         lock.lock();
         try {
-            if (owner != Thread.currentThread()) {
+            if (!owners.contains(Thread.currentThread())) {
                 throw new IllegalStateException(String.format("Cannot start long running operation, as the %s has not been locked.", cacheDiplayName));
             }
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private void parkOwner(String operationDisplayName) {
-        lock.lock();
-        try {
-            if (owner != Thread.currentThread()) {
-                throw new IllegalStateException(String.format("Cannot start long running operation, as the %s has not been locked.", cacheDiplayName));
-            }
-            owner = null;
-            condition.signalAll();
-
+            boolean wasEnded = releaseOwnership(true);
             operationStack.get().pushLongRunningOperation(operationDisplayName);
+            return wasEnded;
         } finally {
             lock.unlock();
         }
     }
 
-    private void restoreOwner(String description) {
+    private void restoreOwner(String description, boolean wasEnded) {
         lock.lock();
         try {
-            while (owner != null) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
-                }
-            }
-            owner = Thread.currentThread();
+            waitForOwnership();
+            owners.add(Thread.currentThread());
             operationStack.get().popLongRunningOperation(description);
+            if (wasEnded || concurrentAccess) {
+                onStartWork();
+            }
         } finally {
             lock.unlock();
         }
@@ -270,7 +290,8 @@ public class DefaultCacheAccess implements CacheAccess {
     }
 
     <K, V> BTreePersistentIndexedCache<K, V> doCreateCache(final File cacheFile, final Serializer<K> keySerializer, final Serializer<V> valueSerializer) {
-        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
+        BlockStore fileStore = useMappedFiles ? new MappedFileBlockStore(cacheFile) : new FileBackedBlockStore(cacheFile);
+        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer, (short) 512, 512, fileStore, blockCacheSize);
     }
 
     private boolean onStartWork() {
@@ -307,16 +328,16 @@ public class DefaultCacheAccess implements CacheAccess {
     private FileLock getLock() {
         lock.lock();
         try {
-            if (Thread.currentThread() != owner || !started) {
+            if (!owners.contains(Thread.currentThread()) || !started) {
                 throw new IllegalStateException(String.format("The %s has not been locked.", cacheDiplayName));
             }
+            if (fileLock == null) {
+                fileLock = lockManager.lock(lockFile, Exclusive, cacheDiplayName, operationStack.get().getDescription());
+            }
+            return fileLock;
         } finally {
             lock.unlock();
         }
-        if (fileLock == null) {
-            fileLock = lockManager.lock(lockFile, Exclusive, cacheDiplayName, operationStack.get().getDescription());
-        }
-        return fileLock;
     }
 
     private class UnitOfWorkFileAccess extends AbstractFileAccess {
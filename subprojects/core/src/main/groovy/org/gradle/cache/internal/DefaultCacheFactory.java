@@ -29,6 +29,7 @@ import java.util.*;
 import static org.gradle.cache.internal.FileLockManager.LockMode;
 
 public class DefaultCacheFactory implements Factory<CacheFactory> {
+    private final Object lock = new Object();
     private final Map<File, DirCacheReference> dirCaches = new HashMap<File, DirCacheReference>();
     private final FileLockManager lockManager;
 
@@ -47,8 +48,10 @@ public class DefaultCacheFactory implements Factory<CacheFactory> {
     }
 
     public void close() {
-        for (DirCacheReference dirCacheReference : dirCaches.values()) {
-            dirCacheReference.close();
+        synchronized (lock) {
+            for (DirCacheReference dirCacheReference : dirCaches.values()) {
+                dirCacheReference.close();
+            }
         }
     }
 
@@ -57,36 +60,46 @@ public class DefaultCacheFactory implements Factory<CacheFactory> {
 
         private DirCacheReference doOpenDir(File cacheDir, String displayName, CacheUsage usage, CacheValidator validator, Map<String, ?> properties, FileLockManager.LockMode lockMode, Action<? super PersistentCache> action) {
             File canonicalDir = GFileUtils.canonicalise(cacheDir);
-            DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
-            if (dirCacheReference == null) {
-                if (lockMode.equals(LockMode.None)) {
-                    // Create nested cache with LockMode#Exclusive (tb discussed) that is opened and closed on Demand in the DelegateOnDemandPersistentDirectoryCache.
-                    DefaultPersistentDirectoryCache nestedCache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, usage, validator, properties, LockMode.Exclusive, action, lockManager);
-                    DelegateOnDemandPersistentDirectoryCache onDemandDache = new DelegateOnDemandPersistentDirectoryCache(nestedCache);
-                    onDemandDache.open();
-                    dirCacheReference = new DirCacheReference(onDemandDache, properties, lockMode);
-                    dirCaches.put(canonicalDir, dirCacheReference);
-                } else {
-                    ReferencablePersistentCache cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, usage, validator, properties, lockMode, action, lockManager);
-                    cache.open();
+            DirCacheReference dirCacheReference;
+            synchronized (lock) {
+                dirCacheReference = dirCaches.get(canonicalDir);
+                if (dirCacheReference == null) {
+                    ReferencablePersistentCache cache;
+                    if (lockMode.equals(LockMode.None)) {
+                        // Create nested cache with LockMode#Exclusive (tb discussed) that is opened and closed on Demand in the DelegateOnDemandPersistentDirectoryCache.
+                        DefaultPersistentDirectoryCache nestedCache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, usage, validator, properties, LockMode.Exclusive, action, lockManager);
+                        cache = new DelegateOnDemandPersistentDirectoryCache(nestedCache);
+                    } else {
+                        cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, usage, validator, properties, lockMode, action, lockManager);
+                    }
                     dirCacheReference = new DirCacheReference(cache, properties, lockMode);
                     dirCaches.put(canonicalDir, dirCacheReference);
+                } else {
+                    if (usage == CacheUsage.REBUILD && dirCacheReference.rebuiltBy != this) {
+                        throw new IllegalStateException(String.format("Cannot rebuild cache '%s' as it is already open.", cacheDir));
+                    }
+                    if (lockMode != dirCacheReference.lockMode) {
+                        throw new IllegalStateException(String.format("Cannot open cache '%s' with %s lock mode as it is already open with %s lock mode.", cacheDir, lockMode.toString().toLowerCase(), dirCacheReference.lockMode.toString().toLowerCase()));
+                    }
+                    if (!properties.equals(dirCacheReference.properties)) {
+                        throw new IllegalStateException(String.format("Cache '%s' is already open with different state.", cacheDir));
+                    }
                 }
-            } else {
-                if (usage == CacheUsage.REBUILD && dirCacheReference.rebuiltBy != this) {
-                    throw new IllegalStateException(String.format("Cannot rebuild cache '%s' as it is already open.", cacheDir));
-                }
-                if (lockMode != dirCacheReference.lockMode) {
-                    throw new IllegalStateException(String.format("Cannot open cache '%s' with %s lock mode as it is already open with %s lock mode.", cacheDir, lockMode.toString().toLowerCase(), dirCacheReference.lockMode.toString().toLowerCase()));
-                }
-                if (!properties.equals(dirCacheReference.properties)) {
-                    throw new IllegalStateException(String.format("Cache '%s' is already open with different state.", cacheDir));
+                if (usage == CacheUsage.REBUILD) {
+                    dirCacheReference.rebuiltBy = this;
                 }
+                dirCacheReference.addReference(this);
             }
-            if (usage == CacheUsage.REBUILD) {
-                dirCacheReference.rebuiltBy = this;
+
+            // Open the cache outside the lock, so that caches in different directories can be initialised concurrently
+            try {
+                dirCacheReference.open();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    dirCacheReference.discard(this);
+                }
+                throw e;
             }
-            dirCacheReference.addReference(this);
             return dirCacheReference;
         }
 
@@ -95,15 +108,18 @@ public class DefaultCacheFactory implements Factory<CacheFactory> {
                 throw new UnsupportedOperationException("Initializer actions are not currently supported by the directory store implementation.");
             }
             File canonicalDir = GFileUtils.canonicalise(storeDir);
-            DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
-            if (dirCacheReference == null) {
-                ReferencablePersistentCache cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockMode, lockManager);
-                cache.open();
-                dirCacheReference = new DirCacheReference(cache, Collections.<String, Object>emptyMap(), lockMode);
-                dirCaches.put(canonicalDir, dirCacheReference);
+            synchronized (lock) {
+                DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
+                if (dirCacheReference == null) {
+                    ReferencablePersistentCache cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockMode, lockManager);
+                    cache.open();
+                    dirCacheReference = new DirCacheReference(cache, Collections.<String, Object>emptyMap(), lockMode);
+                    dirCacheReference.opened = true;
+                    dirCaches.put(canonicalDir, dirCacheReference);
+                }
+                dirCacheReference.addReference(this);
+                return dirCacheReference.getCache();
             }
-            dirCacheReference.addReference(this);
-            return dirCacheReference.getCache();
         }
 
         public PersistentCache open(File cacheDir, String displayName, CacheUsage usage, CacheValidator cacheValidator, Map<String, ?> properties, LockMode lockMode, Action<? super PersistentCache> initializer) {
@@ -112,21 +128,33 @@ public class DefaultCacheFactory implements Factory<CacheFactory> {
         }
 
         public <E> PersistentStateCache<E> openStateCache(File cacheDir, CacheUsage usage, CacheValidator validator, Map<String, ?> properties, LockMode lockMode, Serializer<E> serializer) {
-            StateCacheReference<E> cacheReference = doOpenDir(cacheDir, null, usage, validator, properties, lockMode, null).getStateCache(serializer);
-            cacheReference.addReference(this);
-            return cacheReference.getCache();
+            DirCacheReference dirCacheReference = doOpenDir(cacheDir, null, usage, validator, properties, lockMode, null);
+            synchronized (lock) {
+                StateCacheReference<E> cacheReference = dirCacheReference.getStateCache(serializer);
+                cacheReference.addReference(this);
+                return cacheReference.getCache();
+            }
         }
 
         public <K, V> PersistentIndexedCache<K, V> openIndexedCache(File cacheDir, CacheUsage usage, CacheValidator validator, Map<String, ?> properties, LockMode lockMode, Serializer<V> serializer) {
             if (lockMode != LockMode.Exclusive) {
                 throw new UnsupportedOperationException(String.format("No %s mode indexed cache implementation is available.", lockMode));
             }
-            IndexedCacheReference<K, V> cacheReference = doOpenDir(cacheDir, null, usage, validator, properties, LockMode.Exclusive, null).getIndexedCache(serializer);
-            cacheReference.addReference(this);
-            return cacheReference.getCache();
+            DirCacheReference dirCacheReference = doOpenDir(cacheDir, null, usage, validator, properties, LockMode.Exclusive, null);
+            synchronized (lock) {
+                IndexedCacheReference<K, V> cacheReference = dirCacheReference.getIndexedCache(serializer);
+                cacheReference.addReference(this);
+                return cacheReference.getCache();
+            }
         }
 
         public void close() {
+            synchronized (lock) {
+                closeCaches();
+            }
+        }
+
+        private void closeCaches() {
             try {
                 List<BasicCacheReference<?>> caches = new ArrayList<BasicCacheReference<?>>(this.caches);
                 Collections.reverse(caches);
@@ -176,6 +204,7 @@ public class DefaultCacheFactory implements Factory<CacheFactory> {
         IndexedCacheReference indexedCache;
         StateCacheReference stateCache;
         CacheFactoryImpl rebuiltBy;
+        boolean opened;
 
         public DirCacheReference(ReferencablePersistentCache cache, Map<String, ?> properties, FileLockManager.LockMode lockMode) {
             super(cache);
@@ -183,6 +212,27 @@ public class DefaultCacheFactory implements Factory<CacheFactory> {
             this.lockMode = lockMode;
         }
 
+        /**
+         * Opens the backing cache, if not already open. Blocks while another thread is opening the backing cache.
+         */
+        public synchronized void open() {
+            if (!opened) {
+                getCache().open();
+                opened = true;
+            }
+        }
+
+        /**
+         * Removes the given owner's reference to this cache, after the backing cache has failed to open.
+         */
+        public void discard(CacheFactoryImpl owner) {
+            super.references.remove(owner);
+            owner.caches.remove(this);
+            if (super.references.isEmpty() && !opened) {
+                dirCaches.values().remove(this);
+            }
+        }
+
         public <E> StateCacheReference<E> getStateCache(Serializer<E> serializer) {
             if (stateCache == null) {
                 SimpleStateCache<E> stateCache = new SimpleStateCache<E>(new File(getCache().getBaseDir(), "state.bin"), getCache().getLock(), serializer);
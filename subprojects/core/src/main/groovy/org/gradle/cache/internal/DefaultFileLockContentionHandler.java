@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.internal.Stoppable;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exchanges lock release notifications with other processes using UDP datagrams on the loopback interface. A waiting process sends a
+ * 'waiting' message to the lock owner, which records it and sends back a 'released' message when it releases the lock. A 'waiting' message
+ * for a lock which the owner does not hold is ignored. Messages may be lost, so waiters should always wait with a timeout and then poll the
+ * lock. Locks are identified by the canonical path of the lock file.
+ */
+public class DefaultFileLockContentionHandler implements FileLockContentionHandler, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileLockContentionHandler.class);
+    private static final byte PROTOCOL_VERSION = 1;
+    private static final byte WAITING = 1;
+    private static final byte RELEASED = 2;
+    private static final int MAX_MESSAGE_SIZE = 8192;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Set<String> heldLocks = new HashSet<String>();
+    private final Map<String, Set<SocketAddress>> waiters = new HashMap<String, Set<SocketAddress>>();
+    private final Map<String, Integer> releaseCounts = new HashMap<String, Integer>();
+    private DatagramSocket socket;
+    private boolean started;
+    private boolean stopped;
+
+    public int getCommunicationPort() {
+        lock.lock();
+        try {
+            return start() ? socket.getLocalPort() : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void lockAcquired(File lockFile) {
+        lock.lock();
+        try {
+            heldLocks.add(pathOf(lockFile));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void lockReleased(File lockFile) {
+        String path = pathOf(lockFile);
+        Set<SocketAddress> notify;
+        lock.lock();
+        try {
+            heldLocks.remove(path);
+            notify = waiters.remove(path);
+        } finally {
+            lock.unlock();
+        }
+        if (notify != null) {
+            for (SocketAddress waiter : notify) {
+                send(RELEASED, path, waiter);
+            }
+        }
+    }
+
+    public void waitForRelease(File lockFile, int ownerPort, long timeoutMs) throws InterruptedException {
+        String path = pathOf(lockFile);
+        lock.lock();
+        try {
+            if (!start()) {
+                released.await(timeoutMs, TimeUnit.MILLISECONDS);
+                return;
+            }
+            int seen = getReleaseCount(path);
+            send(WAITING, path, new InetSocketAddress(socket.getLocalAddress(), ownerPort));
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (getReleaseCount(path) == seen) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                released.await(remaining, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            if (socket != null) {
+                socket.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String pathOf(File lockFile) {
+        return GFileUtils.canonicalise(lockFile).getPath();
+    }
+
+    private int getReleaseCount(String path) {
+        Integer count = releaseCounts.get(path);
+        return count == null ? 0 : count;
+    }
+
+    private boolean start() {
+        if (started) {
+            return socket != null;
+        }
+        started = true;
+        if (stopped) {
+            return false;
+        }
+        try {
+            socket = new DatagramSocket(0, InetAddress.getByName(null));
+        } catch (IOException e) {
+            LOGGER.debug("Could not listen for file lock release messages. Falling back to polling.", e);
+            return false;
+        }
+        Thread listener = new Thread(new Runnable() {
+            public void run() {
+                receiveMessages();
+            }
+        }, "File lock release listener");
+        listener.setDaemon(true);
+        listener.start();
+        return true;
+    }
+
+    private void receiveMessages() {
+        byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            String path;
+            byte type;
+            try {
+                socket.receive(packet);
+                DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(packet.getData(), packet.getOffset(), packet.getLength()));
+                if (inputStream.readByte() != PROTOCOL_VERSION) {
+                    continue;
+                }
+                type = inputStream.readByte();
+                path = inputStream.readUTF();
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.debug("Could not receive file lock release message.", e);
+                }
+                continue;
+            }
+            if (type == WAITING) {
+                onWaiting(path, packet.getSocketAddress());
+            } else if (type == RELEASED) {
+                onReleased(path);
+            }
+        }
+    }
+
+    private void onWaiting(String path, SocketAddress waiter) {
+        lock.lock();
+        try {
+            if (!heldLocks.contains(path)) {
+                // Either the lock has already been released, or this process has not finished acquiring it. The waiter will poll the lock
+                return;
+            }
+            Set<SocketAddress> lockWaiters = waiters.get(path);
+            if (lockWaiters == null) {
+                lockWaiters = new HashSet<SocketAddress>();
+                waiters.put(path, lockWaiters);
+            }
+            lockWaiters.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onReleased(String path) {
+        lock.lock();
+        try {
+            releaseCounts.put(path, getReleaseCount(path) + 1);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(byte type, String path, SocketAddress address) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream outputStream = new DataOutputStream(bytes);
+            outputStream.writeByte(PROTOCOL_VERSION);
+            outputStream.writeByte(type);
+            outputStream.writeUTF(path);
+            outputStream.flush();
+            socket.send(new DatagramPacket(bytes.toByteArray(), bytes.size(), address));
+        } catch (IOException e) {
+            LOGGER.debug(String.format("Could not send file lock release message to %s.", address), e);
+        }
+    }
+}
@@ -29,11 +29,15 @@ import java.util.concurrent.CopyOnWriteArraySet;
  * Uses file system locks on a lock file per target file. Each lock file is made up of 2 regions:
  *
  * <ul> <li>State region: 1 byte version field, 1 byte clean flag.</li> <li>Owner information region: 1 byte version field, utf-8 encoded owner process id, utf-8 encoded owner operation display
- * name.</li> </ul>
+ * name, optional 4 byte port on which the owner listens for processes waiting for the lock.</li> </ul>
+ *
+ * <p>A process waiting for a lock asks the owner, using a {@link FileLockContentionHandler}, to notify it when the lock is released. It also
+ * polls the lock, for owners which do not listen or do not respond.</p>
  */
 public class DefaultFileLockManager implements FileLockManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileLockManager.class);
     private static final int DEFAULT_LOCK_TIMEOUT = 60000;
+    private static final long POLL_INTERVAL = 200L;
     private static final byte STATE_REGION_PROTOCOL = 1;
     private static final int STATE_REGION_SIZE = 2;
     private static final int STATE_REGION_POS = 0;
@@ -44,14 +48,24 @@ public class DefaultFileLockManager implements FileLockManager {
     private final Set<File> lockedFiles = new CopyOnWriteArraySet<File>();
     private final ProcessMetaDataProvider metaDataProvider;
     private final int lockTimeoutMs;
+    private final FileLockContentionHandler contentionHandler;
 
     public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider) {
         this(metaDataProvider, DEFAULT_LOCK_TIMEOUT);
     }
 
     public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, int lockTimeoutMs) {
+        this(metaDataProvider, lockTimeoutMs, new PollingContentionHandler());
+    }
+
+    public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, FileLockContentionHandler contentionHandler) {
+        this(metaDataProvider, DEFAULT_LOCK_TIMEOUT, contentionHandler);
+    }
+
+    public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, int lockTimeoutMs, FileLockContentionHandler contentionHandler) {
         this.metaDataProvider = metaDataProvider;
         this.lockTimeoutMs = lockTimeoutMs;
+        this.contentionHandler = contentionHandler;
     }
 
     public FileLock lock(File target, LockMode mode, String targetDisplayName) throws LockTimeoutException {
@@ -201,14 +215,18 @@ public class DefaultFileLockManager implements FileLockManager {
             try {
                 LOGGER.debug("Releasing lock on {}.", displayName);
                 lockedFiles.remove(target);
+                boolean exclusive = lock != null && !lock.isShared();
                 // Also releases any locks
                 try {
-                    if (lock != null && !lock.isShared()) {
+                    if (exclusive) {
                         // Discard information region
                         lockFileAccess.setLength(INFORMATION_REGION_POS);
                     }
                 } finally {
                     lockFileAccess.close();
+                    if (exclusive) {
+                        contentionHandler.lockReleased(lockFile);
+                    }
                 }
             } catch (IOException e) {
                 LOGGER.warn("Error releasing lock on {}: {}", displayName, e);
@@ -284,10 +302,15 @@ public class DefaultFileLockManager implements FileLockManager {
                         lockFileAccess.writeByte(INFORMATION_REGION_PROTOCOL);
                         lockFileAccess.writeUTF(trimIfNecessary(metaDataProvider.getProcessIdentifier()));
                         lockFileAccess.writeUTF(trimIfNecessary(operationDisplayName));
+                        int port = contentionHandler.getCommunicationPort();
+                        if (port > 0) {
+                            lockFileAccess.writeInt(port);
+                        }
                         lockFileAccess.setLength(lockFileAccess.getFilePointer());
                     } finally {
                         informationRegionLock.release();
                     }
+                    contentionHandler.lockAcquired(lockFile);
                 }
             } catch (Throwable t) {
                 stateRegionLock.release();
@@ -307,7 +330,60 @@ public class DefaultFileLockManager implements FileLockManager {
         }
 
         private java.nio.channels.FileLock lockStateRegion(LockMode lockMode, long timeout) throws IOException, InterruptedException {
-            return lockRegion(lockMode, timeout, STATE_REGION_POS, STATE_REGION_SIZE);
+            do {
+                java.nio.channels.FileLock fileLock = lockFileAccess.getChannel().tryLock(STATE_REGION_POS, STATE_REGION_SIZE, lockMode == LockMode.Shared);
+                if (fileLock != null) {
+                    return fileLock;
+                }
+                long waitStarted = System.currentTimeMillis();
+                int ownerPort = readOwnerPort();
+                if (ownerPort > 0) {
+                    contentionHandler.waitForRelease(lockFile, ownerPort, POLL_INTERVAL);
+                    fileLock = lockFileAccess.getChannel().tryLock(STATE_REGION_POS, STATE_REGION_SIZE, lockMode == LockMode.Shared);
+                    if (fileLock != null) {
+                        return fileLock;
+                    }
+                    // The lock was not released, or was taken by another process first. Do not poll more often than without notifications
+                    long remaining = waitStarted + POLL_INTERVAL - System.currentTimeMillis();
+                    if (remaining > 0) {
+                        Thread.sleep(remaining);
+                    }
+                } else {
+                    Thread.sleep(POLL_INTERVAL);
+                }
+            } while (System.currentTimeMillis() < timeout);
+            return null;
+        }
+
+        /**
+         * Reads the port on which the owner of the lock listens for waiting processes, from the information region. Returns -1 when the
+         * owner does not listen or the information region cannot be read right now.
+         */
+        private int readOwnerPort() throws IOException {
+            java.nio.channels.FileLock informationRegionLock = lockFileAccess.getChannel().tryLock(INFORMATION_REGION_POS, INFORMATION_REGION_SIZE - INFORMATION_REGION_POS, true);
+            if (informationRegionLock == null) {
+                return -1;
+            }
+            try {
+                if (lockFileAccess.length() <= INFORMATION_REGION_POS) {
+                    return -1;
+                }
+                lockFileAccess.seek(INFORMATION_REGION_POS);
+                if (lockFileAccess.readByte() != INFORMATION_REGION_PROTOCOL) {
+                    return -1;
+                }
+                lockFileAccess.readUTF();
+                lockFileAccess.readUTF();
+                if (lockFileAccess.getFilePointer() + 4 > lockFileAccess.length()) {
+                    return -1;
+                }
+                return lockFileAccess.readInt();
+            } catch (EOFException e) {
+                // Owner has not finished writing the information region
+                return -1;
+            } finally {
+                informationRegionLock.release();
+            }
         }
 
         private java.nio.channels.FileLock lockInformationRegion(LockMode lockMode, long timeout) throws IOException, InterruptedException {
@@ -320,9 +396,25 @@ public class DefaultFileLockManager implements FileLockManager {
                 if (fileLock != null) {
                     return fileLock;
                 }
-                Thread.sleep(200L);
+                Thread.sleep(POLL_INTERVAL);
             } while (System.currentTimeMillis() < timeout);
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private static class PollingContentionHandler implements FileLockContentionHandler {
+        public int getCommunicationPort() {
+            return -1;
+        }
+
+        public void lockAcquired(File lockFile) {
+        }
+
+        public void lockReleased(File lockFile) {
+        }
+
+        public void waitForRelease(File lockFile, int ownerPort, long timeoutMs) throws InterruptedException {
+            Thread.sleep(timeoutMs);
+        }
+    }
+}
@@ -104,6 +104,10 @@ public class DefaultPersistentDirectoryStore implements ReferencablePersistentCa
         return cacheAccess.getFileLock();
     }
 
+    public void enableConcurrentAccess() {
+        cacheAccess.enableConcurrentAccess();
+    }
+
     public File getBaseDir() {
         return dir;
     }
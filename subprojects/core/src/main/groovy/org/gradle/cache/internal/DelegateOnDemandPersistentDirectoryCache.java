@@ -100,6 +100,10 @@ public class DelegateOnDemandPersistentDirectoryCache implements ReferencablePer
         throw new UnsupportedOperationException();
     }
 
+    public void enableConcurrentAccess() {
+        throw new UnsupportedOperationException();
+    }
+
     public <K, V> PersistentIndexedCache<K, V> createCache(File cacheFile, Class<K> keyType, Serializer<V> valueSerializer) {
         throw new UnsupportedOperationException();
     }
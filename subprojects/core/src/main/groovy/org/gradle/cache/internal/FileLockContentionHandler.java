@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import java.io.File;
+
+/**
+ * Allows a process which is waiting for a file lock held by another process to be notified as soon as the lock is released, rather than
+ * having to poll for it.
+ */
+public interface FileLockContentionHandler {
+    /**
+     * Returns the port on which this process listens for processes waiting for its locks, or -1 if it is not listening.
+     */
+    int getCommunicationPort();
+
+    /**
+     * Called when this process has acquired an exclusive lock on the given lock file.
+     */
+    void lockAcquired(File lockFile);
+
+    /**
+     * Called when this process has released its exclusive lock on the given lock file. Notifies the processes waiting for the lock.
+     */
+    void lockReleased(File lockFile);
+
+    /**
+     * Asks the process listening on the given port to notify this process when it releases the given lock file, and blocks until
+     * notified or until the given timeout has elapsed. The caller should attempt to acquire the lock again when this method returns.
+     */
+    void waitForRelease(File lockFile, int ownerPort, long timeoutMs) throws InterruptedException;
+}
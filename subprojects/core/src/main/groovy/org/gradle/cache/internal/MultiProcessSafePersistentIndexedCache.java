@@ -21,6 +21,10 @@ import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
 
 import java.io.Closeable;
 
+/**
+ * An indexed cache which may be used by multiple threads. Each operation holds the lock for this cache only, so that operations on other caches
+ * can proceed at the same time.
+ */
 public class MultiProcessSafePersistentIndexedCache<K, V> implements PersistentIndexedCache<K, V>, UnitOfWorkParticipant, Closeable {
     private final FileAccess fileAccess;
     private final Factory<BTreePersistentIndexedCache<K, V>> factory;
@@ -31,7 +35,7 @@ public class MultiProcessSafePersistentIndexedCache<K, V> implements PersistentI
         this.fileAccess = fileAccess;
     }
 
-    public V get(final K key) {
+    public synchronized V get(final K key) {
         final PersistentIndexedCache<K, V> cache = getCache();
         try {
             return fileAccess.readFile(new Factory<V>() {
@@ -44,7 +48,7 @@ public class MultiProcessSafePersistentIndexedCache<K, V> implements PersistentI
         }
     }
 
-    public void put(final K key, final V value) {
+    public synchronized void put(final K key, final V value) {
         final PersistentIndexedCache<K, V> cache = getCache();
         // Use writeFile because the cache can internally recover from datafile
         // corruption, so we don't care at this level if it's corrupt
@@ -55,7 +59,7 @@ public class MultiProcessSafePersistentIndexedCache<K, V> implements PersistentI
         });
     }
 
-    public void remove(final K key) {
+    public synchronized void remove(final K key) {
         final PersistentIndexedCache<K, V> cache = getCache();
         // Use writeFile because the cache can internally recover from datafile
         // corruption, so we don't care at this level if it's corrupt
@@ -69,11 +73,11 @@ public class MultiProcessSafePersistentIndexedCache<K, V> implements PersistentI
     public void onStartWork(String operationDisplayName) {
     }
 
-    public void onEndWork() {
+    public synchronized void onEndWork() {
         close();
     }
 
-    public void close() {
+    public synchronized void close() {
         if (cache != null) {
             try {
                 fileAccess.writeFile(new Runnable() {
@@ -15,18 +15,28 @@
  */
 package org.gradle.cache.internal.btree;
 
-import org.apache.commons.collections.map.LRUMap;
-
 import java.util.*;
 
+/**
+ * Holds pending writes in memory until flushed, and caches recently used blocks of the given types. The cache is bounded by the total size
+ * of the cached blocks.
+ */
 public class CachingBlockStore implements BlockStore {
+    public static final int DEFAULT_CACHE_SIZE = 1024 * 1024;
     private final BlockStore store;
     private final Map<BlockPointer, BlockPayload> dirty = new LinkedHashMap<BlockPointer, BlockPayload>();
-    private final Map<BlockPointer, BlockPayload> indexBlockCache = new LRUMap(100);
+    private final Map<BlockPointer, CachedBlock> blockCache = new LinkedHashMap<BlockPointer, CachedBlock>(16, 0.75f, true);
     private final Set<Class<?>> cachableTypes = new HashSet<Class<?>>();
+    private final long maxCacheSize;
+    private long cacheSize;
 
     public CachingBlockStore(BlockStore store, Class<? extends BlockPayload>... cacheableBlockTypes) {
+        this(store, DEFAULT_CACHE_SIZE, cacheableBlockTypes);
+    }
+
+    public CachingBlockStore(BlockStore store, long maxCacheSize, Class<? extends BlockPayload>... cacheableBlockTypes) {
         this.store = store;
+        this.maxCacheSize = maxCacheSize;
         cachableTypes.addAll(Arrays.asList(cacheableBlockTypes));
     }
 
@@ -36,13 +46,13 @@ public class CachingBlockStore implements BlockStore {
 
     public void close() {
         flush();
-        indexBlockCache.clear();
+        clearCache();
         store.close();
     }
 
     public void clear() {
         dirty.clear();
-        indexBlockCache.clear();
+        clearCache();
         store.clear();
     }
 
@@ -62,7 +72,7 @@ public class CachingBlockStore implements BlockStore {
 
     public void remove(BlockPayload block) {
         dirty.remove(block.getPos());
-        indexBlockCache.remove(block.getPos());
+        uncache(block.getPos());
         store.remove(block);
     }
 
@@ -77,9 +87,9 @@ public class CachingBlockStore implements BlockStore {
         if (block != null) {
             return block;
         }
-        block = payloadType.cast(indexBlockCache.get(pos));
-        if (block != null) {
-            return block;
+        CachedBlock cached = blockCache.get(pos);
+        if (cached != null) {
+            return payloadType.cast(cached.payload);
         }
         block = store.read(pos, payloadType);
         maybeCache(block);
@@ -93,8 +103,42 @@ public class CachingBlockStore implements BlockStore {
     }
 
     private <T extends BlockPayload> void maybeCache(T block) {
-        if (cachableTypes.contains(block.getClass())) {
-            indexBlockCache.put(block.getPos(), block);
+        if (!cachableTypes.contains(block.getClass())) {
+            return;
+        }
+        BlockPointer pos = block.getPos();
+        uncache(pos);
+        CachedBlock cached = new CachedBlock(block, block.getBlock().getSize());
+        blockCache.put(pos, cached);
+        cacheSize += cached.size;
+
+        Iterator<CachedBlock> iterator = blockCache.values().iterator();
+        while (cacheSize > maxCacheSize && iterator.hasNext()) {
+            CachedBlock eldest = iterator.next();
+            iterator.remove();
+            cacheSize -= eldest.size;
+        }
+    }
+
+    private void uncache(BlockPointer pos) {
+        CachedBlock cached = blockCache.remove(pos);
+        if (cached != null) {
+            cacheSize -= cached.size;
+        }
+    }
+
+    private void clearCache() {
+        blockCache.clear();
+        cacheSize = 0;
+    }
+
+    private static class CachedBlock {
+        private final BlockPayload payload;
+        private final int size;
+
+        private CachedBlock(BlockPayload payload, int size) {
+            this.payload = payload;
+            this.size = size;
         }
     }
 }
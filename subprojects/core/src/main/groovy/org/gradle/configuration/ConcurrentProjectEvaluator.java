@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.CircularReferenceException;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectMutationGuard;
+import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
+import org.gradle.util.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ProjectEvaluator} which allows projects to be evaluated by multiple threads. A thread which needs a project that is being evaluated
+ * by some other thread waits for that evaluation to complete. A project's ancestors are evaluated before the project. Changes to the models of
+ * other projects are rejected while a project is being evaluated.
+ */
+public class ConcurrentProjectEvaluator implements ProjectEvaluator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentProjectEvaluator.class);
+    private final ProjectEvaluator evaluator;
+    private final Object lock = new Object();
+    private final Map<ProjectInternal, Thread> evaluating = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> waitingFor = new HashMap<Thread, ProjectInternal>();
+
+    public ConcurrentProjectEvaluator(ProjectEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+        evaluateParent(project);
+        if (!acquire(project)) {
+            // Already being evaluated by this thread
+            evaluator.evaluate(project, state);
+            return;
+        }
+        try {
+            if (state.getExecuted()) {
+                return;
+            }
+            Clock clock = new Clock();
+            ProjectMutationGuard.beforeConfigure(project);
+            try {
+                evaluator.evaluate(project, state);
+            } finally {
+                ProjectMutationGuard.afterConfigure();
+            }
+            LOGGER.info("Configured {} in {}.", project, clock.getTime());
+        } finally {
+            release(project);
+        }
+    }
+
+    /**
+     * Evaluates the ancestors of the given project, so that configuration injected by them is applied before the project is evaluated, as it
+     * is when the projects are evaluated one at a time. This matters when another project's evaluation depends on this project. An ancestor
+     * which this thread is already evaluating is left alone, as it is when projects are evaluated one at a time.
+     */
+    private void evaluateParent(ProjectInternal project) {
+        ProjectInternal parent = project.getParent();
+        if (parent == null || parent.getState().getExecuted()) {
+            return;
+        }
+        synchronized (lock) {
+            if (evaluating.get(parent) == Thread.currentThread()) {
+                return;
+            }
+        }
+        parent.evaluate();
+    }
+
+    /**
+     * Waits until no other thread is evaluating the given project, then marks it as being evaluated by this thread. Returns false when this
+     * thread is already evaluating the project.
+     */
+    private boolean acquire(ProjectInternal project) {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            Thread owner;
+            while ((owner = evaluating.get(project)) != null) {
+                if (owner == current) {
+                    return false;
+                }
+                checkForCycle(project, current);
+                waitingFor.put(current, project);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    waitingFor.remove(current);
+                }
+            }
+            evaluating.put(project, current);
+            return true;
+        }
+    }
+
+    /**
+     * Follows the chain of threads waiting on each other, starting with the thread which is evaluating the given project. Fails if the chain
+     * leads back to the current thread.
+     */
+    private void checkForCycle(ProjectInternal project, Thread current) {
+        ProjectInternal next = project;
+        while (next != null) {
+            Thread owner = evaluating.get(next);
+            if (owner == null) {
+                return;
+            }
+            if (owner == current) {
+                throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", project));
+            }
+            next = waitingFor.get(owner);
+        }
+    }
+
+    private void release(ProjectInternal project) {
+        synchronized (lock) {
+            evaluating.remove(project);
+            lock.notifyAll();
+        }
+    }
+}
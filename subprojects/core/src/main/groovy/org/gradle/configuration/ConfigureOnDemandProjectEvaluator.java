@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link ProjectEvaluator} for use when projects are configured on demand. Applies the given actions to each project once it has been
+ * evaluated, as these are not applied to every project by the {@link BuildConfigurer}. The ancestors of a project are evaluated before the
+ * project itself. A project which is already being evaluated by the current thread is not evaluated again, as a project may be used on demand
+ * during its own evaluation.
+ *
+ * @see ConfigureOnDemandBuildConfigurer
+ */
+public class ConfigureOnDemandProjectEvaluator implements ProjectEvaluator {
+    private final ProjectEvaluator evaluator;
+    private final List<Action<? super ProjectInternal>> actions;
+
+    public ConfigureOnDemandProjectEvaluator(ProjectEvaluator evaluator, Action<? super ProjectInternal>... actions) {
+        this.evaluator = evaluator;
+        this.actions = new ArrayList<Action<? super ProjectInternal>>(Arrays.asList(actions));
+    }
+
+    public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+        if (state.getExecuted() || state.getExecuting()) {
+            return;
+        }
+        // Evaluate the ancestors first, as they may configure this project using subprojects {} or allprojects {}
+        ProjectInternal parent = project.getParent();
+        if (parent != null) {
+            parent.evaluate();
+        }
+        evaluator.evaluate(project, state);
+        state.rethrowFailure();
+        for (Action<? super ProjectInternal> action : actions) {
+            action.execute(project);
+        }
+    }
+}
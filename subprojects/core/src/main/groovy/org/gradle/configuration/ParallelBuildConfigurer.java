@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.LinkedList;
+
+/**
+ * A {@link BuildConfigurer} which evaluates the projects of the build using a pool of threads, before passing the build to another configurer.
+ * A project is evaluated once its parent project has been evaluated. Projects are expected to be evaluated using a {@link
+ * ConcurrentProjectEvaluator}.
+ */
+public class ParallelBuildConfigurer implements BuildConfigurer {
+    private final BuildConfigurer delegate;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+
+    public ParallelBuildConfigurer(BuildConfigurer delegate, ExecutorFactory executorFactory, int maxThreads) {
+        this.delegate = delegate;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    public void configure(GradleInternal gradle) {
+        evaluate(gradle.getRootProject());
+        delegate.configure(gradle);
+    }
+
+    private void evaluate(ProjectInternal rootProject) {
+        final ProjectQueue queue = new ProjectQueue(rootProject);
+        StoppableExecutor executor = executorFactory.create("Project configuration");
+        try {
+            for (int i = 0; i < maxThreads; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        ProjectInternal project;
+                        while ((project = queue.take()) != null) {
+                            Throwable failure = null;
+                            try {
+                                project.evaluate();
+                            } catch (Throwable t) {
+                                failure = t;
+                            }
+                            queue.finished(project, failure);
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+        queue.rethrowFailure();
+    }
+
+    /**
+     * The projects which are ready to be evaluated. Stops handing out projects once a project has failed.
+     */
+    private static class ProjectQueue {
+        private final LinkedList<ProjectInternal> ready = new LinkedList<ProjectInternal>();
+        private int running;
+        private Throwable failure;
+
+        private ProjectQueue(ProjectInternal rootProject) {
+            ready.add(rootProject);
+        }
+
+        /**
+         * Returns the next project to evaluate, blocking until one is available. Returns null when there are no more projects to evaluate.
+         */
+        public synchronized ProjectInternal take() {
+            while (true) {
+                if (failure != null) {
+                    return null;
+                }
+                if (!ready.isEmpty()) {
+                    running++;
+                    return ready.removeFirst();
+                }
+                if (running == 0) {
+                    return null;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+
+        public synchronized void finished(ProjectInternal project, Throwable failure) {
+            running--;
+            if (failure != null) {
+                if (this.failure == null) {
+                    this.failure = failure;
+                }
+            } else {
+                for (Project child : project.getChildProjects().values()) {
+                    ready.add((ProjectInternal) child);
+                }
+            }
+            notifyAll();
+        }
+
+        public synchronized void rethrowFailure() {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
+}
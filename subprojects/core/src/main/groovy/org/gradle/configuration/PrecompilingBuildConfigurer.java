@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.initialization.ScriptClassLoaderProvider;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectScript;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.Transformer;
+import org.gradle.groovy.scripts.internal.BuildScriptClasspathScriptTransformer;
+import org.gradle.groovy.scripts.internal.BuildScriptTransformer;
+import org.gradle.groovy.scripts.internal.ScriptClassCompiler;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@link BuildConfigurer} which compiles the build scripts of all projects concurrently, before configuring the build. The compiled classes
+ * are cached by the given {@link ScriptClassCompiler}, so that project evaluation does not need to compile them again.
+ *
+ * <p>A script is compiled against its project's script class loader, which is not complete until the {@code buildscript} blocks of the
+ * project and its ancestors have been executed. So, a script is only compiled ahead of time when the class loader it will be compiled
+ * against is already complete. Other scripts are compiled when their project is evaluated, as usual.</p>
+ *
+ * <p>Whether a project declares a {@code buildscript} block is guessed from the text of its build script, so this configurer is only used
+ * when the {@value #ENABLED_PROPERTY} system property is set to {@code true}.</p>
+ */
+public class PrecompilingBuildConfigurer implements BuildConfigurer {
+    public static final String ENABLED_PROPERTY = "org.gradle.scripts.precompile";
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrecompilingBuildConfigurer.class);
+    private static final String CLASSPATH_CLOSURE_NAME = "buildscript";
+    private final BuildConfigurer delegate;
+    private final ScriptClassCompiler scriptClassCompiler;
+    private final ImportsReader importsReader;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+
+    public PrecompilingBuildConfigurer(BuildConfigurer delegate, ScriptClassCompiler scriptClassCompiler, ImportsReader importsReader, ExecutorFactory executorFactory) {
+        this(delegate, scriptClassCompiler, importsReader, executorFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public PrecompilingBuildConfigurer(BuildConfigurer delegate, ScriptClassCompiler scriptClassCompiler, ImportsReader importsReader, ExecutorFactory executorFactory, int maxThreads) {
+        this.delegate = delegate;
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.importsReader = importsReader;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    public void configure(GradleInternal gradle) {
+        List<ScriptCompilation> compilations = new ArrayList<ScriptCompilation>();
+        collectCompilations(gradle.getRootProject(), false, compilations);
+        if (compilations.size() > 1 && maxThreads > 1) {
+            compile(compilations);
+        }
+        delegate.configure(gradle);
+    }
+
+    private void collectCompilations(ProjectInternal project, boolean ancestorDeclaresClasspath, List<ScriptCompilation> compilations) {
+        ScriptSource buildScript = new CachingScriptSource(project.getBuildScriptSource());
+        boolean declaresClasspath;
+        try {
+            declaresClasspath = buildScript.getResource().getText().contains(CLASSPATH_CLOSURE_NAME);
+        } catch (Exception e) {
+            LOGGER.info(String.format("Could not read %s. Not compiling it ahead of time.", buildScript.getDisplayName()), e);
+            declaresClasspath = true;
+        }
+
+        if (!ancestorDeclaresClasspath) {
+            ScriptSource source = importsReader.withImports(buildScript);
+            ClassLoader classLoader = project.getServices().get(ScriptClassLoaderProvider.class).getClassLoader();
+            BuildScriptClasspathScriptTransformer classpathTransformer = new BuildScriptClasspathScriptTransformer(CLASSPATH_CLOSURE_NAME);
+            compilations.add(new ScriptCompilation(source, classLoader, classpathTransformer));
+            if (!declaresClasspath) {
+                compilations.add(new ScriptCompilation(source, classLoader, new BuildScriptTransformer(classpathTransformer)));
+            } else {
+                LOGGER.info("Not compiling {} ahead of time, as it declares a build script classpath.", buildScript.getDisplayName());
+            }
+        } else {
+            LOGGER.info("Not compiling {} ahead of time, as an ancestor project declares a build script classpath.", buildScript.getDisplayName());
+        }
+
+        for (Project child : project.getChildProjects().values()) {
+            collectCompilations((ProjectInternal) child, ancestorDeclaresClasspath || declaresClasspath, compilations);
+        }
+    }
+
+    private void compile(List<ScriptCompilation> compilations) {
+        final Queue<ScriptCompilation> queue = new ConcurrentLinkedQueue<ScriptCompilation>(compilations);
+        int threads = Math.min(maxThreads, compilations.size());
+        LOGGER.debug("Compiling {} build scripts using {} threads.", compilations.size(), threads);
+        StoppableExecutor executor = executorFactory.create("Build script compiler");
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        ScriptCompilation compilation;
+                        while ((compilation = queue.poll()) != null) {
+                            compilation.run();
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private class ScriptCompilation implements Runnable {
+        private final ScriptSource source;
+        private final ClassLoader classLoader;
+        private final Transformer transformer;
+
+        private ScriptCompilation(ScriptSource source, ClassLoader classLoader, Transformer transformer) {
+            this.source = source;
+            this.classLoader = classLoader;
+            this.transformer = transformer;
+        }
+
+        public void run() {
+            try {
+                scriptClassCompiler.compile(source, classLoader, transformer, ProjectScript.class);
+            } catch (Exception e) {
+                // Leave it to project evaluation to compile the script again and report the failure
+                LOGGER.info(String.format("Could not compile %s ahead of time.", source.getDisplayName()), e);
+            }
+        }
+    }
+}
@@ -34,6 +34,12 @@ public class TaskNameResolver {
     }
 
     private SetMultimap<String, Task> select(String name, ProjectInternal project, Iterable<Project> additionalProjects) {
+        // The projects may not have been configured yet, when projects are configured on demand
+        project.evaluate();
+        for (Project additionalProject : additionalProjects) {
+            ((ProjectInternal) additionalProject).evaluate();
+        }
+
         SetMultimap<String, Task> selected = LinkedHashMultimap.create();
         Task task = project.getTasks().findByName(name);
         if (task != null) {
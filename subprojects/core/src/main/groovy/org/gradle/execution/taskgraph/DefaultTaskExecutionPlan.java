@@ -19,12 +19,15 @@ package org.gradle.execution.taskgraph;
 import org.gradle.api.CircularReferenceException;
 import org.gradle.api.Task;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.TaskDurationRepository;
 import org.gradle.api.internal.tasks.CachingTaskDependencyResolveContext;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.execution.MultipleBuildFailures;
 import org.gradle.execution.TaskFailureHandler;
 import org.gradle.internal.UncheckedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.locks.Condition;
@@ -34,12 +37,38 @@ import java.util.concurrent.locks.ReentrantLock;
 /**
  * A reusable implementation of TaskExecutionPlan. The {@link #addToTaskGraph(java.util.Collection)} and {@link #clear()} methods are NOT threadsafe, and callers must synchronize
  * access to these methods.
+ *
+ * <p>Each task tracks the number of its dependencies which have not completed. A task is added to the ready queue when this count reaches zero, so that
+ * selecting the next task to execute and completing a task do not need to scan the whole plan.</p>
+ *
+ * <p>Ready tasks are returned in execution order, unless {@link #prioritiseCriticalPath(TaskDurationRepository)} has been called.</p>
  */
 class DefaultTaskExecutionPlan implements TaskExecutionPlan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTaskExecutionPlan.class);
+    private static final Comparator<TaskInfo> EXECUTION_ORDER = new Comparator<TaskInfo>() {
+        public int compare(TaskInfo o1, TaskInfo o2) {
+            return o1.getOrdinal() - o2.getOrdinal();
+        }
+    };
+    private static final Comparator<TaskInfo> CRITICAL_PATH_FIRST = new Comparator<TaskInfo>() {
+        public int compare(TaskInfo o1, TaskInfo o2) {
+            if (o1.getCriticalPathDuration() != o2.getCriticalPathDuration()) {
+                return o1.getCriticalPathDuration() > o2.getCriticalPathDuration() ? -1 : 1;
+            }
+            return o1.getOrdinal() - o2.getOrdinal();
+        }
+    };
+
     private final Lock lock = new ReentrantLock();
-    private final Condition condition = lock.newCondition();
+    private final Condition taskAvailable = lock.newCondition();
+    private final Condition completion = lock.newCondition();
     private final LinkedHashMap<Task, TaskInfo> executionPlan = new LinkedHashMap<Task, TaskInfo>();
+    private SortedSet<TaskInfo> readyQueue = new TreeSet<TaskInfo>(EXECUTION_ORDER);
     private final List<Throwable> failures = new ArrayList<Throwable>();
+    private int notStartedCount;
+    private int completeCount;
+    private int waitingWorkers;
+    private boolean criticalPathPrioritised;
     private Spec<? super Task> filter = Specs.satisfyAll();
 
     private TaskFailureHandler failureHandler = new RethrowingFailureHandler();
@@ -88,7 +117,12 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                     }
                     // else - the dependency has been filtered, so ignore it
                 }
-                executionPlan.put(task, new TaskInfo((TaskInternal) task, dependencies));
+                TaskInfo taskInfo = new TaskInfo((TaskInternal) task, dependencies, executionPlan.size());
+                executionPlan.put(task, taskInfo);
+                notStartedCount++;
+                if (taskInfo.allDependenciesComplete()) {
+                    readyQueue.add(taskInfo);
+                }
             }
         }
     }
@@ -97,7 +131,11 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         lock.lock();
         try {
             executionPlan.clear();
+            readyQueue = new TreeSet<TaskInfo>(EXECUTION_ORDER);
             failures.clear();
+            notStartedCount = 0;
+            completeCount = 0;
+            criticalPathPrioritised = false;
         } finally {
             lock.unlock();
         }
@@ -115,49 +153,132 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         this.failureHandler = handler;
     }
 
-    public TaskInfo getTaskToExecute(Spec<TaskInfo> criteria) {
+    public void prioritiseCriticalPath(TaskDurationRepository durations) {
         lock.lock();
         try {
-
-            TaskInfo nextMatching;
-            while ((nextMatching = getNextReadyAndMatching(criteria)) != null) {
-                while (!nextMatching.allDependenciesComplete()) {
-                    try {
-                        condition.await();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
+            List<TaskInfo> tasks = new ArrayList<TaskInfo>(executionPlan.values());
+            Map<TaskInfo, Long> knownDurations = new HashMap<TaskInfo, Long>();
+            long totalDuration = 0;
+            for (TaskInfo taskInfo : tasks) {
+                Long duration = durations.getDuration(taskInfo.getTask());
+                if (duration != null) {
+                    knownDurations.put(taskInfo, duration);
+                    totalDuration += duration;
                 }
-
-                // The task state could have been modified while we waited for dependency completion. Check that it is still 'ready'.
-                if (!nextMatching.isReady()) {
-                    continue;
+            }
+            // Tasks that have not been executed before are assumed to take the average time
+            long defaultDuration = knownDurations.isEmpty() ? 1 : Math.max(1, totalDuration / knownDurations.size());
+
+            // A task always appears in the plan after the tasks it depends on, so visit the plan in reverse
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                TaskInfo taskInfo = tasks.get(i);
+                Long duration = knownDurations.get(taskInfo);
+                long estimatedDuration = duration != null ? duration : defaultDuration;
+                long longestDependentPath = 0;
+                for (TaskInfo dependent : taskInfo.getDependents()) {
+                    longestDependentPath = Math.max(longestDependentPath, dependent.getCriticalPathDuration());
                 }
+                taskInfo.setEstimatedDuration(estimatedDuration, estimatedDuration + longestDependentPath);
+            }
 
-                if (nextMatching.allDependenciesSuccessful()) {
-                    nextMatching.startExecution();
-                    return nextMatching;
-                } else {
-                    nextMatching.skipExecution();
-                    condition.signalAll();
+            SortedSet<TaskInfo> prioritised = new TreeSet<TaskInfo>(CRITICAL_PATH_FIRST);
+            prioritised.addAll(readyQueue);
+            readyQueue = prioritised;
+            criticalPathPrioritised = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The chain of dependent tasks with the longest estimated duration, in execution order.
+     */
+    List<TaskInfo> getPredictedCriticalPath() {
+        lock.lock();
+        try {
+            List<TaskInfo> path = new ArrayList<TaskInfo>();
+            TaskInfo current = null;
+            for (TaskInfo taskInfo : executionPlan.values()) {
+                if (current == null || taskInfo.getCriticalPathDuration() > current.getCriticalPathDuration()) {
+                    current = taskInfo;
                 }
             }
+            while (current != null) {
+                path.add(current);
+                TaskInfo next = null;
+                for (TaskInfo dependent : current.getDependents()) {
+                    if (next == null || dependent.getCriticalPathDuration() > next.getCriticalPathDuration()) {
+                        next = dependent;
+                    }
+                }
+                current = next;
+            }
+            return path;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            return null;
-
+    /**
+     * @return The chain of dependent tasks that finished last, in execution order. Only includes tasks that have been executed.
+     */
+    List<TaskInfo> getActualCriticalPath() {
+        lock.lock();
+        try {
+            List<TaskInfo> path = new ArrayList<TaskInfo>();
+            TaskInfo current = latestFinished(executionPlan.values());
+            while (current != null) {
+                path.add(0, current);
+                current = latestFinished(current.getDependencies());
+            }
+            return path;
         } finally {
             lock.unlock();
         }
+    }
 
+    private static TaskInfo latestFinished(Collection<TaskInfo> tasks) {
+        TaskInfo latest = null;
+        for (TaskInfo taskInfo : tasks) {
+            if (taskInfo.getFinishTime() > 0 && (latest == null || taskInfo.getFinishTime() > latest.getFinishTime())) {
+                latest = taskInfo;
+            }
+        }
+        return latest;
     }
 
-    private TaskInfo getNextReadyAndMatching(Spec<TaskInfo> criteria) {
-        for (TaskInfo taskInfo : executionPlan.values()) {
-            if (taskInfo.isReady() && criteria.isSatisfiedBy(taskInfo)) {
-                return taskInfo;
+    public TaskInfo getTaskToExecute(Spec<TaskInfo> criteria) {
+        lock.lock();
+        try {
+            while (notStartedCount > 0) {
+                for (TaskInfo taskInfo : readyQueue) {
+                    if (criteria.isSatisfiedBy(taskInfo)) {
+                        readyQueue.remove(taskInfo);
+                        notStartedCount--;
+                        taskInfo.startExecution();
+                        if (notStartedCount == 0) {
+                            // Nothing else to hand out - release any waiting workers
+                            taskAvailable.signalAll();
+                        }
+                        return taskInfo;
+                    }
+                }
+
+                // No matching task can start yet. The ready tasks may be rejected only for now (eg their project is busy), so keep waiting
+                // for another task to complete rather than returning, as the caller treats null as 'no more work'
+                waitingWorkers++;
+                try {
+                    taskAvailable.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    waitingWorkers--;
+                }
             }
+            return null;
+        } finally {
+            lock.unlock();
         }
-        return null;
     }
 
     public void taskComplete(TaskInfo taskInfo) {
@@ -168,12 +289,49 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             }
 
             taskInfo.finishExecution();
-            condition.signalAll();
+            completed(taskInfo);
+            signalWorkers();
         } finally {
             lock.unlock();
         }
     }
 
+    private void completed(TaskInfo taskInfo) {
+        List<TaskInfo> queue = new LinkedList<TaskInfo>();
+        queue.add(taskInfo);
+        while (!queue.isEmpty()) {
+            TaskInfo completed = queue.remove(0);
+            completeCount++;
+            for (TaskInfo dependent : completed.getDependents()) {
+                if (!dependent.dependencyComplete() || !dependent.isReady()) {
+                    continue;
+                }
+                if (dependent.allDependenciesSuccessful()) {
+                    readyQueue.add(dependent);
+                } else {
+                    dependent.skipExecution();
+                    notStartedCount--;
+                    queue.add(dependent);
+                }
+            }
+        }
+    }
+
+    private void signalWorkers() {
+        if (notStartedCount == 0) {
+            taskAvailable.signalAll();
+        } else {
+            // Only wake as many workers as there are tasks that may be able to start
+            int count = Math.min(readyQueue.size(), waitingWorkers);
+            for (int i = 0; i < count; i++) {
+                taskAvailable.signal();
+            }
+        }
+        if (completeCount == executionPlan.size()) {
+            completion.signalAll();
+        }
+    }
+
     private void handleFailure(TaskInfo taskInfo) {
         Throwable executionFailure = taskInfo.getExecutionFailure();
         if (executionFailure != null) {
@@ -199,8 +357,11 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         for (TaskInfo taskInfo : executionPlan.values()) {
             if (taskInfo.isReady()) {
                 taskInfo.skipExecution();
+                notStartedCount--;
+                completeCount++;
             }
         }
+        readyQueue.clear();
     }
 
     public void awaitCompletion() {
@@ -208,17 +369,35 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         try {
             while (!allTasksComplete()) {
                 try {
-                    condition.await();
+                    completion.await();
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
             }
+            if (criticalPathPrioritised && LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Predicted critical path: {}", format(getPredictedCriticalPath(), true));
+                LOGGER.debug("Actual critical path: {}", format(getActualCriticalPath(), false));
+            }
             rethrowFailures();
         } finally {
             lock.unlock();
         }
     }
 
+    private static String format(List<TaskInfo> path, boolean predicted) {
+        StringBuilder builder = new StringBuilder();
+        long total = 0;
+        for (TaskInfo taskInfo : path) {
+            long duration = predicted ? taskInfo.getEstimatedDuration() : taskInfo.getFinishTime() - taskInfo.getStartTime();
+            total += duration;
+            if (builder.length() > 0) {
+                builder.append(" -> ");
+            }
+            builder.append(taskInfo.getTask().getPath()).append(" (").append(duration).append("ms)");
+        }
+        return builder.append(", total ").append(total).append("ms").toString();
+    }
+
     private void rethrowFailures() {
         if (failures.isEmpty()) {
             return;
@@ -232,12 +411,7 @@ class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     }
 
     private boolean allTasksComplete() {
-        for (TaskInfo taskInfo : executionPlan.values()) {
-            if (!taskInfo.isComplete()) {
-                return false;
-            }
-        }
-        return true;
+        return completeCount == executionPlan.size();
     }
 
     private static class RethrowingFailureHandler implements TaskFailureHandler {
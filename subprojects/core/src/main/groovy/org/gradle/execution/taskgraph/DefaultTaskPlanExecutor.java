@@ -45,7 +45,7 @@ class DefaultTaskPlanExecutor implements TaskPlanExecutor {
 
     // TODO:PARALLEL It would be good to move this logic into a TaskExecuter wrapper, but we'd need a way to give it a TaskExecutionListener that
     // is wired to the various add/remove listener methods on TaskExecutionGraph
-    private void executeTask(TaskInfo taskInfo, TaskExecutionListener taskListener) {
+    protected void executeTask(TaskInfo taskInfo, TaskExecutionListener taskListener) {
         TaskInternal task = taskInfo.getTask();
         taskListener.beforeExecute(task);
         try {
@@ -18,9 +18,15 @@ package org.gradle.execution.taskgraph;
 
 class ExecutionOptions {
     private final int parallelExecutors;
+    private final TaskAffinityPolicy affinityPolicy;
 
     public ExecutionOptions(int parallelExecutors) {
+        this(parallelExecutors, null);
+    }
+
+    public ExecutionOptions(int parallelExecutors, String affinityPolicy) {
         this.parallelExecutors = parallelExecutors;
+        this.affinityPolicy = TaskAffinityPolicy.parse(affinityPolicy);
     }
 
     public boolean executeProjectsInParallel() {
@@ -33,4 +39,8 @@ class ExecutionOptions {
         }
         return parallelExecutors;
     }
+
+    public TaskAffinityPolicy getAffinityPolicy() {
+        return affinityPolicy;
+    }
 }
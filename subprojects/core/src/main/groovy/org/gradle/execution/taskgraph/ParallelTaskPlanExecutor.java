@@ -17,38 +17,67 @@
 package org.gradle.execution.taskgraph;
 
 import org.gradle.api.Project;
-import org.gradle.api.Task;
 import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess;
+import org.gradle.api.internal.changedetection.TaskDurationRepository;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.TaskState;
+import org.gradle.util.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Executes the tasks of a plan using a fixed number of worker threads. Each idle worker takes the next task whose dependencies have completed,
+ * regardless of which project the task belongs to. Tasks that require project affinity, as determined by the {@link TaskAffinityPolicy}, are
+ * never executed concurrently with other such tasks of the same project.
+ *
+ * <p>When a {@link TaskDurationRepository} is available, the tasks with the longest estimated chain of dependent tasks are started first, and the
+ * duration of each task which does work is recorded for use by later builds.</p>
+ */
 class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParallelTaskPlanExecutor.class);
 
     private final List<Thread> executorThreads = new ArrayList<Thread>();
     private final TaskArtifactStateCacheAccess stateCacheAccess;
     private final int executorCount;
+    private final ProjectLocks projectLocks;
+    private final TaskDurationRepository durations;
 
     public ParallelTaskPlanExecutor(TaskArtifactStateCacheAccess cacheAccess, int numberOfParallelExecutors) {
+        this(cacheAccess, numberOfParallelExecutors, TaskAffinityPolicy.parse(TaskAffinityPolicy.NONE), null);
+    }
+
+    public ParallelTaskPlanExecutor(TaskArtifactStateCacheAccess cacheAccess, int numberOfParallelExecutors, TaskAffinityPolicy affinityPolicy,
+                                    TaskDurationRepository durations) {
         if (numberOfParallelExecutors < 1) {
             throw new IllegalArgumentException("Not a valid number of parallel executors: " + numberOfParallelExecutors);
         }
 
         LOGGER.info("Using {} parallel executor threads", numberOfParallelExecutors);
+        LOGGER.info("Using project affinity for tasks: {}", affinityPolicy);
 
         this.stateCacheAccess = cacheAccess;
         this.executorCount = numberOfParallelExecutors;
+        this.projectLocks = new ProjectLocks(affinityPolicy);
+        this.durations = durations;
     }
 
     public void process(final TaskExecutionPlan taskExecutionPlan, final TaskExecutionListener taskListener) {
-        stateCacheAccess.longRunningOperation("Executing all tasks", new Runnable() {
+        if (durations != null) {
+            stateCacheAccess.useCache("Estimate task durations", new Runnable() {
+                public void run() {
+                    taskExecutionPlan.prioritiseCriticalPath(durations);
+                }
+            });
+        }
+        // Workers share the cache with this thread, so the cache remains locked until all tasks have completed
+        stateCacheAccess.useCache("Executing all tasks", new Runnable() {
             public void run() {
                 doProcess(taskExecutionPlan, taskListener);
                 // TODO This needs to wait until all tasks have been executed, not just started....
@@ -58,16 +87,10 @@ class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
     }
 
     private void doProcess(TaskExecutionPlan taskExecutionPlan, TaskExecutionListener taskListener) {
-        List<Project> projects = getAllProjects(taskExecutionPlan);
-        int numExecutors = Math.min(executorCount, projects.size());
+        int numExecutors = Math.min(executorCount, taskExecutionPlan.getTasks().size());
 
         for (int i = 0; i < numExecutors; i++) {
             TaskExecutorWorker worker = new TaskExecutorWorker(taskExecutionPlan, taskListener);
-
-            for (int j = i; j < projects.size(); j += numExecutors) {
-                worker.addProject(projects.get(j));
-            }
-
             executorThreads.add(new Thread(worker));
         }
 
@@ -77,20 +100,39 @@ class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
         }
     }
 
-    private List<Project> getAllProjects(TaskExecutionPlan taskExecutionPlan) {
-        final Set<Project> uniqueProjects = new LinkedHashSet<Project>();
-        for (Task task : taskExecutionPlan.getTasks()) {
-            uniqueProjects.add(task.getProject());
+    @Override
+    protected void executeTask(final TaskInfo taskInfo, final TaskExecutionListener taskListener) {
+        final String taskPath = taskInfo.getTask().getPath();
+        LOGGER.info(taskPath + " (" + Thread.currentThread() + ") - start");
+        projectLocks.lock(taskInfo);
+        try {
+            stateCacheAccess.useCache("Executing " + taskPath, new Runnable() {
+                public void run() {
+                    Clock clock = new Clock();
+                    ParallelTaskPlanExecutor.super.executeTask(taskInfo, taskListener);
+                    recordDuration(taskInfo.getTask(), clock.getTimeInMs());
+                }
+            });
+        } finally {
+            // Release the project before the task is marked complete, so that workers waiting on the plan see the project as available
+            projectLocks.unlock(taskInfo);
         }
-        return new ArrayList<Project>(uniqueProjects);
+        LOGGER.info(taskPath + " (" + Thread.currentThread() + ") - complete");
+    }
+
+    private void recordDuration(TaskInternal task, long durationMillis) {
+        // An up-to-date or skipped task tells nothing about how long the task takes when it does its work, so keep the previous duration
+        TaskState state = task.getState();
+        if (durations == null || !state.getDidWork() || state.getSkipMessage() != null) {
+            return;
+        }
+        durations.setDuration(task, durationMillis);
     }
 
     private class TaskExecutorWorker implements Runnable {
         private final TaskExecutionPlan taskExecutionPlan;
         private final TaskExecutionListener taskListener;
 
-        private final List<Project> projects = new ArrayList<Project>();
-
         private TaskExecutorWorker(TaskExecutionPlan taskExecutionPlan, TaskExecutionListener taskListener) {
             this.taskExecutionPlan = taskExecutionPlan;
             this.taskListener = taskListener;
@@ -98,34 +140,60 @@ class ParallelTaskPlanExecutor extends DefaultTaskPlanExecutor {
 
         public void run() {
             TaskInfo taskInfo;
-            while ((taskInfo = taskExecutionPlan.getTaskToExecute(getTaskSpec())) != null) {
-                executeTaskWithCacheLock(taskInfo);
+            while ((taskInfo = taskExecutionPlan.getTaskToExecute(projectLocks.getAvailableTasks())) != null) {
+                processTask(taskInfo, taskExecutionPlan, taskListener);
             }
 
             LOGGER.info(Thread.currentThread() + " stopping");
         }
+    }
 
-        private void executeTaskWithCacheLock(final TaskInfo taskInfo) {
-            final String taskPath = taskInfo.getTask().getPath();
-            LOGGER.info(taskPath + " (" + Thread.currentThread() + " - start");
-            stateCacheAccess.useCache("Executing " + taskPath, new Runnable() {
-                public void run() {
-                    processTask(taskInfo, taskExecutionPlan, taskListener);
-                }
-            });
-            LOGGER.info(taskPath + " (" + Thread.currentThread() + ") - complete");
-        }
+    /**
+     * Tracks the projects which are currently executing a task that requires project affinity.
+     */
+    private static class ProjectLocks {
+        private final TaskAffinityPolicy affinityPolicy;
+        private final Set<Project> busyProjects = new HashSet<Project>();
 
-        public void addProject(Project project) {
-            projects.add(project);
+        private ProjectLocks(TaskAffinityPolicy affinityPolicy) {
+            this.affinityPolicy = affinityPolicy;
         }
 
-        private Spec<TaskInfo> getTaskSpec() {
+        /**
+         * Returns a spec that selects those tasks that could start immediately without blocking on a project lock.
+         */
+        public Spec<TaskInfo> getAvailableTasks() {
             return new Spec<TaskInfo>() {
                 public boolean isSatisfiedBy(TaskInfo element) {
-                    return projects.contains(element.getTask().getProject());
+                    synchronized (ProjectLocks.this) {
+                        return !affinityPolicy.requiresProjectAffinity(element.getTask()) || !busyProjects.contains(element.getTask().getProject());
+                    }
                 }
             };
         }
+
+        public synchronized void lock(TaskInfo taskInfo) {
+            if (!affinityPolicy.requiresProjectAffinity(taskInfo.getTask())) {
+                return;
+            }
+            Project project = taskInfo.getTask().getProject();
+            // Another worker may have taken the project between the task being selected and this call
+            while (busyProjects.contains(project)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            busyProjects.add(project);
+        }
+
+        public synchronized void unlock(TaskInfo taskInfo) {
+            if (!affinityPolicy.requiresProjectAffinity(taskInfo.getTask())) {
+                return;
+            }
+            busyProjects.remove(taskInfo.getTask().getProject());
+            notifyAll();
+        }
     }
 }
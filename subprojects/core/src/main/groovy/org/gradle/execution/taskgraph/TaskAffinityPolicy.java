@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Task;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Determines which tasks must not execute concurrently with other such tasks of the same project. Tasks that do not require project affinity
+ * can be executed by any worker at any time once their dependencies have completed.
+ *
+ * <p>The policy is specified as either {@code none}, {@code all}, or a comma separated list of task type names. A task matches a type name
+ * when the task's class, or any of its super classes or interfaces, has that name.</p>
+ */
+class TaskAffinityPolicy {
+    public static final String NONE = "none";
+    public static final String ALL = "all";
+
+    private final boolean all;
+    private final Set<String> typeNames = new LinkedHashSet<String>();
+
+    private TaskAffinityPolicy(boolean all) {
+        this.all = all;
+    }
+
+    public static TaskAffinityPolicy parse(String value) {
+        if (value == null || value.trim().length() == 0 || value.trim().equals(NONE)) {
+            return new TaskAffinityPolicy(false);
+        }
+        if (value.trim().equals(ALL)) {
+            return new TaskAffinityPolicy(true);
+        }
+        TaskAffinityPolicy policy = new TaskAffinityPolicy(false);
+        for (String typeName : value.split(",")) {
+            if (typeName.trim().length() > 0) {
+                policy.typeNames.add(typeName.trim());
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * Returns true if the given task must not execute at the same time as other tasks of its project which also require project affinity.
+     */
+    public boolean requiresProjectAffinity(Task task) {
+        if (all) {
+            return true;
+        }
+        if (typeNames.isEmpty()) {
+            return false;
+        }
+        for (Class<?> type = task.getClass(); type != null; type = type.getSuperclass()) {
+            if (matches(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(Class<?> type) {
+        if (typeNames.contains(type.getName())) {
+            return true;
+        }
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            if (matches(interfaceType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (all) {
+            return ALL;
+        }
+        if (typeNames.isEmpty()) {
+            return NONE;
+        }
+        return typeNames.toString();
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.execution.taskgraph;
 
 import org.gradle.api.Task;
+import org.gradle.api.internal.changedetection.TaskDurationRepository;
 import org.gradle.api.specs.Spec;
 
 import java.util.List;
@@ -27,10 +28,11 @@ import java.util.List;
 public interface TaskExecutionPlan {
     /**
      * Provides a ready-to-execute task that matches the specified criteria. A task is ready-to-execute if all of it's dependencies have been completed successfully.
-     * If the next matching task is not ready-to-execute, this method will block until it is ready.
-     * If no tasks remain that match the criteria, null will be returned.
+     * Matching tasks are considered in execution order, and the first one that is ready-to-execute is returned.
+     * If no matching task is ready-to-execute, this method will block until one becomes ready.
+     * If no tasks remain to be started, null will be returned.
      * @param criteria Only tasks matching this Spec will be returned.
-     * @return The next matching task, or null if no matching tasks remain.
+     * @return The next matching task, or null if no tasks remain to be started.
      */
     TaskInfo getTaskToExecute(Spec<TaskInfo> criteria);
 
@@ -49,4 +51,11 @@ public interface TaskExecutionPlan {
      * @return The list of all available tasks. This includes tasks that have not yet been executed, as well as tasks that have been processed.
      */
     List<Task> getTasks();
+
+    /**
+     * Changes the order in which ready-to-execute tasks are returned, so that the task with the longest estimated chain of dependent tasks
+     * is returned first. Tasks are estimated to take as long as they did when they were last executed. The predicted and actual critical
+     * paths are logged at debug level once all tasks have completed.
+     */
+    void prioritiseCriticalPath(TaskDurationRepository durations);
 }
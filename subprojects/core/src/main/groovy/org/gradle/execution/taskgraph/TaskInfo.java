@@ -18,6 +18,8 @@ package org.gradle.execution.taskgraph;
 
 import org.gradle.api.internal.TaskInternal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 class TaskInfo {
@@ -28,13 +30,27 @@ class TaskInfo {
 
     private final TaskInternal task;
     private final Set<TaskInfo> dependencies;
+    private final List<TaskInfo> dependents = new ArrayList<TaskInfo>();
+    private final int ordinal;
+    private int incompleteDependencies;
+    private long estimatedDuration;
+    private long criticalPathDuration;
+    private long startTime;
+    private long finishTime;
     private TaskExecutionState state;
     private Throwable executionFailure;
 
-    public TaskInfo(TaskInternal task, Set<TaskInfo> dependencies) {
+    public TaskInfo(TaskInternal task, Set<TaskInfo> dependencies, int ordinal) {
         this.task = task;
         this.dependencies = dependencies;
+        this.ordinal = ordinal;
         this.state = TaskExecutionState.READY;
+        for (TaskInfo dependency : dependencies) {
+            dependency.dependents.add(this);
+            if (!dependency.isComplete()) {
+                incompleteDependencies++;
+            }
+        }
     }
 
     public TaskInternal getTask() {
@@ -45,6 +61,64 @@ class TaskInfo {
         return dependencies;
     }
 
+    /**
+     * Returns the position of this task in the execution plan.
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Returns the tasks which depend on this task.
+     */
+    public List<TaskInfo> getDependents() {
+        return dependents;
+    }
+
+    /**
+     * Records that one of the dependencies of this task has completed.
+     *
+     * @return true if all dependencies of this task have now completed.
+     */
+    public boolean dependencyComplete() {
+        assert incompleteDependencies > 0;
+        incompleteDependencies--;
+        return incompleteDependencies == 0;
+    }
+
+    /**
+     * Returns the estimated duration of this task, in milliseconds.
+     */
+    public long getEstimatedDuration() {
+        return estimatedDuration;
+    }
+
+    /**
+     * Returns the estimated duration of the longest chain of tasks starting with this task, in milliseconds.
+     */
+    public long getCriticalPathDuration() {
+        return criticalPathDuration;
+    }
+
+    public void setEstimatedDuration(long estimatedDuration, long criticalPathDuration) {
+        this.estimatedDuration = estimatedDuration;
+        this.criticalPathDuration = criticalPathDuration;
+    }
+
+    /**
+     * Returns the time at which execution of this task started, or 0 if it has not started.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the time at which execution of this task finished, or 0 if it has not finished.
+     */
+    public long getFinishTime() {
+        return finishTime;
+    }
+
     public boolean isReady() {
         return state == TaskExecutionState.READY;
     }
@@ -64,11 +138,13 @@ class TaskInfo {
     public void startExecution() {
         assert state == TaskExecutionState.READY;
         state = TaskExecutionState.EXECUTING;
+        startTime = System.currentTimeMillis();
     }
 
     public void finishExecution() {
         assert state == TaskExecutionState.EXECUTING;
         state = TaskExecutionState.EXECUTED;
+        finishTime = System.currentTimeMillis();
     }
 
     public void skipExecution() {
@@ -90,12 +166,7 @@ class TaskInfo {
     }
 
     public boolean allDependenciesComplete() {
-        for (TaskInfo dependency : getDependencies()) {
-            if (!dependency.isComplete()) {
-                return false;
-            }
-        }
-        return true;
+        return incompleteDependencies == 0;
     }
 
     public boolean allDependenciesSuccessful() {
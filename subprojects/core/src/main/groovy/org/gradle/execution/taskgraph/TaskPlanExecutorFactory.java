@@ -16,6 +16,7 @@
 
 package org.gradle.execution.taskgraph;
 
+import org.gradle.api.internal.changedetection.CacheBackedTaskDurationRepository;
 import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess;
 import org.gradle.internal.Factory;
 import org.slf4j.Logger;
@@ -23,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 public class TaskPlanExecutorFactory implements Factory<TaskPlanExecutor> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskPlanExecutorFactory.class);
+    public static final String AFFINITY_POLICY_PROPERTY = "org.gradle.parallel.affinity";
 
     private final TaskArtifactStateCacheAccess taskArtifactStateCacheAccess;
     private final int parallelThreads;
@@ -33,12 +35,12 @@ public class TaskPlanExecutorFactory implements Factory<TaskPlanExecutor> {
     }
 
     public TaskPlanExecutor create() {
-        ExecutionOptions options = new ExecutionOptions(parallelThreads);
+        ExecutionOptions options = new ExecutionOptions(parallelThreads, System.getProperty(AFFINITY_POLICY_PROPERTY));
         if (options.executeProjectsInParallel()) {
             LOGGER.warn("Parallel project execution is pre-alpha and highly experimental. Many builds will not run correctly with this option.");
-            return new ParallelTaskPlanExecutor(taskArtifactStateCacheAccess, options.numberOfParallelThreads());
+            return new ParallelTaskPlanExecutor(taskArtifactStateCacheAccess, options.numberOfParallelThreads(), options.getAffinityPolicy(),
+                    new CacheBackedTaskDurationRepository(taskArtifactStateCacheAccess));
         }
         return new DefaultTaskPlanExecutor();
-
     }
 }
@@ -21,6 +21,9 @@ import org.gradle.groovy.scripts.Transformer;
 
 import java.util.*;
 
+/**
+ * A {@link ScriptClassCompiler} which caches the compiled classes in memory. Can be used concurrently from multiple threads.
+ */
 public class CachingScriptClassCompiler implements ScriptClassCompiler {
     private final Map<Collection<Object>, Class<?>> cachedClasses = new HashMap<Collection<Object>, Class<?>>();
     private final ScriptClassCompiler scriptClassCompiler;
@@ -31,10 +34,21 @@ public class CachingScriptClassCompiler implements ScriptClassCompiler {
 
     public <T extends Script> Class<? extends T> compile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass) {
         List<Object> key = Arrays.asList(source.getClassName(), classLoader, transformer.getId(), scriptBaseClass.getName());
-        Class<?> c = cachedClasses.get(key);
+        Class<?> c;
+        synchronized (cachedClasses) {
+            c = cachedClasses.get(key);
+        }
         if (c == null) {
+            // Compile without holding the lock, so that different scripts can be compiled concurrently
             c = scriptClassCompiler.compile(source, classLoader, transformer, scriptBaseClass);
-            cachedClasses.put(key, c);
+            synchronized (cachedClasses) {
+                Class<?> existing = cachedClasses.get(key);
+                if (existing != null) {
+                    c = existing;
+                } else {
+                    cachedClasses.put(key, c);
+                }
+            }
         }
         return c.asSubclass(scriptBaseClass);
     }
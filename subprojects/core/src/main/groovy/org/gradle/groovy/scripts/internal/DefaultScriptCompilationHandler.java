@@ -163,16 +163,25 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
 
     public <T extends Script> Class<? extends T> loadFromDir(ScriptSource source, ClassLoader classLoader, File scriptCacheDir,
                                               Class<T> scriptBaseClass) {
+        return loadFromDir(source, source.getClassName(), classLoader, scriptCacheDir, scriptBaseClass);
+    }
+
+    public <T extends Script> Class<? extends T> loadFromDir(ScriptSource source, String compiledClassName, ClassLoader classLoader,
+                                              File scriptCacheDir, Class<T> scriptBaseClass) {
         if (new File(scriptCacheDir, EMPTY_SCRIPT_MARKER_FILE_NAME).isFile()) {
             return emptyScriptGenerator.generate(scriptBaseClass);
         }
         
         try {
-            URLClassLoader urlClassLoader = new URLClassLoader(WrapUtil.toArray(scriptCacheDir.toURI().toURL()),
-                    classLoader);
-            return urlClassLoader.loadClass(source.getClassName()).asSubclass(scriptBaseClass);
+            ClassLoader scriptClassLoader;
+            if (compiledClassName.equals(source.getClassName())) {
+                scriptClassLoader = new URLClassLoader(WrapUtil.toArray(scriptCacheDir.toURI().toURL()), classLoader);
+            } else {
+                scriptClassLoader = new RelocatingScriptClassLoader(classLoader, scriptCacheDir, compiledClassName, source.getClassName(), source.getFileName());
+            }
+            return scriptClassLoader.loadClass(source.getClassName()).asSubclass(scriptBaseClass);
         } catch (Exception e) {
-            File expectedClassFile = new File(scriptCacheDir, source.getClassName()+".class");
+            File expectedClassFile = new File(scriptCacheDir, compiledClassName+".class");
             if(!expectedClassFile.exists()){
                 throw new GradleException(String.format("Could not load compiled classes for %s from cache. Expected class file %s does not exist.", source.getDisplayName(), expectedClassFile.getAbsolutePath()), e);
             }
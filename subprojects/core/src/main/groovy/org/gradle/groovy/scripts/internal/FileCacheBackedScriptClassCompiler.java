@@ -20,42 +20,137 @@ import org.gradle.api.Action;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.FileLock;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.groovy.scripts.DelegatingScriptSource;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.groovy.scripts.Transformer;
+import org.gradle.util.ClasspathUtil;
+import org.gradle.util.GFileUtils;
 import org.gradle.util.hash.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>The cache directory is keyed on the content of the script and the classpath it is compiled against, rather than on the location of the
+ * script, so that scripts with the same content share the same compiled classes. The classes are compiled using a class name derived from
+ * the content of the script, and are renamed when they are loaded for a particular script.</p>
+ *
+ * <p>Because the cache is keyed on content, each edit to a script creates a new cache directory. The directory for a script's content is
+ * marked as used each time it is opened, and the first compilation made by this compiler removes the directories for content which has not
+ * been used for 30 days. Another process may be using such a directory, so it is removed only while holding an exclusive lock on each of the
+ * caches it contains.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler {
+    static final int MAX_UNUSED_DAYS = 30;
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCacheBackedScriptClassCompiler.class);
+    private final AtomicBoolean cleanedUp = new AtomicBoolean();
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final CacheRepository cacheRepository;
     private final CacheValidator validator;
+    private final FileLockManager lockManager;
 
-    public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler) {
+    public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
+                                              FileLockManager lockManager) {
         this.cacheRepository = cacheRepository;
         this.validator = validator;
         this.scriptCompilationHandler = scriptCompilationHandler;
+        this.lockManager = lockManager;
     }
 
     public <T extends Script> Class<? extends T> compile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass) {
-        Map<String, Object> properties = new HashMap<String, Object>();
-        properties.put("source.filename", source.getFileName());
-        properties.put("source.hash", HashUtil.createCompactMD5(source.getResource().getText()));
+        String contentHash = HashUtil.createCompactMD5(source.getResource().getText());
+        String classpathHash = HashUtil.createCompactMD5(ClasspathUtil.getClasspath(classLoader).toString());
+        ScriptSource compiledSource = new ContentAddressedScriptSource(source, String.format("script_%s", contentHash));
 
-        String cacheName = String.format("scripts/%s/%s/%s", source.getClassName(), scriptBaseClass.getSimpleName(), transformer.getId());
+        String cacheName = String.format("scripts/%s/%s/%s/%s", contentHash, classpathHash, scriptBaseClass.getSimpleName(), transformer.getId());
         PersistentCache cache = cacheRepository.cache(cacheName)
-                .withProperties(properties)
                 .withValidator(validator)
                 .withDisplayName(String.format("%s class cache for %s", transformer.getId(), source.getDisplayName()))
-                .withInitializer(new CacheInitializer(source, classLoader, transformer, scriptBaseClass)).open();
+                .withInitializer(new CacheInitializer(compiledSource, classLoader, transformer, scriptBaseClass)).open();
 
+        markUsed(cache);
         File classesDir = classesDir(cache);
-        return scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, scriptBaseClass);
+        return scriptCompilationHandler.loadFromDir(source, compiledSource.getClassName(), classLoader, classesDir, scriptBaseClass);
+    }
+
+    private void markUsed(PersistentCache cache) {
+        // The cache directory is scripts/<content hash>/<classpath hash>/<base class>/<transformer>
+        File contentDir = cache.getBaseDir();
+        for (int i = 0; i < 3 && contentDir != null; i++) {
+            contentDir = contentDir.getParentFile();
+        }
+        if (contentDir == null || !contentDir.isDirectory()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        contentDir.setLastModified(now);
+        if (cleanedUp.compareAndSet(false, true)) {
+            removeUnusedContent(contentDir.getParentFile(), now - MAX_UNUSED_DAYS * 24L * 60 * 60 * 1000);
+        }
+    }
+
+    private void removeUnusedContent(File scriptsDir, long usedSince) {
+        File[] contentDirs = scriptsDir.listFiles();
+        if (contentDirs == null) {
+            return;
+        }
+        for (File contentDir : contentDirs) {
+            if (contentDir.isDirectory() && contentDir.lastModified() < usedSince) {
+                removeUnusedContentDir(contentDir, usedSince);
+            }
+        }
+    }
+
+    private void removeUnusedContentDir(File contentDir, long usedSince) {
+        List<FileLock> locks = new ArrayList<FileLock>();
+        try {
+            for (File cacheDir : cacheDirs(contentDir)) {
+                // Use the same lock target as the cache itself
+                locks.add(lockManager.lock(new File(cacheDir, "cache.properties"), FileLockManager.LockMode.Exclusive, String.format("script cache %s", cacheDir)));
+            }
+            // The content may have been used by another process while waiting for the locks
+            if (contentDir.lastModified() >= usedSince) {
+                return;
+            }
+            LOGGER.debug("Removing unused script cache directory {}.", contentDir);
+            GFileUtils.deleteQuietly(contentDir);
+        } catch (RuntimeException e) {
+            LOGGER.debug(String.format("Could not lock unused script cache directory %s. Skipping.", contentDir), e);
+        } finally {
+            for (FileLock lock : locks) {
+                lock.close();
+            }
+        }
+    }
+
+    private List<File> cacheDirs(File contentDir) {
+        // The cache directories are <classpath hash>/<base class>/<transformer>
+        List<File> dirs = new ArrayList<File>();
+        dirs.add(contentDir);
+        for (int i = 0; i < 3; i++) {
+            List<File> children = new ArrayList<File>();
+            for (File dir : dirs) {
+                File[] files = dir.listFiles();
+                if (files == null) {
+                    continue;
+                }
+                for (File file : files) {
+                    if (file.isDirectory()) {
+                        children.add(file);
+                    }
+                }
+            }
+            dirs = children;
+        }
+        return dirs;
     }
 
     private File classesDir(PersistentCache cache) {
@@ -80,4 +175,18 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler {
             scriptCompilationHandler.compileToDir(source, classLoader, classesDir, transformer, scriptBaseClass);
         }
     }
+
+    private static class ContentAddressedScriptSource extends DelegatingScriptSource {
+        private final String className;
+
+        private ContentAddressedScriptSource(ScriptSource source, String className) {
+            super(source);
+            this.className = className;
+        }
+
+        @Override
+        public String getClassName() {
+            return className;
+        }
+    }
 }
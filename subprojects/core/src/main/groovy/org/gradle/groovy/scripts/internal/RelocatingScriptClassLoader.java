@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal;
+
+import org.apache.commons.io.FileUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.commons.RemappingClassAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+
+/**
+ * Loads the classes of a script which were compiled using some other class name, renaming them to use the class name and source file name of
+ * the script. This allows the compiled classes of a script to be shared by all scripts with the same content.
+ */
+class RelocatingScriptClassLoader extends ClassLoader {
+    private final File classesDir;
+    private final String compiledClassName;
+    private final String className;
+    private final String fileName;
+    private final ProtectionDomain protectionDomain;
+
+    RelocatingScriptClassLoader(ClassLoader parent, File classesDir, String compiledClassName, String className, String fileName) throws MalformedURLException {
+        super(parent);
+        this.classesDir = classesDir;
+        this.compiledClassName = compiledClassName;
+        this.className = className;
+        this.fileName = fileName;
+        protectionDomain = new ProtectionDomain(new CodeSource(classesDir.toURI().toURL(), (Certificate[]) null), null, this, null);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        // Classes declared by the script are not renamed
+        String compiledName = rename(name, className, compiledClassName);
+        if (compiledName == null) {
+            compiledName = name;
+        }
+        File classFile = new File(classesDir, compiledName + ".class");
+        if (!classFile.isFile()) {
+            throw new ClassNotFoundException(name);
+        }
+        byte[] bytes;
+        try {
+            bytes = relocate(FileUtils.readFileToByteArray(classFile));
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        return defineClass(name, bytes, 0, bytes.length, protectionDomain);
+    }
+
+    private byte[] relocate(byte[] bytes) {
+        ClassReader reader = new ClassReader(bytes);
+        ClassWriter writer = new ClassWriter(0);
+        ClassVisitor sourceFileAdapter = new ClassVisitor(Opcodes.ASM4, writer) {
+            @Override
+            public void visitSource(String source, String debug) {
+                super.visitSource(fileName, debug);
+            }
+        };
+        reader.accept(new RemappingClassAdapter(sourceFileAdapter, new ScriptClassRemapper()), 0);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Renames the given class, when it is the script class or one of its nested classes. Returns null for any other class.
+     */
+    private static String rename(String name, String fromClassName, String toClassName) {
+        if (name.equals(fromClassName) || name.startsWith(fromClassName + "$")) {
+            return toClassName + name.substring(fromClassName.length());
+        }
+        return null;
+    }
+
+    private class ScriptClassRemapper extends Remapper {
+        @Override
+        public String map(String typeName) {
+            String name = rename(typeName, compiledClassName, className);
+            return name != null ? name : typeName;
+        }
+
+        @Override
+        public Object mapValue(Object value) {
+            // Groovy refers to classes by name when loading class literals
+            if (value instanceof String) {
+                return map((String) value);
+            }
+            return super.mapValue(value);
+        }
+    }
+}
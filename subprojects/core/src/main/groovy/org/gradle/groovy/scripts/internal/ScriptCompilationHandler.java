@@ -30,4 +30,11 @@ public interface ScriptCompilationHandler {
 
     <T extends Script> Class<? extends T> loadFromDir(ScriptSource source, ClassLoader classLoader, File scriptCacheDir,
                                        Class<T> scriptBaseClass);
+
+    /**
+     * Loads script classes which were compiled to the given directory using the given class name. The classes are renamed to use the class
+     * name and file name of the given source.
+     */
+    <T extends Script> Class<? extends T> loadFromDir(ScriptSource source, String compiledClassName, ClassLoader classLoader,
+                                       File scriptCacheDir, Class<T> scriptBaseClass);
 }
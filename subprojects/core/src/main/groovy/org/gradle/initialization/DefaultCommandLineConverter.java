@@ -55,6 +55,9 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
 
     private static final String PARALLEL = "parallel";
     private static final String PARALLEL_THREADS = "parallel-threads";
+    private static final String PARALLEL_CONFIGURATION = "parallel-configuration";
+    private static final String PARALLEL_CONFIGURATION_THREADS = "parallel-configuration-threads";
+    private static final String CONFIGURE_ON_DEMAND = "configure-on-demand";
 
     private final CommandLineConverter<LoggingConfiguration> loggingConfigurationCommandLineConverter = new LoggingCommandLineConverter();
     private final SystemPropertiesCommandLineConverter systemPropertiesCommandLineConverter = new SystemPropertiesCommandLineConverter();
@@ -87,6 +90,9 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
         parser.option(REFRESH_DEPENDENCIES).hasDescription("Refresh the state of dependencies.");
         parser.option(PARALLEL).hasDescription("Build projects in parallel. Gradle will attempt to determine the optimal number of executor threads to use.").experimental();
         parser.option(PARALLEL_THREADS).hasArgument().hasDescription("Build projects in parallel, using the specified number of executor threads.").experimental();
+        parser.option(PARALLEL_CONFIGURATION).hasDescription("Configure projects in parallel. Projects must not change the tasks or extensions of other projects.").experimental();
+        parser.option(PARALLEL_CONFIGURATION_THREADS).hasArgument().hasDescription("Configure projects in parallel, using the specified number of threads.").experimental();
+        parser.option(CONFIGURE_ON_DEMAND).hasDescription("Only configure the projects which are required to run the requested tasks.").experimental();
     }
 
     @Override
@@ -198,6 +204,24 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
             }
         }
 
+        if (options.hasOption(PARALLEL_CONFIGURATION)) {
+            startParameter.setParallelProjectConfiguration(true);
+        }
+
+        if (options.hasOption(PARALLEL_CONFIGURATION_THREADS)) {
+            try {
+                int threads = Integer.parseInt(options.option(PARALLEL_CONFIGURATION_THREADS).getValue());
+                startParameter.setParallelProjectConfiguration(true);
+                startParameter.setParallelConfigurationThreadCount(threads);
+            } catch (NumberFormatException e) {
+                throw new CommandLineArgumentException(String.format("Not a numeric argument for %s", PARALLEL_CONFIGURATION_THREADS));
+            }
+        }
+
+        if (options.hasOption(CONFIGURE_ON_DEMAND)) {
+            startParameter.setConfigureOnDemand(true);
+        }
+
         return startParameter;
     }
 
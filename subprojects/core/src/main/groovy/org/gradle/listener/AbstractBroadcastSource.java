@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.listener;
+
+/**
+ * The base class for the broadcast source classes generated by {@link BroadcastSourceGenerator}. A generated subclass implements a
+ * listener interface, and delivers each event by calling each listener of a {@link BroadcastDispatch} directly.
+ */
+public abstract class AbstractBroadcastSource {
+    private final BroadcastDispatch<?> dispatch;
+
+    protected AbstractBroadcastSource(BroadcastDispatch<?> dispatch) {
+        this.dispatch = dispatch;
+    }
+
+    /**
+     * Returns the listeners to deliver an event to. Each listener implements the listener type.
+     */
+    protected Object[] getListeners() {
+        return dispatch.getListeners();
+    }
+
+    /**
+     * Called when a listener fails. Returns the failure to report once all listeners have been notified.
+     */
+    protected Throwable listenerFailed(Throwable previousFailure, Throwable failure) {
+        return dispatch.listenerFailed(previousFailure, failure);
+    }
+
+    /**
+     * Called once all listeners have been notified of an event.
+     */
+    protected void dispatchComplete(Throwable failure) {
+        dispatch.dispatchComplete(failure);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        AbstractBroadcastSource other = (AbstractBroadcastSource) obj;
+        return other.dispatch == dispatch;
+    }
+
+    @Override
+    public int hashCode() {
+        return dispatch.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s broadcast", dispatch.getType().getSimpleName());
+    }
+}
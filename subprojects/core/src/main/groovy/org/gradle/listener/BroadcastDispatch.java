@@ -19,46 +19,76 @@ package org.gradle.listener;
 import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.internal.UncheckedException;
-import org.gradle.messaging.dispatch.*;
+import org.gradle.messaging.dispatch.Dispatch;
+import org.gradle.messaging.dispatch.MethodInvocation;
+import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
+import org.gradle.messaging.dispatch.ReflectionDispatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * <p>Delivers events to a set of listeners of type T. Each listener is held as an implementation of T, in a copy-on-write array
+ * which is replaced when listeners are added or removed. The source object calls each listener directly, using a class generated
+ * by {@link BroadcastSourceGenerator} where possible.</p>
+ */
 public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
     private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastDispatch.class);
     private final Class<T> type;
-    private final Map<Object, Dispatch<MethodInvocation>> handlers
-            = new LinkedHashMap<Object, Dispatch<MethodInvocation>>();
+    private final Map<Object, T> handlers = new LinkedHashMap<Object, T>();
+    private volatile Object[] listeners = new Object[0];
+    private final T source;
 
     public BroadcastDispatch(Class<T> type) {
         this.type = type;
+        T generatedSource = BroadcastSourceGenerator.maybeCreateSource(this);
+        source = generatedSource != null ? generatedSource : new ProxyDispatchAdapter<T>(this, type).getSource();
     }
 
     public Class<T> getType() {
         return type;
     }
 
+    /**
+     * Returns an implementation of T which delivers each method call to the listeners.
+     */
+    public T getSource() {
+        return source;
+    }
+
     public void add(Dispatch<MethodInvocation> dispatch) {
-        handlers.put(dispatch, dispatch);
+        put(dispatch, adapt(dispatch));
     }
 
     public void add(T listener) {
-        handlers.put(listener, new ReflectionDispatch(listener));
+        put(listener, listener);
     }
 
     public void add(String methodName, Closure closure) {
         assertIsMethod(methodName);
-        handlers.put(closure, new ClosureInvocationHandler(methodName, closure));
+        put(closure, adapt(new ClosureInvocationHandler(methodName, closure)));
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
-        handlers.put(action, new ActionInvocationHandler(methodName, action));
+        put(action, adapt(new ActionInvocationHandler(methodName, action)));
+    }
+
+    private T adapt(final Dispatch<MethodInvocation> dispatch) {
+        return new ProxyDispatchAdapter<T>(new Dispatch<MethodInvocation>() {
+            public void dispatch(MethodInvocation message) {
+                try {
+                    dispatch.dispatch(message);
+                } catch (Throwable t) {
+                    // Do not let the proxy wrap checked exceptions in an UndeclaredThrowableException
+                    throw UncheckedException.throwAsUncheckedException(t);
+                }
+            }
+        }, type).getSource();
     }
 
     private void assertIsMethod(String methodName) {
@@ -71,8 +101,38 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
                 type.getSimpleName()));
     }
 
-    public void remove(Object listener) {
-        handlers.remove(listener);
+    private synchronized void put(Object key, T listener) {
+        handlers.put(key, listener);
+        listeners = handlers.values().toArray();
+    }
+
+    public synchronized void remove(Object listener) {
+        if (handlers.remove(listener) != null) {
+            listeners = handlers.values().toArray();
+        }
+    }
+
+    Object[] getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Called when a listener fails. Returns the failure to report once all listeners have been notified. Failures after the first
+     * are logged.
+     */
+    Throwable listenerFailed(Throwable previousFailure, Throwable failure) {
+        Throwable actualFailure = failure instanceof UncheckedException ? failure.getCause() : failure;
+        if (previousFailure != null) {
+            LOGGER.error(actualFailure.getMessage(), actualFailure);
+            return previousFailure;
+        }
+        return actualFailure;
+    }
+
+    void dispatchComplete(Throwable failure) {
+        if (failure != null) {
+            throw new ListenerNotificationException(getErrorMessage(), failure);
+        }
     }
 
     private String getErrorMessage() {
@@ -81,21 +141,15 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
     }
 
     public void dispatch(MethodInvocation invocation) {
-        try {
-            ExceptionTrackingFailureHandler tracker = new ExceptionTrackingFailureHandler(LOGGER);
-            for (Dispatch<MethodInvocation> handler : new ArrayList<Dispatch<MethodInvocation>>(handlers.values())) {
-                try {
-                    handler.dispatch(invocation);
-                } catch (UncheckedException e) {
-                    tracker.dispatchFailed(invocation, e.getCause());
-                } catch (Throwable t) {
-                    tracker.dispatchFailed(invocation, t);
-                }
+        Throwable failure = null;
+        for (Object listener : listeners) {
+            try {
+                new ReflectionDispatch(listener).dispatch(invocation);
+            } catch (Throwable t) {
+                failure = listenerFailed(failure, t);
             }
-            tracker.stop();
-        } catch (DispatchException t) {
-            throw new ListenerNotificationException(getErrorMessage(), t.getCause());
         }
+        dispatchComplete(failure);
     }
 
     private class ClosureInvocationHandler implements Dispatch<MethodInvocation> {
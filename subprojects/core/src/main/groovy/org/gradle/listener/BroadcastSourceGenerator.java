@@ -0,0 +1,242 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.listener;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.util.JavaMethod;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Generates the broadcast source classes for listener interfaces. Each method of a generated class calls the corresponding method on
+ * each listener of a {@link BroadcastDispatch}, so that delivering an event does not involve a {@link java.lang.reflect.Proxy},
+ * a {@link org.gradle.messaging.dispatch.MethodInvocation} or reflection.
+ *
+ * <p>A class can be generated for a public interface whose methods all return void, and which can see this class from its
+ * {@code ClassLoader}.</p>
+ *
+ * <p>A generated class is defined in the {@code ClassLoader} of its listener type. The cache of generated classes references both
+ * weakly, so that it does not keep the {@code ClassLoader} of a build script or of buildSrc alive once it is no longer used.</p>
+ */
+class BroadcastSourceGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastSourceGenerator.class);
+    private static final Map<Class<?>, WeakReference<Class<?>>> GENERATED_CLASSES = new WeakHashMap<Class<?>, WeakReference<Class<?>>>();
+    private static final Type SUPER_TYPE = Type.getType(AbstractBroadcastSource.class);
+    private static final Type DISPATCH_TYPE = Type.getType(BroadcastDispatch.class);
+    private static final Type THROWABLE_TYPE = Type.getType(Throwable.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[]{DISPATCH_TYPE});
+    private static final String GET_LISTENERS_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object[].class), new Type[0]);
+    private static final String LISTENER_FAILED_DESCRIPTOR = Type.getMethodDescriptor(THROWABLE_TYPE, new Type[]{THROWABLE_TYPE, THROWABLE_TYPE});
+    private static final String DISPATCH_COMPLETE_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[]{THROWABLE_TYPE});
+
+    /**
+     * Creates a broadcast source for the given dispatch. Returns null when a source class cannot be generated for the listener type.
+     */
+    public static <T> T maybeCreateSource(BroadcastDispatch<T> dispatch) {
+        Class<?> generatedClass = getGeneratedClass(dispatch.getType());
+        if (generatedClass == null) {
+            return null;
+        }
+        try {
+            return dispatch.getType().cast(generatedClass.getConstructor(BroadcastDispatch.class).newInstance(dispatch));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static synchronized Class<?> getGeneratedClass(Class<?> type) {
+        WeakReference<Class<?>> reference = GENERATED_CLASSES.get(type);
+        if (reference != null) {
+            // The generated class is reachable from the ClassLoader of the listener type, so is not collected while the listener type is in use
+            return reference.get();
+        }
+        Class<?> generatedClass = null;
+        if (canGenerate(type)) {
+            try {
+                generatedClass = generate(type);
+            } catch (Throwable e) {
+                LOGGER.debug(String.format("Could not generate broadcast source class for %s. Using a proxy instead.", type), e);
+            }
+        }
+        GENERATED_CLASSES.put(type, new WeakReference<Class<?>>(generatedClass));
+        return generatedClass;
+    }
+
+    private static boolean canGenerate(Class<?> type) {
+        if (!type.isInterface()) {
+            return false;
+        }
+        for (Class<?> current = type; current != null; current = current.getDeclaringClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        for (Method method : type.getMethods()) {
+            if (!method.getReturnType().equals(Void.TYPE)) {
+                return false;
+            }
+        }
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return false;
+        }
+        try {
+            return classLoader.loadClass(AbstractBroadcastSource.class.getName()) == AbstractBroadcastSource.class;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static Class<?> generate(Class<?> type) {
+        String typeName = type.getName() + "_Broadcast";
+        Type generatedType = Type.getType("L" + typeName.replaceAll("\\.", "/") + ";");
+        Type listenerType = Type.getType(type);
+
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, generatedType.getInternalName(), null,
+                SUPER_TYPE.getInternalName(), new String[]{listenerType.getInternalName()});
+
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, new String[0]);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_TYPE.getInternalName(), "<init>", CONSTRUCTOR_DESCRIPTOR);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        Set<String> methods = new HashSet<String>();
+        for (Method method : type.getMethods()) {
+            String methodDescriptor = Type.getMethodDescriptor(method);
+            if (methods.add(method.getName() + methodDescriptor)) {
+                addBroadcastMethod(visitor, listenerType, method.getName(), methodDescriptor);
+            }
+        }
+
+        visitor.visitEnd();
+        byte[] bytecode = visitor.toByteArray();
+        JavaMethod<ClassLoader, Class> defineClassMethod = JavaMethod.create(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
+        return defineClassMethod.invoke(type.getClassLoader(), typeName, bytecode, 0, bytecode.length);
+    }
+
+    /**
+     * Adds a method which is equivalent to:
+     *
+     * <pre>
+     * public void event(String param) {
+     *     Object[] listeners = getListeners();
+     *     Throwable failure = null;
+     *     for (int i = 0; i &lt; listeners.length; i++) {
+     *         try {
+     *             ((Listener) listeners[i]).event(param);
+     *         } catch (Throwable t) {
+     *             failure = listenerFailed(failure, t);
+     *         }
+     *     }
+     *     dispatchComplete(failure);
+     * }
+     * </pre>
+     */
+    private static void addBroadcastMethod(ClassWriter visitor, Type listenerType, String methodName, String methodDescriptor) {
+        Type[] paramTypes = Type.getArgumentTypes(methodDescriptor);
+        int listenersVar = 1;
+        for (Type paramType : paramTypes) {
+            listenersVar += paramType.getSize();
+        }
+        int indexVar = listenersVar + 1;
+        int failureVar = listenersVar + 2;
+        int caughtVar = listenersVar + 3;
+
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, methodName, methodDescriptor, null, new String[0]);
+        methodVisitor.visitCode();
+
+        Label loopStart = new Label();
+        Label loopEnd = new Label();
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        Label next = new Label();
+        methodVisitor.visitTryCatchBlock(tryStart, tryEnd, handler, THROWABLE_TYPE.getInternalName());
+
+        // Object[] listeners = getListeners(); Throwable failure = null; int i = 0
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_TYPE.getInternalName(), "getListeners", GET_LISTENERS_DESCRIPTOR);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, listenersVar);
+        methodVisitor.visitInsn(Opcodes.ACONST_NULL);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, failureVar);
+        methodVisitor.visitInsn(Opcodes.ICONST_0);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, indexVar);
+
+        // while (i < listeners.length)
+        methodVisitor.visitLabel(loopStart);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, indexVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, listenersVar);
+        methodVisitor.visitInsn(Opcodes.ARRAYLENGTH);
+        methodVisitor.visitJumpInsn(Opcodes.IF_ICMPGE, loopEnd);
+
+        // ((Listener) listeners[i]).event(params)
+        methodVisitor.visitLabel(tryStart);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, listenersVar);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, indexVar);
+        methodVisitor.visitInsn(Opcodes.AALOAD);
+        methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, listenerType.getInternalName());
+        int paramVar = 1;
+        for (Type paramType : paramTypes) {
+            methodVisitor.visitVarInsn(paramType.getOpcode(Opcodes.ILOAD), paramVar);
+            paramVar += paramType.getSize();
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEINTERFACE, listenerType.getInternalName(), methodName, methodDescriptor);
+        methodVisitor.visitLabel(tryEnd);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, next);
+
+        // catch (Throwable t) { failure = listenerFailed(failure, t) }
+        methodVisitor.visitLabel(handler);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, caughtVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, failureVar);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, caughtVar);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_TYPE.getInternalName(), "listenerFailed", LISTENER_FAILED_DESCRIPTOR);
+        methodVisitor.visitVarInsn(Opcodes.ASTORE, failureVar);
+
+        // i++
+        methodVisitor.visitLabel(next);
+        methodVisitor.visitIincInsn(indexVar, 1);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, loopStart);
+
+        // dispatchComplete(failure)
+        methodVisitor.visitLabel(loopEnd);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, failureVar);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_TYPE.getInternalName(), "dispatchComplete", DISPATCH_COMPLETE_DESCRIPTOR);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+}
@@ -17,10 +17,6 @@
 package org.gradle.listener;
 
 import groovy.lang.Closure;
-import org.gradle.messaging.dispatch.Dispatch;
-import org.gradle.messaging.dispatch.MethodInvocation;
-import org.gradle.messaging.dispatch.ReflectionDispatch;
-
 import java.util.*;
 
 @SuppressWarnings({"unchecked"})
@@ -90,10 +86,10 @@ public class DefaultListenerManager implements ListenerManager {
             ListenerBroadcast<T> broadcaster = broadcasters.get(listenerClass);
             if (broadcaster == null) {
                 broadcaster = new ListenerBroadcast<T>(listenerClass);
-                broadcaster.add(getLogger(listenerClass));
-                broadcaster.add(getDispatcher(listenerClass));
+                broadcaster.add(getLogger(listenerClass).getSource());
+                broadcaster.add(getDispatcher(listenerClass).getSource());
                 if (parent != null) {
-                    broadcaster.add(parent.getDispatcher(listenerClass));
+                    broadcaster.add(parent.getDispatcher(listenerClass).getSource());
                 }
                 broadcasters.put(listenerClass, broadcaster);
             }
@@ -116,11 +112,11 @@ public class DefaultListenerManager implements ListenerManager {
         }
     }
 
-    private LoggerDispatch getLogger(Class<?> listenerClass) {
+    private <T> LoggerDispatch<T> getLogger(Class<T> listenerClass) {
         synchronized (lock) {
-            LoggerDispatch dispatch = loggers.get(listenerClass);
+            LoggerDispatch<T> dispatch = loggers.get(listenerClass);
             if (dispatch == null) {
-                dispatch = new LoggerDispatch(listenerClass, parent == null ? null : parent.getLogger(listenerClass));
+                dispatch = new LoggerDispatch<T>(listenerClass, parent == null ? null : parent.getLogger(listenerClass));
                 for (Object logger : allLoggers) {
                     dispatch.maybeSetLogger(logger);
                 }
@@ -157,24 +153,29 @@ public class DefaultListenerManager implements ListenerManager {
         }
     }
 
-    private static class LoggerDispatch implements Dispatch<MethodInvocation> {
-        private final Class<?> type;
-        private Dispatch<MethodInvocation> dispatch;
+    private static class LoggerDispatch<T> {
+        private final BroadcastDispatch<T> dispatch;
+        private Object logger;
 
-        private LoggerDispatch(Class<?> type, LoggerDispatch parentDispatch) {
-            this.type = type;
-            this.dispatch = parentDispatch;
+        private LoggerDispatch(Class<T> type, LoggerDispatch<T> parentDispatch) {
+            dispatch = new BroadcastDispatch<T>(type);
+            if (parentDispatch != null) {
+                logger = parentDispatch.getSource();
+                dispatch.add(parentDispatch.getSource());
+            }
         }
 
-        public void dispatch(MethodInvocation message) {
-            if (dispatch != null) {
-                dispatch.dispatch(message);
-            }
+        public T getSource() {
+            return dispatch.getSource();
         }
 
         public void maybeSetLogger(Object logger) {
-            if (type.isInstance(logger)) {
-                dispatch = new ReflectionDispatch(logger);
+            if (dispatch.getType().isInstance(logger)) {
+                if (this.logger != null) {
+                    dispatch.remove(this.logger);
+                }
+                this.logger = logger;
+                dispatch.add(dispatch.getType().cast(logger));
             }
         }
     }
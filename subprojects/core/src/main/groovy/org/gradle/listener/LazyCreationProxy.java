@@ -42,8 +42,12 @@ public class LazyCreationProxy<T> {
         }
 
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            if (target == null) {
-                target = factory.create();
+            Object target;
+            synchronized (this) {
+                if (this.target == null) {
+                    this.target = factory.create();
+                }
+                target = this.target;
             }
             try {
                 return method.invoke(target, args);
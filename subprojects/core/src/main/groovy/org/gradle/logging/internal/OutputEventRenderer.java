@@ -22,19 +22,32 @@ import org.gradle.listener.ListenerBroadcast;
 
 import java.io.FileDescriptor;
 import java.io.PrintStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>Events are added to a queue and rendered by whichever thread currently holds the render lock, so a thread which
+ * logs while another thread is rendering does not wait for it. Events are rendered in the order they are queued, so the
+ * events generated by a given thread are rendered in order. A thread which finds too many events queued waits for the
+ * queue to be rendered.</p>
  */
 public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final TerminalDetector terminalDetector;
-    private final Object lock = new Object();
+    private static final int MAX_QUEUED_EVENTS = 2000;
+    private final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Lock lock = new ReentrantLock();
     private final DefaultColorMap colourMap = new DefaultColorMap();
-    private LogLevel logLevel = LogLevel.LIFECYCLE;
+    private volatile LogLevel logLevel = LogLevel.LIFECYCLE;
 
     public OutputEventRenderer(TerminalDetector terminalDetector) {
         OutputEventListener stdOutChain = onNonError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stdoutListeners.getSource())), false));
@@ -45,9 +58,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void colorStdOutAndStdErr(boolean colorOutput) {
-        synchronized (lock) {
+        lock.lock();
+        try {
+            renderQueuedEvents();
             colourMap.setUseColor(colorOutput);
+        } finally {
+            lock.unlock();
         }
+        renderPendingEvents();
     }
 
     public OutputEventRenderer addStandardOutputAndError() {
@@ -83,16 +101,32 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addOutputEventListener(OutputEventListener listener) {
-        formatters.add(listener);
+        lock.lock();
+        try {
+            renderQueuedEvents();
+            formatters.add(listener);
+        } finally {
+            lock.unlock();
+        }
+        renderPendingEvents();
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
-        formatters.remove(listener);
+        lock.lock();
+        try {
+            renderQueuedEvents();
+            formatters.remove(listener);
+        } finally {
+            lock.unlock();
+        }
+        renderPendingEvents();
     }
 
     public OutputEventRenderer addConsole(final Console console, boolean stdout, boolean stderr) {
         final OutputEventListener consoleChain = new ConsoleBackedProgressRenderer(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(console.getMainArea()), true), console);
-        synchronized (lock) {
+        lock.lock();
+        try {
+            renderQueuedEvents();
             if (stdout && stderr) {
                 formatters.add(consoleChain);
             } else if (stdout) {
@@ -100,7 +134,10 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
             } else {
                 formatters.add(onError(consoleChain));
             }
+        } finally {
+            lock.unlock();
         }
+        renderPendingEvents();
         return this;
     }
 
@@ -125,27 +162,47 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addStandardErrorListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        lock.lock();
+        try {
+            renderQueuedEvents();
             stderrListeners.add(listener);
+        } finally {
+            lock.unlock();
         }
+        renderPendingEvents();
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        lock.lock();
+        try {
+            renderQueuedEvents();
             stdoutListeners.add(listener);
+        } finally {
+            lock.unlock();
         }
+        renderPendingEvents();
     }
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        lock.lock();
+        try {
+            renderQueuedEvents();
             stdoutListeners.remove(listener);
+        } finally {
+            lock.unlock();
         }
+        renderPendingEvents();
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
-        synchronized (lock) {
+        lock.lock();
+        try {
+            renderQueuedEvents();
             stderrListeners.remove(listener);
+        } finally {
+            lock.unlock();
         }
+        renderPendingEvents();
     }
 
     public void configure(LogLevel logLevel) {
@@ -153,19 +210,63 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void onOutput(OutputEvent event) {
-        synchronized (lock) {
-            if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
-                return;
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+
+        queue.add(event);
+        if (queued.incrementAndGet() > MAX_QUEUED_EVENTS || event instanceof LogLevelChangeEvent) {
+            // Wait for the queued events to be rendered. Log level changes are applied before returning, so that
+            // the events which the caller generates afterwards are filtered using the new log level
+            lock.lock();
+            try {
+                renderQueuedEvents();
+            } finally {
+                lock.unlock();
             }
-            if (event instanceof LogLevelChangeEvent) {
-                LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
-                LogLevel newLogLevel = changeEvent.getNewLogLevel();
-                if (newLogLevel == this.logLevel) {
-                    return;
-                }
-                this.logLevel = newLogLevel;
+        }
+
+        renderPendingEvents();
+    }
+
+    /**
+     * Renders the queued events, unless another thread is already doing so. Must be called after releasing the lock, as
+     * a thread which added events while the lock was held did not render them. Checks the queue again after releasing
+     * the lock, to pick up any events which were added after the other thread finished rendering.
+     */
+    private void renderPendingEvents() {
+        while (!queue.isEmpty() && lock.tryLock()) {
+            try {
+                renderQueuedEvents();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Renders the queued events. Must be called while holding the lock.
+     */
+    private void renderQueuedEvents() {
+        OutputEvent event;
+        while ((event = queue.poll()) != null) {
+            queued.decrementAndGet();
+            render(event);
+        }
+    }
+
+    private void render(OutputEvent event) {
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+        if (event instanceof LogLevelChangeEvent) {
+            LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
+            LogLevel newLogLevel = changeEvent.getNewLogLevel();
+            if (newLogLevel == this.logLevel) {
+                return;
             }
-            formatters.getSource().onOutput(event);
+            this.logLevel = newLogLevel;
         }
+        formatters.getSource().onOutput(event);
     }
 }
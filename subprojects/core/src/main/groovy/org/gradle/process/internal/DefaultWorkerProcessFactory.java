@@ -23,6 +23,7 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.messaging.remote.Address;
 import org.gradle.messaging.remote.MessagingServer;
+import org.gradle.messaging.remote.internal.MessageHub;
 import org.gradle.process.internal.child.ApplicationClassesInIsolatedClassLoaderWorkerFactory;
 import org.gradle.process.internal.child.ApplicationClassesInSystemClassLoaderWorkerFactory;
 import org.gradle.process.internal.child.EncodedStream;
@@ -95,6 +96,7 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             LOGGER.debug("Using implementation classpath {}", implementationClassPath);
 
             JavaExecHandleBuilder javaCommand = getJavaCommand();
+            propagateBatchDelay(javaCommand);
             attachStdInContent(workerFactory, javaCommand);
             workerFactory.prepareJavaCommand(javaCommand);
             javaCommand.setDisplayName(displayName);
@@ -105,6 +107,14 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             return workerProcess;
         }
 
+        private void propagateBatchDelay(JavaExecHandleBuilder javaCommand) {
+            // The worker sends its messages using its own message hub, so use the same batching as this process unless the worker specifies its own
+            String batchDelay = System.getProperty(MessageHub.BATCH_DELAY_PROPERTY);
+            if (batchDelay != null && !javaCommand.getSystemProperties().containsKey(MessageHub.BATCH_DELAY_PROPERTY)) {
+                javaCommand.systemProperty(MessageHub.BATCH_DELAY_PROPERTY, batchDelay);
+            }
+        }
+
         private void attachStdInContent(WorkerFactory workerFactory, JavaExecHandleBuilder javaCommand) {
             ByteArrayOutputStream bytes = new ByteArrayOutputStream();
             OutputStream encoded = new EncodedStream.EncodedOutput(bytes);
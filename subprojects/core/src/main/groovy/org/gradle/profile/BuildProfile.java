@@ -86,7 +86,7 @@ public class BuildProfile {
      * @param project to look up
      * @return
      */
-    public ProjectProfile getProjectProfile(Project project) {
+    public synchronized ProjectProfile getProjectProfile(Project project) {
         ProjectProfile result = projects.get(project);
         if (result == null) {
             result = new ProjectProfile(project);
@@ -86,6 +86,9 @@ public class InMemoryCacheFactory implements CacheFactory {
             return new InMemoryIndexedCache<K, V>();
         }
 
+        public void enableConcurrentAccess() {
+        }
+
         public <T> T useCache(String operationDisplayName, Factory<? extends T> action) {
             // The contract of useCache() means we have to provide some basic synchronization.
             synchronized (this) {
@@ -53,6 +53,9 @@ class StartParameterTest {
         testObj.rerunTasks = true;
         testObj.refreshDependencies = true;
         testObj.recompileScripts = true;
+        testObj.parallelProjectConfiguration = true
+        testObj.parallelConfigurationThreadCount = 3
+        testObj.configureOnDemand = true
 
         StartParameter startParameter = testObj.newInstance()
         assertEquals(testObj, startParameter)
@@ -189,6 +192,9 @@ class StartParameterTest {
         parameter.recompileScripts = true
         parameter.rerunTasks = true
         parameter.refreshDependencies = true
+        parameter.parallelProjectConfiguration = true
+        parameter.parallelConfigurationThreadCount = 3
+        parameter.configureOnDemand = true
 
         assertThat(parameter, isSerializable())
 
@@ -204,6 +210,9 @@ class StartParameterTest {
         assertThat(newParameter.refreshDependencies, equalTo(parameter.refreshDependencies))
         assertThat(newParameter.rerunTasks, equalTo(parameter.rerunTasks))
         assertThat(newParameter.recompileScripts, equalTo(parameter.recompileScripts))
+        assertThat(newParameter.parallelProjectConfiguration, equalTo(parameter.parallelProjectConfiguration))
+        assertThat(newParameter.parallelConfigurationThreadCount, equalTo(parameter.parallelConfigurationThreadCount))
+        assertThat(newParameter.configureOnDemand, equalTo(parameter.configureOnDemand))
 
         assertThat(newParameter.buildFile, nullValue())
         assertThat(newParameter.taskNames, isEmpty())
@@ -22,6 +22,7 @@ import org.gradle.api.internal.artifacts.DependencyResolveContext;
 import org.gradle.api.internal.artifacts.ProjectDependenciesBuildInstruction;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationContainerInternal;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.tasks.TaskDependency;
@@ -50,7 +51,8 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
     private final ConfigurationContainerInternal projectConfigurationsStub = context.mock(ConfigurationContainerInternal.class);
     private final ConfigurationInternal projectConfigurationStub = context.mock(ConfigurationInternal.class);
     private final TaskContainer dependencyProjectTaskContainerStub = context.mock(TaskContainer.class);
-    private final DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, instruction);
+    private final ProjectAccessListener projectAccessListener = context.mock(ProjectAccessListener.class);
+    private final DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, projectAccessListener, instruction);
 
     protected AbstractModuleDependency getDependency() {
         return projectDependency;
@@ -64,9 +66,9 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
         ProjectInternal dependencyProject = context.mock(ProjectInternal.class);
         DefaultProjectDependency projectDependency;
         if (configuration != null) {
-            projectDependency = new DefaultProjectDependency(dependencyProject, configuration, instruction);
+            projectDependency = new DefaultProjectDependency(dependencyProject, configuration, projectAccessListener, instruction);
         } else {
-            projectDependency = new DefaultProjectDependency(dependencyProject, instruction);
+            projectDependency = new DefaultProjectDependency(dependencyProject, projectAccessListener, instruction);
         }
         return projectDependency;
     }
@@ -86,6 +88,7 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
             will(returnValue("target-group"));
             allowing(dependencyProjectStub).getVersion();
             will(returnValue("target-version"));
+            allowing(projectAccessListener).beforeResolvingProjectDependency(dependencyProjectStub);
         }});
     }
 
@@ -104,7 +107,18 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
             will(returnValue(projectConfigurationStub));
         }});
 
-        DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf1", instruction);
+        DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf1", projectAccessListener, instruction);
+        assertThat(projectDependency.getProjectConfiguration(), sameInstance((Configuration) projectConfigurationStub));
+    }
+
+    @Test
+    public void notifiesListenerBeforeUsingTargetConfiguration() {
+        final ProjectAccessListener listener = context.mock(ProjectAccessListener.class, "listener");
+        context.checking(new Expectations() {{
+            one(listener).beforeResolvingProjectDependency(dependencyProjectStub);
+        }});
+
+        DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, listener, instruction);
         assertThat(projectDependency.getProjectConfiguration(), sameInstance((Configuration) projectConfigurationStub));
     }
 
@@ -133,7 +147,7 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
         }});
 
         DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf1",
-                instruction);
+                projectAccessListener, instruction);
         projectDependency.resolve(resolveContext);
     }
 
@@ -145,14 +159,14 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
             will(returnValue(false));
         }});
         DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf1",
-                instruction);
+                projectAccessListener, instruction);
         projectDependency.resolve(resolveContext);
     }
     
     @Test
     public void resolveNotDelegatesToTransitiveProjectDependenciesIfProjectDependencyIsNonTransitive() {
         DependencyResolveContext resolveContext = context.mock(DependencyResolveContext.class);
-        DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf1", instruction);
+        DefaultProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf1", projectAccessListener, instruction);
         projectDependency.setTransitive(false);
         projectDependency.resolve(resolveContext);
     }
@@ -208,7 +222,7 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
     @Test
     public void doesNotDependOnAnythingWhenProjectRebuildIsDisabled() {
         DefaultProjectDependency dependency = new DefaultProjectDependency(dependencyProjectStub,
-                new ProjectDependenciesBuildInstruction(false));
+                projectAccessListener, new ProjectDependenciesBuildInstruction(false));
         assertThat(dependency.getBuildDependencies().getDependencies(null), isEmpty());
     }
 
@@ -236,7 +250,7 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
     }
 
     private ProjectDependency createProjectDependency() {
-        ProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf", instruction);
+        ProjectDependency projectDependency = new DefaultProjectDependency(dependencyProjectStub, "conf", projectAccessListener, instruction);
         projectDependency.addArtifact(new DefaultDependencyArtifact("name", "type", "ext", "classifier", "url"));
         return projectDependency;
     }
@@ -244,16 +258,16 @@ public class DefaultProjectDependencyTest extends AbstractModuleDependencyTest {
     @Test
     @Override
     public void equality() {
-        assertThat(new DefaultProjectDependency(dependencyProjectStub, instruction), strictlyEqual(new DefaultProjectDependency(
-                dependencyProjectStub, instruction)));
-        assertThat(new DefaultProjectDependency(dependencyProjectStub, "conf1", instruction), strictlyEqual(new DefaultProjectDependency(
-                dependencyProjectStub, "conf1", instruction)));
-        assertThat(new DefaultProjectDependency(dependencyProjectStub, "conf1", instruction), not(equalTo(new DefaultProjectDependency(
-                dependencyProjectStub, "conf2", instruction))));
+        assertThat(new DefaultProjectDependency(dependencyProjectStub, projectAccessListener, instruction), strictlyEqual(new DefaultProjectDependency(
+                dependencyProjectStub, projectAccessListener, instruction)));
+        assertThat(new DefaultProjectDependency(dependencyProjectStub, "conf1", projectAccessListener, instruction), strictlyEqual(new DefaultProjectDependency(
+                dependencyProjectStub, "conf1", projectAccessListener, instruction)));
+        assertThat(new DefaultProjectDependency(dependencyProjectStub, "conf1", projectAccessListener, instruction), not(equalTo(new DefaultProjectDependency(
+                dependencyProjectStub, "conf2", projectAccessListener, instruction))));
         ProjectInternal otherProject = context.mock(ProjectInternal.class, "otherProject");
-        assertThat(new DefaultProjectDependency(dependencyProjectStub, instruction), not(equalTo(new DefaultProjectDependency(
-                otherProject, instruction))));
-        assertThat(new DefaultProjectDependency(dependencyProjectStub, instruction), not(equalTo(new DefaultProjectDependency(
-                dependencyProjectStub, new ProjectDependenciesBuildInstruction(false)))));
+        assertThat(new DefaultProjectDependency(dependencyProjectStub, projectAccessListener, instruction), not(equalTo(new DefaultProjectDependency(
+                otherProject, projectAccessListener, instruction))));
+        assertThat(new DefaultProjectDependency(dependencyProjectStub, projectAccessListener, instruction), not(equalTo(new DefaultProjectDependency(
+                dependencyProjectStub, projectAccessListener, new ProjectDependenciesBuildInstruction(false)))));
     }
 }
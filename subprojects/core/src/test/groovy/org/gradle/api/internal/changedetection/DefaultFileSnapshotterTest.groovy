@@ -29,6 +29,8 @@ import org.gradle.util.TestFile
 import org.gradle.api.file.FileCollection
 import org.gradle.util.ChangeListener
 import org.gradle.api.file.FileTree
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
 
 @RunWith(JMock.class)
 public class DefaultFileSnapshotterTest {
@@ -316,6 +318,87 @@ public class DefaultFileSnapshotterTest {
         target.changesSince(snapshotter.emptySnapshot(), listener)
     }
 
+    @Test
+    public void canSerializeAndDeserializeSnapshot() {
+        TestFile file1 = tmpDir.createFile('dir/file1')
+        TestFile file2 = tmpDir.createFile('dir/file2').write('content')
+        TestFile dir = tmpDir.createDir('dir/sub')
+        TestFile noExist = tmpDir.file('dir/missing')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file2, noExist, dir, file1))
+
+        ByteArrayOutputStream outstr = new ByteArrayOutputStream()
+        ObjectOutputStream objectOutstr = new ObjectOutputStream(outstr)
+        objectOutstr.writeObject(snapshot)
+        objectOutstr.close()
+        FileCollectionSnapshot copy = new ObjectInputStream(new ByteArrayInputStream(outstr.toByteArray())).readObject()
+
+        assertThat(copy.files.files, equalTo([file1, file2] as Set))
+        copy.changesSince(snapshot, listener)
+        snapshot.changesSince(copy, listener)
+
+        file2.write('new content')
+        context.checking {
+            one(listener).changed(file2)
+        }
+        snapshotter.snapshot(files(file1, file2, dir, noExist)).changesSince(copy, listener)
+    }
+
+    @Test
+    public void snapshotsLargeCollectionUsingMultipleThreads() {
+        List<File> files = (1..550).collect { tmpDir.createFile("dir${it % 7}/file$it").write("content $it") }
+        files << tmpDir.createDir('dir0')
+        files << tmpDir.file('missing')
+        TaskArtifactStateCacheAccess cacheAccess = [useCache: { String operationDisplayName, Runnable action -> action.run() }] as TaskArtifactStateCacheAccess
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+        DefaultFileSnapshotter parallelSnapshotter = new DefaultFileSnapshotter(hasher, cacheAccess, executorFactory, 4)
+
+        try {
+            FileCollectionSnapshot expected = snapshotter.snapshot(files(files as File[]))
+            FileCollectionSnapshot snapshot = parallelSnapshotter.snapshot(files(files as File[]))
+
+            assertThat(snapshot.files.files, equalTo(expected.files.files))
+            snapshot.changesSince(expected, listener)
+            expected.changesSince(snapshot, listener)
+        } finally {
+            executorFactory.stop()
+        }
+    }
+
+    @Test
+    public void snapshotsConcurrentlyUsingASingleFixedSizePool() {
+        List<File> files1 = (1..350).collect { tmpDir.createFile("a/file$it").write("content $it") }
+        List<File> files2 = (1..350).collect { tmpDir.createFile("b/file$it").write("content $it") }
+        TaskArtifactStateCacheAccess cacheAccess = [useCache: { String operationDisplayName, Runnable action -> action.run() }] as TaskArtifactStateCacheAccess
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+        int created = 0
+        ExecutorFactory countingFactory = [create: { String displayName, int fixedSize ->
+            assertThat(fixedSize, equalTo(2))
+            created++
+            executorFactory.create(displayName, fixedSize)
+        }] as ExecutorFactory
+        DefaultFileSnapshotter parallelSnapshotter = new DefaultFileSnapshotter(hasher, cacheAccess, countingFactory, 2)
+
+        try {
+            FileCollectionSnapshot snapshot2 = null
+            Thread other = new Thread({ snapshot2 = parallelSnapshotter.snapshot(tree(files2)) })
+            other.start()
+            FileCollectionSnapshot snapshot1 = parallelSnapshotter.snapshot(tree(files1))
+            other.join()
+
+            assertThat(snapshot1.files.files, equalTo(files1 as Set))
+            assertThat(snapshot2.files.files, equalTo(files2 as Set))
+            assertThat(created, equalTo(1))
+        } finally {
+            executorFactory.stop()
+        }
+    }
+
+    private FileCollection tree(List<File> files) {
+        FileTree tree = [iterator: { files.iterator() }] as FileTree
+        return [getAsFileTree: { tree }] as FileCollection
+    }
+
     private FileCollection files(File... files) {
         FileTree collection = context.mock(FileTree.class)
         context.checking {
@@ -45,6 +45,7 @@ class DefaultTaskArtifactStateCacheAccessTest extends Specification {
         1 * cacheRepository.cache("taskArtifacts") >> cacheBuilder
         1 * cacheBuilder.open() >> backingCache
         _ * cacheBuilder._ >> cacheBuilder
+        1 * backingCache.enableConcurrentAccess()
         _ * backingCache.baseDir >> new File("baseDir")
         1 * backingCache.createCache(new File("baseDir/some-cache.bin"), String, Integer) >> backingIndexedCache
         1 * backingIndexedCache.get("key")
@@ -67,6 +67,16 @@ class PathKeyFileStoreTest extends Specification {
         fsBase.file("a").text == "def"
     }
 
+    def "does not leave temporary files behind"() {
+        when:
+        store.move("a/b", createFile("abc"))
+        store.copy("a/b", createFile("def"))
+
+        then:
+        fsBase.file("a").list() as List == ["b"]
+        fsBase.file("a/b").text == "def"
+    }
+
     def "creates intermediary directories"() {
         when:
         store.move("a/b/c", createFile("abc"))
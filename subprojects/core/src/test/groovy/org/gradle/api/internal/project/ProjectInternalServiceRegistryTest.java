@@ -101,6 +101,8 @@ public class ProjectInternalServiceRegistryTest {
             will(returnValue(context.mock(FileSystem.class)));
             allowing(parent).get(ClassGenerator.class);
             will(returnValue(context.mock(ClassGenerator.class)));
+            allowing(parent).get(ProjectAccessListener.class);
+            will(returnValue(context.mock(ProjectAccessListener.class)));
         }});
     }
 
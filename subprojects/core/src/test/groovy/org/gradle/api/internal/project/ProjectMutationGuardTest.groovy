@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project
+
+import spock.lang.Specification
+
+class ProjectMutationGuardTest extends Specification {
+    final ProjectInternal parent = Mock()
+    final ProjectInternal child = Mock()
+    final ProjectInternal sibling = Mock()
+
+    def setup() {
+        _ * child.parent >> parent
+    }
+
+    def cleanup() {
+        // Guard state is per-thread, so make sure nothing leaks into other tests
+        while (true) {
+            try {
+                ProjectMutationGuard.afterConfigure()
+            } catch (EmptyStackException e) {
+                break
+            }
+        }
+    }
+
+    def "allows changes to any project when no project is being configured"() {
+        expect:
+        ProjectMutationGuard.checkCanMutate(sibling, "add task 'a'")
+    }
+
+    def "allows changes to the project being configured and its children"() {
+        when:
+        ProjectMutationGuard.beforeConfigure(parent)
+        ProjectMutationGuard.checkCanMutate(parent, "add task 'a'")
+        ProjectMutationGuard.checkCanMutate(child, "add task 'b'")
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "rejects changes to other projects"() {
+        given:
+        ProjectMutationGuard.beforeConfigure(child)
+
+        when:
+        ProjectMutationGuard.checkCanMutate(parent, "add extension 'ext'")
+
+        then:
+        IllegalStateException e = thrown()
+        e.message.startsWith("Cannot add extension 'ext' for $parent while configuring $child, as projects are being configured in parallel.")
+    }
+
+    def "allows changes again once configuration of the project is complete"() {
+        given:
+        ProjectMutationGuard.beforeConfigure(child)
+        ProjectMutationGuard.afterConfigure()
+
+        when:
+        ProjectMutationGuard.checkCanMutate(sibling, "add task 'a'")
+
+        then:
+        noExceptionThrown()
+    }
+}
@@ -24,7 +24,10 @@ import org.gradle.cache.CacheRepository
 import org.gradle.cache.internal.CacheFactory
 import org.gradle.cache.internal.DefaultCacheRepository
 import org.gradle.configuration.BuildConfigurer
+import org.gradle.configuration.ConfigureOnDemandBuildConfigurer
+import org.gradle.configuration.ConfigureOnDemandProjectAccessListener
 import org.gradle.configuration.DefaultBuildConfigurer
+import org.gradle.configuration.PrecompilingBuildConfigurer
 import org.gradle.configuration.DefaultScriptPluginFactory
 import org.gradle.configuration.ScriptPluginFactory
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory
@@ -43,6 +46,7 @@ import org.gradle.process.internal.WorkerProcessBuilder
 import org.gradle.profile.ProfileEventAdapter
 import org.gradle.util.ClassLoaderFactory
 import org.gradle.util.MultiParentClassLoader
+import org.gradle.util.SetSystemProperties
 import org.gradle.util.TemporaryFolder
 import org.junit.Rule
 import spock.lang.Specification
@@ -57,6 +61,8 @@ import static org.junit.Assert.assertThat
 public class TopLevelBuildServiceRegistryTest extends Specification {
     @Rule
     TemporaryFolder tmpDir = new TemporaryFolder()
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
     StartParameter startParameter = new StartParameter()
     ServiceRegistry parent = Mock()
     Factory<CacheFactory> cacheFactoryFactory = Mock()
@@ -208,6 +214,36 @@ public class TopLevelBuildServiceRegistryTest extends Specification {
         assertThat(registry.get(BuildConfigurer), sameInstance(registry.get(BuildConfigurer)))
     }
 
+    def providesAPrecompilingBuildConfigurerWhenEnabled() {
+        setup:
+        System.setProperty(PrecompilingBuildConfigurer.ENABLED_PROPERTY, "true")
+
+        expect:
+        assertThat(registry.get(BuildConfigurer), instanceOf(PrecompilingBuildConfigurer))
+    }
+
+    def providesAConfigureOnDemandBuildConfigurer() {
+        setup:
+        startParameter.configureOnDemand = true
+
+        expect:
+        assertThat(registry.get(BuildConfigurer), instanceOf(ConfigureOnDemandBuildConfigurer))
+    }
+
+    def providesAProjectAccessListener() {
+        expect:
+        assertThat(registry.get(ProjectAccessListener), instanceOf(NoOpProjectAccessListener))
+        assertThat(registry.get(ProjectAccessListener), sameInstance(registry.get(ProjectAccessListener)))
+    }
+
+    def providesAConfigureOnDemandProjectAccessListener() {
+        setup:
+        startParameter.configureOnDemand = true
+
+        expect:
+        assertThat(registry.get(ProjectAccessListener), instanceOf(ConfigureOnDemandProjectAccessListener))
+    }
+
     def providesAPropertiesLoader() {
         expect:
         assertThat(registry.get(IGradlePropertiesLoader), instanceOf(DefaultGradlePropertiesLoader))
@@ -21,6 +21,7 @@ import org.gradle.api.Rule;
 import org.gradle.api.Task;
 import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.project.ProjectAccessListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.util.GUtil;
@@ -43,8 +44,9 @@ public class DefaultTaskContainerTest {
     private final JUnit4Mockery context = new JUnit4Mockery();
     private final ITaskFactory taskFactory = context.mock(ITaskFactory.class);
     private final ProjectInternal project = context.mock(ProjectInternal.class, "<project>");
+    private final ProjectAccessListener projectAccessListener = context.mock(ProjectAccessListener.class);
     private int taskCount;
-    private final DefaultTaskContainer container = new DefaultTaskContainer(project, context.mock(org.gradle.internal.reflect.Instantiator.class), taskFactory);
+    private final DefaultTaskContainer container = new DefaultTaskContainer(project, context.mock(org.gradle.internal.reflect.Instantiator.class), taskFactory, projectAccessListener);
 
     @Test
     public void addsTaskWithMap() {
@@ -269,6 +271,8 @@ public class DefaultTaskContainerTest {
             allowing(project).findProject(projectPath);
             will(returnValue(otherProject));
 
+            one(projectAccessListener).beforeRequestingTaskByPath(otherProject);
+
             allowing(otherProject).getTasks();
             will(returnValue(otherTaskContainer));
 
@@ -401,6 +401,72 @@ class DefaultCacheAccessTest extends Specification {
         0 * _._
     }
 
+    def "can execute cache action from another thread when concurrent access is enabled"() {
+        Factory<String> action = Mock()
+        Factory<String> otherAction = Mock()
+
+        given:
+        manager.open(None)
+        manager.enableConcurrentAccess()
+        def cache = manager.newCache(targetFile, String, Integer)
+
+        when:
+        manager.useCache("some operation", action)
+
+        then:
+        1 * action.create() >> {
+            canAccess cache
+            def thread = new Thread({ manager.useCache("other operation", otherAction) })
+            thread.start()
+            thread.join()
+            canAccess cache
+        }
+        1 * otherAction.create() >> {
+            canAccess cache
+        }
+        1 * lockManager.lock(lockFile, Exclusive, "<display-name>", "some operation") >> lock
+        _ * lock.readFile(_)
+        _ * lock.writeFile(_)
+        1 * lock.close()
+        0 * _._
+    }
+
+    def "keeps lock until last thread finishes using the cache when concurrent access is enabled"() {
+        Factory<String> action = Mock()
+        Factory<String> otherAction = Mock()
+        def otherStarted = new java.util.concurrent.CountDownLatch(1)
+        def actionFinished = new java.util.concurrent.CountDownLatch(1)
+        Thread thread = null
+
+        given:
+        manager.open(None)
+        manager.enableConcurrentAccess()
+        def cache = manager.newCache(targetFile, String, Integer)
+
+        when:
+        manager.useCache("some operation", action)
+        actionFinished.countDown()
+        thread.join()
+
+        then:
+        1 * action.create() >> {
+            canAccess cache
+            thread = new Thread({ manager.useCache("other operation", otherAction) })
+            thread.start()
+            otherStarted.await()
+        }
+        1 * otherAction.create() >> {
+            otherStarted.countDown()
+            actionFinished.await()
+            canAccess cache
+        }
+        1 * lockManager.lock(lockFile, Exclusive, "<display-name>", "some operation") >> lock
+        _ * lock.readFile(_)
+        _ * lock.writeFile(_)
+        1 * lock.close()
+        0 * _._
+    }
+
     def "closes caches at the end of the cache action when initial lock mode is none"() {
         Factory<String> action = Mock()
 
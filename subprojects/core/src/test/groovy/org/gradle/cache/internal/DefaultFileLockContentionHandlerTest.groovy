@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.util.ConcurrentSpecification
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+
+import java.util.concurrent.TimeUnit
+
+class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
+    @Rule TemporaryFolder tmpDir = new TemporaryFolder()
+    def owner = new DefaultFileLockContentionHandler()
+    def waiter = new DefaultFileLockContentionHandler()
+
+    def cleanup() {
+        owner.stop()
+        waiter.stop()
+    }
+
+    def "listens on a local port"() {
+        expect:
+        owner.communicationPort > 0
+        owner.communicationPort == owner.communicationPort
+    }
+
+    def "waiter is notified when owner releases lock"() {
+        def lockFile = tmpDir.file("lock")
+        owner.lockAcquired(lockFile)
+
+        when:
+        def waiting = start {
+            waiter.waitForRelease(lockFile, owner.communicationPort, 60000)
+        }
+        Thread.sleep(200)
+        owner.lockReleased(lockFile)
+
+        then:
+        waiting.completesWithin(10, TimeUnit.SECONDS)
+    }
+
+    def "waiter is notified when owner releases lock acquired using a different path to the same file"() {
+        def lockFile = tmpDir.file("lock")
+        tmpDir.createDir("dir")
+        owner.lockAcquired(tmpDir.file("dir/../lock"))
+
+        when:
+        def waiting = start {
+            waiter.waitForRelease(lockFile, owner.communicationPort, 60000)
+        }
+        Thread.sleep(200)
+        owner.lockReleased(lockFile)
+
+        then:
+        waiting.completesWithin(10, TimeUnit.SECONDS)
+    }
+
+    def "owner ignores waiter when owner does not hold lock"() {
+        def lockFile = tmpDir.file("lock")
+        owner.lockAcquired(lockFile)
+        owner.lockReleased(lockFile)
+
+        when:
+        long startTime = System.currentTimeMillis()
+        waiter.waitForRelease(lockFile, owner.communicationPort, 300)
+
+        then:
+        System.currentTimeMillis() - startTime >= 300
+    }
+
+    def "waiter gives up when owner does not release lock"() {
+        def lockFile = tmpDir.file("lock")
+        owner.lockAcquired(lockFile)
+
+        when:
+        long startTime = System.currentTimeMillis()
+        waiter.waitForRelease(lockFile, owner.communicationPort, 200)
+
+        then:
+        System.currentTimeMillis() - startTime >= 200
+    }
+
+    def "waits for timeout when stopped"() {
+        def lockFile = tmpDir.file("lock")
+        waiter.stop()
+
+        when:
+        long startTime = System.currentTimeMillis()
+        waiter.waitForRelease(lockFile, owner.communicationPort, 200)
+
+        then:
+        System.currentTimeMillis() - startTime >= 200
+        waiter.communicationPort == -1
+    }
+}
@@ -406,6 +406,59 @@ class DefaultFileLockManagerTest extends Specification {
         isVersion2LockFile(testFileLock, processIdentifier.substring(0, DefaultFileLockManager.INFORMATION_REGION_DESCR_CHUNK_LIMIT), operationalDisplayName.substring(0, DefaultFileLockManager.INFORMATION_REGION_DESCR_CHUNK_LIMIT))
     }
 
+    @Requires(TestPrecondition.NO_FILE_LOCK_ON_OPEN)
+    def "writes port of contention handler to information region while exclusive lock is open"() {
+        given:
+        def contentionHandler = Mock(FileLockContentionHandler)
+        def customManager = new DefaultFileLockManager(metaDataProvider, contentionHandler)
+        contentionHandler.communicationPort >> 1234
+
+        when:
+        def lock = customManager.lock(testFile, Exclusive, "foo", "operation")
+
+        then:
+        1 * contentionHandler.lockAcquired(testFileLock)
+        testFileLock.withDataInputStream { str ->
+            assert str.readByte() == 1
+            assert !str.readBoolean()
+            assert str.readByte() == 2
+            assert str.readUTF() == '123'
+            assert str.readUTF() == 'operation'
+            assert str.readInt() == 1234
+            assert str.read() < 0
+        }
+
+        cleanup:
+        lock?.close()
+    }
+
+    def "notifies contention handler when exclusive lock is released"() {
+        given:
+        def contentionHandler = Mock(FileLockContentionHandler)
+        def customManager = new DefaultFileLockManager(metaDataProvider, contentionHandler)
+        def lock = customManager.lock(testFile, Exclusive, "foo", "operation")
+
+        when:
+        lock.close()
+
+        then:
+        1 * contentionHandler.lockReleased(testFileLock)
+    }
+
+    def "does not notify contention handler about shared locks"() {
+        given:
+        def contentionHandler = Mock(FileLockContentionHandler)
+        def customManager = new DefaultFileLockManager(metaDataProvider, contentionHandler)
+
+        when:
+        def lock = customManager.lock(testFile, Shared, "foo", "operation")
+        lock.close()
+
+        then:
+        0 * contentionHandler.lockAcquired(_)
+        0 * contentionHandler.lockReleased(_)
+    }
+
     def "require exclusive lock for writing"() {
         given:
         def lock = createLock(Shared)
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree;
+
+import org.gradle.cache.DefaultSerializer;
+import org.gradle.messaging.serialize.Serializer;
+import org.gradle.util.TemporaryFolder;
+import org.gradle.util.TestFile;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class MappedFileBlockStoreTest {
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+    private final Serializer<String> stringSerializer = new DefaultSerializer<String>();
+    private final Serializer<Integer> integerSerializer = new DefaultSerializer<Integer>();
+
+    @Test
+    public void writesSameFileContentAsFileBackedStore() {
+        TestFile mappedFile = tmpDir.file("mapped.bin");
+        TestFile file = tmpDir.file("file.bin");
+        BTreePersistentIndexedCache<String, Integer> mappedCache = mappedCache(mappedFile);
+        BTreePersistentIndexedCache<String, Integer> cache = new BTreePersistentIndexedCache<String, Integer>(file, stringSerializer, integerSerializer, (short) 4, 100);
+
+        for (int i = 0; i < 500; i++) {
+            mappedCache.put("key_" + i, i);
+            cache.put("key_" + i, i);
+        }
+        for (int i = 0; i < 500; i += 3) {
+            mappedCache.remove("key_" + i);
+            cache.remove("key_" + i);
+        }
+        mappedCache.verify();
+        mappedCache.close();
+        cache.close();
+
+        mappedFile.assertIsCopyOf(file);
+    }
+
+    @Test
+    public void canReadFileWrittenByFileBackedStore() {
+        TestFile file = tmpDir.file("cache.bin");
+        BTreePersistentIndexedCache<String, Integer> cache = new BTreePersistentIndexedCache<String, Integer>(file, stringSerializer, integerSerializer, (short) 4, 100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key_" + i, i);
+        }
+        cache.close();
+
+        BTreePersistentIndexedCache<String, Integer> mappedCache = mappedCache(file);
+        for (int i = 0; i < 100; i++) {
+            assertThat(mappedCache.get("key_" + i), equalTo(i));
+        }
+        mappedCache.put("key_100", 100);
+        mappedCache.close();
+
+        cache = new BTreePersistentIndexedCache<String, Integer>(file, stringSerializer, integerSerializer, (short) 4, 100);
+        assertThat(cache.get("key_100"), equalTo(100));
+        cache.verify();
+        cache.close();
+    }
+
+    @Test
+    public void trimsFileWhenClosed() {
+        TestFile file = tmpDir.file("cache.bin");
+        BTreePersistentIndexedCache<String, Integer> cache = mappedCache(file);
+        cache.put("key", 1);
+        long mappedLength = file.length();
+        cache.close();
+
+        assertThat(file.length(), lessThan(mappedLength));
+        assertThat(file.length(), greaterThan(0L));
+    }
+
+    private BTreePersistentIndexedCache<String, Integer> mappedCache(TestFile file) {
+        return new BTreePersistentIndexedCache<String, Integer>(file, stringSerializer, integerSerializer, (short) 4, 100, new MappedFileBlockStore(file), 4096);
+    }
+}
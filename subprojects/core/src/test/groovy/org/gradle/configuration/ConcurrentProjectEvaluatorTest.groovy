@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.CircularReferenceException
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectMutationGuard
+import org.gradle.api.internal.project.ProjectStateInternal
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+
+class ConcurrentProjectEvaluatorTest extends Specification {
+    final ProjectEvaluator delegate = Mock()
+    final ConcurrentProjectEvaluator evaluator = new ConcurrentProjectEvaluator(delegate)
+    final ProjectInternal project = Mock()
+    final ProjectInternal other = Mock()
+    final ProjectStateInternal state = new ProjectStateInternal()
+    final ProjectStateInternal otherState = new ProjectStateInternal()
+
+    def "rejects changes to other projects while evaluating a project"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state) >> {
+            ProjectMutationGuard.checkCanMutate(project, "add task 'a'")
+            try {
+                ProjectMutationGuard.checkCanMutate(other, "add task 'b'")
+                assert false
+            } catch (IllegalStateException e) {
+                assert e.message.startsWith("Cannot add task 'b' for $other while configuring $project")
+            }
+        }
+
+        and:
+        ProjectMutationGuard.checkCanMutate(other, "add task 'c'")
+    }
+
+    def "does not evaluate a project which has already been evaluated"() {
+        given:
+        state.executed()
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        0 * delegate._
+    }
+
+    @Timeout(10)
+    def "waits for a project being evaluated by another thread"() {
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def events = new CopyOnWriteArrayList()
+        _ * delegate.evaluate(project, state) >> {
+            events << "start"
+            started.countDown()
+            release.await()
+            events << "finish"
+            state.executed()
+        }
+
+        when:
+        def thread = Thread.start { evaluator.evaluate(project, state) }
+        started.await()
+        def waiter = Thread.start {
+            evaluator.evaluate(project, state)
+            events << "waited"
+        }
+        Thread.sleep(100)
+        release.countDown()
+        thread.join()
+        waiter.join()
+
+        then:
+        events == ["start", "finish", "waited"]
+    }
+
+    @Timeout(10)
+    def "fails when projects being evaluated by different threads depend on each other"() {
+        def projectStarted = new CountDownLatch(1)
+        def otherStarted = new CountDownLatch(1)
+        def failures = new CopyOnWriteArrayList()
+        _ * delegate.evaluate(project, state) >> {
+            projectStarted.countDown()
+            otherStarted.await()
+            try {
+                evaluator.evaluate(other, otherState)
+            } catch (CircularReferenceException e) {
+                failures << e
+            }
+            state.executed()
+        }
+        _ * delegate.evaluate(other, otherState) >> {
+            otherStarted.countDown()
+            projectStarted.await()
+            try {
+                evaluator.evaluate(project, state)
+            } catch (CircularReferenceException e) {
+                failures << e
+            }
+            otherState.executed()
+        }
+
+        when:
+        def thread1 = Thread.start { evaluator.evaluate(project, state) }
+        def thread2 = Thread.start { evaluator.evaluate(other, otherState) }
+        thread1.join()
+        thread2.join()
+
+        then:
+        failures.size() == 1
+    }
+
+    def "evaluates parent project before evaluating a project"() {
+        def parentState = new ProjectStateInternal()
+        def events = []
+        _ * project.parent >> other
+        _ * other.state >> parentState
+        _ * other.evaluate() >> { evaluator.evaluate(other, parentState); other }
+        _ * delegate.evaluate(other, parentState) >> { events << "parent"; parentState.executed() }
+        _ * delegate.evaluate(project, state) >> { events << "project"; state.executed() }
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        events == ["parent", "project"]
+    }
+
+    def "does not evaluate parent project again when parent is being evaluated by this thread"() {
+        _ * project.parent >> other
+        _ * other.state >> otherState
+
+        when:
+        evaluator.evaluate(other, otherState)
+
+        then:
+        1 * delegate.evaluate(other, otherState) >> { evaluator.evaluate(project, state) }
+        1 * delegate.evaluate(project, state)
+        0 * other.evaluate()
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import spock.lang.Specification
+
+class ConfigureOnDemandBuildConfigurerTest extends Specification {
+    final ConfigureOnDemandBuildConfigurer configurer = new ConfigureOnDemandBuildConfigurer()
+
+    def "evaluates only the root project and the default project"() {
+        GradleInternal gradle = Mock()
+        ProjectInternal rootProject = Mock()
+        ProjectInternal defaultProject = Mock()
+        _ * gradle.rootProject >> rootProject
+        _ * gradle.defaultProject >> defaultProject
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * rootProject.evaluate()
+        1 * defaultProject.evaluate()
+        0 * rootProject._
+        0 * defaultProject._
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.project.ProjectInternal
+import spock.lang.Specification
+
+class ConfigureOnDemandProjectAccessListenerTest extends Specification {
+    final ConfigureOnDemandProjectAccessListener listener = new ConfigureOnDemandProjectAccessListener()
+    final ProjectInternal project = Mock()
+
+    def "evaluates project before a task is requested by path"() {
+        when:
+        listener.beforeRequestingTaskByPath(project)
+
+        then:
+        1 * project.evaluate()
+    }
+
+    def "evaluates project before a dependency on it is resolved"() {
+        when:
+        listener.beforeResolvingProjectDependency(project)
+
+        then:
+        1 * project.evaluate()
+    }
+}
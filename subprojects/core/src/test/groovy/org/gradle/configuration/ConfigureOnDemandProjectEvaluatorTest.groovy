@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.Action
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import spock.lang.Specification
+
+class ConfigureOnDemandProjectEvaluatorTest extends Specification {
+    final ProjectEvaluator delegate = Mock()
+    final Action<ProjectInternal> action = Mock()
+    final ProjectInternal project = Mock()
+    final ProjectStateInternal state = new ProjectStateInternal()
+    final ConfigureOnDemandProjectEvaluator evaluator = new ConfigureOnDemandProjectEvaluator(delegate, action)
+
+    def "evaluates project then applies actions"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state)
+
+        then:
+        1 * action.execute(project)
+    }
+
+    def "evaluates ancestors of project first"() {
+        ProjectInternal root = Mock()
+        ProjectInternal intermediate = Mock()
+        ProjectInternal leaf = Mock()
+        def rootState = new ProjectStateInternal()
+        def intermediateState = new ProjectStateInternal()
+        def leafState = new ProjectStateInternal()
+
+        given:
+        intermediate.parent >> root
+        leaf.parent >> intermediate
+        root.evaluate() >> { evaluator.evaluate(root, rootState) }
+        intermediate.evaluate() >> { evaluator.evaluate(intermediate, intermediateState) }
+
+        when:
+        evaluator.evaluate(leaf, leafState)
+
+        then:
+        1 * delegate.evaluate(root, rootState) >> { rootState.executed() }
+
+        then:
+        1 * delegate.evaluate(intermediate, intermediateState) >> { intermediateState.executed() }
+
+        then:
+        1 * delegate.evaluate(leaf, leafState)
+    }
+
+    def "does not evaluate ancestors which have already been evaluated"() {
+        ProjectInternal parent = Mock()
+        def parentState = new ProjectStateInternal()
+        parentState.executed()
+
+        given:
+        project.parent >> parent
+        parent.evaluate() >> { evaluator.evaluate(parent, parentState) }
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        0 * delegate.evaluate(parent, _)
+        1 * delegate.evaluate(project, state)
+    }
+
+    def "does not apply actions when evaluation fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state) >> { state.executed(failure) }
+        0 * action._
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "does nothing when project has already been evaluated"() {
+        given:
+        state.executed()
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        0 * delegate._
+        0 * action._
+    }
+
+    def "does nothing when project is being evaluated"() {
+        given:
+        state.executing = true
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        0 * delegate._
+        0 * action._
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ParallelBuildConfigurerTest extends Specification {
+    final BuildConfigurer delegate = Mock()
+    final GradleInternal gradle = Mock()
+    final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+    final ParallelBuildConfigurer configurer = new ParallelBuildConfigurer(delegate, executorFactory, 3)
+    final List<String> evaluated = new CopyOnWriteArrayList<String>()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "evaluates each project after its parent before configuring the build"() {
+        def grandchild = project("grandchild")
+        def child1 = project("child1", grandchild)
+        def child2 = project("child2")
+        def root = project("root", child1, child2)
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle) >> {
+            assert evaluated as Set == ["root", "child1", "child2", "grandchild"] as Set
+        }
+        evaluated.indexOf("root") == 0
+        evaluated.indexOf("child1") < evaluated.indexOf("grandchild")
+    }
+
+    def "does not evaluate further projects after a project fails"() {
+        def failure = new RuntimeException("broken")
+        def child = project("child")
+        def root = Mock(ProjectInternal)
+        _ * root.childProjects >> [child: child]
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        1 * root.evaluate() >> { throw failure }
+        0 * delegate._
+        evaluated.empty
+    }
+
+    def project(String name, ProjectInternal... children) {
+        def childProjects = [:]
+        children.eachWithIndex { child, i -> childProjects["child$i".toString()] = child }
+        ProjectInternal project
+        project = [
+                getChildProjects: { childProjects },
+                evaluate: {
+                    evaluated << name
+                    project
+                },
+                toString: { name }
+        ] as ProjectInternal
+        return project
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.initialization.ScriptClassLoaderProvider
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectScript
+import org.gradle.api.internal.project.ServiceRegistryFactory
+import org.gradle.groovy.scripts.StringScriptSource
+import org.gradle.groovy.scripts.internal.ScriptClassCompiler
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+class PrecompilingBuildConfigurerTest extends Specification {
+    final BuildConfigurer delegate = Mock()
+    final ImportsReader importsReader = Mock()
+    final GradleInternal gradle = Mock()
+    final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+    final List<String> compiled = Collections.synchronizedList([])
+    final ClassLoader classLoader = new URLClassLoader([] as URL[])
+    ScriptClassCompiler compiler = { source, loader, transformer, type ->
+        assert loader == classLoader
+        assert type == ProjectScript
+        compiled << "${source.resource.text.trim()}:${transformer.id}".toString()
+        return null
+    } as ScriptClassCompiler
+    final PrecompilingBuildConfigurer configurer = new PrecompilingBuildConfigurer(delegate, compiler, importsReader, executorFactory, 4)
+
+    def setup() {
+        _ * importsReader.withImports(_) >> { args -> args[0] }
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "compiles build scripts of all projects before configuring the build"() {
+        def child1 = project("child1")
+        def child2 = project("child2")
+        def root = project("root", child1, child2)
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle) >> {
+            assert compiled as Set == ["root:buildscript", "root:no_buildscript", "child1:buildscript", "child1:no_buildscript", "child2:buildscript", "child2:no_buildscript"] as Set
+        }
+    }
+
+    def "does not compile scripts which depend on an incomplete build script classpath"() {
+        def grandchild = project("grandchild")
+        def child1 = project("child1 buildscript", grandchild)
+        def child2 = project("child2")
+        def root = project("root", child1, child2)
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        compiled as Set == ["root:buildscript", "root:no_buildscript", "child1 buildscript:buildscript", "child2:buildscript", "child2:no_buildscript"] as Set
+        1 * delegate.configure(gradle)
+    }
+
+    def "ignores compilation failures"() {
+        compiler = { source, loader, transformer, type ->
+            throw new RuntimeException("broken")
+        } as ScriptClassCompiler
+        def configurer = new PrecompilingBuildConfigurer(delegate, compiler, importsReader, executorFactory, 4)
+        def root = project("root", project("child"))
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+    }
+
+    def "does not compile ahead of time when using a single thread"() {
+        def configurer = new PrecompilingBuildConfigurer(delegate, compiler, importsReader, executorFactory, 1)
+        def root = project("root", project("child"))
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        compiled.empty
+        1 * delegate.configure(gradle)
+    }
+
+    def project(String script, ProjectInternal... children) {
+        ProjectInternal project = Mock()
+        ServiceRegistryFactory services = Mock()
+        ScriptClassLoaderProvider classLoaderProvider = Mock()
+        _ * project.buildScriptSource >> new StringScriptSource("build file", script)
+        _ * project.services >> services
+        _ * services.get(ScriptClassLoaderProvider) >> classLoaderProvider
+        _ * classLoaderProvider.classLoader >> classLoader
+        def childProjects = [:]
+        children.eachWithIndex { child, i -> childProjects["child$i".toString()] = child }
+        _ * project.childProjects >> childProjects
+        return project
+    }
+}
@@ -47,4 +47,16 @@ class ProjectDependencies2TaskResolverTest {
         resolver.execute(child)
         assertThat(childTask.taskDependencies.getDependencies(childTask), equalTo([rootTask] as Set))
     }
+
+    @Test public void testEvaluatesProjectBeforeResolvingItsTasks() {
+        Task childTestTask = child.tasks.add('test')
+        Task rootTestTask
+        root.afterEvaluate { rootTestTask = root.tasks.add('test') }
+
+        child.dependsOn(root.path, false)
+        resolver.execute(child)
+
+        assertTrue(root.state.executed)
+        assertThat(childTestTask.taskDependencies.getDependencies(childTestTask), equalTo([rootTestTask] as Set))
+    }
 }
@@ -100,6 +100,26 @@ class TaskNameResolverTest extends Specification {
         candidates.get('task') == [task1, task2] as Set
     }
 
+    def evaluatesProjectsBeforeSelectingTasks() {
+        ProjectInternal project = Mock()
+        TaskContainerInternal tasks = Mock()
+        ProjectInternal childProject = Mock()
+        TaskContainerInternal childProjectTasks = Mock()
+        _ * project.tasks >> tasks
+        _ * project.subprojects >> ([childProject] as Set)
+        _ * childProject.tasks >> childProjectTasks
+
+        when:
+        resolver.selectAll('task', project)
+
+        then:
+        1 * project.evaluate()
+        1 * childProject.evaluate()
+
+        then:
+        1 * tasks.findByName('task') >> task('task')
+    }
+
     def selectsImplicitTaskForMultipleProjectsWhenThereIsAnExactMatchOnName() {
         ProjectInternal project = Mock()
         TaskContainerInternal tasks = Mock()
@@ -21,6 +21,7 @@ import org.gradle.api.CircularReferenceException
 import org.gradle.api.Task
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess
+import org.gradle.api.internal.changedetection.TaskDurationRepository
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.specs.Spec
 import org.gradle.api.specs.Specs
@@ -148,6 +149,127 @@ public class DefaultTaskExecutionPlanTest extends Specification {
         executedTasks == [c, d, b, a]
     }
 
+    def "returns a later task whose dependencies are complete while an earlier task is waiting for its dependencies"() {
+        Task a = task("a");
+        Task b = task("b", a);
+        Task c = task("c");
+
+        when:
+        executionPlan.addToTaskGraph(toList(b, c));
+        def first = executionPlan.getTaskToExecute(anyTask)
+        def second = executionPlan.getTaskToExecute(anyTask)
+
+        then:
+        first.task == a
+        second.task == c
+
+        when:
+        executionPlan.taskComplete(first)
+        executionPlan.taskComplete(second)
+
+        then:
+        executedTasks == [b]
+    }
+
+    def "returns only tasks matching the criteria"() {
+        Task a = task("a");
+        Task b = task("b");
+
+        when:
+        executionPlan.addToTaskGraph(toList(a, b));
+        def taskInfo = executionPlan.getTaskToExecute({ it.task == b } as Spec<TaskInfo>)
+
+        then:
+        taskInfo.task == b
+        executedTasks == [a]
+    }
+
+    def "waits for a matching task when the ready tasks do not match the criteria"() {
+        Task a = task("a");
+        Task b = task("b");
+        boolean projectBusy = true
+        TaskInfo selected = null
+
+        when:
+        executionPlan.addToTaskGraph(toList(a, b));
+        def first = executionPlan.getTaskToExecute(anyTask)
+        def worker = new Thread({
+            selected = executionPlan.getTaskToExecute({ !projectBusy } as Spec<TaskInfo>)
+        })
+        worker.start()
+        Thread.sleep(100)
+
+        then:
+        first.task == a
+        worker.alive
+
+        when:
+        projectBusy = false
+        executionPlan.taskComplete(first)
+        worker.join(5000)
+
+        then:
+        !worker.alive
+        selected.task == b
+    }
+
+    def "returns tasks with the longest estimated chain of dependents first when prioritising critical path"() {
+        Task a = task("a");
+        Task b = task("b", a);
+        Task c = task("c");
+        Task d = task("d");
+        TaskDurationRepository durations = Mock()
+        durations.getDuration(a) >> 10
+        durations.getDuration(b) >> 100
+        durations.getDuration(c) >> 50
+        durations.getDuration(d) >> 500
+
+        when:
+        executionPlan.addToTaskGraph(toList(b, c, d));
+        executionPlan.prioritiseCriticalPath(durations)
+
+        then:
+        executedTasks == [d, a, b, c]
+    }
+
+    def "uses average duration for tasks that have not been executed before"() {
+        Task a = task("a");
+        Task b = task("b", a);
+        Task c = task("c");
+        TaskDurationRepository durations = Mock()
+        durations.getDuration(a) >> 10
+        durations.getDuration(b) >> 30
+        durations.getDuration(c) >> null
+
+        when:
+        executionPlan.addToTaskGraph(toList(b, c));
+        executionPlan.prioritiseCriticalPath(durations)
+
+        then:
+        executionPlan.predictedCriticalPath.collect { it.task } == [a, b]
+        executionPlan.predictedCriticalPath.collect { it.estimatedDuration } == [10, 30]
+        executedTasks == [a, b, c]
+    }
+
+    def "reports chain of tasks which finished last as actual critical path"() {
+        Task a = task("a");
+        Task b = task("b", a);
+        Task c = task("c");
+
+        when:
+        executionPlan.addToTaskGraph(toList(b, c));
+        def taskInfoA = executionPlan.getTaskToExecute(anyTask)
+        def taskInfoC = executionPlan.getTaskToExecute(anyTask)
+        executionPlan.taskComplete(taskInfoC)
+        Thread.sleep(10)
+        executionPlan.taskComplete(taskInfoA)
+        Thread.sleep(10)
+        executedTasks
+
+        then:
+        executionPlan.actualCriticalPath.collect { it.task } == [a, b]
+    }
+
     def "cannot add task with circular reference"() {
         Task a = createTask("a");
         Task b = task("b", a);
@@ -279,6 +401,33 @@ public class DefaultTaskExecutionPlanTest extends Specification {
         e == failure
     }
 
+    def "does not attempt to execute tasks whose transitive dependencies failed to execute"() {
+        RuntimeException failure = new RuntimeException()
+        final Task a = brokenTask("a", failure)
+        final Task b = task("b", a)
+        final Task c = task("c", b)
+        final Task d = task("d")
+        executionPlan.addToTaskGraph([c, d])
+
+        TaskFailureHandler handler = Mock()
+        handler.onTaskFailure(a) >> {
+            // Ignore failure
+        }
+
+        when:
+        executionPlan.useFailureHandler(handler)
+
+        then:
+        executedTasks == [a, d]
+
+        when:
+        executionPlan.awaitCompletion()
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
     def "clear removes all tasks"() {
         given:
         Task a = task("a");
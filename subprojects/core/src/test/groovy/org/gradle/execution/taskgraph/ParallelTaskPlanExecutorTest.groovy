@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import org.gradle.api.execution.TaskExecutionListener
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.changedetection.TaskArtifactStateCacheAccess
+import org.gradle.api.internal.changedetection.TaskDurationRepository
+import org.gradle.api.internal.tasks.TaskStateInternal
+import spock.lang.Specification
+
+class ParallelTaskPlanExecutorTest extends Specification {
+    final TaskArtifactStateCacheAccess cacheAccess = Mock()
+    final TaskDurationRepository durations = Mock()
+    final TaskExecutionListener listener = Mock()
+    final TaskInternal task = Mock()
+    final TaskStateInternal state = new TaskStateInternal("task")
+    final ParallelTaskPlanExecutor executor = new ParallelTaskPlanExecutor(cacheAccess, 1, TaskAffinityPolicy.parse(TaskAffinityPolicy.NONE), durations)
+
+    def setup() {
+        _ * cacheAccess.useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        _ * task.state >> state
+        _ * task.path >> ":task"
+    }
+
+    def "records the duration of a task which does work"() {
+        when:
+        executor.executeTask(new TaskInfo(task, [] as Set, 0), listener)
+
+        then:
+        1 * task.executeWithoutThrowingTaskFailure() >> { state.didWork = true; state.executed() }
+        1 * durations.setDuration(task, _)
+    }
+
+    def "does not record the duration of an up-to-date task"() {
+        when:
+        executor.executeTask(new TaskInfo(task, [] as Set, 0), listener)
+
+        then:
+        1 * task.executeWithoutThrowingTaskFailure() >> { state.upToDate() }
+        0 * durations.setDuration(_, _)
+    }
+
+    def "does not record the duration of a skipped task"() {
+        when:
+        executor.executeTask(new TaskInfo(task, [] as Set, 0), listener)
+
+        then:
+        1 * task.executeWithoutThrowingTaskFailure() >> { state.didWork = true; state.skipped("SKIPPED") }
+        0 * durations.setDuration(_, _)
+    }
+}
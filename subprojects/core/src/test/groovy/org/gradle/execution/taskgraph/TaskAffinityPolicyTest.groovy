@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.Task
+import org.gradle.api.tasks.Copy
+import org.gradle.util.HelperUtil
+import spock.lang.Specification
+
+class TaskAffinityPolicyTest extends Specification {
+    final def project = HelperUtil.createRootProject()
+    final Task defaultTask = project.task("default")
+    final Task copyTask = project.task("copy", type: Copy)
+
+    def "no task requires project affinity by default"() {
+        when:
+        def policy = TaskAffinityPolicy.parse(value)
+
+        then:
+        !policy.requiresProjectAffinity(defaultTask)
+        !policy.requiresProjectAffinity(copyTask)
+
+        where:
+        value << [null, "", "none"]
+    }
+
+    def "every task requires project affinity when policy is all"() {
+        when:
+        def policy = TaskAffinityPolicy.parse("all")
+
+        then:
+        policy.requiresProjectAffinity(defaultTask)
+        policy.requiresProjectAffinity(copyTask)
+    }
+
+    def "tasks of listed types and their subtypes require project affinity"() {
+        when:
+        def policy = TaskAffinityPolicy.parse("org.gradle.api.tasks.AbstractCopyTask, org.gradle.SomeOtherTask")
+
+        then:
+        !policy.requiresProjectAffinity(defaultTask)
+        policy.requiresProjectAffinity(copyTask)
+    }
+
+    def "matches tasks by interface type"() {
+        when:
+        def policy = TaskAffinityPolicy.parse(Task.name)
+
+        then:
+        policy.requiresProjectAffinity(defaultTask)
+        policy.requiresProjectAffinity(copyTask)
+    }
+
+    def "ignores default task type when listed types do not match"() {
+        when:
+        def policy = TaskAffinityPolicy.parse(Copy.name)
+
+        then:
+        !policy.requiresProjectAffinity(project.task("other", type: DefaultTask))
+        policy.requiresProjectAffinity(copyTask)
+    }
+}
@@ -216,6 +216,33 @@ public class DefaultScriptCompilationHandlerTest {
         }
     }
 
+    @Test
+    public void testLoadFromDirRenamesClassesCompiledUsingAnotherClassName() throws Exception {
+        final ScriptSource compiledSource = context.mock(ScriptSource.class, "compiled source");
+        final String closureText = "{ -> " + scriptText + " }.call()";
+        context.checking(new Expectations(){{
+            Resource resource = context.mock(Resource.class, "compiled resource");
+
+            allowing(compiledSource).getClassName();
+            will(returnValue("CompiledClassName"));
+            allowing(compiledSource).getFileName();
+            will(returnValue("compiled-file-name"));
+            allowing(compiledSource).getDisplayName();
+            will(returnValue("compiled-display-name"));
+            allowing(compiledSource).getResource();
+            will(returnValue(resource));
+            allowing(resource).getText();
+            will(returnValue(closureText));
+        }});
+
+        scriptCompilationHandler.compileToDir(compiledSource, classLoader, scriptCacheDir, null, expectedScriptClass);
+        assertTrue(new File(scriptCacheDir, "CompiledClassName.class").isFile());
+
+        Script script = scriptCompilationHandler.loadFromDir(scriptSource, "CompiledClassName", classLoader, scriptCacheDir,
+                expectedScriptClass).newInstance();
+        evaluateScript(script);
+    }
+
     @Test
     public void testCompileToDirWithSyntaxError() {
         ScriptSource source = new StringScriptSource("script.gradle", "\n\nnew HHHHJSJSJ jsj");
@@ -24,8 +24,16 @@ import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
 import org.gradle.groovy.scripts.Script
 import org.gradle.cache.CacheValidator
+import org.gradle.cache.internal.FileLock
+import org.gradle.cache.internal.FileLockManager
+import org.gradle.cache.internal.LockTimeoutException
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.hash.HashUtil
+import org.junit.Rule
 
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule
+    final TemporaryFolder tmpDir = new TemporaryFolder()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final DirectoryCacheBuilder cacheBuilder = Mock()
@@ -34,8 +42,12 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
     final ScriptSource source = Mock()
     final ClassLoader classLoader = Mock()
     final Transformer transformer = Mock()
+    final FileLockManager lockManager = Mock()
     final File cacheDir = new File("base-dir")
-    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler)
+    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, lockManager)
+    final String contentHash = HashUtil.createCompactMD5('this is the script')
+    final String cacheName = "scripts/$contentHash/${HashUtil.createCompactMD5('[]')}/Script/TransformerId"
+    final String compiledClassName = "script_$contentHash"
 
     def setup() {
         Resource resource = Mock()
@@ -54,28 +66,22 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        1 * cacheBuilder.withProperties(!null) >> { args ->
-            assert args[0].get('source.filename') == 'ScriptFileName'
-            assert args[0].containsKey('source.hash')
-            return cacheBuilder
-        }
+        1 * cacheRepository.cache(cacheName) >> cacheBuilder
         1 * cacheBuilder.withInitializer(!null) >> cacheBuilder
         1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
         1 * cacheBuilder.withValidator(!null) >> cacheBuilder
         1 * cacheBuilder.open() >> cache
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        1 * scriptCompilationHandler.loadFromDir(source, compiledClassName, classLoader, new File(cacheDir, "classes"), Script) >> Script
         0 * scriptCompilationHandler._
     }
 
     def "passes CacheValidator to cacheBuilder"() {
         setup:
-        cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        cacheBuilder.withProperties(!null) >> cacheBuilder
+        cacheRepository.cache(cacheName) >> cacheBuilder
         cacheBuilder.withInitializer(!null) >> cacheBuilder
         cacheBuilder.withDisplayName(!null) >> cacheBuilder
         cacheBuilder.open() >> cache
-        scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        scriptCompilationHandler.loadFromDir(source, compiledClassName, classLoader, new File(cacheDir, "classes"), Script) >> Script
 
         when:
         compiler.compile(source, classLoader, transformer, Script)
@@ -94,14 +100,113 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        1 * cacheBuilder.withProperties(!null) >> cacheBuilder
+        1 * cacheRepository.cache(cacheName) >> cacheBuilder
         1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
         1 * cacheBuilder.withValidator(!null) >> cacheBuilder
         1 * cacheBuilder.withInitializer(!null) >> {args -> initializer = args[0]; return cacheBuilder}
         1 * cacheBuilder.open() >> {initializer.execute(cache); return cache}
-        1 * scriptCompilationHandler.compileToDir(source, classLoader, new File(cacheDir, "classes"), transformer, Script)
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        1 * scriptCompilationHandler.compileToDir({ it.className == compiledClassName && it.fileName == 'ScriptFileName' }, classLoader, new File(cacheDir, "classes"), transformer, Script)
+        1 * scriptCompilationHandler.loadFromDir(source, compiledClassName, classLoader, new File(cacheDir, "classes"), Script) >> Script
         0 * scriptCompilationHandler._
     }
+
+    def "scripts with the same content share a cache directory"() {
+        ScriptSource other = Mock()
+        _ * other.resource >> source.resource
+        _ * other.className >> 'OtherClassName'
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script)
+        compiler.compile(other, classLoader, transformer, Script)
+
+        then:
+        2 * cacheRepository.cache(cacheName) >> cacheBuilder
+        2 * cacheBuilder.open() >> cache
+        _ * cacheBuilder._ >> cacheBuilder
+        1 * scriptCompilationHandler.loadFromDir(source, compiledClassName, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        1 * scriptCompilationHandler.loadFromDir(other, compiledClassName, classLoader, new File(cacheDir, "classes"), Script) >> Script
+    }
+
+    def "marks cache directory as used and removes directories for content which has not been used recently"() {
+        def scriptsDir = tmpDir.createDir("scripts")
+        def contentDir = scriptsDir.createDir(contentHash)
+        def entryDir = contentDir.createDir("classpath/Script/TransformerId")
+        def unusedDir = scriptsDir.createDir("unused")
+        def unusedCacheDir = unusedDir.createDir("classpath/Script/TransformerId")
+        def recentlyUsedDir = scriptsDir.createDir("recently-used")
+        long now = System.currentTimeMillis()
+        long maxAge = FileCacheBackedScriptClassCompiler.MAX_UNUSED_DAYS * 24L * 60 * 60 * 1000
+        contentDir.setLastModified(now - maxAge - 100000)
+        unusedDir.setLastModified(now - maxAge - 100000)
+        recentlyUsedDir.setLastModified(now - maxAge + 100000)
+        PersistentCache entry = Mock()
+        FileLock lock = Mock()
+        _ * entry.baseDir >> entryDir
+        _ * cacheRepository.cache(cacheName) >> cacheBuilder
+        _ * cacheBuilder.open() >> entry
+        _ * cacheBuilder._ >> cacheBuilder
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script)
+
+        then:
+        1 * lockManager.lock(unusedCacheDir.file("cache.properties"), FileLockManager.LockMode.Exclusive, !null) >> {
+            assert unusedDir.directory
+            return lock
+        }
+        1 * lock.close() >> {
+            assert !unusedDir.exists()
+        }
+        0 * lockManager._
+        contentDir.lastModified() >= now - 2000
+        entryDir.directory
+        recentlyUsedDir.directory
+    }
+
+    def "does not remove directory for unused content which cannot be locked"() {
+        def scriptsDir = tmpDir.createDir("scripts")
+        def entryDir = scriptsDir.createDir("$contentHash/classpath/Script/TransformerId")
+        def unusedDir = scriptsDir.createDir("unused")
+        def unusedCacheDir = unusedDir.createDir("classpath/Script/TransformerId")
+        long maxAge = FileCacheBackedScriptClassCompiler.MAX_UNUSED_DAYS * 24L * 60 * 60 * 1000
+        unusedDir.setLastModified(System.currentTimeMillis() - maxAge - 100000)
+        PersistentCache entry = Mock()
+        _ * entry.baseDir >> entryDir
+        _ * cacheRepository.cache(cacheName) >> cacheBuilder
+        _ * cacheBuilder.open() >> entry
+        _ * cacheBuilder._ >> cacheBuilder
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script)
+
+        then:
+        1 * lockManager.lock(unusedCacheDir.file("cache.properties"), FileLockManager.LockMode.Exclusive, !null) >> { throw new LockTimeoutException("locked") }
+        unusedDir.directory
+    }
+
+    def "does not remove directory for content which was used while waiting for lock"() {
+        def scriptsDir = tmpDir.createDir("scripts")
+        def entryDir = scriptsDir.createDir("$contentHash/classpath/Script/TransformerId")
+        def unusedDir = scriptsDir.createDir("unused")
+        def unusedCacheDir = unusedDir.createDir("classpath/Script/TransformerId")
+        long maxAge = FileCacheBackedScriptClassCompiler.MAX_UNUSED_DAYS * 24L * 60 * 60 * 1000
+        unusedDir.setLastModified(System.currentTimeMillis() - maxAge - 100000)
+        PersistentCache entry = Mock()
+        FileLock lock = Mock()
+        _ * entry.baseDir >> entryDir
+        _ * cacheRepository.cache(cacheName) >> cacheBuilder
+        _ * cacheBuilder.open() >> entry
+        _ * cacheBuilder._ >> cacheBuilder
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script)
+
+        then:
+        1 * lockManager.lock(unusedCacheDir.file("cache.properties"), FileLockManager.LockMode.Exclusive, !null) >> {
+            unusedDir.setLastModified(System.currentTimeMillis())
+            return lock
+        }
+        1 * lock.close()
+        unusedDir.directory
+    }
 }
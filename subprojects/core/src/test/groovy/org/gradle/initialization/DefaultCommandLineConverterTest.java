@@ -72,6 +72,9 @@ public class DefaultCommandLineConverterTest {
     private RefreshOptions expectedRefreshOptions = RefreshOptions.NONE;
     private boolean expectedRecompileScripts;
     private int expectedParallelExecutorCount;
+    private boolean expectedParallelProjectConfiguration;
+    private int expectedParallelConfigurationThreadCount;
+    private boolean expectedConfigureOnDemand;
 
     @Test
     public void withoutAnyOptions() {
@@ -111,6 +114,9 @@ public class DefaultCommandLineConverterTest {
         assertEquals(expectedRefreshDependencies, startParameter.isRefreshDependencies());
         assertEquals(expectedProjectCacheDir, startParameter.getProjectCacheDir());
         assertEquals(expectedParallelExecutorCount, startParameter.getParallelThreadCount());
+        assertEquals(expectedParallelProjectConfiguration, startParameter.isParallelProjectConfiguration());
+        assertEquals(expectedParallelConfigurationThreadCount, startParameter.getParallelConfigurationThreadCount());
+        assertEquals(expectedConfigureOnDemand, startParameter.isConfigureOnDemand());
     }
 
     @Test
@@ -404,4 +410,28 @@ public class DefaultCommandLineConverterTest {
     public void withInvalidParallelExecutorThreads() {
         checkConversion("--parallel-threads", "foo");
     }
+
+    @Test
+    public void withParallelProjectConfiguration() {
+        expectedParallelProjectConfiguration = true;
+        checkConversion("--parallel-configuration");
+    }
+
+    @Test
+    public void withParallelConfigurationThreads() {
+        expectedParallelProjectConfiguration = true;
+        expectedParallelConfigurationThreadCount = 5;
+        checkConversion("--parallel-configuration-threads", "5");
+    }
+
+    @Test(expected = CommandLineArgumentException.class)
+    public void withInvalidParallelConfigurationThreads() {
+        checkConversion("--parallel-configuration-threads", "foo");
+    }
+
+    @Test
+    public void withConfigureOnDemand() {
+        expectedConfigureOnDemand = true;
+        checkConversion("--configure-on-demand");
+    }
 }
@@ -29,6 +29,8 @@ import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.lang.reflect.Proxy;
+
 import static org.gradle.util.HelperUtil.*;
 import static org.gradle.util.Matchers.*;
 import static org.hamcrest.Matchers.*;
@@ -48,6 +50,27 @@ public class ListenerBroadcastTest {
         assertThat(broadcast.getSource().toString(), equalTo("TestListener broadcast"));
     }
 
+    @Test
+    public void generatesSourceClassForPublicListenerInterface() {
+        assertFalse(Proxy.isProxyClass(broadcast.getSource().getClass()));
+        assertThat(broadcast.getSource().getClass().getName(), equalTo(TestListener.class.getName() + "_Broadcast"));
+        assertThat(new ListenerBroadcast<TestListener>(TestListener.class).getSource().getClass(), equalTo((Object) broadcast.getSource().getClass()));
+    }
+
+    @Test
+    public void usesProxyForListenerInterfaceWhichIsNotPublic() {
+        final NonPublicListener listener = context.mock(NonPublicListener.class);
+        ListenerBroadcast<NonPublicListener> broadcast = new ListenerBroadcast<NonPublicListener>(NonPublicListener.class);
+        broadcast.add(listener);
+
+        context.checking(new Expectations() {{
+            one(listener).event("param");
+        }});
+
+        assertTrue(Proxy.isProxyClass(broadcast.getSource().getClass()));
+        broadcast.getSource().event("param");
+    }
+
     @Test
     public void getTypeIsCorrect() {
         assertThat(broadcast.getType(), equalTo(TestListener.class));
@@ -331,4 +354,8 @@ public class ListenerBroadcastTest {
 
         void event2(int value, String other);
     }
+
+    interface NonPublicListener {
+        void event(String param);
+    }
 }
@@ -21,6 +21,10 @@ import org.gradle.internal.nativeplatform.TerminalDetector
 import org.gradle.util.RedirectStdOutAndErr
 import org.junit.Rule
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
 class OutputEventRendererTest extends OutputSpecification {
     @Rule public final RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
     private final ConsoleStub console = new ConsoleStub()
@@ -224,6 +228,89 @@ class OutputEventRendererTest extends OutputSpecification {
         then:
         console.value.readLines() == ['{error}error', '{normal}']
     }
+
+    def doesNotBlockWhileAnotherThreadIsRenderingEvents() {
+        def rendering = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def messages = []
+        renderer.addOutputEventListener({ OutputEvent event ->
+            if (event instanceof LogEvent) {
+                messages << event.message
+                if (event.message == 'first') {
+                    rendering.countDown()
+                    release.await(10, TimeUnit.SECONDS)
+                }
+            }
+        } as OutputEventListener)
+
+        when:
+        def renderThread = Thread.start { renderer.onOutput(event('first', LogLevel.INFO)) }
+        assert rendering.await(10, TimeUnit.SECONDS)
+        renderer.onOutput(event('second', LogLevel.INFO))
+        renderer.onOutput(event('third', LogLevel.INFO))
+
+        then:
+        messages == ['first']
+
+        when:
+        release.countDown()
+        renderThread.join(10000)
+
+        then:
+        messages == ['first', 'second', 'third']
+        outputs.stdOut.readLines() == ['first', 'second', 'third']
+    }
+
+    def rendersQueuedEventsBeforeRemovingListener() {
+        def listener = new TestListener()
+        def rendering = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        renderer.addStandardOutputListener(listener)
+        renderer.addOutputEventListener({ OutputEvent event ->
+            if (event instanceof LogEvent && event.message == 'first') {
+                rendering.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            }
+        } as OutputEventListener)
+
+        when:
+        def renderThread = Thread.start { renderer.onOutput(event('first', LogLevel.INFO)) }
+        assert rendering.await(10, TimeUnit.SECONDS)
+        renderer.onOutput(event('second', LogLevel.INFO))
+        release.countDown()
+        renderer.removeStandardOutputListener(listener)
+        renderThread.join(10000)
+
+        then:
+        listener.value.readLines() == ['first', 'second']
+    }
+
+    def rendersEventsQueuedWhileAnotherThreadIsChangingListeners() {
+        def rendered = new AtomicInteger()
+        renderer.addOutputEventListener({ OutputEvent event ->
+            if (event instanceof LogEvent) {
+                rendered.incrementAndGet()
+            }
+        } as OutputEventListener)
+
+        when:
+        def threads = (1..4).collect {
+            Thread.start {
+                500.times { renderer.onOutput(event('message', LogLevel.INFO)) }
+            }
+        }
+        threads << Thread.start {
+            500.times {
+                def listener = new TestListener()
+                renderer.addStandardOutputListener(listener)
+                renderer.removeStandardOutputListener(listener)
+            }
+        }
+        threads.each { it.join(10000) }
+
+        then:
+        rendered.get() == 2000
+    }
 }
 
 class TestListener implements StandardOutputListener {
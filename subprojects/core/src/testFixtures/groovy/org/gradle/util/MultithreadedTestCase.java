@@ -85,6 +85,11 @@ public class MultithreadedTestCase {
             protected ExecutorService createExecutor(String displayName) {
                 return new ExecutorImpl();
             }
+
+            @Override
+            protected ExecutorService createExecutor(String displayName, int fixedSize) {
+                return new ExecutorImpl();
+            }
         };
     }
 
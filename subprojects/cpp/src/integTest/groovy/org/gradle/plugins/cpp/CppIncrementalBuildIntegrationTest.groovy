@@ -0,0 +1,129 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.plugins.cpp
+
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+
+import static org.gradle.util.TextUtil.escapeString
+
+class CppIncrementalBuildIntegrationTest extends AbstractBinariesIntegrationSpec {
+    static final HELLO_WORLD = "Hello, World!"
+
+    def setup() {
+        buildFile << """
+            apply plugin: "cpp-exe"
+        """
+        settingsFile << "rootProject.name = 'test'"
+
+        file("src", "main", "cpp", "hello.cpp") << """
+            #include <iostream>
+
+            void hello () {
+              std::cout << "${escapeString(HELLO_WORLD)}";
+            }
+        """
+        file("src", "main", "headers", "hello.h") << """
+            void hello();
+        """
+        file("src", "main", "cpp", "main.cpp") << """
+            #include "hello.h"
+
+            int main () {
+              hello();
+              return 0;
+            }
+        """
+
+        // Make sure the source files are older than the object files, on file systems which record timestamps in seconds
+        long timestamp = System.currentTimeMillis() - 10000
+        [file("src/main/cpp/hello.cpp"), file("src/main/headers/hello.h"), file("src/main/cpp/main.cpp")].each { it.setLastModified(timestamp) }
+    }
+
+    // Only g++ compiles each translation unit separately
+    @Requires(TestPrecondition.NOT_WINDOWS)
+    def "recompiles only the translation units which have changed"() {
+        when:
+        compile()
+
+        then:
+        output.contains("Compiling 2 of 2 translation units for main.")
+        executable("build/binaries/test").exec().out == HELLO_WORLD
+
+        when:
+        file("src", "main", "cpp", "hello.cpp").text = """
+            #include <iostream>
+
+            void hello () {
+              std::cout << "changed";
+            }
+        """
+        compile()
+
+        then:
+        output.contains("Compiling 1 of 2 translation units for main.")
+        executable("build/binaries/test").exec().out == "changed"
+    }
+
+    @Requires(TestPrecondition.NOT_WINDOWS)
+    def "recompiles the translation units which include a changed header"() {
+        when:
+        compile()
+
+        then:
+        output.contains("Compiling 2 of 2 translation units for main.")
+
+        when:
+        file("src", "main", "headers", "hello.h") << """
+            void goodbye();
+        """
+        compile()
+
+        then:
+        output.contains("Compiling 1 of 2 translation units for main.")
+        executable("build/binaries/test").exec().out == HELLO_WORLD
+    }
+
+    @Requires(TestPrecondition.NOT_WINDOWS)
+    def "recompiles all translation units when the compiler options change"() {
+        when:
+        compile()
+
+        then:
+        output.contains("Compiling 2 of 2 translation units for main.")
+
+        when:
+        buildFile << """
+            executables {
+                main {
+                    spec {
+                        args "-DCHANGED"
+                    }
+                }
+            }
+        """
+        compile()
+
+        then:
+        output.contains("Compiling 2 of 2 translation units for main.")
+        executable("build/binaries/test").exec().out == HELLO_WORLD
+    }
+
+    def compile() {
+        executer.withArguments("--info")
+        run "compileMain"
+    }
+}
@@ -31,14 +31,20 @@ public class CommandLineCppCompilerArgumentsToOptionFile<T extends CppCompileSpe
 
     private final Transformer<ArgWriter, PrintWriter> argWriterFactory;
     private final CompileSpecToArguments<T> toArguments;
+    private final String optionsFileName;
 
     public CommandLineCppCompilerArgumentsToOptionFile(Transformer<ArgWriter, PrintWriter> argWriterFactory, CompileSpecToArguments<T> toArguments) {
+        this(argWriterFactory, toArguments, "compiler-options.txt");
+    }
+
+    public CommandLineCppCompilerArgumentsToOptionFile(Transformer<ArgWriter, PrintWriter> argWriterFactory, CompileSpecToArguments<T> toArguments, String optionsFileName) {
         this.argWriterFactory = argWriterFactory;
         this.toArguments = toArguments;
+        this.optionsFileName = optionsFileName;
     }
 
     public void collectArguments(T spec, ArgCollector collector) {
-        File optionsFile = new File(spec.getWorkDir(), "compiler-options.txt");
+        File optionsFile = new File(spec.getWorkDir(), optionsFileName);
         try {
             PrintWriter writer = new PrintWriter(optionsFile);
             ArgWriter argWriter = argWriterFactory.transform(writer);
@@ -15,9 +15,11 @@
  */
 package org.gradle.plugins.cpp.gpp
 
+import org.gradle.StartParameter
 import org.gradle.api.Plugin
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.os.OperatingSystem
 import org.gradle.plugins.binaries.BinariesPlugin
 import org.gradle.plugins.binaries.model.CompilerRegistry
@@ -38,7 +40,21 @@ class GppCompilerPlugin implements Plugin<ProjectInternal> {
                     ExecAction create() {
                         new DefaultExecAction(project.getFileResolver())
                     }
-                }))
+                },
+                project.services.get(ExecutorFactory),
+                getWorkerCount(project.gradle.startParameter)))
+    }
+
+    /**
+     * Shares the processors between the binaries which are built at the same time, when tasks are executed in parallel.
+     */
+    private int getWorkerCount(StartParameter startParameter) {
+        int processors = Runtime.runtime.availableProcessors()
+        int parallelThreads = startParameter.parallelThreadCount
+        if (parallelThreads < 0) {
+            parallelThreads = processors
+        }
+        return Math.max(1, processors.intdiv(Math.max(1, parallelThreads)) as int)
     }
 
 }
@@ -24,32 +24,19 @@ import org.gradle.plugins.cpp.gpp.GppCompileSpec;
 
 import java.io.File;
 
+/**
+ * The g++ options used to compile each translation unit of a spec. The source file and object file are added separately.
+ */
 public class GppCompileSpecToArguments implements CompileSpecToArguments<GppCompileSpec> {
 
     public void collectArguments(GppCompileSpec spec, ArgCollector collector) {
-        collector.args("-o", spec.getOutputFile().getAbsolutePath());
-        if (spec instanceof LibraryCompileSpec) {
-            LibraryCompileSpec librarySpec = (LibraryCompileSpec) spec;
-            collector.args("-shared");
-            if (!OperatingSystem.current().isWindows()) {
-                collector.args("-fPIC");
-                if (OperatingSystem.current().isMacOsX()) {
-                    collector.args("-Wl,-install_name," + librarySpec.getInstallName());
-                } else {
-                    collector.args("-Wl,-soname," + librarySpec.getInstallName());
-                }
-            }
+        if (spec instanceof LibraryCompileSpec && !OperatingSystem.current().isWindows()) {
+            collector.args("-fPIC");
         }
         for (File file : spec.getIncludeRoots()) {
             collector.args("-I");
             collector.args(file.getAbsolutePath());
         }
-        for (File file : spec.getSource()) {
-            collector.args(file.getAbsolutePath());
-        }
-        for (File file : spec.getLibs()) {
-            collector.args(file.getAbsolutePath());
-        }
     }
 
 }
@@ -16,29 +16,223 @@
 
 package org.gradle.plugins.cpp.gpp.internal;
 
-import org.gradle.internal.Factory;
+import groovy.lang.Closure;
+import org.gradle.api.internal.tasks.compile.ArgCollector;
 import org.gradle.api.internal.tasks.compile.ArgWriter;
-import org.gradle.plugins.cpp.compiler.internal.CommandLineCppCompiler;
+import org.gradle.api.internal.tasks.compile.CompileSpecToArguments;
+import org.gradle.api.internal.tasks.compile.ExecSpecBackedArgCollector;
+import org.gradle.api.internal.tasks.compile.SimpleWorkResult;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.plugins.cpp.compiler.internal.CommandLineCppCompilerArgumentsToOptionFile;
+import org.gradle.plugins.cpp.compiler.internal.CppCompiler;
 import org.gradle.plugins.cpp.gpp.GppCompileSpec;
 import org.gradle.process.internal.ExecAction;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.hash.HashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.*;
+
+/**
+ * Compiles and links C++ source using g++. Each translation unit is compiled to its own object file, concurrently, and the
+ * object files are then linked in a separate step.
+ *
+ * <p>Each translation unit is compiled with the -MD option, so that g++ records the files it includes. A translation unit is
+ * only recompiled when its object file is older than its source file or any of the files it includes, or when the compiler
+ * options have changed.</p>
+ *
+ * <p>At most the given number of translation units are compiled at the same time. Other binaries may be built at the same time
+ * when tasks are executed in parallel, so the caller takes the number of parallel tasks into account.</p>
+ */
+public class GppCompiler implements CppCompiler<GppCompileSpec> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GppCompiler.class);
+    private static final Set<String> SOURCE_EXTENSIONS = new HashSet<String>(Arrays.asList("c", "cc", "cp", "cxx", "cpp", "CPP", "c++", "C"));
+    private static final Set<String> HEADER_EXTENSIONS = new HashSet<String>(Arrays.asList("h", "hh", "H", "hp", "hxx", "hpp", "HPP", "h++", "tcc"));
+
+    private final File executable;
+    private final Factory<ExecAction> execActionFactory;
+    private final ExecutorFactory executorFactory;
+    private final int workerCount;
+    private final boolean useCommandFile;
+    private final GppDependencyFileParser dependencyFileParser = new GppDependencyFileParser();
+
+    public GppCompiler(File executable, Factory<ExecAction> execActionFactory, ExecutorFactory executorFactory, int workerCount, boolean useCommandFile) {
+        this.executable = executable;
+        this.execActionFactory = execActionFactory;
+        this.executorFactory = executorFactory;
+        this.workerCount = workerCount;
+        this.useCommandFile = useCommandFile;
+    }
+
+    public WorkResult execute(GppCompileSpec spec) {
+        File objectsDir = new File(spec.getWorkDir(), "objects");
+        ensureDirsExist(spec.getWorkDir(), objectsDir, spec.getOutputFile().getParentFile());
+
+        List<TranslationUnit> translationUnits = new ArrayList<TranslationUnit>();
+        List<File> linkerInputs = new ArrayList<File>();
+        for (File file : spec.getSource()) {
+            String extension = getExtension(file);
+            if (SOURCE_EXTENSIONS.contains(extension)) {
+                TranslationUnit translationUnit = new TranslationUnit(file, objectsDir);
+                translationUnits.add(translationUnit);
+                linkerInputs.add(translationUnit.objectFile);
+            } else if (!HEADER_EXTENSIONS.contains(extension)) {
+                // Libraries and object files are passed straight to the linker
+                linkerInputs.add(file);
+            }
+        }
+
+        compile(spec, objectsDir, translationUnits);
+        link(spec, linkerInputs);
+        return new SimpleWorkResult(true);
+    }
+
+    private void compile(GppCompileSpec spec, File objectsDir, List<TranslationUnit> translationUnits) {
+        // The options shared by all translation units. These are recorded, so that a change to them causes everything to be recompiled
+        final List<String> options = collectArguments(spec, new GppCompileSpecToArguments());
+        ExecAction optionsAction = execActionFactory.create();
+        optionsAction.args(options);
+        applySettings(spec, optionsAction);
+        String commandLine = String.format("%s%n%s", executable.getAbsolutePath(), optionsAction.getArgs());
+        File optionsFile = new File(objectsDir, "options.txt");
+        boolean optionsChanged = !optionsFile.isFile() || !GFileUtils.readFile(optionsFile).equals(commandLine);
+        if (optionsChanged) {
+            optionsFile.delete();
+        }
+
+        List<TranslationUnit> outOfDate = new ArrayList<TranslationUnit>();
+        for (TranslationUnit translationUnit : translationUnits) {
+            if (optionsChanged || !isUpToDate(translationUnit, spec.getWorkDir())) {
+                outOfDate.add(translationUnit);
+            }
+        }
+        LOGGER.info("Compiling {} of {} translation units for {}.", new Object[]{outOfDate.size(), translationUnits.size(), spec.getName()});
 
-public class GppCompiler extends CommandLineCppCompiler<GppCompileSpec> {
+        if (!outOfDate.isEmpty()) {
+            List<String> compilerOptions = useCommandFile ? collectArguments(spec, new CommandLineCppCompilerArgumentsToOptionFile<GppCompileSpec>(
+                    ArgWriter.unixStyleFactory(), new GppCompileSpecToArguments())) : options;
+            StoppableExecutor executor = executorFactory.create(String.format("compile %s", spec.getName()),
+                    Math.min(outOfDate.size(), workerCount));
+            try {
+                for (final TranslationUnit translationUnit : outOfDate) {
+                    final ExecAction compiler = createCompileAction(spec, compilerOptions, translationUnit);
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            translationUnit.dependencyFile.delete();
+                            compiler.execute();
+                        }
 
-    public GppCompiler(File executable, Factory<ExecAction> execActionFactory, boolean useCommandFile) {
-        super(executable, execActionFactory, useCommandFile ? viaCommandFile() : withoutCommandFile());
+                        @Override
+                        public String toString() {
+                            return String.format("compile %s", translationUnit.sourceFile);
+                        }
+                    });
+                }
+            } finally {
+                executor.stop();
+            }
+        }
+
+        if (optionsChanged) {
+            GFileUtils.writeFile(commandLine, optionsFile);
+        }
+    }
+
+    private boolean isUpToDate(TranslationUnit translationUnit, File workDir) {
+        if (!translationUnit.objectFile.isFile()) {
+            return false;
+        }
+        List<File> dependencies = dependencyFileParser.parse(translationUnit.dependencyFile, workDir);
+        if (dependencies == null) {
+            return false;
+        }
+        long timestamp = translationUnit.objectFile.lastModified();
+        if (translationUnit.sourceFile.lastModified() >= timestamp) {
+            return false;
+        }
+        for (File dependency : dependencies) {
+            if (!dependency.isFile() || dependency.lastModified() >= timestamp) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ExecAction createCompileAction(GppCompileSpec spec, List<String> options, TranslationUnit translationUnit) {
+        translationUnit.objectFile.getParentFile().mkdirs();
+        ExecAction compiler = execActionFactory.create();
+        compiler.executable(executable);
+        compiler.workingDir(spec.getWorkDir());
+        compiler.args(options);
+        compiler.args("-c", translationUnit.sourceFile.getAbsolutePath());
+        compiler.args("-o", translationUnit.objectFile.getAbsolutePath());
+        compiler.args("-MD", "-MF", translationUnit.dependencyFile.getAbsolutePath());
+        applySettings(spec, compiler);
+        return compiler;
     }
 
-    private static GppCompileSpecToArguments withoutCommandFile() {
-        return new GppCompileSpecToArguments();
+    private void link(GppCompileSpec spec, List<File> inputs) {
+        ExecAction linker = execActionFactory.create();
+        linker.executable(executable);
+        linker.workingDir(spec.getWorkDir());
+
+        CompileSpecToArguments<GppCompileSpec> toArguments = new GppLinkerSpecToArguments(inputs);
+        if (useCommandFile) {
+            toArguments = new CommandLineCppCompilerArgumentsToOptionFile<GppCompileSpec>(ArgWriter.unixStyleFactory(), toArguments, "linker-options.txt");
+        }
+        toArguments.collectArguments(spec, new ExecSpecBackedArgCollector(linker));
+        applySettings(spec, linker);
+
+        linker.execute();
     }
 
-    private static CommandLineCppCompilerArgumentsToOptionFile<GppCompileSpec> viaCommandFile() {
-        return new CommandLineCppCompilerArgumentsToOptionFile<GppCompileSpec>(
-            ArgWriter.unixStyleFactory(), new GppCompileSpecToArguments()
-        );
+    private List<String> collectArguments(GppCompileSpec spec, CompileSpecToArguments<GppCompileSpec> toArguments) {
+        final List<String> args = new ArrayList<String>();
+        toArguments.collectArguments(spec, new ArgCollector() {
+            public ArgCollector args(Object... values) {
+                for (Object value : values) {
+                    args.add(value.toString());
+                }
+                return this;
+            }
+        });
+        return args;
     }
 
+    private void applySettings(GppCompileSpec spec, ExecAction action) {
+        for (Closure closure : spec.getSettings()) {
+            closure.call(action);
+        }
+    }
+
+    private String getExtension(File file) {
+        String name = file.getName();
+        int index = name.lastIndexOf('.');
+        return index < 0 ? "" : name.substring(index + 1);
+    }
+
+    private void ensureDirsExist(File... dirs) {
+        for (File dir : dirs) {
+            dir.mkdirs();
+        }
+    }
+
+    private static class TranslationUnit {
+        final File sourceFile;
+        final File objectFile;
+        final File dependencyFile;
+
+        TranslationUnit(File sourceFile, File objectsDir) {
+            this.sourceFile = sourceFile;
+            // Source files in different directories can have the same name
+            File dir = new File(objectsDir, HashUtil.createCompactMD5(sourceFile.getParentFile().getAbsolutePath()));
+            objectFile = new File(dir, sourceFile.getName() + ".o");
+            dependencyFile = new File(dir, sourceFile.getName() + ".d");
+        }
+    }
 }
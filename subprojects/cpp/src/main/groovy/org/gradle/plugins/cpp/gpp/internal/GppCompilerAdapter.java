@@ -18,6 +18,7 @@ package org.gradle.plugins.cpp.gpp.internal;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.os.OperatingSystem;
 import org.gradle.plugins.binaries.model.Binary;
 import org.gradle.plugins.cpp.compiler.internal.CommandLineCppCompilerAdapter;
@@ -44,13 +45,20 @@ public class GppCompilerAdapter extends CommandLineCppCompilerAdapter<GppCompile
     private String version;
 
     private final Transformer<String, File> versionDeterminer;
-
-    public GppCompilerAdapter(OperatingSystem operatingSystem, Factory<ExecAction> execActionFactory) {
-        this(operatingSystem, execActionFactory, new GppVersionDeterminer());
+    private final ExecutorFactory executorFactory;
+    private final int workerCount;
+
+    /**
+     * @param workerCount The maximum number of translation units to compile at the same time for each binary.
+     */
+    public GppCompilerAdapter(OperatingSystem operatingSystem, Factory<ExecAction> execActionFactory, ExecutorFactory executorFactory, int workerCount) {
+        this(operatingSystem, execActionFactory, executorFactory, workerCount, new GppVersionDeterminer());
     }
 
-    GppCompilerAdapter(OperatingSystem operatingSystem, Factory<ExecAction> execActionFactory, Transformer<String, File> versionDeterminer) {
+    GppCompilerAdapter(OperatingSystem operatingSystem, Factory<ExecAction> execActionFactory, ExecutorFactory executorFactory, int workerCount, Transformer<String, File> versionDeterminer) {
         super(EXECUTABLE, operatingSystem, execActionFactory);
+        this.executorFactory = executorFactory;
+        this.workerCount = workerCount;
         this.versionDeterminer = versionDeterminer;
     }
 
@@ -83,7 +91,7 @@ public class GppCompilerAdapter extends CommandLineCppCompilerAdapter<GppCompile
             throw new IllegalStateException(String.format("Unable to determine major g++ version from version number %s.", version), e);
         }
 
-        return new GppCompiler(getExecutable(), getExecActionFactory(), majorVersion >= 4);
+        return new GppCompiler(getExecutable(), getExecActionFactory(), executorFactory, workerCount, majorVersion >= 4);
     }
 
     private String getVersion() {
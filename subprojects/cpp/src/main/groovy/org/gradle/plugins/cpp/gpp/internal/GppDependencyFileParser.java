@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.cpp.gpp.internal;
+
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the dependency file which g++ writes for a translation unit when given the -MD option. The file contains a make rule
+ * whose prerequisites are the source file and every file it includes.
+ */
+public class GppDependencyFileParser {
+
+    /**
+     * Returns the files which the translation unit depends on, or null when the dependency file does not exist or does not
+     * contain a rule. Relative paths are resolved against the given directory.
+     */
+    public List<File> parse(File dependencyFile, File baseDir) {
+        if (!dependencyFile.isFile()) {
+            return null;
+        }
+        String content = GFileUtils.readFile(dependencyFile);
+
+        // The rule is the first line, with any escaped line endings joined
+        String rule = content.replaceAll("\\\\\r?\n", " ").split("\r?\n", 2)[0];
+        int separator = rule.indexOf(": ");
+        if (separator < 0) {
+            return null;
+        }
+
+        List<File> files = new ArrayList<File>();
+        StringBuilder path = new StringBuilder();
+        for (int i = separator + 2; i < rule.length(); i++) {
+            char ch = rule.charAt(i);
+            if (ch == '\\' && i + 1 < rule.length() && (rule.charAt(i + 1) == ' ' || rule.charAt(i + 1) == '#')) {
+                path.append(rule.charAt(++i));
+            } else if (ch == '$' && i + 1 < rule.length() && rule.charAt(i + 1) == '$') {
+                path.append(rule.charAt(++i));
+            } else if (Character.isWhitespace(ch)) {
+                addFile(path, baseDir, files);
+            } else {
+                path.append(ch);
+            }
+        }
+        addFile(path, baseDir, files);
+        return files;
+    }
+
+    private void addFile(StringBuilder path, File baseDir, List<File> files) {
+        if (path.length() == 0) {
+            return;
+        }
+        File file = new File(path.toString());
+        files.add(file.isAbsolute() ? file : new File(baseDir, path.toString()));
+        path.setLength(0);
+    }
+}
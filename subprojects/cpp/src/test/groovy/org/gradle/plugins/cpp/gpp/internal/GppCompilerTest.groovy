@@ -0,0 +1,325 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.plugins.cpp.gpp.internal
+
+import org.gradle.api.file.SourceDirectorySet
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.compile.Compiler
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.plugins.binaries.model.Library
+import org.gradle.plugins.binaries.model.LibraryCompileSpec
+import org.gradle.plugins.binaries.model.internal.CompileSpecFactory
+import org.gradle.plugins.binaries.model.internal.DefaultBinary
+import org.gradle.plugins.cpp.CppCompile
+import org.gradle.plugins.cpp.gpp.GppCompileSpec
+import org.gradle.process.ExecResult
+import org.gradle.process.internal.DefaultExecAction
+import org.gradle.process.internal.ExecAction
+import org.gradle.process.internal.ExecException
+import org.gradle.util.HelperUtil
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class GppCompilerTest extends Specification {
+    @Rule final TemporaryFolder tmpDir = new TemporaryFolder()
+    // In the past, so that changed files can be given a later timestamp
+    final long sourceTimestamp = (System.currentTimeMillis().intdiv(1000) - 100) * 1000
+    final long changedTimestamp = sourceTimestamp + 30000
+    final List<List<String>> compiled = []
+    final List<List<String>> linked = []
+    final Set<File> failing = []
+    final Map<File, List<File>> headers = [:]
+    final List<Integer> poolSizes = []
+    final File executable = new File("g++")
+    final Factory<ExecAction> execActionFactory = { new FakeGppExecAction(this.&gpp) } as Factory
+    final ExecutorFactory executorFactory = [create: { String displayName, int fixedSize ->
+        poolSizes << fixedSize
+        new SynchronousExecutor()
+    }] as ExecutorFactory
+    ProjectInternal project
+    GppCompileSpec spec
+    File source1
+    File source2
+    File header
+
+    def setup() {
+        project = HelperUtil.createRootProject(tmpDir.dir)
+        spec = new GppCompileSpec(new DefaultBinary("main", project, Mock(CompileSpecFactory)), Mock(Compiler), project)
+        spec.configure(project.tasks.add("compileMain", CppCompile))
+
+        source1 = sourceFile("src/one.cpp")
+        source2 = sourceFile("src/two.cpp")
+        header = sourceFile("src/two.h")
+        headers[source2] = [header]
+    }
+
+    def "compiles each translation unit separately and links the object files"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        def prebuilt = sourceFile("lib/prebuilt.a")
+        spec.source(project.files(source1, header, source2, prebuilt))
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source1, source2]
+        poolSizes == [2]
+        linked.size() == 1
+        linked[0] == ["-o", spec.outputFile.absolutePath] + compiled.collect { argAfter(it, "-o") } + [prebuilt.absolutePath]
+    }
+
+    def "links the libraries of the spec after the object files"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        def libFile = tmpDir.createFile("lib/libhello.so")
+        Library library = Mock()
+        LibraryCompileSpec librarySpec = Mock()
+        SourceDirectorySet libraryHeaders = Mock()
+        _ * library.spec >> librarySpec
+        _ * librarySpec.outputFile >> libFile
+        _ * library.headers >> libraryHeaders
+        _ * libraryHeaders.srcDirs >> ([] as Set)
+        spec.source(project.files(source1))
+        spec.libs([library])
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        linked[0] == ["-o", spec.outputFile.absolutePath, argAfter(compiled[0], "-o"), libFile.absolutePath]
+    }
+
+    def "does not compile more translation units at the same time than the given worker count"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 1, false)
+        spec.source(project.files(source1, source2))
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        poolSizes == [1]
+    }
+
+    def "does not recompile translation units which have not changed"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        compiledSources == []
+        poolSizes == []
+        linked.size() == 1
+    }
+
+    def "recompiles a translation unit whose source file has changed"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        source1.setLastModified(changedTimestamp)
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source1]
+    }
+
+    def "recompiles only the translation units which include a changed header"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        header.setLastModified(changedTimestamp)
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source2]
+    }
+
+    def "recompiles a translation unit whose included header has been removed"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        header.delete()
+        headers.remove(source2)
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source2]
+    }
+
+    def "recompiles all translation units when the settings change"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        spec.args("-DCHANGED")
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source1, source2]
+        compiled.every { it.contains("-DCHANGED") }
+        linked[0].contains("-DCHANGED")
+
+        when:
+        reset()
+        compiler.execute(spec)
+
+        then:
+        compiledSources == []
+    }
+
+    def "recompiles all translation units when the include roots change"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        spec.includes(project.files(tmpDir.createDir("include")))
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source1, source2]
+    }
+
+    def "recompiles a translation unit which failed to compile"() {
+        def compiler = new GppCompiler(executable, execActionFactory, executorFactory, 4, false)
+        spec.source(project.files(source1, source2))
+        compiler.execute(spec)
+        reset()
+
+        when:
+        source1.setLastModified(changedTimestamp)
+        source2.setLastModified(changedTimestamp)
+        failing << source1
+        compiler.execute(spec)
+
+        then:
+        thrown(ExecException)
+        compiledSources == [source1, source2]
+        linked.empty
+
+        when:
+        reset()
+        failing.clear()
+        compiler.execute(spec)
+
+        then:
+        compiledSources == [source1]
+        linked.size() == 1
+    }
+
+    def gpp(List<String> args) {
+        if (!args.contains("-c")) {
+            linked << args
+            new File(argAfter(args, "-o")).text = "binary"
+            return
+        }
+
+        compiled << args
+        def source = new File(argAfter(args, "-c"))
+        def objectFile = new File(argAfter(args, "-o"))
+        def prerequisites = [source] + (headers[source] ?: [])
+        // Newer than the prerequisites, even on file systems which record timestamps in seconds
+        long timestamp = prerequisites*.lastModified().max() + 10000
+        if (failing.contains(source)) {
+            // Leave an object file behind, so that only the missing dependency file causes the translation unit to be recompiled
+            objectFile.text = "partial object"
+            objectFile.setLastModified(timestamp)
+            throw new ExecException("Could not compile ${source}.")
+        }
+        objectFile.text = "object"
+        objectFile.setLastModified(timestamp)
+        new File(argAfter(args, "-MF")).text = "${objectFile.absolutePath}: ${prerequisites*.absolutePath.join(' ')}\n"
+    }
+
+    def getCompiledSources() {
+        compiled.collect { new File(argAfter(it, "-c")) }
+    }
+
+    def argAfter(List<String> args, String option) {
+        args[args.indexOf(option) + 1]
+    }
+
+    def reset() {
+        compiled.clear()
+        linked.clear()
+        poolSizes.clear()
+    }
+
+    def sourceFile(String path) {
+        def file = tmpDir.createFile(path)
+        file.setLastModified(sourceTimestamp)
+        file
+    }
+}
+
+class FakeGppExecAction extends DefaultExecAction {
+    final Closure action
+
+    FakeGppExecAction(Closure action) {
+        this.action = action
+    }
+
+    ExecResult execute() {
+        action.call(getArgs())
+        return null
+    }
+}
+
+class SynchronousExecutor implements StoppableExecutor {
+    Throwable failure
+
+    void execute(Runnable command) {
+        try {
+            command.run()
+        } catch (Throwable throwable) {
+            if (failure == null) {
+                failure = throwable
+            }
+        }
+    }
+
+    void requestStop() {
+    }
+
+    void stop() {
+        if (failure != null) {
+            throw failure
+        }
+    }
+
+    void stop(int timeoutValue, TimeUnit timeoutUnits) {
+        stop()
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.cpp.gpp.internal
+
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class GppDependencyFileParserTest extends Specification {
+    @Rule final TemporaryFolder tmpDir = new TemporaryFolder()
+    final GppDependencyFileParser parser = new GppDependencyFileParser()
+
+    def "reads prerequisites of rule"() {
+        def file = tmpDir.file("main.d")
+        file.text = "/build/main.o: /src/main.cpp /usr/include/stdio.h \\\n /src/a.h \\\n  /include/b.h\n"
+
+        expect:
+        parser.parse(file, tmpDir.dir) == [new File("/src/main.cpp"), new File("/usr/include/stdio.h"), new File("/src/a.h"), new File("/include/b.h")]
+    }
+
+    def "handles escaped characters in paths"() {
+        def file = tmpDir.file("main.d")
+        file.text = "/build/main.o: /src/main.cpp /include\\ dir/a.h /include/\\#b.h /include/\$\$c.h\n"
+
+        expect:
+        parser.parse(file, tmpDir.dir) == [new File("/src/main.cpp"), new File("/include dir/a.h"), new File("/include/#b.h"), new File("/include/\$c.h")]
+    }
+
+    def "resolves relative paths against base dir"() {
+        def file = tmpDir.file("main.d")
+        file.text = "main.o: /src/main.cpp include/a.h\n"
+
+        expect:
+        parser.parse(file, tmpDir.dir) == [new File("/src/main.cpp"), tmpDir.file("include/a.h")]
+    }
+
+    def "ignores additional rules"() {
+        def file = tmpDir.file("main.d")
+        file.text = "main.o: /src/main.cpp\n/src/a.h:\n"
+
+        expect:
+        parser.parse(file, tmpDir.dir) == [new File("/src/main.cpp")]
+    }
+
+    def "returns null when dependency file is missing or has no rule"() {
+        def file = tmpDir.file("main.d")
+
+        expect:
+        parser.parse(file, tmpDir.dir) == null
+
+        when:
+        file.text = ""
+
+        then:
+        parser.parse(file, tmpDir.dir) == null
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.process.ExecResult;
 
 /**
@@ -36,10 +37,21 @@ public class DaemonGreeter {
         if (!new DaemonStartupCommunication().containsGreeting(output)) {
             throw new GradleException(prepareMessage(output, result));
         }
+        return new DaemonStartupCommunication().readDiagnostics(lastLine(output));
+    }
+
+    /**
+     * Returns the registry entry included in the greeting of the daemon, or null if the greeting does not include it. The output should
+     * have been checked with {@link #parseDaemonOutput(String, ExecResult)} first.
+     */
+    public DaemonInfo parseDaemonInfo(String output) {
+        return new DaemonStartupCommunication().readDaemonInfo(lastLine(output));
+    }
+
+    private String lastLine(String output) {
         String[] lines = output.split("\n");
         //TODO SF don't assume it is the last line
-        String lastLine = lines[lines.length-1];
-        return new DaemonStartupCommunication().readDiagnostics(lastLine);
+        return lines[lines.length-1];
     }
 
     private String prepareMessage(String output, ExecResult result) {
@@ -25,6 +25,8 @@ import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
 import org.gradle.launcher.daemon.configuration.DefaultDaemonServerConfiguration;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServices;
 import org.gradle.logging.LoggingManagerInternal;
@@ -47,6 +49,10 @@ import java.util.concurrent.TimeUnit;
  * the process will exit with 1.
  */
 public class DaemonMain extends EntryPoint {
+    /**
+     * Set for a daemon which is started as a spare, so that it advertises itself as idle once started.
+     */
+    public static final String SPARE_DAEMON_SYS_PROPERTY = "org.gradle.daemon.startedAsSpare";
 
     private static final Logger LOGGER = Logging.getLogger(DaemonMain.class);
 
@@ -109,10 +115,14 @@ public class DaemonMain extends EntryPoint {
         });
 
         Daemon daemon = startDaemon(daemonServices);
+        if (Boolean.getBoolean(SPARE_DAEMON_SYS_PROPERTY)) {
+            // Nobody is waiting to connect to a spare daemon, so make it available straight away
+            daemonServices.get(DaemonRegistry.class).markIdle(daemon.getAddress());
+        }
 
         Long pid = daemonContext.getPid();
         LOGGER.lifecycle(DaemonMessages.PROCESS_STARTED + ((pid == null)? "":" Pid: " + pid + "."));
-        daemonStarted(pid, daemonLog);
+        daemonStarted(pid, daemonLog, new DaemonInfo(daemon.getAddress(), daemonContext, daemon.getPassword(), false));
 
         try {
             daemon.requestStopOnIdleTimeout(configuration.getIdleTimeout(), TimeUnit.MILLISECONDS);
@@ -122,9 +132,9 @@ public class DaemonMain extends EntryPoint {
         }
     }
 
-    protected void daemonStarted(Long pid, File daemonLog) {
+    protected void daemonStarted(Long pid, File daemonLog, DaemonInfo daemonInfo) {
         //directly printing to the stream to avoid log level filtering.
-        new DaemonStartupCommunication().printDaemonStarted(originalOut, pid, daemonLog);
+        new DaemonStartupCommunication().printDaemonStarted(originalOut, pid, daemonLog, daemonInfo);
         originalOut.close();
         originalErr.close();
 
@@ -18,13 +18,21 @@ package org.gradle.launcher.daemon.bootstrap;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.DefaultSerializer;
+import org.gradle.internal.UncheckedException;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.PrintStream;
 
 /**
+ * The greeting which a daemon prints once it has started. It contains the daemon's diagnostics and, so that the client can connect
+ * without looking the daemon up in the registry, the daemon's registry entry.
+ * <p>
  * by Szczepan Faber, created at: 4/10/12
  */
 public class DaemonStartupCommunication {
@@ -32,8 +40,8 @@ public class DaemonStartupCommunication {
     private static final String DELIM = ";:"; //this very simple delim should be safe for any kind of path.
     private static final Logger LOGGER = Logging.getLogger(DaemonStartupCommunication.class);
 
-    public void printDaemonStarted(PrintStream target, Long pid, File daemonLog) {
-        target.println(daemonStartedMessage(pid, daemonLog));
+    public void printDaemonStarted(PrintStream target, Long pid, File daemonLog, DaemonInfo daemonInfo) {
+        target.println(daemonStartedMessage(pid, daemonLog, daemonInfo));
         //ibm vm 1.6 + windows XP gotchas:
         //we need to print something else to the stream after we print the daemon greeting.
         //without it, the parent hangs without receiving the message above (flushing does not help).
@@ -45,6 +53,10 @@ public class DaemonStartupCommunication {
         return daemonGreeting() + DELIM + pid + DELIM + daemonLog;
     }
 
+    String daemonStartedMessage(Long pid, File daemonLog, DaemonInfo daemonInfo) {
+        return daemonStartedMessage(pid, daemonLog) + DELIM + toHexString(serialize(daemonInfo));
+    }
+
     public DaemonDiagnostics readDiagnostics(String message) {
         //TODO SF dont assume the message has correct format
         String[] split = message.split(DELIM);
@@ -54,6 +66,17 @@ public class DaemonStartupCommunication {
         return new DaemonDiagnostics(daemonLog, pid);
     }
 
+    /**
+     * Returns the registry entry of the daemon, or null if the message does not contain it.
+     */
+    public DaemonInfo readDaemonInfo(String message) {
+        String[] split = message.split(DELIM);
+        if (split.length < 4) {
+            return null;
+        }
+        return deserialize(fromHexString(split[3].trim()));
+    }
+
     public boolean containsGreeting(String message) {
         if (message == null) {
             throw new IllegalArgumentException("Unable to detect the daemon greeting because the input message is null!");
@@ -64,4 +87,39 @@ public class DaemonStartupCommunication {
     private static String daemonGreeting() {
         return DaemonMessages.ABOUT_TO_CLOSE_STREAMS;
     }
+
+    private static byte[] serialize(DaemonInfo daemonInfo) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            new DefaultSerializer<DaemonInfo>().write(outputStream, daemonInfo);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static DaemonInfo deserialize(byte[] bytes) {
+        try {
+            return new DefaultSerializer<DaemonInfo>(DaemonInfo.class.getClassLoader()).read(new ByteArrayInputStream(bytes));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+            builder.append(Character.forDigit(b & 0xf, 16));
+        }
+        return builder.toString();
+    }
+
+    private static byte[] fromHexString(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ((Character.digit(hex.charAt(2 * i), 16) << 4) | Character.digit(hex.charAt(2 * i + 1), 16));
+        }
+        return bytes;
+    }
 }
@@ -16,6 +16,7 @@
 package org.gradle.launcher.daemon.bootstrap;
 
 import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServices;
@@ -37,7 +38,7 @@ public class ForegroundDaemonMain extends DaemonMain {
     }
 
     @Override
-    protected void daemonStarted(Long pid, File daemonLog) {
+    protected void daemonStarted(Long pid, File daemonLog, DaemonInfo daemonInfo) {
         //don't do anything
     }
 
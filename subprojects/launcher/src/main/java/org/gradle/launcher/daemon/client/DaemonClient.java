@@ -19,6 +19,7 @@ import org.gradle.api.internal.specs.ExplainingSpec;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.GradleLauncherAction;
+import org.gradle.internal.Stoppable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.IdGenerator;
@@ -111,14 +112,21 @@ public class DaemonClient implements GradleLauncherActionExecuter<BuildActionPar
     public <T> T execute(GradleLauncherAction<T> action, BuildActionParameters parameters) {
         Build build = new Build(idGenerator.generateId(), action, parameters);
         int saneNumberOfAttempts = 100; //is it sane enough?
-        for (int i = 1; i < saneNumberOfAttempts; i++) {
-            DaemonConnection daemonConnection = connector.connect(compatibilitySpec);
-            Connection<Object> connection = daemonConnection.getConnection();
-
-            try {
-                return (T) executeBuild(build, connection);
-            } catch (DaemonInitialConnectException e) {
-                LOGGER.info(e.getMessage() + " Trying a different daemon...");
+        try {
+            for (int i = 1; i < saneNumberOfAttempts; i++) {
+                DaemonConnection daemonConnection = connector.connect(compatibilitySpec);
+                Connection<Object> connection = daemonConnection.getConnection();
+
+                try {
+                    return (T) executeBuild(build, connection);
+                } catch (DaemonInitialConnectException e) {
+                    LOGGER.info(e.getMessage() + " Trying a different daemon...");
+                }
+            }
+        } finally {
+            // Wait for any spare daemon started by the connector, so that it is not killed when this process exits
+            if (connector instanceof Stoppable) {
+                ((Stoppable) connector).stop();
             }
         }
         //TODO SF if we want to keep below sanity it should include the errors that were accumulated above.
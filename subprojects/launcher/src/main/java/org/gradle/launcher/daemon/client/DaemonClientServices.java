@@ -21,7 +21,9 @@ import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.context.DaemonContextBuilder;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
+import org.gradle.messaging.remote.internal.OutgoingConnector;
 
 import java.io.InputStream;
 
@@ -41,6 +43,14 @@ public class DaemonClientServices extends DaemonClientServicesSupport {
         return new DefaultDaemonStarter(get(DaemonDir.class), daemonParameters, get(DaemonGreeter.class));
     }
 
+    protected DaemonConnector createDaemonConnector() {
+        DefaultDaemonConnector connector = new DefaultDaemonConnector(get(DaemonRegistry.class), get(OutgoingConnector.class), get(DaemonStarter.class));
+        if (daemonParameters.isSpareDaemonEnabled()) {
+            connector.setSpareDaemonStarter(new DefaultDaemonStarter(get(DaemonDir.class), daemonParameters, get(DaemonGreeter.class), true));
+        }
+        return connector;
+    }
+
     protected DaemonGreeter createDaemonGreeter() {
         return new DaemonGreeter(get(DocumentationRegistry.class));
     }
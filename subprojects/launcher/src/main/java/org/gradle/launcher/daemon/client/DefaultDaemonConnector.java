@@ -19,6 +19,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.internal.specs.ExplainingSpec;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.Stoppable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
@@ -32,13 +33,17 @@ import java.util.List;
 
 /**
  * Provides the mechanics of connecting to a daemon, starting one via a given runnable if no suitable daemons are already available.
+ *
+ * <p>When a spare daemon is being started, {@link #stop()} waits for it to detach. The spare daemon process is killed if this process exits before then.
  */
-public class DefaultDaemonConnector implements DaemonConnector {
+public class DefaultDaemonConnector implements DaemonConnector, Stoppable {
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonConnector.class);
     public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
     private final DaemonRegistry daemonRegistry;
     private final OutgoingConnector<Object> connector;
     private final DaemonStarter daemonStarter;
+    private DaemonStarter spareDaemonStarter;
+    private Thread spareDaemonThread;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
     public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector<Object> connector, DaemonStarter daemonStarter) {
@@ -59,17 +64,74 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return daemonRegistry;
     }
 
+    /**
+     * Sets the starter to use to start a spare daemon, when connecting leaves no other compatible idle daemon. A spare daemon is started in
+     * the background and advertises itself as idle, so that the next build can use it straight away. Null means no spare daemon is started.
+     */
+    public void setSpareDaemonStarter(DaemonStarter spareDaemonStarter) {
+        this.spareDaemonStarter = spareDaemonStarter;
+    }
+
     public DaemonConnection maybeConnect(ExplainingSpec<DaemonContext> constraint) {
         return findConnection(daemonRegistry.getAll(), constraint);
     }
 
     public DaemonConnection connect(ExplainingSpec<DaemonContext> constraint) {
         DaemonConnection connection = findConnection(daemonRegistry.getIdle(), constraint);
-        if (connection != null) {
-            return connection;
+        if (connection == null) {
+            connection = createConnection(constraint);
+        }
+        maybeStartSpareDaemon(connection, constraint);
+        return connection;
+    }
+
+    private void maybeStartSpareDaemon(DaemonConnection connection, ExplainingSpec<DaemonContext> constraint) {
+        if (spareDaemonStarter == null) {
+            return;
+        }
+        for (DaemonInfo daemonInfo : daemonRegistry.getIdle()) {
+            if (!daemonInfo.getContext().getUid().equals(connection.getUid()) && constraint.isSatisfiedBy(daemonInfo.getContext())) {
+                return;
+            }
+        }
+        if (spareDaemonThread != null && spareDaemonThread.isAlive()) {
+            return;
         }
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    LOGGER.info("Starting spare Gradle daemon");
+                    DaemonStartupInfo startupInfo = spareDaemonStarter.startDaemon();
+                    LOGGER.debug("Started spare Gradle daemon: {}", startupInfo);
+                } catch (RuntimeException e) {
+                    LOGGER.info("Could not start spare Gradle daemon.", e);
+                }
+            }
+        }, "Start spare Gradle daemon");
+        // Until the daemon process detaches itself, it is killed when this process exits. The client waits for it in stop()
+        thread.setDaemon(true);
+        thread.start();
+        spareDaemonThread = thread;
+    }
 
-        return createConnection(constraint);
+    /**
+     * Waits for any spare daemon that is being started to detach from this process, for at most the connect timeout.
+     */
+    public void stop() {
+        Thread thread = spareDaemonThread;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(connectTimeout);
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        if (thread.isAlive()) {
+            LOGGER.info("Timeout waiting for spare Gradle daemon to start.");
+        } else {
+            spareDaemonThread = null;
+        }
     }
 
     private DaemonConnection findConnection(List<DaemonInfo> daemonInfos, ExplainingSpec<DaemonContext> constraint) {
@@ -100,18 +162,26 @@ public class DefaultDaemonConnector implements DaemonConnector {
         LOGGER.info("Starting Gradle daemon");
         final DaemonStartupInfo startupInfo = daemonStarter.startDaemon();
         LOGGER.debug("Started Gradle Daemon: {}", startupInfo);
+        if (startupInfo.getDaemonInfo() != null) {
+            // The daemon has told us where to find it, so there is no need to look for it in the registry
+            return connectToStartedDaemon(startupInfo.getDaemonInfo(), startupInfo, constraint);
+        }
+
         long expiry = System.currentTimeMillis() + connectTimeout;
-        do {
+        while (true) {
+            DaemonConnection daemonConnection = connectToDaemonWithId(startupInfo, constraint);
+            if (daemonConnection != null) {
+                return daemonConnection;
+            }
+            if (System.currentTimeMillis() >= expiry) {
+                break;
+            }
             try {
                 Thread.sleep(200L);
             } catch (InterruptedException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
-            DaemonConnection daemonConnection = connectToDaemonWithId(startupInfo, constraint);
-            if (daemonConnection != null) {
-                return daemonConnection;
-            }
-        } while (System.currentTimeMillis() < expiry);
+        }
 
         throw new GradleException("Timeout waiting to connect to Gradle daemon.\n" + startupInfo.describe());
     }
@@ -120,25 +190,29 @@ public class DefaultDaemonConnector implements DaemonConnector {
         // Look for 'our' daemon among the busy daemons - a daemon will start in busy state so that nobody else will grab it.
         for (DaemonInfo daemonInfo : daemonRegistry.getBusy()) {
             if (daemonInfo.getContext().getUid().equals(startupInfo.getUid())) {
-                try {
-                    if (!constraint.isSatisfiedBy(daemonInfo.getContext())) {
-                        throw new GradleException("The newly created daemon process has a different context than expected."
-                                + "\nIt won't be possible to reconnect to this daemon. Context mismatch: "
-                                + "\n" + constraint.whyUnsatisfied(daemonInfo.getContext()));
-                    }
-                    return connectToDaemon(daemonInfo, startupInfo.getDiagnostics());
-                } catch (ConnectException e) {
-                    // this means the daemon died without removing its address from the registry
-                    // since we have never successfully connected we assume the daemon is dead and remove this address now
-                    daemonRegistry.remove(daemonInfo.getAddress());
-                    throw new GradleException("The forked daemon process died before we could connect.\n" + startupInfo.describe());
-                    //TODO SF after the refactorings add some coverage for visibility of the daemon tail.
-                }
+                return connectToStartedDaemon(daemonInfo, startupInfo, constraint);
             }
         }
         return null;
     }
 
+    private DaemonConnection connectToStartedDaemon(DaemonInfo daemonInfo, DaemonStartupInfo startupInfo, ExplainingSpec<DaemonContext> constraint) {
+        try {
+            if (!constraint.isSatisfiedBy(daemonInfo.getContext())) {
+                throw new GradleException("The newly created daemon process has a different context than expected."
+                        + "\nIt won't be possible to reconnect to this daemon. Context mismatch: "
+                        + "\n" + constraint.whyUnsatisfied(daemonInfo.getContext()));
+            }
+            return connectToDaemon(daemonInfo, startupInfo.getDiagnostics());
+        } catch (ConnectException e) {
+            // this means the daemon died without removing its address from the registry
+            // since we have never successfully connected we assume the daemon is dead and remove this address now
+            daemonRegistry.remove(daemonInfo.getAddress());
+            throw new GradleException("The forked daemon process died before we could connect.\n" + startupInfo.describe());
+            //TODO SF after the refactorings add some coverage for visibility of the daemon tail.
+        }
+    }
+
     private DaemonConnection connectToDaemon(DaemonInfo daemonInfo, DaemonDiagnostics diagnostics) {
         return new DaemonConnection(daemonInfo.getContext().getUid(), connector.connect(daemonInfo.getAddress()), daemonInfo.getPassword(), diagnostics);
     }
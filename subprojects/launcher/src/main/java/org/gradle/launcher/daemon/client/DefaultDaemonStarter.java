@@ -21,12 +21,14 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.launcher.daemon.DaemonExecHandleBuilder;
 import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
+import org.gradle.launcher.daemon.bootstrap.DaemonMain;
 import org.gradle.launcher.daemon.bootstrap.DaemonOutputConsumer;
 import org.gradle.launcher.daemon.bootstrap.GradleDaemon;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.process.ExecResult;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.util.Clock;
@@ -38,6 +40,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 public class DefaultDaemonStarter implements DaemonStarter {
 
@@ -46,11 +49,20 @@ public class DefaultDaemonStarter implements DaemonStarter {
     private final DaemonDir daemonDir;
     private final DaemonParameters daemonParameters;
     private DaemonGreeter daemonGreeter;
+    private final boolean spare;
 
     public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter) {
+        this(daemonDir, daemonParameters, daemonGreeter, false);
+    }
+
+    /**
+     * @param spare when true, starts daemons which advertise themselves as idle once started, for use by later builds.
+     */
+    public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, boolean spare) {
         this.daemonDir = daemonDir;
         this.daemonParameters = daemonParameters;
         this.daemonGreeter = daemonGreeter;
+        this.spare = spare;
     }
 
     public DaemonStartupInfo startDaemon() {
@@ -71,6 +83,10 @@ public class DefaultDaemonStarter implements DaemonStarter {
         List<String> daemonOpts = daemonParameters.getEffectiveJvmArgs();
         LOGGER.debug("Using daemon opts: {}", daemonOpts);
         daemonArgs.addAll(daemonOpts);
+        if (spare) {
+            // Not included in the startup opts below, so the daemon is still compatible with builds using these parameters
+            daemonArgs.add("-D" + DaemonMain.SPARE_DAEMON_SYS_PROPERTY + "=true");
+        }
         //Useful for debugging purposes - simply uncomment and connect to debug
 //        daemonArgs.add("-Xdebug");
 //        daemonArgs.add("-Xrunjdwp:transport=dt_socket,server=y,suspend=y,address=5006");
@@ -80,18 +96,17 @@ public class DefaultDaemonStarter implements DaemonStarter {
         daemonArgs.add(GradleVersion.current().getVersion());
         daemonArgs.add(daemonDir.getBaseDir().getAbsolutePath());
         daemonArgs.add(String.valueOf(daemonParameters.getIdleTimeout()));
-        daemonArgs.add(daemonParameters.getUid());
+        String uid = spare ? UUID.randomUUID().toString() : daemonParameters.getUid();
+        daemonArgs.add(uid);
 
         //all remaining arguments are daemon startup jvm opts.
         //we need to pass them as *program* arguments to avoid problems with getInputArguments().
         daemonArgs.addAll(daemonOpts);
 
-        DaemonDiagnostics diagnostics = startProcess(daemonArgs, daemonDir.getVersionedDir());
-
-        return new DaemonStartupInfo(daemonParameters.getUid(), diagnostics);
+        return startProcess(uid, daemonArgs, daemonDir.getVersionedDir());
     }
 
-    private DaemonDiagnostics startProcess(final List<String> args, final File workingDir) {
+    private DaemonStartupInfo startProcess(final String uid, final List<String> args, final File workingDir) {
         LOGGER.info("Starting daemon process: workingDir = {}, daemonArgs: {}", workingDir, args);
         Clock clock = new Clock();
         try {
@@ -105,7 +120,10 @@ public class DefaultDaemonStarter implements DaemonStarter {
             ExecResult result = handle.waitForFinish();
             LOGGER.debug("Gradle daemon process is now detached.");
 
-            return daemonGreeter.parseDaemonOutput(outputConsumer.getProcessOutput(), result);
+            String output = outputConsumer.getProcessOutput();
+            DaemonDiagnostics diagnostics = daemonGreeter.parseDaemonOutput(output, result);
+            DaemonInfo daemonInfo = daemonGreeter.parseDaemonInfo(output);
+            return new DaemonStartupInfo(uid, diagnostics, daemonInfo);
         } catch (GradleException e) {
             throw e;
         } catch (Exception e) {
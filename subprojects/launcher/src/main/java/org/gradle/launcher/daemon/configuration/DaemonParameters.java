@@ -42,6 +42,7 @@ public class DaemonParameters {
     public static final String JVM_ARGS_SYS_PROPERTY = "org.gradle.jvmargs";
     public static final String JAVA_HOME_SYS_PROPERTY = "org.gradle.java.home";
     public static final String DAEMON_SYS_PROPERTY = "org.gradle.daemon";
+    public static final String SPARE_DAEMON_SYS_PROPERTY = "org.gradle.daemon.spare";
     static final int DEFAULT_IDLE_TIMEOUT = 3 * 60 * 60 * 1000;
     private final String uid;
     private File baseDir = new File(StartParameter.DEFAULT_GRADLE_USER_HOME, "daemon");
@@ -49,6 +50,7 @@ public class DaemonParameters {
     private final JvmOptions jvmOptions = new JvmOptions(new IdentityFileResolver());
     private boolean usingDefaultJvmArgs = true;
     private boolean enabled;
+    private boolean spareDaemonEnabled;
     private File javaHome;
 
     public DaemonParameters(String uid) {
@@ -68,6 +70,17 @@ public class DaemonParameters {
         return enabled;
     }
 
+    /**
+     * Returns true when an idle daemon should be kept ready for the next build, so that the next build does not have to wait for a daemon to start.
+     */
+    public boolean isSpareDaemonEnabled() {
+        return spareDaemonEnabled;
+    }
+
+    public void setSpareDaemonEnabled(boolean spareDaemonEnabled) {
+        this.spareDaemonEnabled = spareDaemonEnabled;
+    }
+
     public String getUid() {
         return uid;
     }
@@ -192,6 +205,10 @@ public class DaemonParameters {
         if (propertyValue != null) {
             enabled = propertyValue.toString().equalsIgnoreCase("true");
         }
+        propertyValue = properties.get(SPARE_DAEMON_SYS_PROPERTY);
+        if (propertyValue != null) {
+            spareDaemonEnabled = propertyValue.toString().equalsIgnoreCase("true");
+        }
 
         propertyValue = properties.get(JAVA_HOME_SYS_PROPERTY);
         if (propertyValue != null) {
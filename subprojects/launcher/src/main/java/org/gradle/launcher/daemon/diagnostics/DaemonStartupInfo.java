@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.diagnostics;
 
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+
 /**
  * by Szczepan Faber, created at 4/6/12
  */
@@ -23,10 +25,16 @@ public class DaemonStartupInfo {
 
     private String uid;
     private DaemonDiagnostics diagnostics;
+    private DaemonInfo daemonInfo;
 
     public DaemonStartupInfo(String uid, DaemonDiagnostics diagnostics) {
+        this(uid, diagnostics, null);
+    }
+
+    public DaemonStartupInfo(String uid, DaemonDiagnostics diagnostics, DaemonInfo daemonInfo) {
         this.uid = uid;
         this.diagnostics = diagnostics;
+        this.daemonInfo = daemonInfo;
     }
 
     public String getUid() {
@@ -40,6 +48,13 @@ public class DaemonStartupInfo {
         return diagnostics;
     }
 
+    /**
+     * @return the registry entry of the daemon. Can be null, this means the daemon has to be looked up in the registry.
+     */
+    public DaemonInfo getDaemonInfo() {
+        return daemonInfo;
+    }
+
     @Override
     public String toString() {
         return "{"
@@ -79,6 +79,10 @@ public class Daemon implements Stoppable {
         return connectorAddress;
     }
 
+    public String getPassword() {
+        return password;
+    }
+
     /**
      * Starts the daemon, receiving connections asynchronously (i.e. returns immediately).
      * 
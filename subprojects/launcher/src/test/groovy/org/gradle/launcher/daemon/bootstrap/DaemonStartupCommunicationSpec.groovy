@@ -16,6 +16,9 @@
 
 package org.gradle.launcher.daemon.bootstrap
 
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.messaging.remote.internal.inet.SocketInetAddress
 import spock.lang.Specification
 
 /**
@@ -51,6 +54,31 @@ class DaemonStartupCommunicationSpec extends Specification {
         diagnostics.daemonLog == dummyFile
     }
 
+    def "can communicate daemon registry entry"() {
+        given:
+        def address = new SocketInetAddress(InetAddress.getByName(null), 1234)
+        def context = new DefaultDaemonContext("uid", new File("java-home"), new File("registry"), 123, 1000, ["-Xmx1g"])
+
+        when:
+        def message = comm.daemonStartedMessage(123, new File("daemon-123.log"), new DaemonInfo(address, context, "password", false))
+        def diagnostics = comm.readDiagnostics(message)
+        def daemonInfo = comm.readDaemonInfo(message)
+
+        then:
+        diagnostics.pid == 123
+        diagnostics.daemonLog == new File("daemon-123.log")
+        daemonInfo.address == address
+        daemonInfo.context.uid == "uid"
+        daemonInfo.context.daemonOpts == ["-Xmx1g"]
+        daemonInfo.password == "password"
+        !daemonInfo.idle
+    }
+
+    def "message without registry entry is supported"() {
+        expect:
+        comm.readDaemonInfo(comm.daemonStartedMessage(123, new File("daemon-123.log"))) == null
+    }
+
     def "knows if a message contains a greeting"() {
         expect:
         !comm.containsGreeting("foo")
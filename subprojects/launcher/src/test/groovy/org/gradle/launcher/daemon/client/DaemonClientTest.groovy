@@ -16,6 +16,7 @@
 package org.gradle.launcher.daemon.client
 
 import org.gradle.initialization.GradleLauncherAction
+import org.gradle.internal.Stoppable
 import org.gradle.internal.id.IdGenerator
 import org.gradle.launcher.daemon.context.DaemonCompatibilitySpec
 import org.gradle.launcher.exec.BuildActionParameters
@@ -81,6 +82,20 @@ class DaemonClientTest extends ConcurrentSpecification {
         1 * connection.stop()
     }
 
+    def "stops the connector once the build has finished"() {
+        StoppableDaemonConnector connector = Mock()
+        def client = new DaemonClient(connector, outputEventListener, compatibilitySpec, new ByteArrayInputStream(new byte[0]), executorFactory, idGenerator)
+
+        when:
+        client.execute(Mock(GradleLauncherAction), Mock(BuildActionParameters))
+
+        then:
+        1 * connector.connect(compatibilitySpec) >> daemonConnection
+        2 * connection.receive() >>> [Mock(BuildStarted), new Success('[result]')]
+        1 * connection.stop()
+        1 * connector.stop()
+    }
+
     def rethrowsFailureToExecuteAction() {
         GradleLauncherAction<String> action = Mock()
         BuildActionParameters parameters = Mock()
@@ -138,4 +153,7 @@ class DaemonClientTest extends ConcurrentSpecification {
         then:
         thrown(NoUsableDaemonFoundException)
     }
+
+    interface StoppableDaemonConnector extends DaemonConnector, Stoppable {
+    }
 }
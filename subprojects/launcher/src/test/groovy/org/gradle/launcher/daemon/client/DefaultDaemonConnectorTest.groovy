@@ -21,12 +21,15 @@ import org.gradle.api.internal.specs.ExplainingSpecs
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.context.DefaultDaemonContext
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
+import org.gradle.launcher.daemon.registry.DaemonInfo
 import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
 import org.gradle.messaging.remote.Address
 import org.gradle.messaging.remote.internal.Connection
 import org.gradle.messaging.remote.internal.OutgoingConnector
 import spock.lang.Specification
 
+import static org.gradle.tests.fixtures.ConcurrentTestUtil.poll
+
 class DefaultDaemonConnectorTest extends Specification {
 
     def javaHome = new File("tmp")
@@ -71,6 +74,13 @@ class DefaultDaemonConnectorTest extends Specification {
         return new DaemonStartupInfo(daemonNum.toString(), null);
     }
 
+    def startUnregisteredDaemon() {
+        def daemonNum = daemonCounter++
+        DaemonContext context = new DefaultDaemonContext(daemonNum.toString(), javaHome, javaHome, daemonNum, 1000, [])
+        def daemonInfo = new DaemonInfo(createAddress(daemonNum), context, "password", false)
+        return new DaemonStartupInfo(daemonNum.toString(), null, daemonInfo)
+    }
+
     def startIdleDaemon() {
         def daemonNum = daemonCounter++
         DaemonContext context = new DefaultDaemonContext(daemonNum.toString(), javaHome, javaHome, daemonNum, 1000, [])
@@ -174,4 +184,69 @@ class DefaultDaemonConnectorTest extends Specification {
         then:
         thrown(GradleException)
     }
-}
\ No newline at end of file
+
+    def "connect() uses the address reported by a newly started daemon"() {
+        given:
+        def connector = new DefaultDaemonConnector(new EmbeddedDaemonRegistry(), createOutgoingConnector(), { startUnregisteredDaemon() } as DaemonStarter)
+
+        when:
+        def connection = connector.connect({true} as ExplainingSpec)
+
+        then:
+        connection.connection.num == 0
+        connection.uid == "0"
+        connection.password == "password"
+    }
+
+    def "connect() will fail early if daemon reported by newly started daemon fails the compatibility spec"() {
+        given:
+        def connector = new DefaultDaemonConnector(new EmbeddedDaemonRegistry(), createOutgoingConnector(), { startUnregisteredDaemon() } as DaemonStarter)
+
+        when:
+        connector.connect(ExplainingSpecs.satisfyNone())
+
+        then:
+        thrown(GradleException)
+    }
+
+    def "connect() starts a spare daemon when no other compatible daemon is idle"() {
+        given:
+        def spareStarted = false
+        connector.spareDaemonStarter = { spareStarted = true; startIdleDaemon() } as DaemonStarter
+        startIdleDaemon()
+
+        when:
+        connector.connect({true} as ExplainingSpec)
+
+        then:
+        poll { assert spareStarted }
+    }
+
+    def "stop() waits for the spare daemon to start"() {
+        given:
+        def spareStarted = false
+        connector.spareDaemonStarter = { Thread.sleep(200); spareStarted = true; startIdleDaemon() } as DaemonStarter
+        startIdleDaemon()
+        connector.connect({true} as ExplainingSpec)
+
+        when:
+        connector.stop()
+
+        then:
+        spareStarted
+    }
+
+    def "connect() does not start a spare daemon when another compatible daemon is idle"() {
+        given:
+        def spareStarter = Mock(DaemonStarter)
+        connector.spareDaemonStarter = spareStarter
+        startIdleDaemon()
+        startIdleDaemon()
+
+        when:
+        connector.connect({true} as ExplainingSpec)
+
+        then:
+        0 * spareStarter._
+    }
+}
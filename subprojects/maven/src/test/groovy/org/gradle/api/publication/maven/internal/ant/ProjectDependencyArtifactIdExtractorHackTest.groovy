@@ -18,6 +18,7 @@ package org.gradle.api.publication.maven.internal.ant
 
 import org.gradle.util.HelperUtil
 import org.gradle.api.internal.artifacts.dependencies.DefaultProjectDependency
+import org.gradle.api.internal.project.NoOpProjectAccessListener
 import org.gradle.api.plugins.BasePlugin
 import org.gradle.api.plugins.MavenPlugin
 
@@ -27,7 +28,7 @@ import spock.lang.Issue
 @Issue("GRADLE-443")
 class ProjectDependencyArtifactIdExtractorHackTest extends Specification {
     def project = HelperUtil.createRootProject()
-    def extractor = new ProjectDependencyArtifactIdExtractorHack(new DefaultProjectDependency(project, null))
+    def extractor = new ProjectDependencyArtifactIdExtractorHack(new DefaultProjectDependency(project, new NoOpProjectAccessListener(), null))
 
     def "artifact ID defaults to project name if neither archivesBaseName nor mavenDeployer.pom.artifactId is configured"() {
         expect:
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal;
+
+import org.gradle.messaging.remote.internal.protocol.MessageBatch;
+import org.gradle.messaging.remote.internal.protocol.RemoteMethodInvocation;
+import org.gradle.messaging.remote.internal.protocol.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups outgoing method invocations into batches, which are sent as a single message, and unpacks incoming batches.
+ *
+ * <p>A batch is sent when it contains the maximum number of messages, or when the maximum delay has passed since the first message was
+ * added to it. Any other outgoing message, such as an end of stream or a protocol message which the peer is waiting for, causes the
+ * current batch to be sent first, so that the ordering of messages is preserved. Batching is disabled when the maximum delay is 0, but
+ * incoming batches are still unpacked.</p>
+ */
+public class BatchingProtocol implements Protocol<Message> {
+    private final int maxDelayMillis;
+    private final int maxBatchSize;
+    private final List<Message> batch = new ArrayList<Message>();
+    private ProtocolContext<Message> context;
+    private ProtocolContext.Callback flushCallback;
+
+    public BatchingProtocol(int maxDelayMillis, int maxBatchSize) {
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void start(ProtocolContext<Message> context) {
+        this.context = context;
+    }
+
+    public void handleIncoming(Message message) {
+        if (message instanceof MessageBatch) {
+            for (Message nested : ((MessageBatch) message).getMessages()) {
+                context.dispatchIncoming(nested);
+            }
+        } else {
+            context.dispatchIncoming(message);
+        }
+    }
+
+    public void handleOutgoing(Message message) {
+        if (maxDelayMillis <= 0 || !isBatchable(message)) {
+            flush();
+            context.dispatchOutgoing(message);
+            return;
+        }
+
+        batch.add(message);
+        if (batch.size() >= maxBatchSize) {
+            flush();
+        } else if (flushCallback == null) {
+            flushCallback = context.callbackLater(maxDelayMillis, TimeUnit.MILLISECONDS, new Runnable() {
+                public void run() {
+                    flushCallback = null;
+                    flush();
+                }
+            });
+        }
+    }
+
+    private boolean isBatchable(Message message) {
+        return message instanceof Request && ((Request) message).getNestedPayload() instanceof RemoteMethodInvocation;
+    }
+
+    private void flush() {
+        if (flushCallback != null) {
+            flushCallback.cancel();
+            flushCallback = null;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            context.dispatchOutgoing(batch.get(0));
+        } else {
+            context.dispatchOutgoing(new MessageBatch(new ArrayList<Message>(batch)));
+        }
+        batch.clear();
+    }
+
+    public void stopRequested() {
+        flush();
+    }
+}
@@ -16,10 +16,16 @@
 package org.gradle.messaging.remote.internal;
 
 import org.gradle.messaging.remote.internal.inet.InetEndpoint;
+import org.gradle.messaging.serialize.ObjectReader;
+import org.gradle.messaging.serialize.ObjectWriter;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 
+/**
+ * Serializes messages using a binary encoding for the messaging protocol types, falling back to Java serialization for other objects.
+ * See {@link MessageObjectOutputStream} for details.
+ */
 public class DefaultMessageSerializer<T> implements MessageSerializer<T> {
     private final ClassLoader classLoader;
 
@@ -27,11 +33,30 @@ public class DefaultMessageSerializer<T> implements MessageSerializer<T> {
         this.classLoader = classLoader;
     }
 
-    public T read(DataInputStream inputStream, InetEndpoint localAddress, InetEndpoint remoteAddress) throws Exception {
-        return (T) Message.receive(inputStream, classLoader);
+    public ObjectReader<T> newReader(final DataInputStream inputStream, InetEndpoint localAddress, InetEndpoint remoteAddress) {
+        return new ObjectReader<T>() {
+            private MessageObjectInputStream objectInputStream;
+
+            public T read() throws Exception {
+                if (objectInputStream == null) {
+                    // Create lazily, as the stream header is read when the stream is created
+                    objectInputStream = new MessageObjectInputStream(inputStream, classLoader);
+                }
+                return (T) objectInputStream.readMessage();
+            }
+        };
     }
 
-    public void write(T message, DataOutputStream outputStream) throws Exception {
-        Message.send(message, outputStream);
+    public ObjectWriter<T> newWriter(final DataOutputStream outputStream) {
+        return new ObjectWriter<T>() {
+            private MessageObjectOutputStream objectOutputStream;
+
+            public void write(T message) throws Exception {
+                if (objectOutputStream == null) {
+                    objectOutputStream = new MessageObjectOutputStream(outputStream);
+                }
+                objectOutputStream.writeMessage(message);
+            }
+        };
     }
 }
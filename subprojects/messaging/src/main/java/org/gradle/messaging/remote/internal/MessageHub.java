@@ -32,6 +32,12 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class MessageHub implements AsyncStoppable {
+    /**
+     * The maximum time, in milliseconds, to hold back outgoing method invocations so that they can be sent to a remote peer in a single
+     * batch. Batching is disabled by default. Worker processes started by a process use the same value as that process.
+     */
+    public static final String BATCH_DELAY_PROPERTY = "org.gradle.messaging.batchdelay";
+    private static final int MAX_BATCH_SIZE = 200;
     private final Lock lock = new ReentrantLock();
     private final CompositeStoppable executors = CompositeStoppable.stoppable();
     private final CompositeStoppable connections = CompositeStoppable.stoppable();
@@ -47,6 +53,7 @@ public class MessageHub implements AsyncStoppable {
     private final IdGenerator<UUID> idGenerator;
     private final ClassLoader messagingClassLoader;
     private final StoppableExecutor incomingExecutor;
+    private final int batchDelayMillis = Integer.getInteger(BATCH_DELAY_PROPERTY, 0);
 
     public MessageHub(String displayName, String nodeName, ExecutorFactory executorFactory, IdGenerator<UUID> idGenerator, ClassLoader messagingClassLoader) {
         this.displayName = displayName;
@@ -70,7 +77,8 @@ public class MessageHub implements AsyncStoppable {
         lock.lock();
         try {
             Connection<Message> wrapper = new EndOfStreamConnection(connection);
-            AsyncConnectionAdapter<Message> asyncConnection = new AsyncConnectionAdapter<Message>(wrapper, failureHandler, executorFactory, new RemoteDisconnectProtocol());
+            AsyncConnectionAdapter<Message> asyncConnection = new AsyncConnectionAdapter<Message>(wrapper, failureHandler, executorFactory,
+                    new RemoteDisconnectProtocol(), new BatchingProtocol(batchDelayMillis, MAX_BATCH_SIZE));
             connections.add(asyncConnection);
 
             AsyncConnection<Message> incomingEndpoint = router.createRemoteConnection();
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal;
+
+import org.gradle.messaging.remote.internal.protocol.MessageBatch;
+import org.gradle.messaging.remote.internal.protocol.MessageCredits;
+import org.gradle.messaging.remote.internal.protocol.RemoteMethodInvocation;
+import org.gradle.messaging.remote.internal.protocol.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.gradle.messaging.remote.internal.MessageObjectOutputStream.*;
+
+/**
+ * Reads the messages written by a {@link MessageObjectOutputStream}.
+ */
+class MessageObjectInputStream extends Message.ExceptionReplacingObjectInputStream {
+    private final List<ObjectStreamClass> classes = new ArrayList<ObjectStreamClass>();
+    private final List<String> strings = new ArrayList<String>();
+
+    public MessageObjectInputStream(InputStream inputStream, ClassLoader classLoader) throws IOException {
+        super(inputStream, classLoader);
+    }
+
+    public Object readMessage() throws IOException, ClassNotFoundException {
+        return readValue();
+    }
+
+    private Object readValue() throws IOException, ClassNotFoundException {
+        byte tag = readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case OBJECT:
+                return readObject();
+            case STRING:
+                return readUTF();
+            case NEW_STRING:
+                String value = readUTF();
+                strings.add(value);
+                return value;
+            case STRING_REFERENCE:
+                return strings.get(readIndex(strings.size()));
+            case INTEGER:
+                return readInt();
+            case LONG:
+                return readLong();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case UUID_VALUE:
+                return new UUID(readLong(), readLong());
+            case OBJECT_ARRAY:
+                Object[] array = new Object[readInt()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readValue();
+                }
+                return array;
+            case REQUEST:
+                Object destination = readValue();
+                return new Request(destination, readValue());
+            case REMOTE_METHOD_INVOCATION:
+                Object key = readValue();
+                return new RemoteMethodInvocation(key, (Object[]) readValue());
+            case MESSAGE_CREDITS:
+                return new MessageCredits(readInt());
+            case MESSAGE_BATCH:
+                int count = readInt();
+                List<Message> messages = new ArrayList<Message>(count);
+                for (int i = 0; i < count; i++) {
+                    messages.add((Message) readValue());
+                }
+                return new MessageBatch(messages);
+            default:
+                throw new StreamCorruptedException(String.format("Unexpected message value type %s.", tag));
+        }
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+        byte tag = readByte();
+        switch (tag) {
+            case NEW_CLASS:
+                ObjectStreamClass desc = super.readClassDescriptor();
+                classes.add(desc);
+                return desc;
+            case CLASS_REFERENCE:
+                return classes.get(readIndex(classes.size()));
+            default:
+                throw new StreamCorruptedException(String.format("Unexpected class descriptor type %s.", tag));
+        }
+    }
+
+    private int readIndex(int size) throws IOException {
+        int index = readInt();
+        if (index < 0 || index >= size) {
+            throw new StreamCorruptedException(String.format("Unexpected table index %s.", index));
+        }
+        return index;
+    }
+}
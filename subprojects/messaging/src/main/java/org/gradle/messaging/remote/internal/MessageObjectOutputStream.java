@@ -0,0 +1,164 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal;
+
+import org.gradle.messaging.remote.internal.protocol.MessageBatch;
+import org.gradle.messaging.remote.internal.protocol.MessageCredits;
+import org.gradle.messaging.remote.internal.protocol.RemoteMethodInvocation;
+import org.gradle.messaging.remote.internal.protocol.Request;
+
+import java.io.IOException;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes the messages of a single connection, for reading by a {@link MessageObjectInputStream}. The stream is kept open for the
+ * lifetime of the connection.
+ *
+ * <p>The messaging protocol types and common values are written using a compact binary encoding. Short strings are written once and
+ * then referred to by their index in a string table. All other objects are written using Java serialization, where each class
+ * descriptor is written once and then referred to by its index in a class table. Both tables are kept for the lifetime of the
+ * connection, whereas object references are discarded after each message.</p>
+ */
+class MessageObjectOutputStream extends Message.ExceptionReplacingObjectOutputStream {
+    static final byte NULL = 0;
+    static final byte OBJECT = 1;
+    static final byte STRING = 2;
+    static final byte NEW_STRING = 3;
+    static final byte STRING_REFERENCE = 4;
+    static final byte INTEGER = 5;
+    static final byte LONG = 6;
+    static final byte TRUE = 7;
+    static final byte FALSE = 8;
+    static final byte UUID_VALUE = 9;
+    static final byte OBJECT_ARRAY = 10;
+    static final byte REQUEST = 11;
+    static final byte REMOTE_METHOD_INVOCATION = 12;
+    static final byte MESSAGE_CREDITS = 13;
+    static final byte MESSAGE_BATCH = 14;
+
+    static final byte NEW_CLASS = 0;
+    static final byte CLASS_REFERENCE = 1;
+
+    static final int MAX_STRING_TABLE_SIZE = 4096;
+    static final int MAX_TABLE_STRING_LENGTH = 128;
+    // writeUTF() can encode at most 65535 bytes, and each char takes at most 3 bytes
+    private static final int MAX_UTF_STRING_LENGTH = 65535 / 3;
+
+    private final Map<ObjectStreamClass, Integer> classes = new HashMap<ObjectStreamClass, Integer>();
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+    public MessageObjectOutputStream(OutputStream outputStream) throws IOException {
+        super(outputStream);
+    }
+
+    /**
+     * Writes the given message, and then discards all object references, so that the next message does not refer to objects from
+     * this message.
+     */
+    public void writeMessage(Object message) throws IOException {
+        writeValue(message);
+        reset();
+        flush();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writeByte(NULL);
+        } else if (value.getClass() == String.class) {
+            writeString((String) value);
+        } else if (value.getClass() == Integer.class) {
+            writeByte(INTEGER);
+            writeInt((Integer) value);
+        } else if (value.getClass() == Long.class) {
+            writeByte(LONG);
+            writeLong((Long) value);
+        } else if (value.getClass() == Boolean.class) {
+            writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value.getClass() == UUID.class) {
+            UUID uuid = (UUID) value;
+            writeByte(UUID_VALUE);
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        } else if (value.getClass() == Object[].class) {
+            Object[] array = (Object[]) value;
+            writeByte(OBJECT_ARRAY);
+            writeInt(array.length);
+            for (Object element : array) {
+                writeValue(element);
+            }
+        } else if (value.getClass() == Request.class) {
+            Request request = (Request) value;
+            writeByte(REQUEST);
+            writeValue(request.getDestination());
+            writeValue(request.getPayload());
+        } else if (value.getClass() == RemoteMethodInvocation.class) {
+            RemoteMethodInvocation invocation = (RemoteMethodInvocation) value;
+            writeByte(REMOTE_METHOD_INVOCATION);
+            writeValue(invocation.getKey());
+            writeValue(invocation.getArguments());
+        } else if (value.getClass() == MessageCredits.class) {
+            writeByte(MESSAGE_CREDITS);
+            writeInt(((MessageCredits) value).getCredits());
+        } else if (value.getClass() == MessageBatch.class) {
+            List<Message> messages = ((MessageBatch) value).getMessages();
+            writeByte(MESSAGE_BATCH);
+            writeInt(messages.size());
+            for (Message message : messages) {
+                writeValue(message);
+            }
+        } else {
+            writeByte(OBJECT);
+            writeObject(value);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeByte(STRING_REFERENCE);
+            writeInt(index);
+        } else if (value.length() <= MAX_TABLE_STRING_LENGTH && strings.size() < MAX_STRING_TABLE_SIZE) {
+            strings.put(value, strings.size());
+            writeByte(NEW_STRING);
+            writeUTF(value);
+        } else if (value.length() <= MAX_UTF_STRING_LENGTH) {
+            writeByte(STRING);
+            writeUTF(value);
+        } else {
+            writeByte(OBJECT);
+            writeObject(value);
+        }
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+        Integer index = classes.get(desc);
+        if (index != null) {
+            writeByte(CLASS_REFERENCE);
+            writeInt(index);
+            return;
+        }
+        classes.put(desc, classes.size());
+        writeByte(NEW_CLASS);
+        super.writeClassDescriptor(desc);
+    }
+}
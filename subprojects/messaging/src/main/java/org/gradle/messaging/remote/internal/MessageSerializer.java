@@ -16,12 +16,18 @@
 package org.gradle.messaging.remote.internal;
 
 import org.gradle.messaging.remote.internal.inet.InetEndpoint;
+import org.gradle.messaging.serialize.ObjectReader;
+import org.gradle.messaging.serialize.ObjectWriter;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 
+/**
+ * Serializes the messages sent over a connection. A reader and a writer is created for each connection, so implementations can keep
+ * state for the lifetime of the connection.
+ */
 public interface MessageSerializer<T> {
-    T read(DataInputStream inputStream, InetEndpoint localAddress, InetEndpoint remoteAddress) throws Exception;
+    ObjectReader<T> newReader(DataInputStream inputStream, InetEndpoint localAddress, InetEndpoint remoteAddress);
 
-    void write(T message, DataOutputStream outputStream) throws Exception;
+    ObjectWriter<T> newWriter(DataOutputStream outputStream);
 }
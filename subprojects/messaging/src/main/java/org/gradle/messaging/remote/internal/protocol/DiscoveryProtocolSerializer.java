@@ -20,6 +20,8 @@ import org.gradle.messaging.remote.internal.MessageOriginator;
 import org.gradle.messaging.remote.internal.MessageSerializer;
 import org.gradle.messaging.remote.internal.inet.InetEndpoint;
 import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress;
+import org.gradle.messaging.serialize.ObjectReader;
+import org.gradle.messaging.serialize.ObjectWriter;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -35,6 +37,22 @@ public class DiscoveryProtocolSerializer implements MessageSerializer<DiscoveryM
     public static final byte CHANNEL_AVAILABLE = 2;
     public static final byte CHANNEL_UNAVAILABLE = 3;
 
+    public ObjectReader<DiscoveryMessage> newReader(final DataInputStream inputStream, final InetEndpoint localAddress, final InetEndpoint remoteAddress) {
+        return new ObjectReader<DiscoveryMessage>() {
+            public DiscoveryMessage read() throws Exception {
+                return DiscoveryProtocolSerializer.this.read(inputStream, localAddress, remoteAddress);
+            }
+        };
+    }
+
+    public ObjectWriter<DiscoveryMessage> newWriter(final DataOutputStream outputStream) {
+        return new ObjectWriter<DiscoveryMessage>() {
+            public void write(DiscoveryMessage message) throws Exception {
+                DiscoveryProtocolSerializer.this.write(message, outputStream);
+            }
+        };
+    }
+
     public DiscoveryMessage read(DataInputStream inputStream, InetEndpoint localAddress, InetEndpoint remoteAddress) throws Exception {
         byte protocolVersion = inputStream.readByte();
         if (protocolVersion != PROTOCOL_VERSION) {
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.protocol;
+
+import org.gradle.messaging.remote.internal.Message;
+
+import java.util.List;
+
+/**
+ * A sequence of messages which are sent together.
+ */
+public class MessageBatch extends Message {
+    private final List<Message> messages;
+
+    public MessageBatch(List<Message> messages) {
+        this.messages = messages;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o == null || o.getClass() != getClass()) {
+            return false;
+        }
+
+        MessageBatch other = (MessageBatch) o;
+        return messages.equals(other.messages);
+    }
+
+    @Override
+    public int hashCode() {
+        return messages.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[MessageBatch messages: %s]", messages);
+    }
+}
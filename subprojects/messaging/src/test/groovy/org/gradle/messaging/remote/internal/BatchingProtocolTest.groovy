@@ -0,0 +1,166 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal
+
+import org.gradle.messaging.remote.internal.protocol.EndOfStreamEvent
+import org.gradle.messaging.remote.internal.protocol.MessageBatch
+import org.gradle.messaging.remote.internal.protocol.RemoteMethodInvocation
+import org.gradle.messaging.remote.internal.protocol.Request
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class BatchingProtocolTest extends Specification {
+    final ProtocolContext<Message> context = Mock()
+    final ProtocolContext.Callback callback = Mock()
+    final BatchingProtocol protocol = new BatchingProtocol(10, 3)
+
+    def setup() {
+        protocol.start(context)
+    }
+
+    def "dispatches method invocations as a batch when delay has passed"() {
+        def message1 = invocation(1)
+        def message2 = invocation(2)
+        Runnable flush
+
+        when:
+        protocol.handleOutgoing(message1)
+        protocol.handleOutgoing(message2)
+
+        then:
+        1 * context.callbackLater(10, TimeUnit.MILLISECONDS, !null) >> { flush = it[2]; callback }
+        0 * context._
+
+        when:
+        flush.run()
+
+        then:
+        1 * context.dispatchOutgoing(new MessageBatch([message1, message2]))
+        0 * context._
+    }
+
+    def "dispatches batch when it is full"() {
+        def message1 = invocation(1)
+        def message2 = invocation(2)
+        def message3 = invocation(3)
+
+        when:
+        protocol.handleOutgoing(message1)
+        protocol.handleOutgoing(message2)
+        protocol.handleOutgoing(message3)
+
+        then:
+        1 * context.callbackLater(10, TimeUnit.MILLISECONDS, !null) >> callback
+        1 * callback.cancel()
+        1 * context.dispatchOutgoing(new MessageBatch([message1, message2, message3]))
+        0 * context._
+    }
+
+    def "dispatches single message without batch"() {
+        def message = invocation(1)
+        Runnable flush
+
+        when:
+        protocol.handleOutgoing(message)
+
+        then:
+        1 * context.callbackLater(10, TimeUnit.MILLISECONDS, !null) >> { flush = it[2]; callback }
+
+        when:
+        flush.run()
+
+        then:
+        1 * context.dispatchOutgoing(message)
+        0 * context._
+    }
+
+    def "dispatches current batch before other messages"() {
+        def message1 = invocation(1)
+        def message2 = invocation(2)
+        def other = new EndOfStreamEvent()
+
+        when:
+        protocol.handleOutgoing(message1)
+        protocol.handleOutgoing(message2)
+        protocol.handleOutgoing(other)
+
+        then:
+        1 * context.callbackLater(10, TimeUnit.MILLISECONDS, !null) >> callback
+        1 * callback.cancel()
+
+        then:
+        1 * context.dispatchOutgoing(new MessageBatch([message1, message2]))
+
+        then:
+        1 * context.dispatchOutgoing(other)
+        0 * context._
+    }
+
+    def "dispatches current batch when stop requested"() {
+        def message = invocation(1)
+
+        given:
+        context.callbackLater(*_) >> callback
+        protocol.handleOutgoing(message)
+
+        when:
+        protocol.stopRequested()
+
+        then:
+        1 * callback.cancel()
+        1 * context.dispatchOutgoing(message)
+        0 * context._
+    }
+
+    def "dispatches messages immediately when batching disabled"() {
+        def protocol = new BatchingProtocol(0, 3)
+        protocol.start(context)
+        def message = invocation(1)
+
+        when:
+        protocol.handleOutgoing(message)
+
+        then:
+        1 * context.dispatchOutgoing(message)
+        0 * context._
+    }
+
+    def "unpacks incoming batch"() {
+        def message1 = invocation(1)
+        def message2 = invocation(2)
+        def other = new EndOfStreamEvent()
+
+        when:
+        protocol.handleIncoming(new MessageBatch([message1, message2]))
+        protocol.handleIncoming(other)
+
+        then:
+        1 * context.dispatchIncoming(message1)
+
+        then:
+        1 * context.dispatchIncoming(message2)
+
+        then:
+        1 * context.dispatchIncoming(other)
+        0 * context._
+    }
+
+    def invocation(int key) {
+        return new Request('channel', new RemoteMethodInvocation(key, [] as Object[]))
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal
+
+import org.gradle.messaging.remote.internal.protocol.MessageBatch
+import org.gradle.messaging.remote.internal.protocol.MessageCredits
+import org.gradle.messaging.remote.internal.protocol.RemoteMethodInvocation
+import org.gradle.messaging.remote.internal.protocol.Request
+import spock.lang.Specification
+
+class DefaultMessageSerializerTest extends Specification {
+    final DefaultMessageSerializer<Object> serializer = new DefaultMessageSerializer<Object>(getClass().classLoader)
+
+    def "can transport protocol messages and values"() {
+        def uuid = UUID.randomUUID()
+        def messages = [
+                new Request('consumer', new Request(uuid, new RemoteMethodInvocation(12, ['a', 1, 2L, true, false, null] as Object[]))),
+                new MessageCredits(4),
+                new MessageBatch([new Request('consumer', new RemoteMethodInvocation(1, [] as Object[])), new MessageCredits(2)]),
+                'some string',
+                null
+        ]
+
+        expect:
+        transport(messages) == messages
+    }
+
+    def "can transport arbitrary serializable objects"() {
+        def messages = [
+                new TestPayloadMessage(payload: new TestValue(name: 'one')),
+                new TestPayloadMessage(payload: new TestValue(name: 'two')),
+                [1, 2, 3] as int[]
+        ]
+
+        when:
+        def result = transport(messages)
+
+        then:
+        result[0].payload.name == 'one'
+        result[1].payload.name == 'two'
+        result[2] == [1, 2, 3] as int[]
+    }
+
+    def "does not share objects between messages"() {
+        def value = new TestValue(name: 'original')
+        def out = new ByteArrayOutputStream()
+        def writer = serializer.newWriter(new DataOutputStream(out))
+
+        when:
+        writer.write(new TestPayloadMessage(payload: value))
+        value.name = 'changed'
+        writer.write(new TestPayloadMessage(payload: value))
+        def reader = serializer.newReader(new DataInputStream(new ByteArrayInputStream(out.toByteArray())), null, null)
+        def first = reader.read()
+        def second = reader.read()
+
+        then:
+        first.payload.name == 'original'
+        second.payload.name == 'changed'
+        !first.payload.is(second.payload)
+    }
+
+    def "can transport long strings"() {
+        def value = 'a' * 100000
+
+        expect:
+        transport([value]) == [value]
+    }
+
+    def "can transport exceptions"() {
+        def failure = new RuntimeException('broken', new IOException('cause'))
+
+        when:
+        def result = transport([new RemoteMethodInvocation(1, [failure] as Object[])])
+
+        then:
+        def transported = result[0].arguments[0]
+        transported.class == RuntimeException
+        transported.message == 'broken'
+        transported.cause.class == IOException
+        transported.cause.message == 'cause'
+    }
+
+    def "writes class descriptors and strings only once per connection"() {
+        def firstMessage = bytesFor([new TestPayloadMessage(payload: new TestValue(name: 'name'))])
+        def twoMessages = bytesFor([new TestPayloadMessage(payload: new TestValue(name: 'name')), new TestPayloadMessage(payload: new TestValue(name: 'name'))])
+
+        expect:
+        twoMessages - firstMessage < firstMessage / 2
+    }
+
+    def transport(List<?> messages) {
+        def out = new ByteArrayOutputStream()
+        def writer = serializer.newWriter(new DataOutputStream(out))
+        messages.each { writer.write(it) }
+
+        def reader = serializer.newReader(new DataInputStream(new ByteArrayInputStream(out.toByteArray())), null, null)
+        return messages.collect { reader.read() }
+    }
+
+    def bytesFor(List<?> messages) {
+        def out = new ByteArrayOutputStream()
+        def writer = serializer.newWriter(new DataOutputStream(out))
+        messages.each { writer.write(it) }
+        return out.size()
+    }
+
+    static class TestPayloadMessage extends Message {
+        def payload
+    }
+
+    static class TestValue implements Serializable {
+        String name
+    }
+}
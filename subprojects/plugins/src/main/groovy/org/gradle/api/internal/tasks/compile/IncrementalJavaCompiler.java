@@ -16,6 +16,8 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.AntBuilder;
+import org.gradle.api.internal.tasks.compile.incremental.SelectiveJavaCompiler;
+import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.Factory;
 import org.gradle.api.internal.TaskOutputsInternal;
 
@@ -31,6 +33,18 @@ public class IncrementalJavaCompiler extends IncrementalJavaCompilerSupport<Java
         this.taskOutputs = taskOutputs;
     }
 
+    @Override
+    public WorkResult execute(JavaCompileSpec spec) {
+        if (spec.getCompileOptions().isIncremental()) {
+            return new SelectiveJavaCompiler(compiler, new Compiler<JavaCompileSpec>() {
+                public WorkResult execute(JavaCompileSpec spec) {
+                    return IncrementalJavaCompiler.super.execute(spec);
+                }
+            }).execute(spec);
+        }
+        return super.execute(spec);
+    }
+
     @Override
     protected Compiler<JavaCompileSpec> getCompiler() {
         return compiler;
@@ -18,7 +18,8 @@ package org.gradle.api.internal.tasks.compile;
 import org.gradle.api.tasks.WorkResult;
 
 /**
- * A dumb incremental compiler. Deletes stale classes before invoking the actual compiler
+ * A dumb incremental compiler. Deletes stale classes before invoking the actual compiler. See {@link org.gradle.api.internal.tasks.compile.incremental.SelectiveJavaCompiler}
+ * for a compiler which recompiles only the changed source files.
  */
 public abstract class IncrementalJavaCompilerSupport<T extends JavaCompileSpec> implements Compiler<T> {
     public WorkResult execute(T spec) {
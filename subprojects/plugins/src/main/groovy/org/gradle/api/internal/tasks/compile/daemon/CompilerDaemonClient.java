@@ -19,6 +19,7 @@ import org.gradle.api.internal.tasks.compile.CompileSpec;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.internal.Stoppable;
 import org.gradle.internal.UncheckedException;
+import org.gradle.process.internal.WorkerProcess;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.SynchronousQueue;
@@ -26,11 +27,13 @@ import java.util.concurrent.SynchronousQueue;
 public class CompilerDaemonClient implements CompilerDaemon, CompilerDaemonClientProtocol, Stoppable {
     private final DaemonForkOptions forkOptions;
     private final CompilerDaemonServerProtocol server;
+    private final WorkerProcess process;
     private final BlockingQueue<CompileResult> compileResults = new SynchronousQueue<CompileResult>();
 
-    public CompilerDaemonClient(DaemonForkOptions forkOptions, CompilerDaemonServerProtocol server) {
+    public CompilerDaemonClient(DaemonForkOptions forkOptions, CompilerDaemonServerProtocol server, WorkerProcess process) {
         this.forkOptions = forkOptions;
         this.server = server;
+        this.process = process;
     }
 
     public <T extends CompileSpec> CompileResult execute(Compiler<T> compiler, T spec) {
@@ -46,8 +49,12 @@ public class CompilerDaemonClient implements CompilerDaemon, CompilerDaemonClien
         return forkOptions.isCompatibleWith(required);
     }
 
+    /**
+     * Stops the daemon process and waits for it to exit.
+     */
     public void stop() {
         server.stop();
+        process.waitForStop();
     }
 
     public void executed(CompileResult result) {
@@ -15,95 +15,216 @@
  */
 package org.gradle.api.internal.tasks.compile.daemon;
 
-import net.jcip.annotations.NotThreadSafe;
-
-import org.gradle.BuildAdapter;
-import org.gradle.BuildResult;
+import net.jcip.annotations.ThreadSafe;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.compile.CompileSpec;
+import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.internal.jvm.Jvm;
-import org.gradle.process.internal.JavaExecHandleBuilder;
-import org.gradle.process.internal.WorkerProcess;
-import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.internal.Stoppable;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.UncheckedException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
 
 /**
- * Controls the lifecycle of the compiler daemon and provides access to it.
+ * Controls the lifecycle of the compiler daemons and provides access to them.
+ *
+ * <p>Daemons are pooled for the lifetime of this process, so that a build daemon reuses warmed up compilers from one build to the next. A daemon
+ * is reused by any compilation whose fork options it is compatible with. Each daemon runs one compilation at a time, and more daemons are started
+ * when several compilations run at the same time, up to a maximum count. Daemons which have been idle for longer than the idle timeout are
+ * stopped, as is a daemon whose compilation fails with an exception.</p>
  */
-@NotThreadSafe
-public class CompilerDaemonManager implements CompilerDaemonFactory {
+@ThreadSafe
+public class CompilerDaemonManager implements CompilerDaemonFactory, Stoppable {
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
-    private static final CompilerDaemonManager INSTANCE = new CompilerDaemonManager();
-    
-    private volatile CompilerDaemonClient client;
-    private volatile WorkerProcess process;
-    
+    private static final CompilerDaemonManager INSTANCE = new CompilerDaemonManager(new CompilerDaemonStarter(), Runtime.getRuntime().availableProcessors(), 3 * 60 * 1000, new TrueTimeProvider());
+
+    private final CompilerDaemonStarter starter;
+    private final int maxDaemons;
+    private final long idleTimeoutMillis;
+    private final TimeProvider timeProvider;
+    private final List<PooledDaemon> daemons = new ArrayList<PooledDaemon>();
+    private final List<PooledDaemon> idleDaemons = new ArrayList<PooledDaemon>();
+    private int starting;
+    private Timer evictionTimer;
+
     public static CompilerDaemonManager getInstance() {
         return INSTANCE;
     }
-    
-    public CompilerDaemon getDaemon(ProjectInternal project, DaemonForkOptions forkOptions) {
-        if (client != null && !client.isCompatibleWith(forkOptions)) {
-            stop();
-        }
-        if (client == null) {
-            startDaemon(project, forkOptions);
-            stopDaemonOnceBuildFinished(project);
-        }
-        return client;
+
+    CompilerDaemonManager(CompilerDaemonStarter starter, int maxDaemons, long idleTimeoutMillis, TimeProvider timeProvider) {
+        this.starter = starter;
+        this.maxDaemons = Math.max(1, maxDaemons);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.timeProvider = timeProvider;
+    }
+
+    public CompilerDaemon getDaemon(final ProjectInternal project, final DaemonForkOptions forkOptions) {
+        return new CompilerDaemon() {
+            public <T extends CompileSpec> CompileResult execute(Compiler<T> compiler, T spec) {
+                PooledDaemon daemon = reserve(project, forkOptions);
+                boolean succeeded = false;
+                try {
+                    CompileResult result = daemon.client.execute(compiler, spec);
+                    succeeded = true;
+                    return result;
+                } finally {
+                    if (succeeded) {
+                        release(daemon);
+                    } else {
+                        // The daemon may be in a bad state, so do not reuse it
+                        discard(daemon);
+                    }
+                }
+            }
+        };
     }
-    
+
+    /**
+     * Stops all idle daemons.
+     */
     public void stop() {
-        if (client == null) {
-            return;
+        List<PooledDaemon> stopped;
+        synchronized (this) {
+            stopped = new ArrayList<PooledDaemon>(idleDaemons);
+            idleDaemons.clear();
+            daemons.removeAll(stopped);
+            if (evictionTimer != null) {
+                evictionTimer.cancel();
+                evictionTimer = null;
+            }
         }
+        stop(stopped);
+    }
 
-        LOGGER.info("Stopping Gradle compiler daemon.");
+    PooledDaemon reserve(ProjectInternal project, DaemonForkOptions forkOptions) {
+        LogLevel logLevel = project.getGradle().getStartParameter().getLogLevel();
+        File workingDir = project.getRootProject().getProjectDir();
+        List<PooledDaemon> evicted = new ArrayList<PooledDaemon>();
+        synchronized (this) {
+            while (true) {
+                for (Iterator<PooledDaemon> iterator = idleDaemons.iterator(); iterator.hasNext();) {
+                    PooledDaemon daemon = iterator.next();
+                    if (daemon.isCompatibleWith(forkOptions, logLevel, workingDir)) {
+                        iterator.remove();
+                        return daemon;
+                    }
+                }
+                if (daemons.size() + starting < maxDaemons) {
+                    break;
+                }
+                if (!idleDaemons.isEmpty()) {
+                    // Make room by stopping the daemon which has been idle the longest
+                    PooledDaemon daemon = idleDaemons.remove(0);
+                    daemons.remove(daemon);
+                    evicted.add(daemon);
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            starting++;
+        }
 
-        client.stop();
-        client = null;
-        process.waitForStop();
-        process = null;
+        stop(evicted);
+        PooledDaemon daemon = null;
+        try {
+            daemon = new PooledDaemon(starter.startDaemon(project, forkOptions), logLevel, workingDir);
+        } finally {
+            synchronized (this) {
+                starting--;
+                if (daemon != null) {
+                    daemons.add(daemon);
+                }
+                notifyAll();
+            }
+        }
+        return daemon;
+    }
 
-        LOGGER.info("Gradle compiler daemon stopped.");
+    synchronized void release(PooledDaemon daemon) {
+        daemon.lastUsed = timeProvider.getCurrentTime();
+        idleDaemons.add(daemon);
+        notifyAll();
+        scheduleEviction();
     }
-    
-    private void startDaemon(ProjectInternal project, DaemonForkOptions forkOptions) {
-        LOGGER.info("Starting Gradle compiler daemon.");
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(forkOptions.toString());
+
+    void discard(PooledDaemon daemon) {
+        synchronized (this) {
+            daemons.remove(daemon);
+            notifyAll();
+        }
+        try {
+            stop(Collections.singletonList(daemon));
+        } catch (RuntimeException e) {
+            LOGGER.info("Could not stop Gradle compiler daemon.", e);
         }
+    }
 
-        WorkerProcessBuilder builder = project.getServices().getFactory(WorkerProcessBuilder.class).create();
-        builder.setLogLevel(project.getGradle().getStartParameter().getLogLevel()); // NOTE: might make sense to respect per-compile-task log level
-        builder.applicationClasspath(forkOptions.getClasspath());
-        builder.sharedPackages(forkOptions.getSharedPackages());
-        File toolsJar = Jvm.current().getToolsJar();
-        if (toolsJar != null) {
-            builder.getApplicationClasspath().add(toolsJar); // for SunJavaCompiler
+    void evictIdleDaemons() {
+        List<PooledDaemon> evicted = new ArrayList<PooledDaemon>();
+        synchronized (this) {
+            long now = timeProvider.getCurrentTime();
+            for (Iterator<PooledDaemon> iterator = idleDaemons.iterator(); iterator.hasNext();) {
+                PooledDaemon daemon = iterator.next();
+                if (now - daemon.lastUsed >= idleTimeoutMillis) {
+                    iterator.remove();
+                    daemons.remove(daemon);
+                    evicted.add(daemon);
+                }
+            }
         }
-        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
-        javaCommand.setMinHeapSize(forkOptions.getMinHeapSize());
-        javaCommand.setMaxHeapSize(forkOptions.getMaxHeapSize());
-        javaCommand.setJvmArgs(forkOptions.getJvmArgs());
-        javaCommand.setWorkingDir(project.getRootProject().getProjectDir());
-        process = builder.worker(new CompilerDaemonServer()).build();
-        process.start();
-        CompilerDaemonServerProtocol server = process.getConnection().addOutgoing(CompilerDaemonServerProtocol.class);
-        client = new CompilerDaemonClient(forkOptions, server);
-        process.getConnection().addIncoming(CompilerDaemonClientProtocol.class, client);
-
-        LOGGER.info("Gradle compiler daemon started.");
+        stop(evicted);
     }
-    
-    private void stopDaemonOnceBuildFinished(ProjectInternal project) {
-        project.getGradle().addBuildListener(new BuildAdapter() {
+
+    private void scheduleEviction() {
+        if (evictionTimer != null) {
+            return;
+        }
+        evictionTimer = new Timer("Compiler daemon eviction", true);
+        long period = Math.max(1000, idleTimeoutMillis / 4);
+        evictionTimer.schedule(new TimerTask() {
             @Override
-            public void buildFinished(BuildResult result) {
-                stop();
+            public void run() {
+                evictIdleDaemons();
             }
-        });
+        }, period, period);
+    }
+
+    private void stop(List<PooledDaemon> daemons) {
+        for (PooledDaemon daemon : daemons) {
+            LOGGER.info("Stopping Gradle compiler daemon.");
+            daemon.client.stop();
+            LOGGER.info("Gradle compiler daemon stopped.");
+        }
+    }
+
+    static class PooledDaemon {
+        final CompilerDaemonClient client;
+        final LogLevel logLevel;
+        final File workingDir;
+        long lastUsed;
+
+        PooledDaemon(CompilerDaemonClient client, LogLevel logLevel, File workingDir) {
+            this.client = client;
+            this.logLevel = logLevel;
+            this.workingDir = workingDir;
+        }
+
+        boolean isCompatibleWith(DaemonForkOptions forkOptions, LogLevel logLevel, File workingDir) {
+            return client.isCompatibleWith(forkOptions) && this.logLevel == logLevel && this.workingDir.equals(workingDir);
+        }
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The dependencies between the classes produced by a compilation, and the source files they were compiled from.
+ */
+public class ClassDependencyAnalysis implements Serializable {
+    private final String settings;
+    private final Map<String, String> sourceHashes;
+    private final Map<String, Set<String>> sourceClasses = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> classDependencies = new HashMap<String, Set<String>>();
+    private final Set<String> classesWithConstants = new HashSet<String>();
+    private boolean complete = true;
+
+    /**
+     * @param settings a description of everything other than the source files which affects the compilation, such as the class path and
+     * compiler options.
+     * @param sourceHashes the hash of each source file, keyed by absolute path.
+     */
+    public ClassDependencyAnalysis(String settings, Map<String, String> sourceHashes) {
+        this.settings = settings;
+        this.sourceHashes = sourceHashes;
+    }
+
+    /**
+     * Adds the given classes to this analysis, mapping each class to the source file it was compiled from.
+     */
+    public void addClasses(Collection<ClassFileInfo> classes) {
+        Map<String, List<String>> sourcesByName = new HashMap<String, List<String>>();
+        for (String sourcePath : sourceHashes.keySet()) {
+            String name = new File(sourcePath).getName();
+            List<String> paths = sourcesByName.get(name);
+            if (paths == null) {
+                paths = new ArrayList<String>();
+                sourcesByName.put(name, paths);
+            }
+            paths.add(sourcePath);
+        }
+
+        Set<String> classNames = new HashSet<String>();
+        for (ClassFileInfo classInfo : classes) {
+            classNames.add(classInfo.getClassName());
+        }
+
+        for (ClassFileInfo classInfo : classes) {
+            String sourcePath = findSource(classInfo, sourcesByName);
+            if (sourcePath == null) {
+                // Cannot tell which source the class came from, for example a class generated by an annotation processor
+                complete = false;
+                continue;
+            }
+            Set<String> classesForSource = sourceClasses.get(sourcePath);
+            if (classesForSource == null) {
+                classesForSource = new HashSet<String>();
+                sourceClasses.put(sourcePath, classesForSource);
+            }
+            classesForSource.add(classInfo.getClassName());
+
+            Set<String> dependencies = new HashSet<String>(classInfo.getReferencedClasses());
+            dependencies.retainAll(classNames);
+            classDependencies.put(classInfo.getClassName(), dependencies);
+            if (classInfo.isHasConstants()) {
+                classesWithConstants.add(classInfo.getClassName());
+            }
+        }
+    }
+
+    private String findSource(ClassFileInfo classInfo, Map<String, List<String>> sourcesByName) {
+        if (classInfo.getSourceFile() == null) {
+            return null;
+        }
+        List<String> candidates = sourcesByName.get(classInfo.getSourceFile());
+        if (candidates == null) {
+            return null;
+        }
+        String suffix = File.separatorChar + classInfo.getRelativeSourcePath().replace('/', File.separatorChar);
+        for (String candidate : candidates) {
+            if (candidate.endsWith(suffix)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines which source files need to be recompiled to bring the output of this analysis up to date with the given current state.
+     *
+     * @return the result, or null if all source files need to be recompiled.
+     */
+    public RecompilationSpec getRecompilationSpec(ClassDependencyAnalysis current) {
+        if (!complete || !settings.equals(current.settings)) {
+            return null;
+        }
+
+        Set<String> changedSources = new HashSet<String>();
+        for (Map.Entry<String, String> entry : current.sourceHashes.entrySet()) {
+            if (!entry.getValue().equals(sourceHashes.get(entry.getKey()))) {
+                changedSources.add(entry.getKey());
+            }
+        }
+        Set<String> removedSources = new HashSet<String>(sourceHashes.keySet());
+        removedSources.removeAll(current.sourceHashes.keySet());
+
+        Set<String> staleClasses = new HashSet<String>();
+        for (String source : changedSources) {
+            addClasses(source, staleClasses);
+        }
+        for (String source : removedSources) {
+            addClasses(source, staleClasses);
+        }
+        for (String className : staleClasses) {
+            if (classesWithConstants.contains(className)) {
+                // Constants may have been inlined into classes which do not reference the class
+                return null;
+            }
+        }
+
+        Set<String> affectedClasses = getTransitiveDependents(staleClasses);
+        Set<String> sourcesToCompile = new TreeSet<String>(changedSources);
+        for (Map.Entry<String, Set<String>> entry : sourceClasses.entrySet()) {
+            String source = entry.getKey();
+            if (current.sourceHashes.containsKey(source) && !Collections.disjoint(entry.getValue(), affectedClasses)) {
+                sourcesToCompile.add(source);
+            }
+        }
+        Set<String> classesToDelete = new TreeSet<String>(affectedClasses);
+        for (String source : sourcesToCompile) {
+            addClasses(source, classesToDelete);
+        }
+
+        return new RecompilationSpec(sourcesToCompile, classesToDelete);
+    }
+
+    private void addClasses(String source, Set<String> classes) {
+        Set<String> classesForSource = sourceClasses.get(source);
+        if (classesForSource != null) {
+            classes.addAll(classesForSource);
+        }
+    }
+
+    private Set<String> getTransitiveDependents(Set<String> classes) {
+        Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+        for (Map.Entry<String, Set<String>> entry : classDependencies.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                Set<String> classDependents = dependents.get(dependency);
+                if (classDependents == null) {
+                    classDependents = new HashSet<String>();
+                    dependents.put(dependency, classDependents);
+                }
+                classDependents.add(entry.getKey());
+            }
+        }
+
+        Set<String> result = new HashSet<String>(classes);
+        LinkedList<String> queue = new LinkedList<String>(classes);
+        while (!queue.isEmpty()) {
+            Set<String> classDependents = dependents.get(queue.removeFirst());
+            if (classDependents == null) {
+                continue;
+            }
+            for (String dependent : classDependents) {
+                if (result.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return result;
+    }
+
+    public static class RecompilationSpec {
+        private final Set<String> sourcesToCompile;
+        private final Set<String> classesToDelete;
+
+        public RecompilationSpec(Set<String> sourcesToCompile, Set<String> classesToDelete) {
+            this.sourcesToCompile = sourcesToCompile;
+            this.classesToDelete = classesToDelete;
+        }
+
+        /**
+         * Returns the absolute paths of the source files to recompile.
+         */
+        public Set<String> getSourcesToCompile() {
+            return sourcesToCompile;
+        }
+
+        /**
+         * Returns the names of the classes whose class files are stale.
+         */
+        public Set<String> getClassesToDelete() {
+            return classesToDelete;
+        }
+    }
+}
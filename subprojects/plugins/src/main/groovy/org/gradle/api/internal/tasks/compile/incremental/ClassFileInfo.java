@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import java.util.Set;
+
+/**
+ * The details of a compiled class which are used to decide what to recompile.
+ */
+public class ClassFileInfo {
+    private final String className;
+    private final String sourceFile;
+    private final Set<String> referencedClasses;
+    private final boolean hasConstants;
+
+    public ClassFileInfo(String className, String sourceFile, Set<String> referencedClasses, boolean hasConstants) {
+        this.className = className;
+        this.sourceFile = sourceFile;
+        this.referencedClasses = referencedClasses;
+        this.hasConstants = hasConstants;
+    }
+
+    /**
+     * Returns the fully qualified name of the class, using '$' to separate nested class names.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Returns the name of the source file the class was compiled from, without any directory. Returns null when the class was compiled
+     * without debug information.
+     */
+    public String getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * Returns the names of the classes referenced by this class, not including this class.
+     */
+    public Set<String> getReferencedClasses() {
+        return referencedClasses;
+    }
+
+    /**
+     * Returns true if this class declares compile time constants, which the compiler may have copied into other classes.
+     */
+    public boolean isHasConstants() {
+        return hasConstants;
+    }
+
+    /**
+     * Returns the path of the source file relative to the source root, assuming the source file lives in the directory for its package.
+     */
+    public String getRelativeSourcePath() {
+        int pos = className.lastIndexOf('.');
+        if (pos < 0) {
+            return sourceFile;
+        }
+        return className.substring(0, pos).replace('.', '/') + '/' + sourceFile;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads the name, source file and referenced classes from a class file. The referenced classes are collected from the class entries of the
+ * constant pool and from every type descriptor in the constant pool, so that types which are only used in signatures or annotations are
+ * included.
+ */
+public class ClassFileParser {
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+
+    public ClassFileInfo parse(File classFile) {
+        try {
+            DataInputStream instr = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)));
+            try {
+                return parse(instr);
+            } finally {
+                instr.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read class file '%s'.", classFile), e);
+        }
+    }
+
+    private ClassFileInfo parse(DataInputStream instr) throws IOException {
+        if (instr.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file.");
+        }
+        instr.readUnsignedShort();
+        instr.readUnsignedShort();
+
+        int constantCount = instr.readUnsignedShort();
+        String[] strings = new String[constantCount];
+        int[] classNameIndexes = new int[constantCount];
+        for (int i = 1; i < constantCount; i++) {
+            int tag = instr.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    strings[i] = instr.readUTF();
+                    break;
+                case CONSTANT_CLASS:
+                    classNameIndexes[i] = instr.readUnsignedShort();
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                    instr.readUnsignedShort();
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    instr.readUnsignedByte();
+                    instr.readUnsignedShort();
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELD_REF:
+                case CONSTANT_METHOD_REF:
+                case CONSTANT_INTERFACE_METHOD_REF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    instr.readInt();
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    instr.readLong();
+                    // Takes up two entries
+                    i++;
+                    break;
+                default:
+                    throw new IOException(String.format("Unknown constant pool tag %s.", tag));
+            }
+        }
+
+        instr.readUnsignedShort();
+        String className = toClassName(strings[classNameIndexes[instr.readUnsignedShort()]]);
+        instr.readUnsignedShort();
+        int interfaceCount = instr.readUnsignedShort();
+        for (int i = 0; i < interfaceCount; i++) {
+            instr.readUnsignedShort();
+        }
+
+        boolean hasConstants = false;
+        int fieldCount = instr.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            int access = instr.readUnsignedShort();
+            String fieldName = strings[instr.readUnsignedShort()];
+            instr.readUnsignedShort();
+            boolean canBeInlined = isInlinableConstant(access, fieldName);
+            int attributeCount = instr.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String name = strings[instr.readUnsignedShort()];
+                skip(instr, instr.readInt());
+                if (canBeInlined && name.equals("ConstantValue")) {
+                    hasConstants = true;
+                }
+            }
+        }
+        int methodCount = instr.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            instr.readUnsignedShort();
+            instr.readUnsignedShort();
+            instr.readUnsignedShort();
+            int attributeCount = instr.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                instr.readUnsignedShort();
+                skip(instr, instr.readInt());
+            }
+        }
+        String sourceFile = null;
+        int attributeCount = instr.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = strings[instr.readUnsignedShort()];
+            int length = instr.readInt();
+            if (name.equals("SourceFile")) {
+                sourceFile = strings[instr.readUnsignedShort()];
+                skip(instr, length - 2);
+            } else {
+                skip(instr, length);
+            }
+        }
+
+        Set<String> referencedClasses = new HashSet<String>();
+        for (int i = 1; i < constantCount; i++) {
+            if (classNameIndexes[i] != 0) {
+                String name = strings[classNameIndexes[i]];
+                if (name.startsWith("[")) {
+                    addDescriptorTypes(name, referencedClasses);
+                } else {
+                    referencedClasses.add(toClassName(name));
+                }
+            } else if (strings[i] != null) {
+                addDescriptorTypes(strings[i], referencedClasses);
+            }
+        }
+        referencedClasses.remove(className);
+
+        return new ClassFileInfo(className, sourceFile, referencedClasses, hasConstants);
+    }
+
+    /**
+     * Returns true when the value of the given field, if it has a constant value, may be inlined by the compiler into other classes. A private
+     * constant cannot be used from other classes, and serialVersionUID is only read by serialization.
+     */
+    private static boolean isInlinableConstant(int access, String fieldName) {
+        if ((access & (ACC_STATIC | ACC_FINAL)) != (ACC_STATIC | ACC_FINAL) || (access & ACC_PRIVATE) != 0) {
+            return false;
+        }
+        return !fieldName.equals("serialVersionUID");
+    }
+
+    /**
+     * Adds the types of any descriptor or signature found in the given string. Strings which are not descriptors may produce spurious names,
+     * which is harmless as only the names of known classes are used.
+     */
+    private void addDescriptorTypes(String value, Set<String> referencedClasses) {
+        int pos = value.indexOf('L');
+        while (pos >= 0) {
+            int end = pos + 1;
+            while (end < value.length() && ";<>:".indexOf(value.charAt(end)) < 0) {
+                end++;
+            }
+            if (end == value.length()) {
+                return;
+            }
+            if (end > pos + 1) {
+                referencedClasses.add(toClassName(value.substring(pos + 1, end)));
+            }
+            pos = value.indexOf('L', end);
+        }
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    private static void skip(DataInputStream instr, int count) throws IOException {
+        int remaining = count;
+        while (remaining > 0) {
+            int skipped = instr.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+}
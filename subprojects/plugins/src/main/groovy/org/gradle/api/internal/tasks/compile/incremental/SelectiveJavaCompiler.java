@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.SimpleWorkResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.cache.DefaultSerializer;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.hash.HashUtil;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A Java compiler which recompiles only the source files which have changed since the previous compilation, and the source files which
+ * depend on them. Falls back to the given full compiler when there is no usable analysis of the previous compilation.
+ */
+public class SelectiveJavaCompiler implements Compiler<JavaCompileSpec> {
+    private static final Logger LOGGER = Logging.getLogger(SelectiveJavaCompiler.class);
+    private static final String ANALYSIS_FILE_NAME = "classAnalysis.bin";
+    private final Compiler<JavaCompileSpec> compiler;
+    private final Compiler<JavaCompileSpec> fullCompiler;
+    private final ClassFileParser parser = new ClassFileParser();
+
+    /**
+     * @param compiler the compiler to use to compile the changed source files.
+     * @param fullCompiler the compiler to use to compile all source files.
+     */
+    public SelectiveJavaCompiler(Compiler<JavaCompileSpec> compiler, Compiler<JavaCompileSpec> fullCompiler) {
+        this.compiler = compiler;
+        this.fullCompiler = fullCompiler;
+    }
+
+    public WorkResult execute(JavaCompileSpec spec) {
+        if (spec.getDependencyCacheDir() == null) {
+            return fullCompiler.execute(spec);
+        }
+        File analysisFile = new File(spec.getDependencyCacheDir(), ANALYSIS_FILE_NAME);
+        ClassDependencyAnalysis previous = readAnalysis(analysisFile);
+        ClassDependencyAnalysis current = new ClassDependencyAnalysis(getSettings(spec), getSourceHashes(spec));
+        ClassDependencyAnalysis.RecompilationSpec recompilationSpec = previous == null ? null : previous.getRecompilationSpec(current);
+
+        // Discard the analysis until the compilation has succeeded
+        analysisFile.delete();
+
+        WorkResult result;
+        if (recompilationSpec == null) {
+            LOGGER.info("Compiling all source files.");
+            result = fullCompiler.execute(spec);
+        } else if (recompilationSpec.getSourcesToCompile().isEmpty()) {
+            LOGGER.info("No source files need to be recompiled.");
+            deleteClasses(spec.getDestinationDir(), recompilationSpec.getClassesToDelete());
+            result = new SimpleWorkResult(!recompilationSpec.getClassesToDelete().isEmpty());
+        } else {
+            LOGGER.info("Recompiling {} changed and dependent source files.", recompilationSpec.getSourcesToCompile().size());
+            deleteClasses(spec.getDestinationDir(), recompilationSpec.getClassesToDelete());
+            List<File> sources = new ArrayList<File>();
+            for (String path : recompilationSpec.getSourcesToCompile()) {
+                sources.add(new File(path));
+            }
+            List<File> classpath = new ArrayList<File>();
+            classpath.add(spec.getDestinationDir());
+            for (File file : spec.getClasspath()) {
+                classpath.add(file);
+            }
+            spec.setSource(new SimpleFileCollection(sources));
+            spec.setClasspath(classpath);
+            result = compiler.execute(spec);
+        }
+
+        current.addClasses(findClasses(spec.getDestinationDir()));
+        writeAnalysis(analysisFile, current);
+        return result;
+    }
+
+    private void deleteClasses(File destinationDir, Set<String> classNames) {
+        for (String className : classNames) {
+            new File(destinationDir, className.replace('.', '/') + ".class").delete();
+        }
+    }
+
+    private List<ClassFileInfo> findClasses(File destinationDir) {
+        List<ClassFileInfo> classes = new ArrayList<ClassFileInfo>();
+        findClasses(destinationDir, classes);
+        return classes;
+    }
+
+    private void findClasses(File dir, List<ClassFileInfo> classes) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findClasses(file, classes);
+            } else if (file.getName().endsWith(".class")) {
+                classes.add(parser.parse(file));
+            }
+        }
+    }
+
+    private Map<String, String> getSourceHashes(JavaCompileSpec spec) {
+        Map<String, String> hashes = new HashMap<String, String>();
+        for (File file : spec.getSource()) {
+            hashes.put(file.getAbsolutePath(), HashUtil.createHash(file, "MD5").asHexString());
+        }
+        return hashes;
+    }
+
+    /**
+     * Describes the inputs to the compilation other than the source files. A change to any of these means that all source files need to be
+     * recompiled.
+     */
+    private String getSettings(JavaCompileSpec spec) {
+        StringBuilder settings = new StringBuilder();
+        settings.append(spec.getSourceCompatibility()).append('|').append(spec.getTargetCompatibility());
+        settings.append('|').append(new TreeMap<String, Object>(spec.getCompileOptions().optionMap()));
+        settings.append('|').append(spec.getCompileOptions().getCompilerArgs());
+        for (File file : spec.getClasspath()) {
+            settings.append('|');
+            appendFile(file, settings);
+        }
+        return settings.toString();
+    }
+
+    private void appendFile(File file, StringBuilder settings) {
+        settings.append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified());
+        File[] children = file.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            settings.append(',');
+            appendFile(child, settings);
+        }
+    }
+
+    private ClassDependencyAnalysis readAnalysis(File analysisFile) {
+        if (!analysisFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream instr = new BufferedInputStream(new FileInputStream(analysisFile));
+            try {
+                return new DefaultSerializer<ClassDependencyAnalysis>(getClass().getClassLoader()).read(instr);
+            } finally {
+                instr.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info(String.format("Could not read class dependency analysis from '%s'.", analysisFile), e);
+            return null;
+        }
+    }
+
+    private void writeAnalysis(File analysisFile, ClassDependencyAnalysis analysis) {
+        GFileUtils.createDirectory(analysisFile.getParentFile());
+        try {
+            OutputStream outstr = new BufferedOutputStream(new FileOutputStream(analysisFile));
+            try {
+                new DefaultSerializer<ClassDependencyAnalysis>().write(outstr, analysis);
+            } finally {
+                outstr.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info(String.format("Could not write class dependency analysis to '%s'.", analysisFile), e);
+            analysisFile.delete();
+        }
+    }
+}
@@ -25,18 +25,23 @@ import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistoryRecorder;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
+import java.io.File;
+
 /**
  * The default test class scanner factory.
  *
  * @author Tom Eyckmans
  */
 public class DefaultTestExecuter implements TestExecuter {
+    private static final String HISTORY_FILE_NAME = "testClassHistory.bin";
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
 
@@ -60,8 +65,10 @@ public class DefaultTestExecuter implements TestExecuter {
             }
         };
 
+        File historyFile = new File(testTask.getTemporaryDir(), HISTORY_FILE_NAME);
+        TestClassHistory history = TestClassHistory.read(historyFile);
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
-                reforkingProcessorFactory, actorFactor);
+                reforkingProcessorFactory, actorFactor, history, testTask.isFailedTestClassesFirst());
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -72,6 +79,10 @@ public class DefaultTestExecuter implements TestExecuter {
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
-        new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider()).run();
+        TestClassHistoryRecorder historyRecorder = new TestClassHistoryRecorder(testResultProcessor);
+        new TestMainAction(detector, processor, historyRecorder, new TrueTimeProvider()).run();
+        // Keep the history of the test classes which were not executed, such as when the test classes are filtered
+        history.merge(historyRecorder.getHistory());
+        history.write(historyFile);
     }
 }
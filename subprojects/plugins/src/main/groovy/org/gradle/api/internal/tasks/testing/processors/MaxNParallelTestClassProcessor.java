@@ -20,33 +20,50 @@ import org.gradle.internal.Factory;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory;
 import org.gradle.internal.CompositeStoppable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.actor.Actor;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.dispatch.DispatchException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors.
+ *
+ * <p>When there is no history of a previous test run, test classes are assigned to processors as they are found, using a simple
+ * round-robin algorithm. Otherwise, test classes are collected until all have been found, and then assigned longest first, each to
+ * the processor with the least total expected execution time. Classes which failed in the previous run can optionally be assigned
+ * before all other classes. When there is a single processor and failed classes are not assigned first, the order of the classes
+ * makes no difference, so the classes are assigned as they are found.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final TestClassHistory history;
+    private final boolean failedClassesFirst;
+    private final boolean orderTestClasses;
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
+    private final List<TestClassRunInfo> pending = new ArrayList<TestClassRunInfo>();
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, new TestClassHistory(), false);
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory,
+                                          TestClassHistory history, boolean failedClassesFirst) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.history = history;
+        this.failedClassesFirst = failedClassesFirst;
+        this.orderTestClasses = !history.isEmpty() && (maxProcessors > 1 || failedClassesFirst);
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
@@ -55,14 +72,14 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
+        if (orderTestClasses) {
+            pending.add(testClass);
+            return;
+        }
+
         TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
+            processor = startProcessor();
         } else {
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
@@ -70,8 +87,52 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         processor.processTestClass(testClass);
     }
 
+    private TestClassProcessor startProcessor() {
+        TestClassProcessor processor = factory.create();
+        Actor actor = actorFactory.createActor(processor);
+        processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
+    private void processPendingTestClasses() {
+        final Map<String, Long> expectedDurations = new HashMap<String, Long>();
+        long averageDuration = history.getAverageDuration();
+        for (TestClassRunInfo testClass : pending) {
+            Long duration = history.getDuration(testClass.getTestClassName());
+            expectedDurations.put(testClass.getTestClassName(), duration != null ? duration : averageDuration);
+        }
+        Collections.sort(pending, new Comparator<TestClassRunInfo>() {
+            public int compare(TestClassRunInfo testClass1, TestClassRunInfo testClass2) {
+                String className1 = testClass1.getTestClassName();
+                String className2 = testClass2.getTestClassName();
+                if (failedClassesFirst && history.isFailed(className1) != history.isFailed(className2)) {
+                    return history.isFailed(className1) ? -1 : 1;
+                }
+                return expectedDurations.get(className2).compareTo(expectedDurations.get(className1));
+            }
+        });
+
+        long[] loads = new long[Math.min(maxProcessors, pending.size())];
+        for (TestClassRunInfo testClass : pending) {
+            int index = 0;
+            for (int i = 1; i < loads.length; i++) {
+                if (loads[i] < loads[index]) {
+                    index = i;
+                }
+            }
+            loads[index] += Math.max(1, expectedDurations.get(testClass.getTestClassName()));
+            TestClassProcessor processor = index < processors.size() ? processors.get(index) : startProcessor();
+            processor.processTestClass(testClass);
+        }
+        pending.clear();
+    }
+
     public void stop() {
         try {
+            processPendingTestClasses();
             CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
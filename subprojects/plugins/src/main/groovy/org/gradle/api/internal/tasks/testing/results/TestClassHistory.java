@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.results;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.DefaultSerializer;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The execution time and outcome of each test class from a previous test run.
+ */
+public class TestClassHistory implements Serializable {
+    private static final Logger LOGGER = Logging.getLogger(TestClassHistory.class);
+    private final Map<String, Long> durations = new HashMap<String, Long>();
+    private final Set<String> failedClasses = new HashSet<String>();
+
+    public boolean isEmpty() {
+        return durations.isEmpty() && failedClasses.isEmpty();
+    }
+
+    /**
+     * Returns the execution time of the given test class, in milliseconds, or null if the class was not executed.
+     */
+    public Long getDuration(String className) {
+        return durations.get(className);
+    }
+
+    /**
+     * Returns the average execution time of the test classes, in milliseconds, or 0 if no classes were executed.
+     */
+    public long getAverageDuration() {
+        if (durations.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += duration;
+        }
+        return total / durations.size();
+    }
+
+    public boolean isFailed(String className) {
+        return failedClasses.contains(className);
+    }
+
+    public void setDuration(String className, long duration) {
+        durations.put(className, duration);
+    }
+
+    public void setFailed(String className) {
+        failedClasses.add(className);
+    }
+
+    /**
+     * Replaces the history of each test class executed in the given, more recent, history. The history of the other test classes is kept.
+     */
+    public void merge(TestClassHistory newer) {
+        for (String className : newer.durations.keySet()) {
+            failedClasses.remove(className);
+        }
+        durations.putAll(newer.durations);
+        failedClasses.addAll(newer.failedClasses);
+    }
+
+    /**
+     * Reads the history from the given file. Returns an empty history when the file does not exist or cannot be read.
+     */
+    public static TestClassHistory read(File file) {
+        if (!file.isFile()) {
+            return new TestClassHistory();
+        }
+        try {
+            InputStream instr = new BufferedInputStream(new FileInputStream(file));
+            try {
+                return new DefaultSerializer<TestClassHistory>(TestClassHistory.class.getClassLoader()).read(instr);
+            } finally {
+                instr.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info(String.format("Could not read test class history from '%s'.", file), e);
+            return new TestClassHistory();
+        }
+    }
+
+    public void write(File file) {
+        GFileUtils.createDirectory(file.getParentFile());
+        try {
+            OutputStream outstr = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                new DefaultSerializer<TestClassHistory>().write(outstr, this);
+            } finally {
+                outstr.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info(String.format("Could not write test class history to '%s'.", file), e);
+            file.delete();
+        }
+    }
+}
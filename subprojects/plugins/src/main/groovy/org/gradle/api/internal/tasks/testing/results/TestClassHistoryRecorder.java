@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.results;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the execution time and outcome of each test class into a {@link TestClassHistory}, and forwards all events to the given
+ * processor. The execution time of a class is taken from the class' own suite when the test framework reports one, otherwise it is
+ * the total execution time of the tests of the class.
+ */
+public class TestClassHistoryRecorder implements TestResultProcessor {
+    private final TestResultProcessor processor;
+    private final Map<Object, ExecutingTest> executing = new HashMap<Object, ExecutingTest>();
+    private final Map<String, Long> classDurations = new HashMap<String, Long>();
+    private final Map<String, Long> testDurations = new HashMap<String, Long>();
+    private final TestClassHistory history = new TestClassHistory();
+
+    public TestClassHistoryRecorder(TestResultProcessor processor) {
+        this.processor = processor;
+    }
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        if (test.getClassName() != null) {
+            executing.put(test.getId(), new ExecutingTest(test.getClassName(), test.isComposite(), event.getStartTime()));
+        }
+        processor.started(test, event);
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        ExecutingTest test = executing.remove(testId);
+        if (test != null) {
+            long duration = Math.max(0, event.getEndTime() - test.startTime);
+            if (test.composite) {
+                classDurations.put(test.className, duration);
+            } else {
+                Long total = testDurations.get(test.className);
+                testDurations.put(test.className, total == null ? duration : total + duration);
+            }
+        }
+        processor.completed(testId, event);
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        processor.output(testId, event);
+    }
+
+    public void failure(Object testId, Throwable result) {
+        ExecutingTest test = executing.get(testId);
+        if (test != null) {
+            history.setFailed(test.className);
+        }
+        processor.failure(testId, result);
+    }
+
+    /**
+     * Returns the history of the tests executed so far.
+     */
+    public TestClassHistory getHistory() {
+        for (Map.Entry<String, Long> entry : testDurations.entrySet()) {
+            history.setDuration(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Long> entry : classDurations.entrySet()) {
+            history.setDuration(entry.getKey(), entry.getValue());
+        }
+        return history;
+    }
+
+    private static class ExecutingTest {
+        final String className;
+        final boolean composite;
+        final long startTime;
+
+        private ExecutingTest(String className, boolean composite, long startTime) {
+            this.className = className;
+            this.composite = composite;
+            this.startTime = startTime;
+        }
+    }
+}
@@ -74,6 +74,8 @@ public class CompileOptions extends AbstractOptions {
 
     private boolean useAnt;
 
+    private boolean incremental;
+
     /**
      * Tells whether to fail the build when compilation fails. Defaults to {@code true}.
      */
@@ -289,6 +291,23 @@ public class CompileOptions extends AbstractOptions {
         this.useDepend = useDepend;
     }
 
+    /**
+     * Tells whether to recompile only those source files which have changed, and the source files which depend on them. The dependencies
+     * between classes are analysed from the class files produced by the previous compilation. When the analysis cannot be used, for example
+     * when the compile class path or options have changed, all source files are recompiled. Defaults to {@code false}.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Sets whether to recompile only those source files which have changed, and the source files which depend on them.
+     * Defaults to {@code false}.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     /**
      * Returns options for using the Ant {@code <depend>} task.
      */
@@ -455,7 +474,7 @@ public class CompileOptions extends AbstractOptions {
      * Internal method.
      */
     protected List<String> excludedFieldsFromOptionMap() {
-        return Arrays.asList("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "useAnt");
+        return Arrays.asList("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "useAnt", "incremental");
     }
 
     /**
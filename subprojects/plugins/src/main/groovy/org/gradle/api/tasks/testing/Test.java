@@ -110,6 +110,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private boolean failedTestClassesFirst;
 
     public Test() {
         testListenerBroadcaster = getServices().get(ListenerManager.class).createAnonymousBroadcaster(TestListener.class);
@@ -905,6 +906,26 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns whether the test classes which failed in the previous execution of this task are executed before all other test classes.
+     * The default value is false, in which case the test classes which take longest are executed first.
+     *
+     * @return true if previously failed test classes are executed first.
+     */
+    public boolean isFailedTestClassesFirst() {
+        return failedTestClassesFirst;
+    }
+
+    /**
+     * Specifies whether the test classes which failed in the previous execution of this task should be executed before all other test
+     * classes, so that failures are reported as early as possible.
+     *
+     * @param failedTestClassesFirst true if previously failed test classes should be executed first.
+     */
+    public void setFailedTestClassesFirst(boolean failedTestClassesFirst) {
+        this.failedTestClassesFirst = failedTestClassesFirst;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon
+
+import org.gradle.StartParameter
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.compile.CompileSpec
+import org.gradle.api.internal.tasks.compile.Compiler
+import org.gradle.internal.TimeProvider
+import spock.lang.Specification
+
+class CompilerDaemonManagerTest extends Specification {
+    final starter = Mock(CompilerDaemonStarter)
+    final timeProvider = Mock(TimeProvider)
+    final project = Mock(ProjectInternal)
+    final gradle = Mock(GradleInternal)
+    final forkOptions = new DaemonForkOptions("128m", "1g", [])
+    final manager = new CompilerDaemonManager(starter, 2, 1000, timeProvider)
+
+    def setup() {
+        _ * project.gradle >> gradle
+        _ * gradle.startParameter >> new StartParameter()
+        _ * project.rootProject >> project
+        _ * project.projectDir >> new File("root")
+    }
+
+    def "reuses idle daemon with compatible fork options"() {
+        def client = Mock(CompilerDaemonClient)
+
+        when:
+        def daemon1 = manager.reserve(project, forkOptions)
+        manager.release(daemon1)
+        def daemon2 = manager.reserve(project, new DaemonForkOptions("64m", "512m", []))
+
+        then:
+        1 * starter.startDaemon(project, forkOptions) >> client
+        _ * client.isCompatibleWith(_) >> true
+        daemon2.is(daemon1)
+        0 * client.stop()
+    }
+
+    def "starts another daemon when compatible daemon is busy"() {
+        def client1 = Mock(CompilerDaemonClient)
+        def client2 = Mock(CompilerDaemonClient)
+
+        when:
+        def daemon1 = manager.reserve(project, forkOptions)
+        def daemon2 = manager.reserve(project, forkOptions)
+
+        then:
+        2 * starter.startDaemon(project, forkOptions) >>> [client1, client2]
+        daemon1.client == client1
+        daemon2.client == client2
+    }
+
+    def "stops longest idle daemon when pool is full"() {
+        def client1 = Mock(CompilerDaemonClient)
+        def client2 = Mock(CompilerDaemonClient)
+        def client3 = Mock(CompilerDaemonClient)
+        def otherOptions = new DaemonForkOptions("128m", "2g", [])
+
+        given:
+        _ * starter.startDaemon(project, forkOptions) >>> [client1, client2]
+        _ * client1.isCompatibleWith(_) >> false
+        _ * client2.isCompatibleWith(_) >> false
+        manager.release(manager.reserve(project, forkOptions))
+        manager.release(manager.reserve(project, forkOptions))
+
+        when:
+        def daemon = manager.reserve(project, otherOptions)
+
+        then:
+        1 * client1.stop()
+        1 * starter.startDaemon(project, otherOptions) >> client3
+        0 * client2.stop()
+        daemon.client == client3
+    }
+
+    def "stops daemons which have been idle longer than timeout"() {
+        def client1 = Mock(CompilerDaemonClient)
+        def client2 = Mock(CompilerDaemonClient)
+
+        given:
+        _ * starter.startDaemon(project, forkOptions) >>> [client1, client2]
+        def daemon1 = manager.reserve(project, forkOptions)
+        def daemon2 = manager.reserve(project, forkOptions)
+
+        when:
+        manager.release(daemon1)
+        manager.release(daemon2)
+        manager.evictIdleDaemons()
+
+        then:
+        3 * timeProvider.currentTime >>> [100, 800, 1200]
+        1 * client1.stop()
+        0 * client2.stop()
+    }
+
+    def "stops idle daemons when stopped"() {
+        def client = Mock(CompilerDaemonClient)
+
+        given:
+        _ * starter.startDaemon(project, forkOptions) >> client
+        manager.release(manager.reserve(project, forkOptions))
+
+        when:
+        manager.stop()
+
+        then:
+        1 * client.stop()
+    }
+
+    def "returns daemon to pool when compilation succeeds"() {
+        def client = Mock(CompilerDaemonClient)
+        def compiler = Mock(Compiler)
+        def spec = Mock(CompileSpec)
+        def result = new CompileResult(true, null)
+
+        given:
+        _ * client.isCompatibleWith(_) >> true
+
+        when:
+        def compileResult = manager.getDaemon(project, forkOptions).execute(compiler, spec)
+        def daemon = manager.reserve(project, forkOptions)
+
+        then:
+        1 * starter.startDaemon(project, forkOptions) >> client
+        1 * client.execute(compiler, spec) >> result
+        0 * client.stop()
+        compileResult == result
+        daemon.client == client
+    }
+
+    def "stops daemon and does not reuse it when compilation fails with an exception"() {
+        def client1 = Mock(CompilerDaemonClient)
+        def client2 = Mock(CompilerDaemonClient)
+        def compiler = Mock(Compiler)
+        def spec = Mock(CompileSpec)
+        def failure = new RuntimeException("broken")
+
+        given:
+        _ * client1.isCompatibleWith(_) >> true
+
+        when:
+        manager.getDaemon(project, forkOptions).execute(compiler, spec)
+
+        then:
+        1 * starter.startDaemon(project, forkOptions) >> client1
+        1 * client1.execute(compiler, spec) >> { throw failure }
+        1 * client1.stop()
+        RuntimeException e = thrown()
+        e == failure
+
+        when:
+        def daemon = manager.reserve(project, forkOptions)
+
+        then:
+        1 * starter.startDaemon(project, forkOptions) >> client2
+        daemon.client == client2
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import spock.lang.Specification
+
+class ClassDependencyAnalysisTest extends Specification {
+    final sourceHashes = [(source('a/A.java')): '1', (source('a/B.java')): '1', (source('a/C.java')): '1', (source('a/D.java')): '1']
+    final classes = [
+            new ClassFileInfo('a.A', 'A.java', ['java.lang.Object'] as Set, false),
+            new ClassFileInfo('a.A$Nested', 'A.java', ['a.A'] as Set, false),
+            new ClassFileInfo('a.B', 'B.java', ['a.A$Nested'] as Set, false),
+            new ClassFileInfo('a.C', 'C.java', ['a.B'] as Set, false),
+            new ClassFileInfo('a.D', 'D.java', [] as Set, true)
+    ]
+
+    def "recompiles nothing when no source has changed"() {
+        def analysis = analysis(sourceHashes, classes)
+
+        when:
+        def spec = analysis.getRecompilationSpec(new ClassDependencyAnalysis('settings', sourceHashes))
+
+        then:
+        spec.sourcesToCompile.empty
+        spec.classesToDelete.empty
+    }
+
+    def "recompiles changed source and its transitive dependents"() {
+        def analysis = analysis(sourceHashes, classes)
+
+        when:
+        def spec = analysis.getRecompilationSpec(new ClassDependencyAnalysis('settings', sourceHashes + [(source('a/A.java')): '2']))
+
+        then:
+        spec.sourcesToCompile == [source('a/A.java'), source('a/B.java'), source('a/C.java')] as Set
+        spec.classesToDelete == ['a.A', 'a.A$Nested', 'a.B', 'a.C'] as Set
+    }
+
+    def "recompiles added source"() {
+        def analysis = analysis(sourceHashes, classes)
+
+        when:
+        def spec = analysis.getRecompilationSpec(new ClassDependencyAnalysis('settings', sourceHashes + [(source('a/E.java')): '1']))
+
+        then:
+        spec.sourcesToCompile == [source('a/E.java')] as Set
+        spec.classesToDelete.empty
+    }
+
+    def "deletes classes of removed source and recompiles its dependents"() {
+        def analysis = analysis(sourceHashes, classes)
+        def current = new HashMap(sourceHashes)
+        current.remove(source('a/B.java'))
+
+        when:
+        def spec = analysis.getRecompilationSpec(new ClassDependencyAnalysis('settings', current))
+
+        then:
+        spec.sourcesToCompile == [source('a/C.java')] as Set
+        spec.classesToDelete == ['a.B', 'a.C'] as Set
+    }
+
+    def "recompiles everything when settings have changed"() {
+        def analysis = analysis(sourceHashes, classes)
+
+        expect:
+        analysis.getRecompilationSpec(new ClassDependencyAnalysis('other', sourceHashes)) == null
+    }
+
+    def "recompiles everything when class with constants has changed"() {
+        def analysis = analysis(sourceHashes, classes)
+
+        expect:
+        analysis.getRecompilationSpec(new ClassDependencyAnalysis('settings', sourceHashes + [(source('a/D.java')): '2'])) == null
+    }
+
+    def "recompiles everything when a class cannot be mapped to its source"() {
+        def analysis = analysis(sourceHashes, classes + [new ClassFileInfo('a.Generated', 'Generated.java', [] as Set, false)])
+
+        expect:
+        analysis.getRecompilationSpec(new ClassDependencyAnalysis('settings', sourceHashes + [(source('a/A.java')): '2'])) == null
+    }
+
+    def analysis(Map<String, String> sourceHashes, List<ClassFileInfo> classes) {
+        def analysis = new ClassDependencyAnalysis('settings', sourceHashes)
+        analysis.addClasses(classes)
+        return analysis
+    }
+
+    def source(String path) {
+        return new File("src/main/java/$path").absolutePath
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import spock.lang.Specification
+
+class ClassFileParserTest extends Specification {
+    final parser = new ClassFileParser()
+
+    def "reads class name, source file and referenced classes"() {
+        when:
+        def info = parser.parse(classFile(ClassFileParser))
+
+        then:
+        info.className == ClassFileParser.name
+        info.sourceFile == 'ClassFileParser.java'
+        info.relativeSourcePath == 'org/gradle/api/internal/tasks/compile/incremental/ClassFileParser.java'
+        info.referencedClasses.containsAll([ClassFileInfo.name, DataInputStream.name, File.name])
+        !info.referencedClasses.contains(ClassFileParser.name)
+    }
+
+    def "detects classes which declare compile time constants"() {
+        expect:
+        parser.parse(classFile(ConstantFixtures.PublicConstant)).hasConstants
+        parser.parse(classFile(ConstantFixtures.PackageConstant)).hasConstants
+        !parser.parse(classFile(ConstantFixtures.InstanceConstant)).hasConstants
+        !parser.parse(classFile(ClassFileInfo)).hasConstants
+    }
+
+    def "ignores private constants, which cannot be inlined into other classes"() {
+        expect:
+        !parser.parse(classFile(ConstantFixtures.PrivateConstant)).hasConstants
+        !parser.parse(classFile(ClassFileParser)).hasConstants
+    }
+
+    def "ignores serialVersionUID"() {
+        expect:
+        !parser.parse(classFile(ConstantFixtures.SerializableClass)).hasConstants
+    }
+
+    def classFile(Class<?> type) {
+        return new File(type.getResource("/${type.name.replace('.', '/')}.class").toURI())
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import java.io.Serializable;
+
+/**
+ * Classes with different kinds of constants, used to test which constants the parser detects.
+ */
+public class ConstantFixtures {
+    public static class PublicConstant {
+        public static final int VALUE = 1;
+    }
+
+    public static class PackageConstant {
+        static final String VALUE = "value";
+    }
+
+    public static class PrivateConstant {
+        private static final int VALUE = 1;
+
+        int getValue() {
+            return VALUE;
+        }
+    }
+
+    public static class SerializableClass implements Serializable {
+        static final long serialVersionUID = 1L;
+    }
+
+    public static class InstanceConstant {
+        final int value = 1;
+    }
+}
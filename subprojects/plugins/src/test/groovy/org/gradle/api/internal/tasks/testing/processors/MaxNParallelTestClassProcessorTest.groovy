@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.processors
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
 import spock.lang.Specification
@@ -167,4 +168,140 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         then:
         1 * asyncProcessor2.processTestClass(test)
     }
+
+    def assignsLongestTestClassesFirstToLeastLoadedProcessorWhenHistoryAvailable() {
+        def history = new TestClassHistory()
+        history.setDuration('Slow', 100)
+        history.setDuration('Medium', 60)
+        history.setDuration('Fast', 30)
+        def processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, history, false)
+        TestClassRunInfo slow = testClass('Slow')
+        TestClassRunInfo medium = testClass('Medium')
+        TestClassRunInfo fast = testClass('Fast')
+        TestClassRunInfo added = testClass('Added')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        processor.startProcessing(resultProcessor)
+
+        when:
+        processor.processTestClass(fast)
+        processor.processTestClass(added)
+        processor.processTestClass(slow)
+        processor.processTestClass(medium)
+
+        then:
+        0 * factory.create()
+        0 * _.processTestClass(_)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor1.processTestClass(slow)
+
+        then:
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(added)
+
+        then:
+        1 * asyncProcessor2.processTestClass(medium)
+
+        then:
+        1 * asyncProcessor1.processTestClass(fast)
+
+        then:
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+    }
+
+    def assignsFailedTestClassesFirstWhenRequested() {
+        def history = new TestClassHistory()
+        history.setDuration('Slow', 100)
+        history.setDuration('Failed', 30)
+        history.setFailed('Failed')
+        def processor = new MaxNParallelTestClassProcessor(1, factory, actorFactory, history, true)
+        TestClassRunInfo slow = testClass('Slow')
+        TestClassRunInfo failed = testClass('Failed')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        Actor actor1 = Mock()
+
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(slow)
+        processor.processTestClass(failed)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.processTestClass(failed)
+
+        then:
+        1 * asyncProcessor1.processTestClass(slow)
+    }
+
+    def assignsTestClassesAsTheyAreFoundWhenSingleProcessorAndFailedTestClassesNotFirst() {
+        def history = new TestClassHistory()
+        history.setDuration('Fast', 30)
+        history.setDuration('Failed', 100)
+        history.setFailed('Failed')
+        def processor = new MaxNParallelTestClassProcessor(1, factory, actorFactory, history, false)
+        TestClassRunInfo fast = testClass('Fast')
+        TestClassRunInfo failed = testClass('Failed')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        Actor actor1 = Mock()
+
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        processor.startProcessing(resultProcessor)
+
+        when:
+        processor.processTestClass(fast)
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor1.processTestClass(fast)
+
+        when:
+        processor.processTestClass(failed)
+
+        then:
+        1 * asyncProcessor1.processTestClass(failed)
+
+        when:
+        processor.stop()
+
+        then:
+        0 * _.processTestClass(_)
+        1 * asyncProcessor1.stop()
+    }
+
+    def testClass(String className) {
+        TestClassRunInfo testClass = Mock()
+        _ * testClass.testClassName >> className
+        return testClass
+    }
 }
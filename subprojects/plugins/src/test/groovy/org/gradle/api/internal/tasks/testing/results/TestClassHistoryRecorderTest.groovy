@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.results
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassHistoryRecorderTest extends Specification {
+    @Rule final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final TestResultProcessor target = Mock()
+    private final TestClassHistoryRecorder recorder = new TestClassHistoryRecorder(target)
+
+    def forwardsEventsToTargetProcessor() {
+        def test = new DefaultTestDescriptor('test', 'SomeTest', 'method')
+        def startEvent = new TestStartEvent(100L)
+        def completeEvent = new TestCompleteEvent(200L)
+        def failure = new RuntimeException()
+
+        when:
+        recorder.started(test, startEvent)
+        recorder.failure('test', failure)
+        recorder.completed('test', completeEvent)
+
+        then:
+        1 * target.started(test, startEvent)
+        1 * target.failure('test', failure)
+        1 * target.completed('test', completeEvent)
+    }
+
+    def usesExecutionTimeOfTestClassSuiteWhenAvailable() {
+        recorder.started(new DefaultTestSuiteDescriptor('worker', 'worker'), new TestStartEvent(0L))
+        recorder.started(new DefaultTestClassDescriptor('class', 'SomeTest'), new TestStartEvent(100L))
+        recorder.started(new DefaultTestDescriptor('test', 'SomeTest', 'method'), new TestStartEvent(120L))
+        recorder.completed('test', new TestCompleteEvent(150L))
+        recorder.completed('class', new TestCompleteEvent(200L))
+        recorder.completed('worker', new TestCompleteEvent(300L))
+
+        when:
+        def history = recorder.history
+
+        then:
+        history.getDuration('SomeTest') == 100L
+        history.getDuration('worker') == null
+        !history.isFailed('SomeTest')
+    }
+
+    def usesTotalExecutionTimeOfTestsWhenNoTestClassSuite() {
+        recorder.started(new DefaultTestDescriptor('test1', 'SomeTest', 'method1'), new TestStartEvent(100L))
+        recorder.completed('test1', new TestCompleteEvent(150L))
+        recorder.started(new DefaultTestDescriptor('test2', 'SomeTest', 'method2'), new TestStartEvent(200L))
+        recorder.completed('test2', new TestCompleteEvent(220L))
+
+        expect:
+        recorder.history.getDuration('SomeTest') == 70L
+    }
+
+    def recordsTestClassesWithFailedTests() {
+        recorder.started(new DefaultTestClassDescriptor('class1', 'FailingTest'), new TestStartEvent(100L))
+        recorder.started(new DefaultTestDescriptor('test1', 'FailingTest', 'method'), new TestStartEvent(100L))
+        recorder.failure('test1', new RuntimeException())
+        recorder.completed('test1', new TestCompleteEvent(150L))
+        recorder.completed('class1', new TestCompleteEvent(150L))
+        recorder.started(new DefaultTestClassDescriptor('class2', 'BrokenTest'), new TestStartEvent(100L))
+        recorder.failure('class2', new RuntimeException())
+        recorder.completed('class2', new TestCompleteEvent(150L))
+        recorder.started(new DefaultTestClassDescriptor('class3', 'OkTest'), new TestStartEvent(100L))
+        recorder.completed('class3', new TestCompleteEvent(150L))
+
+        when:
+        def history = recorder.history
+
+        then:
+        history.isFailed('FailingTest')
+        history.isFailed('BrokenTest')
+        !history.isFailed('OkTest')
+    }
+
+    def historyCanBeWrittenAndReadBack() {
+        recorder.started(new DefaultTestDescriptor('test', 'SomeTest', 'method'), new TestStartEvent(100L))
+        recorder.failure('test', new RuntimeException())
+        recorder.completed('test', new TestCompleteEvent(150L))
+        def file = tmpDir.file('history.bin')
+
+        when:
+        recorder.history.write(file)
+        def history = TestClassHistory.read(file)
+
+        then:
+        history.getDuration('SomeTest') == 50L
+        history.isFailed('SomeTest')
+        history.averageDuration == 50L
+    }
+
+    def readsEmptyHistoryWhenFileDoesNotExist() {
+        expect:
+        TestClassHistory.read(tmpDir.file('missing.bin')).empty
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.results
+
+import spock.lang.Specification
+
+class TestClassHistoryTest extends Specification {
+    final history = new TestClassHistory()
+
+    def "merge replaces the history of classes executed in the newer history"() {
+        def newer = new TestClassHistory()
+
+        given:
+        history.setDuration('Failed', 10)
+        history.setFailed('Failed')
+        history.setDuration('Passed', 20)
+        newer.setDuration('Failed', 15)
+        newer.setDuration('Passed', 25)
+        newer.setFailed('Passed')
+        newer.setDuration('Added', 30)
+
+        when:
+        history.merge(newer)
+
+        then:
+        history.getDuration('Failed') == 15
+        !history.isFailed('Failed')
+        history.getDuration('Passed') == 25
+        history.isFailed('Passed')
+        history.getDuration('Added') == 30
+        !history.isFailed('Added')
+    }
+
+    def "merge keeps the history of classes not executed in the newer history"() {
+        given:
+        history.setDuration('Failed', 10)
+        history.setFailed('Failed')
+        history.setDuration('Passed', 20)
+
+        when:
+        history.merge(new TestClassHistory())
+
+        then:
+        history.getDuration('Failed') == 10
+        history.isFailed('Failed')
+        history.getDuration('Passed') == 20
+        !history.isFailed('Passed')
+    }
+}
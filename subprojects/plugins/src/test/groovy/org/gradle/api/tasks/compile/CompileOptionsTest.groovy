@@ -48,6 +48,7 @@ class CompileOptionsTest {
         assertFalse(compileOptions.verbose)
         assertFalse(compileOptions.fork)
         assertFalse(compileOptions.useAnt)
+        assertFalse(compileOptions.incremental)
 
         assertThat(compileOptions.compilerArgs, isEmpty())
         assertNull(compileOptions.encoding)
@@ -117,7 +118,7 @@ class CompileOptionsTest {
     @Test public void testWithExcludeFieldsFromOptionMap() {
       compileOptions.compilerArgs = [[value: 'something']]
         Map optionMap = compileOptions.optionMap()
-        ['debugOptions', 'forkOptions', 'compilerArgs'].each {
+        ['debugOptions', 'forkOptions', 'compilerArgs', 'incremental'].each {
             assertFalse(optionMap.containsKey(it))
         }
     }